@@ -0,0 +1,9 @@
+package com.quickstarts.kitchensink.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdminQueueStreamProperties.class)
+public class AdminQueueStreamConfig {
+}
@@ -0,0 +1,45 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.admin.queue-stream")
+public class AdminQueueStreamProperties {
+
+    /**
+     * Watches {@code member_change_requests} with one change stream per node and pushes it to the admin pages.
+     * Change streams need a replica set; against a standalone server the stream stays empty and pages fall back
+     * to reloading.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Events held for one slow admin session. When it overflows the backlog is dropped and the session is told
+     * to reload, so one stalled browser never holds up the shared cursor.
+     */
+    private int subscriberBuffer = 256;
+
+    /**
+     * Recent events kept to replay to a browser that reconnects with {@code Last-Event-ID}; a reconnect from
+     * further back is told to reload.
+     */
+    private int replayBuffer = 1_000;
+
+    /**
+     * Comment lines sent this often keep idle connections open through proxies and find closed ones.
+     */
+    private Duration heartbeat = Duration.ofSeconds(20);
+
+    /**
+     * How long one SSE connection lives; the browser reconnects by itself with its last event id.
+     */
+    private Duration sessionTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Wait before reopening the change stream after it failed.
+     */
+    private Duration restartBackoff = Duration.ofSeconds(5);
+}
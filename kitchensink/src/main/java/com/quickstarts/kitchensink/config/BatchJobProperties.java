@@ -0,0 +1,20 @@
+package com.quickstarts.kitchensink.config;
+
+import java.time.Duration;
+
+/**
+ * The settings of a scheduled job that works through a collection in batches.
+ */
+public interface BatchJobProperties {
+
+    int getBatchSize();
+
+    int getMaxBatchesPerRun();
+
+    Duration getPauseBetweenBatches();
+
+    /**
+     * How long a run keeps the job's lease from its start; other nodes skip the job until then.
+     */
+    Duration getLease();
+}
@@ -0,0 +1,26 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "app.member.bulk")
+public class BulkImportProperties {
+
+    /**
+     * Rows validated, duplicate-checked and written per round trip. Bounds memory per chunk and the
+     * size of the {@code $in} duplicate lookups.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Requests with more rows are cut off; the report marks the rows that were not read.
+     */
+    private int maxRows = 100_000;
+
+    /**
+     * Imports processed concurrently, and how many more may wait; further uploads get 503.
+     */
+    private int importThreads = 2;
+    private int importQueueCapacity = 4;
+}
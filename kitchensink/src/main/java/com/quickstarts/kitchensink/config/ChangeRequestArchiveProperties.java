@@ -0,0 +1,46 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.admin.archive")
+public class ChangeRequestArchiveProperties implements BatchJobProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a reviewed request stays in {@code member_change_requests} before it is moved to the archive.
+     */
+    private Duration archiveAfter = Duration.ofDays(30);
+
+    /**
+     * How long archived requests are kept; unset keeps them forever. Changing it adjusts the TTL index on the
+     * next run, without a rebuild.
+     */
+    private Duration retention;
+
+    /**
+     * When the archiver runs (server time).
+     */
+    private String cron = "0 0 4 * * *";
+
+    /**
+     * Requests moved per batch, and the most batches one run may take; whatever is left waits for the next run.
+     */
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 200;
+
+    /**
+     * Pause between batches, giving replication room to keep up.
+     */
+    private Duration pauseBetweenBatches = Duration.ofMillis(200);
+
+    /**
+     * How long an archiving run keeps the other nodes off the job, counted from its start. A run outlasting it
+     * may meet another node's; the copies both insert are recognised by their duplicate {@code _id}.
+     */
+    private Duration lease = Duration.ofHours(1);
+}
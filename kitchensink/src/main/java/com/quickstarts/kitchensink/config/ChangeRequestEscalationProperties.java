@@ -0,0 +1,39 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.admin.escalation")
+public class ChangeRequestEscalationProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * A request still PENDING this long after it was submitted is escalated to the admin, once.
+     */
+    private Duration staleAfter = Duration.ofDays(2);
+
+    /**
+     * How often the escalation runs, on whichever node takes the lease; the others skip until the next one is due.
+     */
+    private Duration interval = Duration.ofMinutes(15);
+
+    /**
+     * How long one run may hold the lease; a node that dies mid-run keeps the others off for at most this long.
+     */
+    private Duration lease = Duration.ofMinutes(5);
+
+    /**
+     * Requests read per index range scan, and the most scans one run may take; the rest wait for the next run.
+     */
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 20;
+
+    /**
+     * Requests listed in the notification, oldest first; it gives the count of the others.
+     */
+    private int maxListed = 50;
+}
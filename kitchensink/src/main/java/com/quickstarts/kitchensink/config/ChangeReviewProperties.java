@@ -0,0 +1,28 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.admin.review")
+public class ChangeReviewProperties {
+
+    /**
+     * Requests handled by one bulk approve / reject call; the report says when more were selected.
+     */
+    private int maxBulkItems = 5_000;
+
+    /**
+     * Requests whose members and logins are loaded with one {@code $in} and written with one bulk write.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * An approval still IN_REVIEW this long after it was claimed is assumed abandoned; the sweeper, running
+     * every {@code sweepInterval}, finishes applying it.
+     */
+    private Duration claimTimeout = Duration.ofMinutes(5);
+    private Duration sweepInterval = Duration.ofMinutes(1);
+}
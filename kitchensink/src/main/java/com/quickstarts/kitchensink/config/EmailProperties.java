@@ -35,6 +35,12 @@ public class EmailProperties {
      */
     private String loginUrl = "http://localhost:8080/auth/login";
 
+    /**
+     * Threads sending queued mails, and how many mails may wait before the enqueuing thread sends inline.
+     */
+    private int senderThreads = 2;
+    private int queueCapacity = 100_000;
+
     public enum NotifyMode { REPO, STATIC }
 }
 
@@ -0,0 +1,32 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * When off, the {@code Idempotency-Key} header is ignored and every request runs.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a completed response is replayed; should outlast the gateway's retry horizon.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * A key still IN_PROGRESS after this long is assumed to belong to a crashed request and may be taken over.
+     */
+    private Duration lockTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Completed responses kept in memory so that retries landing on the same node skip the Mongo lookup.
+     */
+    private int cacheMaxEntries = 10_000;
+    private Duration cacheTtl = Duration.ofMinutes(10);
+}
@@ -0,0 +1,50 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Data
+@ConfigurationProperties(prefix = "app.jwt")
+public class JwtProperties {
+
+    /**
+     * Lifetime of the signed access token. Kept short because the API filter trusts its claims
+     * (roles, token version) without reading the user back from Mongo.
+     */
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    /**
+     * Lifetime of an opaque refresh token. Every refresh rotates it, so this bounds idle sessions only.
+     */
+    private Duration refreshTokenTtl = Duration.ofDays(14);
+
+    /**
+     * How often each node replaces its RS256 signing key. Previous public keys stay published until every
+     * token they signed has expired, so rotation needs no coordination between nodes.
+     */
+    private Duration keyRotationInterval = Duration.ofDays(1);
+
+    /**
+     * How often public keys published by other nodes are re-read; unknown {@code kid}s are also looked up on demand.
+     */
+    private Duration keyRefreshInterval = Duration.ofMinutes(1);
+
+    /**
+     * At most one on-demand lookup of an unknown {@code kid} per interval, across all kids; the rest are rejected
+     * without touching Mongo.
+     */
+    private Duration unknownKidLookupInterval = Duration.ofSeconds(1);
+
+    private int rsaKeySize = 2048;
+
+    /**
+     * HS256 tokens without a {@code kid}, issued before the key ring, are verified with {@code legacyHs256Secret}
+     * until this instant and rejected after it; unset (the default) rejects them outright. Those tokens lived
+     * 30 minutes, so the deploy time plus that is enough.
+     */
+    private Instant acceptLegacyUntil;
+    private String legacyHs256Secret;
+}
@@ -0,0 +1,38 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.login-throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Sliding window over which failed attempts are counted, and how many buckets it is split into.
+     */
+    private Duration window = Duration.ofMinutes(15);
+    private int buckets = 15;
+
+    /**
+     * Failed attempts tolerated inside the window before the username / client IP is blocked.
+     * The IP limit is higher because many users can share an egress address.
+     */
+    private int maxFailuresPerUser = 5;
+    private int maxFailuresPerIp = 50;
+
+    /**
+     * First block lasts {@code baseBlock}; each further block for the same key doubles it, up to {@code maxBlock}.
+     */
+    private Duration baseBlock = Duration.ofMinutes(1);
+    private Duration maxBlock = Duration.ofHours(1);
+
+    /**
+     * Upper bound on tracked usernames / IPs per scope, so a spray of random usernames cannot exhaust memory.
+     * When it is reached the keys with the oldest last failure are evicted to make room.
+     */
+    private int maxTrackedKeys = 100_000;
+}
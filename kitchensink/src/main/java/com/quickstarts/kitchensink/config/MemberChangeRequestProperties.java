@@ -0,0 +1,69 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.member.change-requests")
+public class MemberChangeRequestProperties {
+
+    public enum PendingUpdateMode {
+        /**
+         * A new profile update replaces the member's pending one in place; the queue keeps its position.
+         */
+        SUPERSEDE,
+        /**
+         * A new profile update is refused while one is pending, like a delete request.
+         */
+        REJECT
+    }
+
+    /**
+     * What a profile update does when the member already has a pending update. The form always sends the
+     * whole profile, so replacing the pending values merges both submissions.
+     */
+    private PendingUpdateMode pendingUpdate = PendingUpdateMode.SUPERSEDE;
+
+    /**
+     * Profile updates every changed field of which is allowed by a rule are applied at once, without a review.
+     */
+    private AutoApproval autoApproval = new AutoApproval();
+
+    @Data
+    public static class AutoApproval {
+
+        private boolean enabled = true;
+        private List<Rule> rules = new ArrayList<>();
+    }
+
+    public enum Condition {
+        /**
+         * The new text differs from the old one in letter case or spacing only.
+         */
+        CASE_ONLY,
+        /**
+         * The new number is at most {@code maxDelta} away from the old one.
+         */
+        MAX_DELTA,
+        /**
+         * Any new value.
+         */
+        ANY
+    }
+
+    /**
+     * Allows one kind of change to one field: {@code name}, {@code email}, {@code phoneNumber}, {@code age}
+     * or {@code place}. Checked when the application starts.
+     */
+    @Data
+    public static class Rule {
+
+        private String name;
+        private String field;
+        private Condition condition;
+        private Integer maxDelta;
+    }
+}
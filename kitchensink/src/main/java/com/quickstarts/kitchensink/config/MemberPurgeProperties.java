@@ -0,0 +1,39 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.member.purge")
+public class MemberPurgeProperties implements BatchJobProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a deleted member stays restorable before the purger removes it for good.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * When the purger runs (server time); pick a quiet hour so the index removals do not compete with traffic.
+     */
+    private String cron = "0 30 3 * * *";
+
+    /**
+     * Members removed per batch, and the most batches one run may take; whatever is left waits for the next run.
+     */
+    private int batchSize = 500;
+    private int maxBatchesPerRun = 200;
+
+    /**
+     * Pause between batches, giving replication and the index builds room to keep up.
+     */
+    private Duration pauseBetweenBatches = Duration.ofMillis(200);
+
+    /**
+     * How long a purge keeps the other nodes off the job, counted from its start; keep it above the longest run.
+     */
+    private Duration lease = Duration.ofHours(1);
+}
@@ -0,0 +1,23 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.member.write-retry")
+public class MemberWriteRetryProperties {
+
+    /**
+     * Attempts per write, the first one included; the last version conflict is returned to the caller as 409.
+     */
+    private int maxAttempts = 4;
+
+    /**
+     * Backoff before retry n is a random duration between zero and {@code initialBackoff × 2^(n-1)}, capped at
+     * {@code maxBackoff}, so writers that collided do not collide again in lockstep.
+     */
+    private Duration initialBackoff = Duration.ofMillis(10);
+    private Duration maxBackoff = Duration.ofMillis(200);
+}
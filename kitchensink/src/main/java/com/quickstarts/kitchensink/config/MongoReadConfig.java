@@ -0,0 +1,34 @@
+package com.quickstarts.kitchensink.config;
+
+import com.mongodb.ReadPreference;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+@Configuration
+@EnableConfigurationProperties(MongoReadProperties.class)
+public class MongoReadConfig {
+
+    /**
+     * The secondary template shares the client, factory and converter of the default one and is deliberately
+     * not a bean, so everything injecting {@code MongoTemplate} keeps reading from and writing to the primary.
+     * Against a standalone server {@code secondaryPreferred} simply reads from that server.
+     */
+    @Bean
+    public MongoReadRouter mongoReadRouter(final MongoTemplate mongoTemplate,
+                                           final MongoDatabaseFactory factory,
+                                           final MongoConverter converter,
+                                           final MongoReadProperties props) {
+        if (!props.isSecondaryEnabled()) {
+            return MongoReadRouter.primaryOnly(mongoTemplate);
+        }
+        final var secondary = new MongoTemplate(factory, converter);
+        secondary.setReadPreference(ReadPreference.secondaryPreferred(props.getMaxStaleness().toSeconds(), SECONDS));
+        return new MongoReadRouter(mongoTemplate, secondary, props.getSecondaryOperations());
+    }
+}
@@ -0,0 +1,30 @@
+package com.quickstarts.kitchensink.config;
+
+import com.quickstarts.kitchensink.config.MongoReadRouter.ReadOperation;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "app.mongo.reads")
+public class MongoReadProperties {
+
+    /**
+     * Send the operations below to secondaries. When off every read goes to the primary.
+     */
+    private boolean secondaryEnabled = true;
+
+    /**
+     * Secondaries estimated to lag the primary by more than this are not read from; MongoDB requires at
+     * least 90 seconds.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(90);
+
+    /**
+     * Read operations that tolerate replication lag.
+     */
+    private Set<ReadOperation> secondaryOperations = EnumSet.of(ReadOperation.SEARCH, ReadOperation.EXPORT);
+}
@@ -0,0 +1,35 @@
+package com.quickstarts.kitchensink.config;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Set;
+
+/**
+ * Picks the template a read goes through. Operations that tolerate replication lag use a template whose
+ * read preference is {@code secondaryPreferred} with a max-staleness bound, so exports and admin searches
+ * stop competing with writes on the primary; a {@code fresh} read always goes to the primary.
+ */
+public class MongoReadRouter {
+
+    public enum ReadOperation { SEARCH, EXPORT }
+
+    private final MongoTemplate primary;
+    private final MongoTemplate secondary;
+    private final Set<ReadOperation> secondaryOperations;
+
+    public MongoReadRouter(final MongoTemplate primary,
+                           final MongoTemplate secondary,
+                           final Set<ReadOperation> secondaryOperations) {
+        this.primary = primary;
+        this.secondary = secondary;
+        this.secondaryOperations = Set.copyOf(secondaryOperations);
+    }
+
+    public static MongoReadRouter primaryOnly(final MongoTemplate primary) {
+        return new MongoReadRouter(primary, primary, Set.of());
+    }
+
+    public MongoTemplate forRead(final ReadOperation operation, final boolean fresh) {
+        return fresh || !secondaryOperations.contains(operation) ? primary : secondary;
+    }
+}
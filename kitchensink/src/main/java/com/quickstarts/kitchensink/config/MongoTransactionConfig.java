@@ -0,0 +1,136 @@
+package com.quickstarts.kitchensink.config;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.TransactionOptions;
+import com.mongodb.WriteConcern;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Backs {@code @Transactional} with Mongo transactions, so a member and its login are written or removed
+ * together. Transactions need a replica set (a single-node one is enough) or a sharded cluster; against a
+ * standalone server the annotation only drives after-commit callbacks and the services compensate by hand.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(MongoTransactionProperties.class)
+public class MongoTransactionConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(final MongoDatabaseFactory factory,
+                                                         final MongoTransactionProperties props) {
+        if (!props.isEnabled()) {
+            log.info("Mongo transactions disabled by configuration");
+            return new NonTransactionalManager();
+        }
+        return new TopologyAwareTransactionManager(factory, props);
+    }
+
+    static boolean supportsTransactions(final MongoDatabaseFactory factory) {
+        final var hello = factory.getMongoDatabase("admin").runCommand(new Document("hello", 1));
+        return hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+    }
+
+    /**
+     * Decides on the first transaction, not at startup, whether the server can run transactions, so startup
+     * neither waits for the server nor guesses when it is unreachable. Until the topology could be checked,
+     * every transaction tries again and fails with {@link CannotCreateTransactionException}, as its writes
+     * would; after that, every transaction goes to the manager the check picked.
+     */
+    static final class TopologyAwareTransactionManager implements PlatformTransactionManager {
+
+        private final MongoDatabaseFactory factory;
+        private final MongoTransactionProperties props;
+        private volatile PlatformTransactionManager delegate;
+
+        TopologyAwareTransactionManager(final MongoDatabaseFactory factory, final MongoTransactionProperties props) {
+            this.factory = factory;
+            this.props = props;
+        }
+
+        @Override
+        public TransactionStatus getTransaction(final TransactionDefinition definition) {
+            return resolved().getTransaction(definition);
+        }
+
+        @Override
+        public void commit(final TransactionStatus status) {
+            delegate.commit(status);
+        }
+
+        @Override
+        public void rollback(final TransactionStatus status) {
+            delegate.rollback(status);
+        }
+
+        PlatformTransactionManager resolved() {
+            var resolved = delegate;
+            if (resolved != null) return resolved;
+            synchronized (this) {
+                if (delegate == null) {
+                    delegate = choose();
+                }
+                return delegate;
+            }
+        }
+
+        private PlatformTransactionManager choose() {
+            final boolean supported;
+            try {
+                supported = supportsTransactions(factory);
+            } catch (RuntimeException e) {
+                throw new CannotCreateTransactionException("Could not check whether Mongo supports transactions", e);
+            }
+            if (!supported) {
+                log.warn("Mongo server is standalone; member/user writes are not atomic. Run it as a replica set "
+                        + "(mongod --replSet) or set app.mongo.transactions.enabled=false to silence this.");
+                return new NonTransactionalManager();
+            }
+            return new MongoTransactionManager(factory, TransactionOptions.builder()
+                    .readConcern(ReadConcern.MAJORITY)
+                    .writeConcern(WriteConcern.MAJORITY)
+                    .maxCommitTime(props.getMaxCommitTime().toMillis(), MILLISECONDS)
+                    .build());
+        }
+    }
+
+    /**
+     * Runs the method without a transaction but keeps synchronization active, so after-commit callbacks fire
+     * and {@code isActualTransactionActive()} is false for callers that compensate themselves.
+     */
+    static final class NonTransactionalManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return null;
+        }
+
+        @Override
+        protected void doBegin(final Object transaction, final TransactionDefinition definition) {
+            // nothing to begin
+        }
+
+        @Override
+        protected void doCommit(final DefaultTransactionStatus status) {
+            // nothing to commit
+        }
+
+        @Override
+        protected void doRollback(final DefaultTransactionStatus status) {
+            // nothing to roll back
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.mongo.transactions")
+public class MongoTransactionProperties {
+
+    /**
+     * Run {@code @Transactional} methods in Mongo multi-document transactions. Only honoured when the server
+     * is a replica set or sharded cluster; a standalone server falls back to compensating writes.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upper bound for the commit itself; a commit still waiting for a majority after this is reported as failed.
+     */
+    private Duration maxCommitTime = Duration.ofSeconds(10);
+}
@@ -0,0 +1,30 @@
+package com.quickstarts.kitchensink.config;
+
+import com.quickstarts.kitchensink.utils.BCryptCostCalibrator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
+public class PasswordEncoderConfig {
+
+    private static final String BCRYPT = "bcrypt";
+
+    @Bean
+    public PooledPasswordEncoder passwordEncoder(final PasswordHashingProperties props) {
+        final var strength = BCryptCostCalibrator.calibrate(
+                props.getTargetHashTime(), props.getMinStrength(), props.getMaxStrength());
+
+        final var delegating = new DelegatingPasswordEncoder(BCRYPT,
+                Map.of(BCRYPT, new BCryptPasswordEncoder(strength)));
+        // hashes stored before the {bcrypt} prefix still verify, and get upgraded on next login
+        delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+        return new PooledPasswordEncoder(delegating, props.getPoolSize(), props.getQueueCapacity(), props.getTimeout());
+    }
+}
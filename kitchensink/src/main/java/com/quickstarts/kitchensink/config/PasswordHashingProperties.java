@@ -0,0 +1,36 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.security.password")
+public class PasswordHashingProperties {
+    /**
+     * Wall-clock time one BCrypt hash should take on this hardware; the cost factor is calibrated to it at startup.
+     */
+    private Duration targetHashTime = Duration.ofMillis(100);
+
+    /**
+     * Lower/upper bounds for the calibrated BCrypt cost factor.
+     */
+    private int minStrength = 10;
+    private int maxStrength = 14;
+
+    /**
+     * Threads dedicated to hashing. Defaults to half the available cores so request handling keeps the rest.
+     */
+    private int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Hash jobs allowed to wait for a thread; beyond this callers get 503 instead of queueing CPU work.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * How long a request thread waits for its hash before giving up.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,117 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Runs the (deliberately slow) delegate encoder on a small bounded pool, so a burst of logins or
+ * registrations can only occupy {@code poolSize} cores; once the queue is full callers fail fast with 503.
+ */
+@Slf4j
+public class PooledPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public PooledPasswordEncoder(final PasswordEncoder delegate,
+                                 final int poolSize,
+                                 final int queueCapacity,
+                                 final Duration timeout) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        final var threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    final var thread = new Thread(r, "pwd-hash-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        return await(submit(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Lets callers overlap hashing with other I/O (or hash many passwords in parallel).
+     */
+    public CompletableFuture<String> encodeAsync(final CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Hashes a batch in parallel while keeping at most {@code poolSize} of its jobs queued, so interactive
+     * logins still find room in the queue. If the queue is full anyway, the caller hashes inline.
+     */
+    public List<String> encodeAll(final List<? extends CharSequence> rawPasswords) {
+        final var inFlight = new Semaphore(executor.getCorePoolSize());
+        final var futures = new ArrayList<CompletableFuture<String>>(rawPasswords.size());
+        for (final var rawPassword : rawPasswords) {
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<String> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> delegate.encode(rawPassword), executor);
+            } catch (RejectedExecutionException e) {
+                future = CompletableFuture.completedFuture(delegate.encode(rawPassword));
+            }
+            futures.add(future.whenComplete((hash, failure) -> inFlight.release()));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(final Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("password hashing pool saturated (queue={})", executor.getQueue().size());
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Too many concurrent sign-ins, please retry");
+        }
+    }
+
+    private <T> T await(final CompletableFuture<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Password hashing timed out, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.quickstarts.kitchensink.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.member.provisioning")
+public class ProvisioningProperties {
+
+    /**
+     * Registration returns once the member is inserted; the login and welcome mail are created by the
+     * provisioning workers. When off, both happen on the request thread as before.
+     */
+    private boolean async = true;
+
+    /**
+     * Members provisioned at once. Workers are virtual threads; BCrypt itself is bounded by the hashing pool.
+     */
+    private int concurrency = 16;
+
+    /**
+     * How often outstanding tasks are picked up (retries, and tasks of a node that went away), and how many
+     * per sweep.
+     */
+    private Duration sweepInterval = Duration.ofSeconds(10);
+    private int sweepBatchSize = 100;
+
+    /**
+     * A task claimed longer ago than this is assumed abandoned and claimed again.
+     */
+    private Duration claimTimeout = Duration.ofMinutes(2);
+
+    /**
+     * Failed attempts are retried after {@code retryBackoff × attempt}; after {@code maxAttempts} the task is FAILED.
+     */
+    private int maxAttempts = 5;
+    private Duration retryBackoff = Duration.ofSeconds(30);
+}
@@ -1,10 +1,13 @@
 package com.quickstarts.kitchensink.config;
 
 import com.quickstarts.kitchensink.filter.JwtAuthFilter;
+import com.quickstarts.kitchensink.filter.LoginThrottleFilter;
+import com.quickstarts.kitchensink.service.LoginThrottleService;
 import com.quickstarts.kitchensink.service.UserInfoUserDetailsService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -17,8 +20,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
@@ -35,6 +38,7 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 @EnableWebSecurity
 @EnableMethodSecurity
 @AllArgsConstructor
+@EnableConfigurationProperties({LoginThrottleProperties.class, JwtProperties.class})
 public class SecurityConfig {
 
     @Autowired
@@ -52,15 +56,15 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(final PasswordEncoder passwordEncoder) {
         final var authenticationProvider = new DaoAuthenticationProvider();
-        authenticationProvider.setUserDetailsService(userDetailsService());
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        final var userDetailsService = userDetailsService();
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        if (userDetailsService instanceof UserDetailsPasswordService passwordService) {
+            // re-hash with the current cost factor after a successful login
+            authenticationProvider.setUserDetailsPasswordService(passwordService);
+        }
         return authenticationProvider;
     }
 
@@ -133,8 +137,10 @@ public class SecurityConfig {
     // ===== WEB CHAIN (form login, sessions) =====
     @Bean
     @Order(2)
-    public SecurityFilterChain webChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain webChain(HttpSecurity http, LoginThrottleService loginThrottleService) throws Exception {
         http // keep CSRF ON, but ignore it for exactly this bootstrap endpoint
+                // blocked usernames / IPs never reach the user lookup or BCrypt
+                .addFilterBefore(new LoginThrottleFilter(loginThrottleService), UsernamePasswordAuthenticationFilter.class)
                 .csrf(AbstractHttpConfigurer::disable)
                 // CSRF ON by default -> good for form posts
                 .authorizeHttpRequests(auth -> auth
@@ -142,6 +148,7 @@ public class SecurityConfig {
                                 "/css/**", "/js/**", "/assets/**", "/default-ui.css").permitAll()
                         .requestMatchers("/login").permitAll()
                         .requestMatchers("/auth/admin-gate").permitAll()
+                        .requestMatchers("/.well-known/**").permitAll()
                         //.requestMatchers("/member/register").authenticated()
                         .requestMatchers("/reset-password", "/reset-password/**").authenticated()
                         .requestMatchers("/index.html").authenticated()
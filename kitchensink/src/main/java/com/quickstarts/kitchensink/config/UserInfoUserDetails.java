@@ -7,6 +7,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public class UserInfoUserDetails implements UserDetails {
 
@@ -20,6 +21,17 @@ public class UserInfoUserDetails implements UserDetails {
                 .toList();
     }
 
+    /**
+     * Principal rebuilt from access-token claims; carries no password and never reaches the database.
+     */
+    public static UserInfoUserDetails fromClaims(final String userName, final Collection<String> roles, final long tokenVersion) {
+        return new UserInfoUserDetails(UserInfo.builder()
+                .userName(userName)
+                .roles(Set.copyOf(roles))
+                .tokenVersion(tokenVersion)
+                .build());
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -29,6 +41,10 @@ public class UserInfoUserDetails implements UserDetails {
         return user.isMustChangePassword();
     }
 
+    public long getTokenVersion() {
+        return user.getTokenVersion();
+    }
+
     @Override
     public String getPassword() {
         return user.getPassword();
@@ -4,6 +4,7 @@ public class Constants {
     public static final String EXPORT_EXCEL_SHEET_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
     public static final String FORMAT_CSV = "csv";
     public static final String FORMAT_XLSX = "xlsx";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private Constants() {
         //private constructor
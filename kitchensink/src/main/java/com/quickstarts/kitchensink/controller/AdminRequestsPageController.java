@@ -1,14 +1,14 @@
 package com.quickstarts.kitchensink.controller;
 
-import com.quickstarts.kitchensink.repo.MemberChangeRequestRepository;
-import com.quickstarts.kitchensink.service.MemberChangeRequestService;
+import com.quickstarts.kitchensink.service.PendingRequestQueueService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
-import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
+import static com.quickstarts.kitchensink.service.PendingRequestQueueService.DEFAULT_PAGE_SIZE;
 
 
 @Controller
@@ -17,13 +17,16 @@ import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
 @RequiredArgsConstructor
 public class AdminRequestsPageController {
 
-    private final MemberChangeRequestRepository reqRepo;
-    private final MemberChangeRequestService changeService;
+    private final PendingRequestQueueService queueService;
 
     @GetMapping
-    public String page(Model model) {
-        model.addAttribute("pending", reqRepo.findByStatusOrderBySubmittedAtAsc(PENDING));
+    public String page(@RequestParam(required = false) final String after,
+                       @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) final int size,
+                       final Model model) {
+        final var page = queueService.pending(after, size);
+        model.addAttribute("pending", page.items());
+        model.addAttribute("nextCursor", page.nextCursor());
+        model.addAttribute("firstPage", after == null || after.isBlank());
         return "admin-requests";
     }
 }
-
@@ -2,15 +2,22 @@ package com.quickstarts.kitchensink.controller;
 
 import com.quickstarts.kitchensink.config.UserInfoUserDetails;
 import com.quickstarts.kitchensink.dto.AuthRequest;
+import com.quickstarts.kitchensink.dto.RefreshRequest;
+import com.quickstarts.kitchensink.dto.TokenResponse;
 import com.quickstarts.kitchensink.service.JwtService;
+import com.quickstarts.kitchensink.service.LoginThrottleService;
+import com.quickstarts.kitchensink.service.RefreshTokenService;
 import com.quickstarts.kitchensink.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -25,18 +32,52 @@ public class AuthController {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
+    private final LoginThrottleService loginThrottleService;
+    private final RefreshTokenService refreshTokenService;
 
     @PostMapping("/authenticate")
-    public String authenticateAndGetToken(@RequestBody AuthRequest authRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(authRequest.username(), authRequest.password()));
+    public String authenticateAndGetToken(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        Authentication authentication = authenticate(authRequest, request);
         if (authentication.isAuthenticated()) {
-            return jwtService.generateToken(authRequest.username());
+            final var tokenVersion = authentication.getPrincipal() instanceof UserInfoUserDetails user
+                    ? user.getTokenVersion() : 0L;
+            return jwtService.generateToken(authRequest.username(), tokenVersion);
         } else {
             throw new UsernameNotFoundException("invalid user request !");
         }
     }
 
+    /**
+     * Logs in and returns a short-lived access token plus a rotating refresh token.
+     */
+    @PostMapping("/auth/token")
+    public TokenResponse issueTokens(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        final var authentication = authenticate(authRequest, request);
+        if (!(authentication.getPrincipal() instanceof UserInfoUserDetails user)) {
+            throw new UsernameNotFoundException("invalid user request !");
+        }
+        return refreshTokenService.issue(user);
+    }
+
+    @PostMapping("/auth/refresh")
+    public TokenResponse refresh(@RequestBody RefreshRequest refreshRequest) {
+        return refreshTokenService.refresh(refreshRequest.refreshToken());
+    }
+
+    @PostMapping("/auth/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshRequest refreshRequest) {
+        refreshTokenService.logout(refreshRequest.refreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
+    private Authentication authenticate(final AuthRequest authRequest, final HttpServletRequest request) {
+        loginThrottleService.check(authRequest.username(), request.getRemoteAddr());
+        final var authRequestToken = new UsernamePasswordAuthenticationToken(authRequest.username(), authRequest.password());
+        // carries the client IP to the failure listener
+        authRequestToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        return authenticationManager.authenticate(authRequestToken);
+    }
+
     @PostMapping("/reset-password")
     public RedirectView doReset(@AuthenticationPrincipal final UserInfoUserDetails me,
                           @RequestParam final String newPassword,
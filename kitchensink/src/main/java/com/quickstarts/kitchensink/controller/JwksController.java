@@ -0,0 +1,50 @@
+package com.quickstarts.kitchensink.controller;
+
+import com.quickstarts.kitchensink.service.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the verification keys so other services can check our tokens locally.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, String>>>> jwks() {
+        final var keys = keyRing.activeKeys().entrySet().stream()
+                .map(e -> Map.of(
+                        "kty", "RSA",
+                        "use", "sig",
+                        "alg", JwtKeyRing.ALGORITHM,
+                        "kid", e.getKey(),
+                        "n", base64Url(e.getValue().getModulus()),
+                        "e", base64Url(e.getValue().getPublicExponent())))
+                .toList();
+        // short enough that verifiers notice a rotated key well before the old one retires
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", keys));
+    }
+
+    private static String base64Url(final BigInteger value) {
+        var bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length); // JWK wants the unsigned big-endian form
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,22 +1,30 @@
 package com.quickstarts.kitchensink.controller;
 
-import com.quickstarts.kitchensink.model.MemberChangeRequest;
-import com.quickstarts.kitchensink.repo.MemberChangeRequestRepository;
-import com.quickstarts.kitchensink.repo.MemberRepository;
-import com.quickstarts.kitchensink.repo.UserInfoRepository;
-import com.quickstarts.kitchensink.service.EmailService;
+import com.quickstarts.kitchensink.dto.BulkReviewReport;
+import com.quickstarts.kitchensink.dto.BulkReviewRequest;
+import com.quickstarts.kitchensink.dto.ChangeRequestHistoryItem;
+import com.quickstarts.kitchensink.dto.PendingRequestPage;
+import com.quickstarts.kitchensink.dto.QueueStats;
+import com.quickstarts.kitchensink.service.AdminQueueStreamService;
+import com.quickstarts.kitchensink.service.ChangeRequestHistoryService;
+import com.quickstarts.kitchensink.service.ChangeRequestReviewService;
+import com.quickstarts.kitchensink.service.ChangeRequestStatsService;
+import com.quickstarts.kitchensink.service.PendingRequestQueueService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import static com.quickstarts.kitchensink.dto.enums.ChangeType.UPDATE;
-import static com.quickstarts.kitchensink.dto.enums.Status.*;
+import java.util.List;
+
+import static com.quickstarts.kitchensink.service.ChangeRequestHistoryService.DEFAULT_LIMIT;
+import static com.quickstarts.kitchensink.service.ChangeRequestStatsService.DEFAULT_DAYS;
+import static com.quickstarts.kitchensink.service.PendingRequestQueueService.DEFAULT_PAGE_SIZE;
 import static java.net.URI.create;
-import static java.time.Instant.now;
-import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.SEE_OTHER;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 import static org.springframework.http.ResponseEntity.status;
 
 @RestController
@@ -26,74 +34,74 @@ import static org.springframework.http.ResponseEntity.status;
 public class MemberChangeAdminController {
 
     private static final String ADMIN_REQUESTS = "/admin/requests";
-    private final MemberChangeRequestRepository memberChangeRequestRepository;
-    private final MemberRepository memberRepo;
-    private final UserInfoRepository userRepo;
-    private final EmailService emailService;
+    private final PendingRequestQueueService queueService;
+    private final ChangeRequestReviewService reviewService;
+    private final AdminQueueStreamService streamService;
+    private final ChangeRequestHistoryService historyService;
+    private final ChangeRequestStatsService statsService;
 
     private static ResponseEntity<Void> seeOther(final String path) {
         return status(SEE_OTHER).location(create(path)).build();
     }
 
-    @PostMapping("/{id}/approve")
-    public ResponseEntity<Void> approve(@PathVariable final String id) {
-        doApprove(id);
-        return seeOther(ADMIN_REQUESTS);
+    /**
+     * The pending queue as JSON, oldest first; follow {@code nextCursor} for the next page.
+     */
+    @GetMapping(path = "/pending", produces = APPLICATION_JSON_VALUE)
+    public PendingRequestPage pending(@RequestParam(required = false) final String after,
+                                      @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) final int size) {
+        return queueService.pending(after, size);
     }
 
-    @PostMapping("/{id}/reject")
-    public ResponseEntity<Void> reject(@PathVariable final String id,
-                                       @RequestParam(required = false) final String reason) {
-        doReject(id, reason);
-        return seeOther("/admin/requests");
+    /**
+     * Backlog by type and age, and approvals, rejections and review time per admin over the last {@code days}.
+     */
+    @GetMapping(path = "/stats", produces = APPLICATION_JSON_VALUE)
+    public QueueStats stats(@RequestParam(defaultValue = "" + DEFAULT_DAYS) final int days) {
+        return statsService.stats(days);
+    }
+
+    /**
+     * A member's requests newest first, archived ones included.
+     */
+    @GetMapping(path = "/history", produces = APPLICATION_JSON_VALUE)
+    public List<ChangeRequestHistoryItem> history(@RequestParam final String memberId,
+                                                  @RequestParam(defaultValue = "" + DEFAULT_LIMIT) final int limit) {
+        return historyService.history(memberId, limit);
     }
 
-    private void doApprove(final String memberId) {
-        final var memberChangeRequest = memberChangeRequestRepository.findById(memberId).orElseThrow();
-        final var memberEmail = memberChangeRequest.getMemberEmail();
-        if (memberChangeRequest.getStatus() != PENDING) {
-            throw new ResponseStatusException(CONFLICT, "Not pending");
-        }
+    /**
+     * Queue changes as server-sent events: {@code submitted}, {@code status}, {@code removed}, and
+     * {@code resync} when the page should reload. Browsers reconnect with {@code Last-Event-ID} by themselves.
+     */
+    @GetMapping(path = "/stream", produces = TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) final String lastEventId) {
+        return streamService.subscribe(lastEventId);
+    }
+
+    /**
+     * Approves the listed requests, or the pending ones matching the filter; one outcome per request.
+     */
+    @PostMapping(path = "/bulk/approve", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public BulkReviewReport approveAll(@RequestBody final BulkReviewRequest request) {
+        return reviewService.approve(request);
+    }
 
-        if (memberChangeRequest.getType() == UPDATE) {
-            final var member = memberRepo.findById(memberChangeRequest.getMemberId()).orElseThrow();
-            final var memberUpdateDTO = memberChangeRequest.getRequested();
-            if (memberUpdateDTO.name() != null) member.setName(memberUpdateDTO.name());
-            if (memberUpdateDTO.phoneNumber() != null) member.setPhoneNumber(memberUpdateDTO.phoneNumber());
-            if (memberUpdateDTO.age() != 0) member.setAge(memberUpdateDTO.age());
-            if (memberUpdateDTO.place() != null) member.setPlace(memberUpdateDTO.place());
-            if (memberUpdateDTO.email() != null) {
-                member.setEmail(memberUpdateDTO.email().trim().toLowerCase());
-                final var userInfo = userRepo.findByUserName(memberChangeRequest.getMemberEmail()).orElseThrow();
-                userInfo.setUserName(member.getEmail());
-                userRepo.save(userInfo);
-            }
-            memberRepo.save(member);
-            // Notify member (diff between before & requested)
-            emailService.notifyMemberUpdateApproved(memberEmail, memberChangeRequest);
-        } else {
-            // DELETE: remove login + member
-            // DELETE: send email first (we still have the address), then remove data
-            final var member = memberRepo.findById(memberChangeRequest.getMemberId()).orElse(null);
-            emailService.notifyMemberDeleteApproved(memberEmail, member != null ? member.getName() : null);
-            deleteUser(memberChangeRequest);
-            memberRepo.deleteById(memberChangeRequest.getMemberId());
-        }
-        memberChangeRequest.setStatus(APPROVED);
-        memberChangeRequest.setReviewedAt(now());
-        memberChangeRequestRepository.save(memberChangeRequest);
+    @PostMapping(path = "/bulk/reject", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public BulkReviewReport rejectAll(@RequestBody final BulkReviewRequest request) {
+        return reviewService.reject(request);
     }
 
-    private void doReject(final String memberId, final String reason) {
-        final var memberChangeRequest = memberChangeRequestRepository.findById(memberId).orElseThrow();
-        memberChangeRequest.setStatus(REJECTED);
-        memberChangeRequest.setRejectionReason(reason);
-        memberChangeRequest.setReviewedAt(now());
-        emailService.notifyMemberRejected(memberChangeRequest.getMemberEmail(), reason);
-        memberChangeRequestRepository.save(memberChangeRequest);
+    @PostMapping("/{id}/approve")
+    public ResponseEntity<Void> approve(@PathVariable final String id) {
+        reviewService.approveOne(id);
+        return seeOther(ADMIN_REQUESTS);
     }
 
-    private void deleteUser(final MemberChangeRequest memberChangeRequest) {
-        userRepo.findByUserName(memberChangeRequest.getMemberEmail()).ifPresent(userRepo::delete);
+    @PostMapping("/{id}/reject")
+    public ResponseEntity<Void> reject(@PathVariable final String id,
+                                       @RequestParam(required = false) final String reason) {
+        reviewService.rejectOne(id, reason);
+        return seeOther("/admin/requests");
     }
 }
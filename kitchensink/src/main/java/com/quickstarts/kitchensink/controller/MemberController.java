@@ -1,10 +1,16 @@
 package com.quickstarts.kitchensink.controller;
 
 import com.quickstarts.kitchensink.dto.*;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.service.BulkRegistrationService;
+import com.quickstarts.kitchensink.service.IdempotencyService;
 import com.quickstarts.kitchensink.service.MemberExportService;
+import com.quickstarts.kitchensink.service.MemberProvisioningService;
 import com.quickstarts.kitchensink.service.MemberQueryService;
 import com.quickstarts.kitchensink.service.MemberService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
@@ -17,7 +23,9 @@ import java.net.URI;
 
 import static com.quickstarts.kitchensink.constants.Constants.FORMAT_CSV;
 import static com.quickstarts.kitchensink.constants.Constants.FORMAT_XLSX;
+import static com.quickstarts.kitchensink.constants.Constants.IDEMPOTENCY_KEY_HEADER;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.http.ResponseEntity.*;
 
 @RestController
@@ -28,6 +36,10 @@ public class MemberController {
     private final MemberService memberService;
     private final MemberQueryService memberQueryService;
     private final MemberExportService exportService;
+    private final BulkRegistrationService bulkRegistrationService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyService idempotencyService;
+    private final MemberProvisioningService provisioningService;
 
     /**
      * Register a new member.
@@ -39,11 +51,30 @@ public class MemberController {
             produces = APPLICATION_JSON_VALUE
     )
     public ResponseEntity<CreateMemberResponseDTO> registerMember(
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
             @Valid @RequestBody final CreateMemberRequestDTO createMemberRequestDTO
     ) {
-        final var member = memberService.registerMember(createMemberRequestDTO);
-        final var memberResponseDTO = getMemberResponseDTO(member);
-        return created(buildMemberLocation(member.getId())).body(memberResponseDTO);
+        // a retried request with the same key gets the original response instead of registering again
+        final var memberResponseDTO = idempotencyService.execute("member.register", idempotencyKey,
+                createMemberRequestDTO, CreateMemberResponseDTO.class,
+                () -> getMemberResponseDTO(memberService.registerMember(createMemberRequestDTO)));
+        return created(buildMemberLocation(memberResponseDTO.memberId())).body(memberResponseDTO);
+    }
+
+    /**
+     * Register many members from a JSON array or NDJSON body. The body is streamed, so memory is bounded by
+     * the chunk size rather than the upload; the report has one result per row.
+     */
+    @PostMapping(
+            value = "/register/bulk",
+            consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE},
+            produces = APPLICATION_JSON_VALUE
+    )
+    public BulkRegistrationReport registerBulk(final HttpServletRequest request) throws IOException {
+        try (MappingIterator<CreateMemberRequestDTO> rows = objectMapper.readerFor(CreateMemberRequestDTO.class)
+                .readValues(request.getInputStream())) {
+            return bulkRegistrationService.register(rows);
+        }
     }
 
     @PutMapping(
@@ -60,6 +91,29 @@ public class MemberController {
         return ok(responseDTO);
     }
 
+    /**
+     * Partial update: only the fields present are written, guarded by `version`.
+     */
+    @PatchMapping(
+            value = "/{id}",
+            consumes = APPLICATION_JSON_VALUE,
+            produces = APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<MemberResponseDTO> patch(
+            @PathVariable final String id,
+            @Valid @RequestBody final MemberPatchRequest patchRequest
+    ) {
+        return ok(memberService.patch(id, patchRequest));
+    }
+
+    /**
+     * Whether the member's login has been created and the welcome mail sent (async registration).
+     */
+    @GetMapping(path = "/{id}/provisioning", produces = APPLICATION_JSON_VALUE)
+    public ProvisioningStatusResponse provisioningStatus(@PathVariable final String id) {
+        return provisioningService.status(id);
+    }
+
     @DeleteMapping("/{id}")
     //@PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> delete(@PathVariable final String id) {
@@ -67,6 +121,14 @@ public class MemberController {
         return noContent().build();
     }
 
+    /**
+     * Undoes a delete that has not been purged yet.
+     */
+    @PostMapping(path = "/{id}/restore", produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<MemberResponseDTO> restore(@PathVariable final String id) {
+        return ok(memberService.restore(id));
+    }
+
     @GetMapping(path = "/{id}", produces = APPLICATION_JSON_VALUE)
     public Member lookupMemberById(@PathVariable final String id) {
         return memberService.getMemberInfo(id);
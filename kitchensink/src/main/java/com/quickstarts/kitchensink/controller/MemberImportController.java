@@ -0,0 +1,45 @@
+package com.quickstarts.kitchensink.controller;
+
+import com.quickstarts.kitchensink.model.MemberImportJob;
+import com.quickstarts.kitchensink.service.MemberImportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/member/import")
+public class MemberImportController {
+
+    private final MemberImportService importService;
+
+    /**
+     * Accepts a CSV or XLSX upload (same columns as the export) and imports it in the background.
+     * Returns 202 with `Location: /member/import/{jobId}` to poll for progress.
+     */
+    @PostMapping(consumes = MULTIPART_FORM_DATA_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<MemberImportJob> importMembers(@RequestParam("file") final MultipartFile file,
+                                                         final Authentication authentication) throws IOException {
+        final var job = importService.start(file, authentication != null ? authentication.getName() : null);
+        return ResponseEntity.accepted().location(URI.create("/member/import/" + job.getId())).body(job);
+    }
+
+    @GetMapping(path = "/{jobId}", produces = APPLICATION_JSON_VALUE)
+    public MemberImportJob progress(@PathVariable final String jobId) {
+        return importService.getJob(jobId);
+    }
+
+    @GetMapping("/{jobId}/errors")
+    public void errors(@PathVariable final String jobId, final HttpServletResponse response) throws IOException {
+        importService.writeErrorsCsv(jobId, response);
+    }
+}
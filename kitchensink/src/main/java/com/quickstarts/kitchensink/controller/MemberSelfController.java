@@ -3,7 +3,9 @@ package com.quickstarts.kitchensink.controller;
 import com.quickstarts.kitchensink.config.UserInfoUserDetails;
 import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
 import com.quickstarts.kitchensink.repo.MemberRepository;
+import com.quickstarts.kitchensink.service.IdempotencyService;
 import com.quickstarts.kitchensink.service.MemberChangeRequestService;
+import com.quickstarts.kitchensink.service.MemberProfileUpdateService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -13,10 +15,13 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import static com.quickstarts.kitchensink.constants.Constants.IDEMPOTENCY_KEY_HEADER;
+
 // Self-service endpoints for the logged-in member
 @Controller
 @RequiredArgsConstructor
@@ -24,6 +29,8 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class MemberSelfController {
     private final MemberRepository memberRepo;
     private final MemberChangeRequestService changeService;
+    private final MemberProfileUpdateService profileUpdateService;
+    private final IdempotencyService idempotencyService;
 
     // 1) View my details (server-rendered page)
     @GetMapping
@@ -34,20 +41,27 @@ public class MemberSelfController {
         return "member-self"; // templates/member-self.html
     }
 
-    // 2) Update my details -> creates a PENDING change request and emails admin
+    // 2) Update my details -> creates a PENDING change request and emails admin, or auto-approves it
     @PostMapping // (or PUT; using POST for form submits)
     public String updateMe(@AuthenticationPrincipal final UserInfoUserDetails me,
+                           @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
                            @Valid @ModelAttribute final MemberUpdateDTO dto,
                            final RedirectAttributes ra) {
-        changeService.submitProfileUpdate(me.getUsername(), dto);
-        ra.addFlashAttribute("msg", "Your changes were submitted and are pending admin approval.");
+        final boolean applied = idempotencyService.execute("member.me.update", idempotencyKey, dto, Boolean.class,
+                () -> profileUpdateService.submit(me.getUsername(), dto));
+        ra.addFlashAttribute("msg", applied
+                ? "Your changes were applied."
+                : "Your changes were submitted and are pending admin approval.");
         return "redirect:/member/me";
     }
 
     // 3) Delete myself -> creates a PENDING delete request and emails admin
     @PostMapping("/delete")
-    public String deleteMe(@AuthenticationPrincipal UserInfoUserDetails me, RedirectAttributes ra) {
-        changeService.submitDeleteRequest(me.getUsername());
+    public String deleteMe(@AuthenticationPrincipal UserInfoUserDetails me,
+                           @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
+                           RedirectAttributes ra) {
+        idempotencyService.execute("member.me.delete", idempotencyKey, me.getUsername(),
+                () -> changeService.submitDeleteRequest(me.getUsername()));
         ra.addFlashAttribute("msg", "Your delete request was sent to the admin for approval.");
         return "redirect:/member/me";
     }
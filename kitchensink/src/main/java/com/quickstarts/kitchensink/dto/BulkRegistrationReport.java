@@ -0,0 +1,17 @@
+package com.quickstarts.kitchensink.dto;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of a bulk registration: one entry per input row, plus the email / phone values rejected as
+ * duplicates (of existing members or of earlier rows in the same request).
+ */
+public record BulkRegistrationReport(int total,
+                                     int created,
+                                     int rejected,
+                                     boolean truncated,
+                                     Set<String> duplicateEmails,
+                                     Set<String> duplicatePhones,
+                                     List<BulkRowResult> rows) {
+}
@@ -0,0 +1,17 @@
+package com.quickstarts.kitchensink.dto;
+
+/**
+ * Outcome of one request in a bulk review. CONFLICT and FAILED requests stay pending.
+ */
+public record BulkReviewItem(String requestId, Outcome outcome, String message) {
+
+    public enum Outcome { APPROVED, REJECTED, SKIPPED, CONFLICT, FAILED }
+
+    public static BulkReviewItem of(final String requestId, final Outcome outcome) {
+        return new BulkReviewItem(requestId, outcome, null);
+    }
+
+    public static BulkReviewItem of(final String requestId, final Outcome outcome, final String message) {
+        return new BulkReviewItem(requestId, outcome, message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.quickstarts.kitchensink.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk approve / reject, one item per selected request.
+ *
+ * @param truncated more requests matched than one call handles; call again for the rest
+ */
+public record BulkReviewReport(int total,
+                               int reviewed,
+                               int skipped,
+                               int failed,
+                               boolean truncated,
+                               List<BulkReviewItem> items) {
+
+    public static BulkReviewReport of(final List<BulkReviewItem> items, final boolean truncated) {
+        int reviewed = 0, skipped = 0, failed = 0;
+        for (final var item : items) {
+            switch (item.outcome()) {
+                case APPROVED, REJECTED -> reviewed++;
+                case SKIPPED -> skipped++;
+                case CONFLICT, FAILED -> failed++;
+            }
+        }
+        return new BulkReviewReport(items.size(), reviewed, skipped, failed, truncated, items);
+    }
+}
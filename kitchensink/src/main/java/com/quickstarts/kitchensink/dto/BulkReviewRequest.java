@@ -0,0 +1,23 @@
+package com.quickstarts.kitchensink.dto;
+
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Selects the requests of a bulk approve / reject: the listed {@code ids}, or, when none are given, the
+ * pending requests matching {@code type} and {@code submittedBefore} (either may be null), oldest first.
+ *
+ * @param reason rejection reason mailed to the members; ignored when approving
+ */
+public record BulkReviewRequest(
+        List<String> ids,
+        ChangeType type,
+        Instant submittedBefore,
+        String reason
+) {
+    public boolean hasIds() {
+        return ids != null && !ids.isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+package com.quickstarts.kitchensink.dto;
+
+import java.util.Map;
+
+public record BulkRowResult(int row, Status status, String memberId, String email, Map<String, String> errors) {
+
+    public enum Status { CREATED, REJECTED }
+
+    public static BulkRowResult created(final int row, final String memberId, final String email) {
+        return new BulkRowResult(row, Status.CREATED, memberId, email, Map.of());
+    }
+
+    public static BulkRowResult rejected(final int row, final String email, final Map<String, String> errors) {
+        return new BulkRowResult(row, Status.REJECTED, null, email, errors);
+    }
+
+    public boolean isCreated() {
+        return status == Status.CREATED;
+    }
+}
@@ -0,0 +1,55 @@
+package com.quickstarts.kitchensink.dto;
+
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.model.ArchivedChangeRequest;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One request in a member's history, whichever collection it currently lives in.
+ */
+public record ChangeRequestHistoryItem(
+        String id,
+        ChangeType type,
+        Status status,
+        Map<String, FieldChange<?>> changes,
+        String submittedBy,
+        Instant submittedAt,
+        String reviewedBy,
+        Instant reviewedAt,
+        String rejectionReason,
+        boolean archived
+) {
+    public static ChangeRequestHistoryItem from(final MemberChangeRequest request) {
+        return new ChangeRequestHistoryItem(
+                request.getId(),
+                request.getType(),
+                request.getStatus(),
+                request.getType() == ChangeType.UPDATE ? request.fieldChanges() : null,
+                request.getSubmittedBy(),
+                request.getSubmittedAt(),
+                request.getReviewedBy(),
+                request.getReviewedAt(),
+                request.getRejectionReason(),
+                false
+        );
+    }
+
+    public static ChangeRequestHistoryItem from(final ArchivedChangeRequest request) {
+        return new ChangeRequestHistoryItem(
+                request.getId(),
+                request.getType(),
+                request.getStatus(),
+                request.getChanges(),
+                request.getSubmittedBy(),
+                request.getSubmittedAt(),
+                request.getReviewedBy(),
+                request.getReviewedAt(),
+                request.getRejectionReason(),
+                true
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package com.quickstarts.kitchensink.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.quickstarts.kitchensink.dto.ProfileField.*;
+
+/**
+ * One field of a profile update: the value the member had and the value they asked for. Diffs are keyed by
+ * {@link ProfileField#key()}; read a value through its {@link ProfileField} to get it typed.
+ */
+public record FieldChange<T>(T from, T to) {
+
+    /**
+     * The fields {@code requested} actually changes, in form order; unset values mean "unchanged", as in
+     * {@link MemberPatch}.
+     */
+    public static Map<String, FieldChange<?>> diff(final MemberSnapshot before, final MemberUpdateDTO requested) {
+        final var changes = new LinkedHashMap<String, FieldChange<?>>();
+        if (requested == null) return changes;
+        final var patch = MemberPatch.from(requested);
+        final var was = before != null ? before : new MemberSnapshot(null, null, null, 0, null);
+        NAME.put(changes, was.name(), patch.name());
+        EMAIL.put(changes, was.email(), patch.email());
+        PHONE_NUMBER.put(changes, was.phoneNumber(), patch.phoneNumber());
+        AGE.put(changes, was.age() != 0 ? was.age() : null, patch.age());
+        PLACE.put(changes, was.place(), patch.place());
+        return changes;
+    }
+}
@@ -34,4 +34,7 @@ public class MemberFilterRequest {
     private LocalDate registrationDate;       // exact
     private LocalDate registrationDateFrom;   // range start (inclusive)
     private LocalDate registrationDateTo;   // range end   (inclusive)
+
+    // read from the primary instead of a possibly lagging secondary (e.g. right after a write)
+    private boolean fresh;
 }
@@ -0,0 +1,34 @@
+package com.quickstarts.kitchensink.dto;
+
+import java.util.Map;
+
+import static com.quickstarts.kitchensink.dto.ProfileField.*;
+
+/**
+ * Target values for a partial member update; {@code null} means "leave unchanged".
+ */
+public record MemberPatch(String name, String email, String phoneNumber, Integer age, String place) {
+
+    public static MemberPatch from(final MemberUpdateDTO requested) {
+        return new MemberPatch(
+                requested.name(),
+                requested.email() != null ? requested.email().trim().toLowerCase() : null,
+                requested.phoneNumber(),
+                requested.age() != 0 ? requested.age() : null,
+                requested.place());
+    }
+
+    /**
+     * The target values of a stored diff, so only the fields the member actually changed are written.
+     *
+     * @throws IllegalStateException if a stored value does not have its field's type
+     */
+    public static MemberPatch from(final Map<String, FieldChange<?>> changes) {
+        return new MemberPatch(
+                NAME.to(changes),
+                EMAIL.to(changes),
+                PHONE_NUMBER.to(changes),
+                AGE.to(changes),
+                PLACE.to(changes));
+    }
+}
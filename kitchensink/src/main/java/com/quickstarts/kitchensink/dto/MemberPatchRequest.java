@@ -0,0 +1,47 @@
+package com.quickstarts.kitchensink.dto;
+
+import jakarta.validation.constraints.*;
+
+import static com.quickstarts.kitchensink.utils.MemberUtils.toProperCase;
+
+/**
+ * PATCH body: only the fields present are changed, and only if {@code version} is still current.
+ */
+public record MemberPatchRequest(
+        @Size(min = 2, max = 25)
+        @Pattern(regexp = "^[A-Za-z .'-]{1,25}$",
+                message = "Only letters, spaces, . - ' ; max 25 chars")
+        String name,
+
+        @Email
+        @Size(min = 5, max = 254)
+        String email,
+
+        @Pattern(regexp = "^(?:\\+91|91)?[6-9]\\d{9}$",
+                message = "Indian mobile starting 6–9; allow +91/91")
+        String phoneNumber,
+
+        @Min(1) @Max(120)
+        Integer age,
+
+        @Size(min = 2, max = 50)
+        @Pattern(regexp = "^[A-Za-z .,'-]{1,50}$",
+                message = "Only letters, spaces, . , - ' ; max 50 chars")
+        String place,
+
+        @NotNull
+        Long version
+) {
+
+    /**
+     * Normalised the same way as a full update.
+     */
+    public MemberPatch toPatch() {
+        return new MemberPatch(
+                name != null ? toProperCase(name.trim().replaceAll("\\s+", " ")) : null,
+                email != null ? email.trim().toLowerCase() : null,
+                phoneNumber,
+                age,
+                place != null ? place.trim().replaceAll("\\s+", " ") : null);
+    }
+}
@@ -26,6 +26,7 @@ public record MemberResponseDTO(
                 .age(member.getAge())
                 .place(member.getPlace())
                 .registrationDate(member.getRegistrationDate())
+                .version(member.getVersion())
                 .build();
     }
 }
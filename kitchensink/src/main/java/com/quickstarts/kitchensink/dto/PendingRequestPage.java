@@ -0,0 +1,12 @@
+package com.quickstarts.kitchensink.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor pass as {@code after} to get the following page; null on the last page
+ */
+public record PendingRequestPage(
+        List<PendingRequestRow> items,
+        String nextCursor
+) {
+}
@@ -0,0 +1,30 @@
+package com.quickstarts.kitchensink.dto;
+
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The columns of one row of the admin queue; everything else on the request document is left in Mongo.
+ */
+public record PendingRequestRow(
+        String id,
+        String memberEmail,
+        String memberName,
+        ChangeType type,
+        Instant submittedAt,
+        Map<String, FieldChange<?>> changes
+) {
+    public static PendingRequestRow from(final MemberChangeRequest request) {
+        return new PendingRequestRow(
+                request.getId(),
+                request.getMemberEmail(),
+                request.getBefore() != null ? request.getBefore().name() : null,
+                request.getType(),
+                request.getSubmittedAt(),
+                request.getChanges()
+        );
+    }
+}
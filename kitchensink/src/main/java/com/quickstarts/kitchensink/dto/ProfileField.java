@@ -0,0 +1,91 @@
+package com.quickstarts.kitchensink.dto;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A member profile field a change request can change, with the type of its values. A diff is stored as a map
+ * from {@link #key()} to {@link FieldChange}, which holds whatever Mongo read back; reads go through the
+ * field, which checks the values against its type once instead of leaving a cast to every caller.
+ */
+public final class ProfileField<T> {
+
+    public static final ProfileField<String> NAME = new ProfileField<>("name", String.class);
+    public static final ProfileField<String> EMAIL = new ProfileField<>("email", String.class);
+    public static final ProfileField<String> PHONE_NUMBER = new ProfileField<>("phoneNumber", String.class);
+    public static final ProfileField<Integer> AGE = new ProfileField<>("age", Integer.class);
+    public static final ProfileField<String> PLACE = new ProfileField<>("place", String.class);
+
+    /**
+     * In form order.
+     */
+    public static final List<ProfileField<?>> ALL = List.of(NAME, EMAIL, PHONE_NUMBER, AGE, PLACE);
+
+    private final String key;
+    private final Class<T> type;
+
+    private ProfileField(final String key, final Class<T> type) {
+        this.key = key;
+        this.type = type;
+    }
+
+    public static Optional<ProfileField<?>> of(final String key) {
+        return ALL.stream().filter(field -> field.key.equals(key)).findFirst();
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * This field, if its values are of {@code type}.
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Optional<ProfileField<U>> as(final Class<U> type) {
+        return this.type.equals(type) ? Optional.of((ProfileField<U>) this) : Optional.empty();
+    }
+
+    /**
+     * @throws IllegalStateException if a value of the change is not of this field's type
+     */
+    @SuppressWarnings("unchecked")
+    public FieldChange<T> typed(final FieldChange<?> change) {
+        check(change.from());
+        check(change.to());
+        return (FieldChange<T>) change;
+    }
+
+    /**
+     * The requested value of this field in {@code changes}; {@code null} if the diff leaves it unchanged.
+     */
+    @Nullable
+    public T to(final Map<String, FieldChange<?>> changes) {
+        final var change = changes.get(key);
+        return change != null ? typed(change).to() : null;
+    }
+
+    void put(final Map<String, FieldChange<?>> changes, @Nullable final T from, @Nullable final T to) {
+        if (to != null && !to.equals(from)) {
+            changes.put(key, new FieldChange<>(from, to));
+        }
+    }
+
+    private void check(@Nullable final Object value) {
+        if (value != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Change of " + key + " holds a " + value.getClass().getSimpleName()
+                    + ", not a " + type.getSimpleName());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,22 @@
+package com.quickstarts.kitchensink.dto;
+
+import com.quickstarts.kitchensink.model.Provisioning;
+
+import java.time.Instant;
+
+public record ProvisioningStatusResponse(String memberId,
+                                         Provisioning.Status status,
+                                         int attempts,
+                                         Instant requestedAt,
+                                         Instant completedAt,
+                                         String lastError) {
+
+    public static ProvisioningStatusResponse from(final String memberId, final Provisioning provisioning) {
+        if (provisioning == null) {
+            // registered before async provisioning, or with it switched off: the login was created inline
+            return new ProvisioningStatusResponse(memberId, Provisioning.Status.DONE, 0, null, null, null);
+        }
+        return new ProvisioningStatusResponse(memberId, provisioning.getStatus(), provisioning.getAttempts(),
+                provisioning.getRequestedAt(), provisioning.getCompletedAt(), provisioning.getLastError());
+    }
+}
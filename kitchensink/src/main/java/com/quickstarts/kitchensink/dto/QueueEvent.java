@@ -0,0 +1,36 @@
+package com.quickstarts.kitchensink.dto;
+
+import com.quickstarts.kitchensink.dto.enums.Status;
+
+/**
+ * One change to the admin queue as pushed to the admin pages; {@code row} is only set for submissions.
+ */
+public record QueueEvent(
+        Kind kind,
+        String requestId,
+        Status status,
+        PendingRequestRow row
+) {
+    public enum Kind {
+        /**
+         * A new request entered the queue.
+         */
+        SUBMITTED,
+        /**
+         * A request changed status: claimed, approved, rejected, or released back to the queue.
+         */
+        STATUS,
+        /**
+         * A request document was removed.
+         */
+        REMOVED,
+        /**
+         * Events were lost for this session; reload the queue.
+         */
+        RESYNC
+    }
+
+    public static QueueEvent resync() {
+        return new QueueEvent(Kind.RESYNC, null, null, null);
+    }
+}
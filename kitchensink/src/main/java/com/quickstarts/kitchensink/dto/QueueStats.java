@@ -0,0 +1,31 @@
+package com.quickstarts.kitchensink.dto;
+
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The change request backlog now, and the reviews of the last {@code days} days.
+ *
+ * @param open         requests pending or in review, by type
+ * @param openAge      age of the open requests at the 50th, 90th and 99th percentile, and the oldest
+ * @param approvalRate approved out of approved and rejected; {@code null} without reviews
+ */
+public record QueueStats(
+        Map<ChangeType, Long> open,
+        Map<String, Duration> openAge,
+        int days,
+        long approved,
+        long rejected,
+        long superseded,
+        Double approvalRate,
+        List<ReviewerStats> reviewers
+) {
+    /**
+     * @param meanReviewTime from submission to review, over the reviewer's approvals and rejections
+     */
+    public record ReviewerStats(String reviewer, long approved, long rejected, Duration meanReviewTime) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.quickstarts.kitchensink.dto;
+
+public record RefreshRequest(String refreshToken) {
+}
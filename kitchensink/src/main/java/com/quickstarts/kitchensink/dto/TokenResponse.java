@@ -0,0 +1,8 @@
+package com.quickstarts.kitchensink.dto;
+
+public record TokenResponse(String accessToken, String refreshToken, String tokenType, long expiresIn) {
+
+    public static TokenResponse bearer(final String accessToken, final String refreshToken, final long expiresIn) {
+        return new TokenResponse(accessToken, refreshToken, "Bearer", expiresIn);
+    }
+}
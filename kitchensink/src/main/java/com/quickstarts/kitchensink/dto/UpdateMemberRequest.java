@@ -28,6 +28,9 @@ public record UpdateMemberRequest(
         @Pattern(regexp = "^[A-Za-z .,'-]{1,50}$",
                 message = "Only letters, spaces, . , - ' ; max 50 chars")
         String place,
-        long version
+
+        // the version the client read; a missing one is refused rather than taken for a never-saved member
+        @NotNull
+        Long version
 ) {
 }
@@ -1,3 +1,8 @@
 package com.quickstarts.kitchensink.dto.enums;
 
-public enum Status { PENDING, APPROVED, REJECTED }
\ No newline at end of file
+/**
+ * IN_REVIEW: an admin has claimed the request and its approval is being applied.
+ * SUPERSEDED: the member submitted a newer request while this one was in review, and this one failed; or it
+ * was one of several pending requests of a member from before pending_per_member, and not the newest.
+ */
+public enum Status { PENDING, IN_REVIEW, APPROVED, REJECTED, SUPERSEDED }
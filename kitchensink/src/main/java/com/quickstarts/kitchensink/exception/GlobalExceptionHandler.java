@@ -4,6 +4,7 @@ package com.quickstarts.kitchensink.exception;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
@@ -68,6 +69,42 @@ public class GlobalExceptionHandler {
         return status(HttpStatus.NOT_FOUND).body(pd);
     }
 
+    @ExceptionHandler(NotFoundException.class)
+    ResponseEntity<ProblemDetail> handleNotFound(NotFoundException ex,
+                                                 ServletWebRequest req) {
+        var pd = ProblemDetail.forStatus(HttpStatus.NOT_FOUND);
+        pd.setTitle("Not Found");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("timestamp", Instant.now());
+        pd.setProperty("path", req.getRequest().getRequestURI());
+        return status(HttpStatus.NOT_FOUND).body(pd);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    ResponseEntity<ProblemDetail> handleConflict(ConflictException ex,
+                                                 ServletWebRequest req) {
+        var pd = ProblemDetail.forStatus(HttpStatus.CONFLICT);
+        pd.setTitle("Conflict");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("timestamp", Instant.now());
+        pd.setProperty("path", req.getRequest().getRequestURI());
+        return status(HttpStatus.CONFLICT).body(pd);
+    }
+
+    /**
+     * Optimistic-lock miss: the client's version is out of date and it should reload before retrying.
+     */
+    @ExceptionHandler(StaleObjectException.class)
+    ResponseEntity<ProblemDetail> handleStale(StaleObjectException ex,
+                                              ServletWebRequest req) {
+        var pd = ProblemDetail.forStatus(HttpStatus.CONFLICT);
+        pd.setTitle("Stale update");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("timestamp", Instant.now());
+        pd.setProperty("path", req.getRequest().getRequestURI());
+        return status(HttpStatus.CONFLICT).body(pd);
+    }
+
     @ExceptionHandler(DuplicateEmailException.class)
     ResponseEntity<ProblemDetail> handleDuplicateEmail(DuplicateEmailException ex,
                                                        ServletWebRequest req) {
@@ -97,6 +134,19 @@ public class GlobalExceptionHandler {
         return status(HttpStatus.CONFLICT).body(pd);
     }
 
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    ResponseEntity<ProblemDetail> handleTooManyLoginAttempts(TooManyLoginAttemptsException ex,
+                                                             ServletWebRequest req) {
+        var pd = ProblemDetail.forStatus(TOO_MANY_REQUESTS);
+        pd.setTitle("Too many attempts");
+        pd.setDetail(ex.getMessage());
+        pd.setProperty("timestamp", Instant.now());
+        pd.setProperty("path", req.getRequest().getRequestURI());
+        return status(TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(pd);
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     ResponseEntity<ProblemDetail> handleRSE(ResponseStatusException ex,
                                             ServletWebRequest req) {
@@ -0,0 +1,15 @@
+package com.quickstarts.kitchensink.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class TooManyLoginAttemptsException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public TooManyLoginAttemptsException(Duration retryAfter) {
+        super("Too many failed sign-in attempts, retry in " + retryAfter.toSeconds() + "s");
+        this.retryAfter = retryAfter;
+    }
+}
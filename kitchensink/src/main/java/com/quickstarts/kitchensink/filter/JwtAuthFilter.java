@@ -1,7 +1,10 @@
 package com.quickstarts.kitchensink.filter;
 
+import com.quickstarts.kitchensink.config.UserInfoUserDetails;
 import com.quickstarts.kitchensink.service.JwtService;
+import com.quickstarts.kitchensink.service.TokenVersionService;
 import com.quickstarts.kitchensink.service.UserInfoUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -23,6 +26,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private UserInfoUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
     @Autowired
     public JwtAuthFilter(HandlerExceptionResolver handlerExceptionResolver) {
         this.exceptionResolver = handlerExceptionResolver;
@@ -34,17 +40,29 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     @NonNull final FilterChain filterChain) {
 
         final var authHeader = request.getHeader("Authorization");
-        String token = null;
+        Claims claims = null;
         String username = null;
         try {
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                token = authHeader.substring(7);
-                username = jwtService.extractUsername(token);
+                // one signature check per request; everything below reads these claims
+                claims = jwtService.parse(authHeader.substring(7));
+                username = claims.getSubject();
+            }
+
+            // stale token (password reset / account removed): leave the request unauthenticated
+            final long tokenVersion = username != null ? jwtService.tokenVersion(claims) : 0L;
+            if (username != null && !tokenVersionService.isCurrent(username, tokenVersion)) {
+                username = null;
             }
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                final var userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtService.validateToken(token, userDetails)) {
+                // access tokens are short-lived, so their role claims are trusted as-is;
+                // only tokens issued before roles were embedded fall back to a user lookup
+                final var roles = jwtService.roles(claims);
+                final var userDetails = roles.isEmpty()
+                        ? userDetailsService.loadUserByUsername(username)
+                        : UserInfoUserDetails.fromClaims(username, roles, tokenVersion);
+                if (jwtService.isValid(claims, userDetails)) {
                     final var authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
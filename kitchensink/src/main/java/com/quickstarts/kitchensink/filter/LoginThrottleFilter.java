@@ -0,0 +1,44 @@
+package com.quickstarts.kitchensink.filter;
+
+import com.quickstarts.kitchensink.exception.TooManyLoginAttemptsException;
+import com.quickstarts.kitchensink.service.LoginThrottleService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+/**
+ * Rejects form-login posts from blocked usernames / IPs before the authentication filter looks up the
+ * user and runs BCrypt. {@code /authenticate} is checked in the controller because its username is in the JSON body.
+ */
+@RequiredArgsConstructor
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottleService loginThrottleService;
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !("POST".equals(request.getMethod()) && "/login".equals(request.getServletPath()));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull final HttpServletRequest request,
+                                    @NonNull final HttpServletResponse response,
+                                    @NonNull final FilterChain filterChain) throws ServletException, IOException {
+        try {
+            loginThrottleService.check(request.getParameter("username"), request.getRemoteAddr());
+        } catch (TooManyLoginAttemptsException e) {
+            response.setHeader(RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()));
+            response.sendRedirect("/login?throttled");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
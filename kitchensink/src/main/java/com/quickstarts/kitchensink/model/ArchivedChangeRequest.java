@@ -0,0 +1,64 @@
+package com.quickstarts.kitchensink.model;
+
+import com.quickstarts.kitchensink.dto.FieldChange;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A reviewed change request moved out of {@code member_change_requests} by the archiver. Keeps the review
+ * outcome and only the fields the update changed, instead of the full before/requested snapshots.
+ * The optional retention TTL index ({@code archive_ttl} on {@code archivedAt}) is managed by the archiver.
+ */
+@Document("member_change_requests_archive")
+// a member's history, newest first
+@CompoundIndex(name = "member_history", def = "{'memberId': 1, 'submittedAt': -1}")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedChangeRequest {
+    @Id
+    private String id;                // same _id as in member_change_requests
+
+    private String memberId;
+    private String memberEmail;
+    private String memberName;        // before.name
+    private ChangeType type;
+    private Status status;            // APPROVED, REJECTED or SUPERSEDED
+
+    private Map<String, FieldChange<?>> changes;   // UPDATE only
+
+    private String submittedBy;
+    private Instant submittedAt;
+    private String reviewedBy;
+    private Instant reviewedAt;
+    private String rejectionReason;
+
+    private Instant archivedAt;
+
+    public static ArchivedChangeRequest from(final MemberChangeRequest request, final Instant archivedAt) {
+        return ArchivedChangeRequest.builder()
+                .id(request.getId())
+                .memberId(request.getMemberId())
+                .memberEmail(request.getMemberEmail())
+                .memberName(request.getBefore() != null ? request.getBefore().name() : null)
+                .type(request.getType())
+                .status(request.getStatus())
+                .changes(request.getType() == ChangeType.UPDATE ? request.fieldChanges() : null)
+                .submittedBy(request.getSubmittedBy())
+                .submittedAt(request.getSubmittedAt())
+                .reviewedBy(request.getReviewedBy())
+                .reviewedAt(request.getReviewedAt())
+                .rejectionReason(request.getRejectionReason())
+                .archivedAt(archivedAt)
+                .build();
+    }
+}
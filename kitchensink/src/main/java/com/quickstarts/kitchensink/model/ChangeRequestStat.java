@@ -0,0 +1,45 @@
+package com.quickstarts.kitchensink.model;
+
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Rollup of the change request queue, maintained with {@code $inc} on every status change so the stats
+ * endpoint never scans {@code member_change_requests}. Two kinds of document share the collection:
+ * <ul>
+ *     <li>{@code open}: one per type, id {@code open:<type>}; requests PENDING or IN_REVIEW.</li>
+ *     <li>{@code day}: one per UTC day and reviewer, id {@code day:<yyyy-MM-dd>:<reviewer>}; requests that
+ *     left the queue that day.</li>
+ * </ul>
+ */
+@Document("change_request_stats")
+@CompoundIndex(name = "kind_day", def = "{'kind': 1, 'day': 1}")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeRequestStat {
+
+    public static final String OPEN = "open";
+    public static final String DAY = "day";
+
+    @Id
+    private String id;
+    private String kind;
+
+    // open
+    private ChangeType type;
+    private long count;
+
+    // day; reviewer is unset for requests superseded by the member
+    private String day;
+    private String reviewer;
+    private long approved;
+    private long rejected;
+    private long superseded;
+    private long reviewMillis;        // submittedAt to reviewedAt, summed over approved and rejected
+}
@@ -0,0 +1,39 @@
+package com.quickstarts.kitchensink.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key}. The id combines the endpoint, the caller and the
+ * key; {@code requestHash} catches a key being reused for a different body.
+ */
+@Document(collection = "idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    public enum Status { IN_PROGRESS, COMPLETED }
+
+    @Id
+    private String id;
+
+    private String requestHash;
+
+    private Status status;
+
+    // JSON of the stored response, replayed instead of re-running the request
+    private String response;
+
+    private Instant createdAt;
+
+    // Mongo removes the document once it expires
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
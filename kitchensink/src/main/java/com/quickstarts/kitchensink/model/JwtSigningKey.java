@@ -0,0 +1,35 @@
+package com.quickstarts.kitchensink.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Public half of a node's JWT signing key, published so every node (and the JWKS endpoint) can verify
+ * tokens by {@code kid}. Private keys never leave the node that generated them.
+ */
+@Document(collection = "jwt_signing_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JwtSigningKey {
+
+    @Id
+    private String kid;
+
+    private String algorithm;
+
+    // X.509 SubjectPublicKeyInfo, base64
+    private String publicKey;
+
+    private Instant createdAt;
+
+    // no token signed with this key is valid past this point; Mongo drops the document then
+    @Indexed(expireAfter = "0s")
+    private Instant retireAt;
+}
@@ -5,6 +5,7 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -12,6 +13,8 @@ import java.time.Instant;
 import java.time.LocalDate;
 
 @Document("member")
+@CompoundIndex(name = "provisioning_due", def = "{'provisioning.nextAttemptAt': 1}",
+        partialFilter = "{'provisioning.nextAttemptAt': {$exists: true}}")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -45,4 +48,12 @@ public class Member {
 
     @LastModifiedDate
     private Instant updatedAt;
+
+    // absent for members provisioned synchronously
+    private Provisioning provisioning;
+
+    // tombstone: set on delete, the document is removed by MemberPurgeService once the retention has passed.
+    // The partial index only holds tombstones, so it stays small and the purger never scans live members.
+    @Indexed(name = "tombstones", partialFilter = "{'deletedAt': {$exists: true}}")
+    private Instant deletedAt;
 }
@@ -1,18 +1,25 @@
 package com.quickstarts.kitchensink.model;
 
+import com.quickstarts.kitchensink.dto.FieldChange;
 import com.quickstarts.kitchensink.dto.MemberSnapshot;
 import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
 import com.quickstarts.kitchensink.dto.enums.ChangeType;
 import com.quickstarts.kitchensink.dto.enums.Status;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
+import java.util.Map;
 
 import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
 
 @Document("member_change_requests")
+// the admin queue: pending requests oldest first, paged on (submittedAt, _id)
+@CompoundIndex(name = "status_submittedAt", def = "{'status': 1, 'submittedAt': 1, '_id': 1}")
+// a member's history, newest first; the archive has the same index
+@CompoundIndex(name = "member_history", def = "{'memberId': 1, 'submittedAt': -1}")
 @Getter
 @Setter
 @Builder
@@ -22,6 +29,8 @@ public class MemberChangeRequest {
     @Id
     private String id;
 
+    // one pending request per member (pending_per_member, built by PendingRequestIndexMigration); a second
+    // insert fails with a duplicate key
     private String memberId;          // Member._id
     private String memberEmail;       // snapshot key
     private ChangeType type;          // UPDATE or DELETE
@@ -30,11 +39,23 @@ public class MemberChangeRequest {
 
     private MemberSnapshot before;          // snapshot (optional but useful)
     private MemberUpdateDTO requested; // requested changes for UPDATE; null for DELETE
+    private Map<String, FieldChange<?>> changes; // UPDATE: the fields requested differs from before in, computed on submit
 
     private String submittedBy;       // userName/email
     private Instant submittedAt;
 
+    // set by the approve / reject that claimed the request; status changes after the claim match on it
+    private String claimToken;
+    private Instant claimedAt;
+
     private String reviewedBy;        // admin
     private Instant reviewedAt;
     private String rejectionReason;
+
+    /**
+     * The stored diff; requests submitted before it was stored get it from their snapshots.
+     */
+    public Map<String, FieldChange<?>> fieldChanges() {
+        return changes != null ? changes : FieldChange.diff(before, requested);
+    }
 }
@@ -0,0 +1,36 @@
+package com.quickstarts.kitchensink.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One rejected row of an import, streamed back as the job's error file.
+ */
+@Document(collection = "member_import_errors")
+@CompoundIndex(name = "job_row", def = "{'jobId': 1, 'row': 1}")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberImportError {
+
+    @Id
+    private String id;
+
+    private String jobId;
+
+    private int row;
+
+    private String email;
+
+    private String message;
+
+    @Indexed(expireAfter = "7d")
+    private Instant createdAt;
+}
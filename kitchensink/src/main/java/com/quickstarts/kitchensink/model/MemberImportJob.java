@@ -0,0 +1,48 @@
+package com.quickstarts.kitchensink.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Progress of one CSV / XLSX member import; counters are bumped once per processed chunk.
+ */
+@Document(collection = "member_import_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    private String id;
+
+    private String fileName;
+
+    private String format;
+
+    private Status status;
+
+    private long processedRows;
+
+    private long createdRows;
+
+    private long rejectedRows;
+
+    private String failureReason;
+
+    private String requestedBy;
+
+    @Indexed(expireAfter = "7d")
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    private Instant finishedAt;
+}
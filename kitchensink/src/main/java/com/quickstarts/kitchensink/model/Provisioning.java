@@ -0,0 +1,43 @@
+package com.quickstarts.kitchensink.model;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Progress of creating a member's login and sending the welcome mail, embedded in the member so that the
+ * member and its provisioning task are written by the same single-document insert. {@code nextAttemptAt} is
+ * only present while the task is outstanding, which keeps the partial index over it small.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Provisioning {
+
+    public enum Status { PENDING, IN_PROGRESS, DONE, FAILED }
+
+    private Status status;
+
+    private int attempts;
+
+    private Instant requestedAt;
+
+    // when a worker may (re)claim the task: due time while PENDING, claim expiry while IN_PROGRESS
+    private Instant nextAttemptAt;
+
+    private Instant claimedAt;
+
+    private Instant completedAt;
+
+    private String lastError;
+
+    public static Provisioning pending(final Instant now) {
+        return Provisioning.builder()
+                .status(Status.PENDING)
+                .requestedAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
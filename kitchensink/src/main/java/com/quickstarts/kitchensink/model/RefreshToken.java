@@ -0,0 +1,46 @@
+package com.quickstarts.kitchensink.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Opaque refresh token, stored as a SHA-256 hash only. Tokens issued from one login share a
+ * {@code familyId}; presenting an already used token revokes the whole family.
+ */
+@Document(collection = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private String tokenHash;
+
+    @Indexed
+    private String familyId;
+
+    private String userName;
+
+    // refresh is refused once the user's token version moved past this (password reset / removal)
+    private long tokenVersion;
+
+    private Instant issuedAt;
+
+    // Mongo removes the document once it expires
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    private Instant usedAt;
+
+    @Builder.Default
+    private boolean revoked = false;
+}
@@ -0,0 +1,29 @@
+package com.quickstarts.kitchensink.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Which node may run a scheduled job that every node schedules, and how far the job got. One document per
+ * job, id = job name; taken and released by {@link com.quickstarts.kitchensink.service.SchedulerLeaseService}.
+ */
+@Document("scheduler_leases")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLease {
+    @Id
+    private String id;
+
+    private String owner;             // node that took it last
+    private Instant lockedUntil;      // free for any node from then on
+
+    // the (submittedAt, _id) of the last item the job handled; the next run, on any node, starts after it
+    private Instant cursorAt;
+    private String cursorId;
+}
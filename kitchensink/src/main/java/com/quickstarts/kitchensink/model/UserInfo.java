@@ -9,6 +9,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
 import java.util.Set;
 
 import static com.fasterxml.jackson.annotation.JsonProperty.Access.WRITE_ONLY;
@@ -27,6 +28,7 @@ public class UserInfo {
 
     @NotBlank
     @Size(min = 1, max = 50)
+    // unique; the index is built by UserNameIndexMigration once existing duplicates are resolved
     private String userName;
 
     @NotBlank
@@ -44,4 +46,14 @@ public class UserInfo {
 
     @Indexed
     private String memberId;
+
+    // tokens carrying an older "ver" claim are rejected (bumped on password reset / removal)
+    @Builder.Default
+    private long tokenVersion = 0;
+
+    @Indexed
+    private Instant tokenVersionUpdatedAt;
+
+    // set together with the member's tombstone; a tombstoned login cannot authenticate
+    private Instant deletedAt;
 }
@@ -0,0 +1,11 @@
+package com.quickstarts.kitchensink.repo;
+
+import com.quickstarts.kitchensink.model.JwtSigningKey;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface JwtSigningKeyRepository extends MongoRepository<JwtSigningKey, String> {
+    List<JwtSigningKey> findByRetireAtAfter(Instant now);
+}
@@ -9,6 +9,8 @@ public interface MemberRepository extends MongoRepository<Member, String> {
 
     Optional<Member> findByEmail(String email);
 
+    boolean existsByIdAndDeletedAtIsNull(String id);
+
     boolean existsByEmailAndIdNot(String email, String id);
 
     boolean existsByPhoneNumberAndIdNot(String phoneNumber, String id);
@@ -0,0 +1,10 @@
+package com.quickstarts.kitchensink.repo;
+
+import com.quickstarts.kitchensink.model.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+}
@@ -0,0 +1,318 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.quickstarts.kitchensink.config.AdminQueueStreamProperties;
+import com.quickstarts.kitchensink.dto.PendingRequestRow;
+import com.quickstarts.kitchensink.dto.QueueEvent;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.mongodb.client.model.Aggregates.match;
+import static com.mongodb.client.model.Filters.exists;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.or;
+import static com.quickstarts.kitchensink.dto.QueueEvent.Kind.*;
+import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Pushes changes of the admin queue to every open admin page over server-sent events, so pages no longer
+ * reload the queue to find new submissions. Each node runs one change stream on {@code member_change_requests}
+ * and fans its events out to the node's sessions.
+ * <p>
+ * Every session has a bounded buffer drained by its own sender; a browser that falls behind loses its
+ * backlog and is told to reload, and never holds up the cursor or the other sessions. Event ids are the change
+ * stream's resume tokens: the cursor reopens from the last one after a failure, and a browser reconnecting
+ * with {@code Last-Event-ID} gets what it missed replayed from a bounded window of recent events.
+ */
+@Slf4j
+@Service
+public class AdminQueueStreamService implements SmartLifecycle {
+
+    static final String COLLECTION = "member_change_requests";
+    // InvalidResumeToken, ChangeStreamFatalError, ChangeStreamHistoryLost: the resume point is gone
+    private static final Set<Integer> LOST_RESUME_POINT = Set.of(260, 280, 286);
+
+    private static final Delivery HEARTBEAT = new Delivery(null, null);
+    private static final Delivery RESYNC = new Delivery(null, QueueEvent.resync());
+
+    private final MongoTemplate mongoTemplate;
+    private final AdminQueueStreamProperties props;
+    private final Executor sender;
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final ArrayDeque<Delivery> recent = new ArrayDeque<>();
+
+    private volatile boolean running;
+    private volatile BsonDocument resumeToken;
+    private Thread watcher;
+
+    @Autowired
+    public AdminQueueStreamService(final MongoTemplate mongoTemplate, final AdminQueueStreamProperties props) {
+        this(mongoTemplate, props, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-", 0).factory()));
+    }
+
+    AdminQueueStreamService(final MongoTemplate mongoTemplate, final AdminQueueStreamProperties props,
+                            final Executor sender) {
+        this.mongoTemplate = mongoTemplate;
+        this.props = props;
+        this.sender = sender;
+    }
+
+    /**
+     * One event as sent; {@code id} is the resume token of the change it came from, absent for control events.
+     */
+    record Delivery(String id, QueueEvent event) {
+    }
+
+    public SseEmitter subscribe(final String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(props.getSessionTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(final String lastEventId, final SseEmitter emitter) {
+        final var subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // replay and registration under the publish lock, so nothing is missed or sent twice in between
+        synchronized (recent) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                missedSince(lastEventId).ifPresentOrElse(
+                        missed -> missed.forEach(subscriber::offer),
+                        () -> subscriber.offer(RESYNC));
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.queue-stream.heartbeat:PT20S}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+    }
+
+    @Override
+    public void start() {
+        if (!props.isEnabled()) return;
+        running = true;
+        watcher = Thread.ofVirtual().name("admin-queue-stream").start(this::watch);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (watcher != null) {
+            try {
+                watcher.join(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void watch() {
+        var failing = false;
+        while (running) {
+            try (var cursor = open()) {
+                failing = false;
+                while (running) {
+                    final var change = cursor.tryNext();
+                    if (change == null) continue;
+                    if (change.getOperationType() == OperationType.INVALIDATE) {
+                        // collection dropped or renamed: start over from now
+                        resumeToken = null;
+                        resyncAll();
+                        break;
+                    }
+                    resumeToken = change.getResumeToken();
+                    final var id = deliveryId(change.getResumeToken());
+                    toEvent(change).ifPresent(event -> publish(new Delivery(id, event)));
+                }
+            } catch (RuntimeException e) {
+                if (!running) return;
+                if (e instanceof MongoException mongo && LOST_RESUME_POINT.contains(mongo.getCode())) {
+                    log.warn("admin queue stream lost its resume point; open pages will reload: {}", e.getMessage());
+                    resumeToken = null;
+                    resyncAll();
+                } else if (!failing) {
+                    log.warn("admin queue stream failed, reopening every {}: {}", props.getRestartBackoff(),
+                            e.getMessage());
+                }
+                failing = true;
+                if (!pause()) return;
+            }
+        }
+    }
+
+    /**
+     * Submissions, status changes and removals only; edits that leave the status alone are not shown.
+     */
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        final var stream = mongoTemplate.getCollection(COLLECTION)
+                .watch(List.of(match(or(
+                        in("operationType", "insert", "replace", "delete"),
+                        exists("updateDescription.updatedFields.status")))))
+                .maxAwaitTime(1, SECONDS);
+        final var token = resumeToken;
+        return (token != null ? stream.resumeAfter(token) : stream).cursor();
+    }
+
+    Optional<QueueEvent> toEvent(final ChangeStreamDocument<Document> change) {
+        return switch (change.getOperationType()) {
+            case INSERT, REPLACE -> {
+                final var request = mongoTemplate.getConverter().read(MemberChangeRequest.class, change.getFullDocument());
+                yield Optional.of(change.getOperationType() == OperationType.INSERT && request.getStatus() == PENDING
+                        ? new QueueEvent(SUBMITTED, request.getId(), PENDING, PendingRequestRow.from(request))
+                        : new QueueEvent(STATUS, request.getId(), request.getStatus(), null));
+            }
+            case UPDATE -> Optional.of(new QueueEvent(STATUS, requestId(change), Status.valueOf(
+                    change.getUpdateDescription().getUpdatedFields().getString("status").getValue()), null));
+            case DELETE -> Optional.of(new QueueEvent(REMOVED, requestId(change), null, null));
+            default -> Optional.empty();
+        };
+    }
+
+    void publish(final Delivery delivery) {
+        synchronized (recent) {
+            recent.addLast(delivery);
+            while (recent.size() > props.getReplayBuffer()) {
+                recent.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(delivery));
+        }
+    }
+
+    private void resyncAll() {
+        synchronized (recent) {
+            recent.clear();
+            subscribers.forEach(subscriber -> subscriber.offer(RESYNC));
+        }
+    }
+
+    /**
+     * The events after {@code lastEventId}, or empty if it is no longer (or never was) in the window.
+     */
+    private Optional<List<Delivery>> missedSince(final String lastEventId) {
+        final var missed = new ArrayList<Delivery>();
+        var found = false;
+        for (final var delivery : recent) {
+            if (found) {
+                missed.add(delivery);
+            } else if (lastEventId.equals(delivery.id())) {
+                found = true;
+            }
+        }
+        return found ? Optional.of(missed) : Optional.empty();
+    }
+
+    private static String requestId(final ChangeStreamDocument<Document> change) {
+        final var id = change.getDocumentKey().get("_id");
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private static String deliveryId(final BsonDocument token) {
+        return token.isString("_data") ? token.getString("_data").getValue() : token.toJson();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(props.getRestartBackoff());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * One open admin page: a bounded buffer and at most one sender task draining it.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Delivery> buffer = new ArrayBlockingQueue<>(props.getSubscriberBuffer());
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(final SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(final Delivery delivery) {
+            if (!buffer.offer(delivery)) {
+                buffer.clear();
+                buffer.offer(RESYNC);
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (!draining.compareAndSet(false, true)) return;
+            sender.execute(() -> {
+                try {
+                    for (var next = buffer.poll(); next != null; next = buffer.poll()) {
+                        send(next);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // browser went away; the emitter callbacks may not fire for a broken connection
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                } finally {
+                    draining.set(false);
+                }
+                if (!buffer.isEmpty()) drain();
+            });
+        }
+
+        private void send(final Delivery delivery) throws IOException {
+            if (delivery == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+                return;
+            }
+            final var event = SseEmitter.event();
+            if (delivery.id() != null) {
+                event.id(delivery.id());
+            }
+            emitter.send(event
+                    .name(delivery.event().kind().name().toLowerCase(Locale.ROOT))
+                    .data(delivery.event(), APPLICATION_JSON));
+        }
+    }
+}
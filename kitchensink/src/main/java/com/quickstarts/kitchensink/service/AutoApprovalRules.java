@@ -0,0 +1,98 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.MemberChangeRequestProperties;
+import com.quickstarts.kitchensink.config.MemberChangeRequestProperties.Rule;
+import com.quickstarts.kitchensink.dto.FieldChange;
+import com.quickstarts.kitchensink.dto.ProfileField;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * The rules of {@code app.member.change-requests.auto-approval}, compiled into predicates per field when the
+ * application starts, so a misconfigured rule stops the startup instead of failing submissions. A profile
+ * update qualifies when every field it changes is allowed by at least one rule for that field.
+ */
+@Service
+public class AutoApprovalRules {
+
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private record Compiled(String field, String name, Predicate<FieldChange<?>> allows) {
+    }
+
+    private final Map<String, List<Compiled>> byField;
+
+    public AutoApprovalRules(final MemberChangeRequestProperties props) {
+        final var autoApproval = props.getAutoApproval();
+        this.byField = autoApproval.isEnabled()
+                ? autoApproval.getRules().stream().map(AutoApprovalRules::compile).collect(groupingBy(Compiled::field))
+                : Map.of();
+    }
+
+    /**
+     * @return the names of the rules allowing each change, or empty if any change needs a review
+     */
+    public Optional<String> match(final Map<String, FieldChange<?>> changes) {
+        if (byField.isEmpty() || changes.isEmpty()) return Optional.empty();
+        final var matched = new LinkedHashSet<String>();
+        for (final var change : changes.entrySet()) {
+            final var rule = byField.getOrDefault(change.getKey(), List.of()).stream()
+                    .filter(candidate -> candidate.allows().test(change.getValue()))
+                    .findFirst();
+            if (rule.isEmpty()) return Optional.empty();
+            matched.add(rule.get().name());
+        }
+        return Optional.of(String.join(",", matched));
+    }
+
+    private static Compiled compile(final Rule rule) {
+        final var name = rule.getName() != null ? rule.getName() : rule.getField() + ":" + rule.getCondition();
+        final var field = ProfileField.of(rule.getField()).orElseThrow(() ->
+                new IllegalStateException("Auto-approval rule " + name + ": unknown field " + rule.getField()));
+        if (rule.getCondition() == null) {
+            throw new IllegalStateException("Auto-approval rule " + name + ": condition is missing");
+        }
+        final Predicate<FieldChange<?>> allows = switch (rule.getCondition()) {
+            case CASE_ONLY -> {
+                final var text = field.as(String.class).orElseThrow(() -> new IllegalStateException(
+                        "Auto-approval rule " + name + ": CASE_ONLY needs a text field, not " + field));
+                yield allows(text, (from, to) -> normalized(from).equals(normalized(to)));
+            }
+            case MAX_DELTA -> {
+                if (field != ProfileField.AGE || rule.getMaxDelta() == null) {
+                    throw new IllegalStateException("Auto-approval rule " + name + ": MAX_DELTA needs field age "
+                            + "and max-delta");
+                }
+                final int maxDelta = rule.getMaxDelta();
+                yield allows(ProfileField.AGE, (from, to) -> Math.abs(to - from) <= maxDelta);
+            }
+            case ANY -> change -> true;
+        };
+        return new Compiled(field.key(), name, allows);
+    }
+
+    /**
+     * A change of {@code field} from a value to another that {@code test} accepts; a change from no value is
+     * never allowed by a comparison.
+     */
+    private static <T> Predicate<FieldChange<?>> allows(final ProfileField<T> field, final BiPredicate<T, T> test) {
+        return change -> {
+            final var typed = field.typed(change);
+            return typed.from() != null && typed.to() != null && test.test(typed.from(), typed.to());
+        };
+    }
+
+    private static String normalized(final String text) {
+        return SPACES.matcher(text.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,282 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.BulkImportProperties;
+import com.quickstarts.kitchensink.config.PooledPasswordEncoder;
+import com.quickstarts.kitchensink.dto.BulkRegistrationReport;
+import com.quickstarts.kitchensink.dto.BulkRowResult;
+import com.quickstarts.kitchensink.dto.CreateMemberRequestDTO;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.UserInfo;
+import com.quickstarts.kitchensink.utils.DuplicateKeys;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+import static com.quickstarts.kitchensink.dto.CreateMemberRequestDTO.to;
+import static com.quickstarts.kitchensink.dto.enums.Role.MEMBER;
+import static com.quickstarts.kitchensink.utils.MemberUtils.generateTempPassword;
+import static java.util.stream.Collectors.toMap;
+import static org.springframework.data.mongodb.core.BulkOperations.BulkMode.UNORDERED;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Registers members in chunks: each chunk is validated, duplicate-checked with two {@code $in} lookups and
+ * written with one unordered bulk insert per collection, so a bad row never blocks the rest of its chunk.
+ * Temporary passwords are hashed on the shared hashing pool and welcome mails are queued, not sent inline.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkRegistrationService {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final PooledPasswordEncoder passwordEncoder;
+    private final EmailService emailService;
+    private final NotificationQueue notificationQueue;
+    private final BulkImportProperties props;
+
+    @Value("${app.login.url:http://localhost:8080/login}")
+    private String loginUrl;
+
+    public record Row(int number, CreateMemberRequestDTO request) {
+    }
+
+    /**
+     * Email and phone values already claimed by earlier rows of the same upload.
+     */
+    public static final class Seen {
+        private final Set<String> emails = new HashSet<>();
+        private final Set<String> phones = new HashSet<>();
+        private final Set<String> duplicateEmails = new TreeSet<>();
+        private final Set<String> duplicatePhones = new TreeSet<>();
+
+        public Set<String> duplicateEmails() {
+            return duplicateEmails;
+        }
+
+        public Set<String> duplicatePhones() {
+            return duplicatePhones;
+        }
+    }
+
+    public BulkRegistrationReport register(final Iterator<CreateMemberRequestDTO> requests) {
+        final var seen = new Seen();
+        final var results = new ArrayList<BulkRowResult>();
+        final var chunk = new ArrayList<Row>(props.getChunkSize());
+        var truncated = false;
+        var rowNumber = 0;
+        while (true) {
+            final CreateMemberRequestDTO request;
+            try {
+                if (!requests.hasNext()) break;
+                request = requests.next();
+            } catch (RuntimeException unreadable) {
+                // the parser cannot resynchronise after malformed input: report it and stop reading
+                results.add(BulkRowResult.rejected(rowNumber + 1, null, Map.of("row", "Unreadable row: " + unreadable.getMessage())));
+                truncated = true;
+                break;
+            }
+            if (rowNumber == props.getMaxRows()) {
+                truncated = true;
+                break;
+            }
+            chunk.add(new Row(++rowNumber, request));
+            if (chunk.size() == props.getChunkSize()) {
+                results.addAll(registerChunk(chunk, seen));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(registerChunk(chunk, seen));
+        }
+        results.sort(Comparator.comparingInt(BulkRowResult::row));
+        final var created = (int) results.stream().filter(BulkRowResult::isCreated).count();
+        return new BulkRegistrationReport(results.size(), created, results.size() - created, truncated,
+                seen.duplicateEmails(), seen.duplicatePhones(), results);
+    }
+
+    /**
+     * Registers one chunk and returns a result per row, in no particular order.
+     */
+    public List<BulkRowResult> registerChunk(final List<Row> chunk, final Seen seen) {
+        final var results = new ArrayList<BulkRowResult>(chunk.size());
+        final var candidates = new ArrayList<Row>(chunk.size());
+
+        for (final var row : chunk) {
+            final var errors = validate(row.request());
+            if (!errors.isEmpty()) {
+                results.add(BulkRowResult.rejected(row.number(), row.request().email(), errors));
+                continue;
+            }
+            final var normalized = normalize(row.request());
+            final var duplicateErrors = new LinkedHashMap<String, String>();
+            if (!seen.emails.add(normalized.email())) {
+                duplicateErrors.put("email", "Duplicate email in this upload");
+                seen.duplicateEmails.add(normalized.email());
+            }
+            if (!seen.phones.add(normalized.phoneNumber())) {
+                duplicateErrors.put("phoneNumber", "Duplicate phone number in this upload");
+                seen.duplicatePhones.add(normalized.phoneNumber());
+            }
+            if (duplicateErrors.isEmpty()) {
+                candidates.add(new Row(row.number(), normalized));
+            } else {
+                results.add(BulkRowResult.rejected(row.number(), normalized.email(), duplicateErrors));
+            }
+        }
+
+        final var accepted = rejectExisting(candidates, seen, results);
+        if (!accepted.isEmpty()) {
+            results.addAll(insert(accepted));
+        }
+        return results;
+    }
+
+    private List<Row> rejectExisting(final List<Row> candidates, final Seen seen, final List<BulkRowResult> results) {
+        if (candidates.isEmpty()) return candidates;
+        final var emails = candidates.stream().map(row -> row.request().email()).toList();
+        final var phones = candidates.stream().map(row -> row.request().phoneNumber()).toList();
+
+        final var memberQuery = query(new Criteria().orOperator(
+                where("email").in(emails), where("phoneNumber").in(phones)));
+        memberQuery.fields().include("email", "phoneNumber");
+        final var takenEmails = new HashSet<String>();
+        final var takenPhones = new HashSet<String>();
+        for (final var member : mongoTemplate.find(memberQuery, Member.class)) {
+            takenEmails.add(member.getEmail());
+            takenPhones.add(member.getPhoneNumber());
+        }
+        // admin / legacy accounts have a login but no member document
+        final var userQuery = query(where("userName").in(emails));
+        userQuery.fields().include("userName");
+        mongoTemplate.find(userQuery, UserInfo.class).forEach(user -> takenEmails.add(user.getUserName()));
+
+        final var accepted = new ArrayList<Row>(candidates.size());
+        for (final var row : candidates) {
+            final var errors = new LinkedHashMap<String, String>();
+            if (takenEmails.contains(row.request().email())) {
+                errors.put("email", "Email taken");
+                seen.duplicateEmails.add(row.request().email());
+            }
+            if (takenPhones.contains(row.request().phoneNumber())) {
+                errors.put("phoneNumber", "Phone already in use");
+                seen.duplicatePhones.add(row.request().phoneNumber());
+            }
+            if (errors.isEmpty()) {
+                accepted.add(row);
+            } else {
+                results.add(BulkRowResult.rejected(row.number(), row.request().email(), errors));
+            }
+        }
+        return accepted;
+    }
+
+    private List<BulkRowResult> insert(final List<Row> rows) {
+        final var results = new ArrayList<BulkRowResult>(rows.size());
+        final var members = rows.stream().map(row -> {
+            final var member = to(row.request());
+            member.setId(new ObjectId().toHexString());   // users reference it without reading the insert back
+            member.setVersion(0L);                       // so later saves are treated as updates
+            return member;
+        }).toList();
+
+        // duplicates that slipped past the lookup (concurrent writers) fail individually
+        final var failedMembers = bulkInsert(members, Member.class);
+        final var inserted = new ArrayList<Row>(rows.size());
+        final var insertedMembers = new ArrayList<Member>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (failedMembers.containsKey(i)) {
+                results.add(BulkRowResult.rejected(rows.get(i).number(), rows.get(i).request().email(),
+                        Map.of("row", failedMembers.get(i))));
+            } else {
+                inserted.add(rows.get(i));
+                insertedMembers.add(members.get(i));
+            }
+        }
+        if (inserted.isEmpty()) return results;
+
+        final var tempPasswords = inserted.stream().map(row -> generateTempPassword()).toList();
+        final var hashes = passwordEncoder.encodeAll(tempPasswords);
+        final var users = new ArrayList<UserInfo>(inserted.size());
+        for (int i = 0; i < inserted.size(); i++) {
+            users.add(UserInfo.builder()
+                    .userName(inserted.get(i).request().email())
+                    .password(hashes.get(i))
+                    .roles(Set.of(MEMBER.name()))
+                    .mustChangePassword(true)
+                    .memberId(insertedMembers.get(i).getId())
+                    .build());
+        }
+
+        final var failedUsers = bulkInsert(users, UserInfo.class);
+        if (!failedUsers.isEmpty()) {
+            // a member without a login is useless: undo those members
+            final var orphanIds = failedUsers.keySet().stream().map(i -> insertedMembers.get(i).getId()).toList();
+            mongoTemplate.remove(query(where("_id").in(orphanIds)), Member.class);
+        }
+
+        for (int i = 0; i < inserted.size(); i++) {
+            final var row = inserted.get(i);
+            if (failedUsers.containsKey(i)) {
+                results.add(BulkRowResult.rejected(row.number(), row.request().email(), Map.of("row", failedUsers.get(i))));
+                continue;
+            }
+            results.add(BulkRowResult.created(row.number(), insertedMembers.get(i).getId(), row.request().email()));
+            final var tempPassword = tempPasswords.get(i);
+            notificationQueue.enqueue(() -> emailService.sendWelcomeWithTempPassword(
+                    row.request().email(), row.request().name(), tempPassword, loginUrl));
+        }
+        return results;
+    }
+
+    /**
+     * Unordered bulk insert; returns the failure message per failed document index.
+     */
+    private Map<Integer, String> bulkInsert(final List<?> documents, final Class<?> type) {
+        try {
+            mongoTemplate.bulkOps(UNORDERED, type).insert(documents).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors().stream().collect(toMap(
+                    BulkWriteError::getIndex,
+                    error -> error.getCode() == DUPLICATE_KEY ? duplicateMessage(error.getMessage()) : "Insert failed",
+                    (a, b) -> a));
+        }
+    }
+
+    private static String duplicateMessage(final String mongoMessage) {
+        return switch (DuplicateKeys.fromIndexName(mongoMessage).orElse("")) {
+            case "phoneNumber" -> "Phone already in use";
+            case "email", "userName" -> "Email taken";
+            default -> "A unique constraint was violated";
+        };
+    }
+
+    private Map<String, String> validate(final CreateMemberRequestDTO request) {
+        final var violations = validator.validate(request);
+        final var errors = new LinkedHashMap<String, String>();
+        for (final ConstraintViolation<CreateMemberRequestDTO> violation : violations) {
+            errors.putIfAbsent(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static CreateMemberRequestDTO normalize(final CreateMemberRequestDTO request) {
+        return new CreateMemberRequestDTO(request.name(), request.email().trim().toLowerCase(),
+                request.phoneNumber().trim(), request.age(), request.place());
+    }
+}
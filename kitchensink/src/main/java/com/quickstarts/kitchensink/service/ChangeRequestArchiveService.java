@@ -0,0 +1,142 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.ChangeRequestArchiveProperties;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.model.ArchivedChangeRequest;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import com.quickstarts.kitchensink.service.LeasedBatchRunner.BatchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static com.quickstarts.kitchensink.dto.enums.Status.*;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.mongodb.core.BulkOperations.BulkMode.UNORDERED;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Moves reviewed change requests older than {@code archive-after} from {@code member_change_requests} to
+ * {@code member_change_requests_archive}, so the hot collection and its indexes only hold recent work.
+ * Each batch is inserted into the archive before it is removed from the hot collection; a run that dies in
+ * between leaves copies that the next run recognises by their duplicate {@code _id}, so nothing is lost or
+ * archived twice. A run moves nothing unless it gets the {@code change-request-archive} lease.
+ */
+@Slf4j
+@Service
+public class ChangeRequestArchiveService {
+
+    static final String JOB = "change-request-archive";
+    static final String TTL_INDEX = "archive_ttl";
+    private static final List<Status> REVIEWED = List.of(APPROVED, REJECTED, SUPERSEDED);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeRequestArchiveProperties props;
+    private final Clock clock;
+    private final LeasedBatchRunner runner;
+    private final Counter archived;
+
+    @Autowired
+    public ChangeRequestArchiveService(final MongoTemplate mongoTemplate, final SchedulerLeaseService leases,
+                                       final ChangeRequestArchiveProperties props, final MeterRegistry registry) {
+        this(mongoTemplate, leases, props, registry, Clock.systemUTC());
+    }
+
+    ChangeRequestArchiveService(final MongoTemplate mongoTemplate, final SchedulerLeaseService leases,
+                                final ChangeRequestArchiveProperties props, final MeterRegistry registry,
+                                final Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.props = props;
+        this.clock = clock;
+        this.runner = new LeasedBatchRunner(JOB, leases, props, clock);
+        this.archived = registry.counter("member.request.archived");
+    }
+
+    @Scheduled(cron = "${app.admin.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        if (!props.isEnabled()) return;
+        try {
+            applyRetention();
+            archive();
+        } catch (RuntimeException e) {
+            log.warn("change request archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of requests moved to the archive; 0 as well when another node holds the lease
+     */
+    public long archive() {
+        final var cutoff = clock.instant().minus(props.getArchiveAfter());
+        final var moved = runner.run(batchSize -> {
+            // submittedAt bounds the status_submittedAt scan; a request is never reviewed before it is submitted
+            final var due = query(where("status").in(REVIEWED).and("submittedAt").lt(cutoff)
+                    .and("reviewedAt").lt(cutoff))
+                    .limit(batchSize);
+            final var requests = mongoTemplate.find(due, MemberChangeRequest.class);
+            if (requests.isEmpty()) return BatchResult.NONE;
+            return new BatchResult(requests.size(), moveBatch(requests, clock.instant()));
+        });
+        if (moved > 0) {
+            log.info("change request archive: moved {} requests reviewed before {}", moved, cutoff);
+        }
+        return moved;
+    }
+
+    private long moveBatch(final List<MemberChangeRequest> requests, final Instant now) {
+        try {
+            mongoTemplate.bulkOps(UNORDERED, ArchivedChangeRequest.class)
+                    .insert(requests.stream().map(request -> ArchivedChangeRequest.from(request, now)).toList())
+                    .execute();
+        } catch (BulkOperationException e) {
+            // duplicates were archived by an earlier run that died before removing them; anything else stays put
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) throw e;
+        }
+        final var ids = requests.stream().map(MemberChangeRequest::getId).toList();
+        final var removed = mongoTemplate.remove(query(where("_id").in(ids).and("status").in(REVIEWED)),
+                MemberChangeRequest.class).getDeletedCount();
+        archived.increment(removed);
+        return removed;
+    }
+
+    /**
+     * Brings the archive's TTL index in line with {@code retention}: created when first set, changed in place
+     * with {@code collMod} when it differs, dropped when unset.
+     */
+    public void applyRetention() {
+        final var indexOps = mongoTemplate.indexOps(ArchivedChangeRequest.class);
+        final Optional<IndexInfo> existing = indexOps.getIndexInfo().stream()
+                .filter(index -> TTL_INDEX.equals(index.getName()))
+                .findFirst();
+        final var retention = props.getRetention();
+        if (retention == null) {
+            if (existing.isPresent()) {
+                indexOps.dropIndex(TTL_INDEX);
+                log.info("change request archive: retention unset, dropped {}", TTL_INDEX);
+            }
+            return;
+        }
+        if (existing.isEmpty()) {
+            indexOps.createIndex(new Index().on("archivedAt", ASC).named(TTL_INDEX).expire(retention));
+            log.info("change request archive: archived requests now expire after {}", retention);
+        } else if (!existing.get().getExpireAfter().map(retention::equals).orElse(false)) {
+            mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(ArchivedChangeRequest.class))
+                    .append("index", new Document("name", TTL_INDEX).append("expireAfterSeconds", retention.toSeconds())));
+            log.info("change request archive: archived requests now expire after {}", retention);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.ChangeRequestEscalationProperties;
+import com.quickstarts.kitchensink.dto.PendingRequestRow;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import com.quickstarts.kitchensink.model.SchedulerLease;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+
+import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Tells the admin about change requests left PENDING longer than {@code stale-after}, with one mail per run
+ * listing everything that went stale since the last one. Every node schedules it but only the node holding
+ * the lease runs it. Requests are read oldest first on (submittedAt, _id), which the
+ * {@code status_submittedAt} index serves as a range scan, and the position reached is kept on the lease, so
+ * a run on any node, or after a restart, continues from there instead of rescanning the queue; each stale
+ * request is escalated once. The position is recorded after the mail went out, so a run that dies in between
+ * repeats its mail rather than losing it.
+ */
+@Slf4j
+@Service
+public class ChangeRequestEscalationService {
+
+    static final String JOB = "change-request-escalation";
+
+    private final MongoTemplate mongoTemplate;
+    private final SchedulerLeaseService leases;
+    private final EmailService emailService;
+    private final ChangeRequestEscalationProperties props;
+    private final Clock clock;
+    private final Counter escalated;
+
+    @Autowired
+    public ChangeRequestEscalationService(final MongoTemplate mongoTemplate, final SchedulerLeaseService leases,
+                                          final EmailService emailService,
+                                          final ChangeRequestEscalationProperties props,
+                                          final MeterRegistry registry) {
+        this(mongoTemplate, leases, emailService, props, registry, Clock.systemUTC());
+    }
+
+    ChangeRequestEscalationService(final MongoTemplate mongoTemplate, final SchedulerLeaseService leases,
+                                   final EmailService emailService, final ChangeRequestEscalationProperties props,
+                                   final MeterRegistry registry, final Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.leases = leases;
+        this.emailService = emailService;
+        this.props = props;
+        this.clock = clock;
+        this.escalated = registry.counter("member.request.escalated");
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.escalation.interval:PT15M}")
+    public void scheduledEscalate() {
+        if (!props.isEnabled()) return;
+        try {
+            escalate();
+        } catch (RuntimeException e) {
+            log.warn("change request escalation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of requests escalated; 0 as well when another node holds the lease
+     */
+    public int escalate() {
+        final var started = clock.instant();
+        final var lease = leases.acquire(JOB, props.getLease()).orElse(null);
+        if (lease == null) return 0;
+        try {
+            return escalate(lease, started.minus(props.getStaleAfter()));
+        } finally {
+            leases.release(lease, started.plus(props.getInterval()));
+        }
+    }
+
+    private int escalate(final SchedulerLease lease, final Instant cutoff) {
+        var cursorAt = lease.getCursorAt();
+        var cursorId = lease.getCursorId();
+        final var stale = new ArrayList<MemberChangeRequest>();
+        for (int batch = 0; batch < props.getMaxBatchesPerRun(); batch++) {
+            final var found = mongoTemplate.find(staleAfter(cursorAt, cursorId, cutoff), MemberChangeRequest.class);
+            if (found.isEmpty()) break;
+
+            stale.addAll(found);
+            cursorAt = found.getLast().getSubmittedAt();
+            cursorId = found.getLast().getId();
+            if (found.size() < props.getBatchSize()) break;
+        }
+        if (stale.isEmpty()) return 0;
+
+        final var listed = stale.stream().limit(props.getMaxListed()).map(PendingRequestRow::from).toList();
+        emailService.notifyAdminEscalation(listed, stale.size(), props.getStaleAfter());
+        escalated.increment(stale.size());
+        leases.checkpoint(lease, cursorAt, cursorId);
+        log.info("change request escalation: {} requests pending since before {}", stale.size(), cutoff);
+        return stale.size();
+    }
+
+    /**
+     * The next batch of requests submitted before {@code cutoff} and after the cursor, oldest first, with the
+     * columns the mail shows.
+     */
+    private Query staleAfter(final Instant cursorAt, final String cursorId, final Instant cutoff) {
+        final var criteria = where("status").is(PENDING).and("submittedAt").lt(cutoff);
+        if (cursorAt != null) {
+            criteria.orOperator(
+                    where("submittedAt").gt(cursorAt),
+                    where("submittedAt").is(cursorAt).and("_id").gt(cursorId));
+        }
+        final var query = Query.query(criteria)
+                .with(Sort.by(ASC, "submittedAt", "_id"))
+                .limit(props.getBatchSize());
+        query.fields().include("memberEmail", "before.name", "type", "submittedAt", "changes");
+        return query;
+    }
+}
@@ -0,0 +1,52 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.ChangeRequestHistoryItem;
+import com.quickstarts.kitchensink.model.ArchivedChangeRequest;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.lang.Math.clamp;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * A member's change requests across both tiers, newest first. Both collections are read through their
+ * {@code member_history} index with the same limit and merged, so callers never see where a request lives.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChangeRequestHistoryService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+
+    private final MongoTemplate mongoTemplate;
+
+    public List<ChangeRequestHistoryItem> history(final String memberId, final int limit) {
+        final var size = clamp(limit, 1, MAX_LIMIT);
+        final var newestFirst = query(where("memberId").is(memberId))
+                .with(Sort.by(DESC, "submittedAt"))
+                .limit(size);
+        final var hot = mongoTemplate.find(newestFirst, MemberChangeRequest.class).stream()
+                .map(ChangeRequestHistoryItem::from);
+        final var archived = mongoTemplate.find(newestFirst, ArchivedChangeRequest.class).stream()
+                .map(ChangeRequestHistoryItem::from);
+        // a request caught between the archive insert and the hot removal is in both; the hot copy wins
+        final var seen = new HashSet<String>();
+        return Stream.concat(hot, archived)
+                .filter(item -> seen.add(item.id()))
+                .sorted(Comparator.comparing(ChangeRequestHistoryItem::submittedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(size)
+                .toList();
+    }
+}
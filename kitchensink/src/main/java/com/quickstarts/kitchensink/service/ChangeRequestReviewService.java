@@ -0,0 +1,627 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.quickstarts.kitchensink.config.ChangeReviewProperties;
+import com.quickstarts.kitchensink.dto.BulkReviewItem;
+import com.quickstarts.kitchensink.dto.BulkReviewReport;
+import com.quickstarts.kitchensink.dto.BulkReviewRequest;
+import com.quickstarts.kitchensink.dto.MemberPatch;
+import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.exception.NotFoundException;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import com.quickstarts.kitchensink.model.UserInfo;
+import com.quickstarts.kitchensink.service.MemberService.PatchPlan;
+import com.quickstarts.kitchensink.utils.DuplicateKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+
+import static com.quickstarts.kitchensink.dto.BulkReviewItem.Outcome.*;
+import static com.quickstarts.kitchensink.dto.enums.ChangeType.DELETE;
+import static com.quickstarts.kitchensink.dto.enums.ChangeType.UPDATE;
+import static com.quickstarts.kitchensink.dto.enums.Status.IN_REVIEW;
+import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
+import static com.quickstarts.kitchensink.service.MemberService.planPatch;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.mongodb.core.BulkOperations.BulkMode.UNORDERED;
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Approves or rejects change requests, one at a time or many at once.
+ * <p>
+ * An approval first claims the request with a compare-and-set from PENDING to IN_REVIEW under a fresh
+ * {@code claimToken}, so two admins (or two nodes) can never both apply it. The change itself is applied
+ * idempotently: the member patch only writes fields that still differ, the login rename matches on the old
+ * name and a tombstone matches only live members. Only then is the request moved to APPROVED, again matching
+ * on the token, and only the writer of that last step sends the mail. A failed apply puts the request back
+ * to PENDING; a node that dies in between leaves it IN_REVIEW, and {@link #sweep} finishes it once the
+ * claim is older than {@code claimTimeout}.
+ * <p>
+ * Bulk calls handle requests in chunks: the chunk is claimed with one {@code updateMulti}, its members and
+ * logins are loaded with one {@code $in} each, member updates, tombstones and status changes go out as bulk
+ * writes, and mails are queued. Every request gets its own outcome, and one bad request never holds up the
+ * rest of its chunk.
+ */
+@Slf4j
+@Service
+public class ChangeRequestReviewService {
+
+    // reviewedBy of auto-approved requests, followed by the matching rules
+    public static final String AUTO_REVIEWER_PREFIX = "auto:";
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final EmailService emailService;
+    private final NotificationQueue notificationQueue;
+    private final TokenVersionService tokenVersionService;
+    private final MemberService memberService;
+    private final MemberWriteExecutor memberWriteExecutor;
+    private final ChangeRequestStatsService statsService;
+    private final ChangeReviewProperties props;
+    private final Clock clock;
+
+    @Autowired
+    public ChangeRequestReviewService(final MongoTemplate mongoTemplate, final EmailService emailService,
+                                      final NotificationQueue notificationQueue,
+                                      final TokenVersionService tokenVersionService,
+                                      final MemberService memberService,
+                                      final MemberWriteExecutor memberWriteExecutor,
+                                      final ChangeRequestStatsService statsService,
+                                      final ChangeReviewProperties props) {
+        this(mongoTemplate, emailService, notificationQueue, tokenVersionService, memberService,
+                memberWriteExecutor, statsService, props, Clock.systemUTC());
+    }
+
+    ChangeRequestReviewService(final MongoTemplate mongoTemplate, final EmailService emailService,
+                               final NotificationQueue notificationQueue,
+                               final TokenVersionService tokenVersionService, final MemberService memberService,
+                               final MemberWriteExecutor memberWriteExecutor,
+                               final ChangeRequestStatsService statsService, final ChangeReviewProperties props,
+                               final Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.emailService = emailService;
+        this.notificationQueue = notificationQueue;
+        this.tokenVersionService = tokenVersionService;
+        this.memberService = memberService;
+        this.memberWriteExecutor = memberWriteExecutor;
+        this.statsService = statsService;
+        this.props = props;
+        this.clock = clock;
+    }
+
+    private record Selection(List<MemberChangeRequest> pending, List<BulkReviewItem> skipped, boolean truncated) {
+    }
+
+    private record PlannedUpdate(MemberChangeRequest request, PatchPlan plan) {
+    }
+
+    private record BulkResult(int matched, Map<Integer, String> errors) {
+    }
+
+    /**
+     * Claims, applies and approves one request.
+     *
+     * @throws NotFoundException       if there is no such request, or its member is gone
+     * @throws ResponseStatusException (409) if the request is no longer pending
+     */
+    public void approveOne(final String id) {
+        final var claimed = mongoTemplate.findAndModify(
+                query(where("_id").is(id).and("status").is(PENDING)),
+                claim(newToken(), reviewer(), clock.instant()),
+                options().returnNew(true), MemberChangeRequest.class);
+        if (claimed == null) {
+            throw notPending(id);
+        }
+        finish(claimed);
+    }
+
+    /**
+     * Approves the member's pending update on behalf of an auto-approval rule, through the same claim and apply
+     * as an admin approval. The claim also matches the requested values the rule was checked against, so an
+     * update superseding it meanwhile is left for review.
+     *
+     * @return whether the update was applied; if not, it stays pending for an admin
+     */
+    public boolean autoApprove(final String memberId, final MemberUpdateDTO requested, final String rule) {
+        final var claimed = mongoTemplate.findAndModify(
+                query(where("memberId").is(memberId).and("status").is(PENDING).and("type").is(UPDATE)
+                        .and("requested").is(requested)),
+                claim(newToken(), AUTO_REVIEWER_PREFIX + rule, clock.instant()),
+                options().returnNew(true), MemberChangeRequest.class);
+        if (claimed == null) return false;
+        try {
+            finish(claimed);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("auto-approval of change request {} failed, leaving it for review: {}",
+                    claimed.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Rejects one request with a single compare-and-set from PENDING, so it cannot race an approval.
+     */
+    public void rejectOne(final String id, final String reason) {
+        final var rejected = mongoTemplate.findAndModify(
+                query(where("_id").is(id).and("status").is(PENDING)),
+                reviewed(Status.REJECTED, reviewer(), clock.instant()).set("rejectionReason", reason),
+                options().returnNew(true), MemberChangeRequest.class);
+        if (rejected == null) {
+            throw notPending(id);
+        }
+        statsService.reviewed(List.of(rejected), Status.REJECTED, rejected.getReviewedBy(), rejected.getReviewedAt());
+        notificationQueue.enqueue(() -> emailService.notifyMemberRejected(rejected.getMemberEmail(), reason));
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.review.sweep-interval:PT1M}")
+    public void scheduledSweep() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.warn("change request sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Finishes approvals whose claim is older than {@code claimTimeout}. Each is re-claimed under a new token
+     * first, so a slow approver that wakes up afterwards no longer matches and leaves it alone.
+     *
+     * @return the number of requests approved
+     */
+    public int sweep() {
+        final var now = clock.instant();
+        final var stuck = mongoTemplate.find(
+                query(where("status").is(IN_REVIEW).and("claimedAt").lt(now.minus(props.getClaimTimeout())))
+                        .limit(props.getChunkSize()),
+                MemberChangeRequest.class);
+        int finished = 0;
+        for (final var changeRequest : stuck) {
+            final var reclaimed = mongoTemplate.findAndModify(
+                    query(where("_id").is(changeRequest.getId()).and("status").is(IN_REVIEW)
+                            .and("claimToken").is(changeRequest.getClaimToken())),
+                    claim(newToken(), changeRequest.getReviewedBy(), now),
+                    options().returnNew(true), MemberChangeRequest.class);
+            if (reclaimed == null) continue; // finished or re-claimed since it was read
+            try {
+                finish(reclaimed);
+                finished++;
+            } catch (RuntimeException e) {
+                log.warn("change request {} could not be finished and is pending again: {}",
+                        changeRequest.getId(), e.getMessage());
+            }
+        }
+        if (finished > 0) {
+            log.info("change request sweep: finished {} abandoned approvals", finished);
+        }
+        return finished;
+    }
+
+    public BulkReviewReport approve(final BulkReviewRequest request) {
+        final var selection = select(request);
+        final var reviewer = reviewer();
+        final var items = new ArrayList<>(selection.skipped());
+        for (final var chunk : chunks(selection.pending())) {
+            final var token = newToken();
+            final var ids = chunk.stream().map(MemberChangeRequest::getId).toList();
+            mongoTemplate.updateMulti(query(where("_id").in(ids).and("status").is(PENDING)),
+                    claim(token, reviewer, clock.instant()), MemberChangeRequest.class);
+            // approve what was claimed, which a superseding update may have changed since the selection
+            final var claimedNow = withToken(ids, token);
+            final var claimed = new ArrayList<MemberChangeRequest>();
+            for (final var changeRequest : chunk) {
+                if (claimedNow.containsKey(changeRequest.getId())) {
+                    claimed.add(claimedNow.get(changeRequest.getId()));
+                } else {
+                    items.add(BulkReviewItem.of(changeRequest.getId(), SKIPPED, "Not pending"));
+                }
+            }
+            if (!claimed.isEmpty()) {
+                items.addAll(approveChunk(claimed, token, reviewer));
+            }
+        }
+        return BulkReviewReport.of(items, selection.truncated());
+    }
+
+    public BulkReviewReport reject(final BulkReviewRequest request) {
+        final var selection = select(request);
+        final var reviewer = reviewer();
+        final var items = new ArrayList<>(selection.skipped());
+        for (final var chunk : chunks(selection.pending())) {
+            // the token tells the requests this call rejected from those reviewed by someone else meanwhile
+            final var token = newToken();
+            final var now = clock.instant();
+            final var ids = chunk.stream().map(MemberChangeRequest::getId).toList();
+            mongoTemplate.updateMulti(query(where("_id").in(ids).and("status").is(PENDING)),
+                    reviewed(Status.REJECTED, reviewer, now)
+                            .set("rejectionReason", request.reason())
+                            .set("claimToken", token),
+                    MemberChangeRequest.class);
+            final var rejected = withToken(ids, token);
+            statsService.reviewed(rejected.values(), Status.REJECTED, reviewer, now);
+            for (final var changeRequest : chunk) {
+                if (!rejected.containsKey(changeRequest.getId())) {
+                    items.add(BulkReviewItem.of(changeRequest.getId(), SKIPPED, "Not pending"));
+                    continue;
+                }
+                notificationQueue.enqueue(() ->
+                        emailService.notifyMemberRejected(changeRequest.getMemberEmail(), request.reason()));
+                items.add(BulkReviewItem.of(changeRequest.getId(), REJECTED));
+            }
+        }
+        return BulkReviewReport.of(items, selection.truncated());
+    }
+
+    /**
+     * Applies a claimed request and approves it. A failed apply releases the claim and rethrows.
+     */
+    private void finish(final MemberChangeRequest claimed) {
+        final Runnable mail;
+        try {
+            mail = apply(claimed);
+        } catch (RuntimeException e) {
+            release(List.of(claimed), claimed.getClaimToken());
+            throw e;
+        }
+        final var now = clock.instant();
+        final var approved = mongoTemplate.updateFirst(
+                query(where("_id").is(claimed.getId()).and("status").is(IN_REVIEW)
+                        .and("claimToken").is(claimed.getClaimToken())),
+                reviewed(Status.APPROVED, claimed.getReviewedBy(), now), MemberChangeRequest.class);
+        // the sweeper took over a claim that ran past its timeout; it sends the mail
+        if (approved.getModifiedCount() > 0) {
+            statsService.reviewed(List.of(claimed), Status.APPROVED, claimed.getReviewedBy(), now);
+            notificationQueue.enqueue(mail);
+        }
+    }
+
+    /**
+     * Writes the change of a claimed request; running it twice leaves the member as running it once.
+     *
+     * @return the mail to send once the request is approved
+     */
+    private Runnable apply(final MemberChangeRequest changeRequest) {
+        final var email = changeRequest.getMemberEmail();
+        final var memberId = changeRequest.getMemberId();
+        if (changeRequest.getType() == DELETE) {
+            // DELETE: tombstone member + login; the purger removes them later
+            final var name = memberService.tombstone(memberId)
+                    .map(Member::getName)
+                    .orElseGet(() -> changeRequest.getBefore() != null ? changeRequest.getBefore().name() : null);
+            return () -> emailService.notifyMemberDeleteApproved(email, name);
+        }
+
+        // $set of the changed fields only, guarded by the version just read; a concurrent edit makes the
+        // executor re-read the member and apply the requested values on top of it
+        final var patch = MemberPatch.from(changeRequest.fieldChanges());
+        memberWriteExecutor.execute("approve", () -> {
+            final var member = mongoTemplate.findOne(
+                    query(where("_id").is(memberId).and("deletedAt").exists(false)), Member.class);
+            if (member == null) {
+                throw new NotFoundException("Member not found");
+            }
+            return memberService.applyPatch(member, patch);
+        });
+        if (patch.email() != null) {
+            mongoTemplate.updateFirst(
+                    query(where("memberId").is(memberId).and("deletedAt").exists(false)
+                            .and("userName").ne(patch.email())),
+                    new Update().set("userName", patch.email()), UserInfo.class);
+        }
+        return () -> emailService.notifyMemberUpdateApproved(email, changeRequest);
+    }
+
+    /**
+     * Puts claimed requests back to PENDING. One whose member has submitted a new request meanwhile cannot go
+     * back (one pending request per member) and becomes SUPERSEDED instead.
+     */
+    private void release(final List<MemberChangeRequest> requests, final String token) {
+        final var ids = requests.stream().map(MemberChangeRequest::getId).toList();
+        try {
+            mongoTemplate.updateMulti(query(where("_id").in(ids).and("claimToken").is(token)),
+                    released(), MemberChangeRequest.class);
+        } catch (DuplicateKeyException e) {
+            for (final var request : requests) {
+                final var claimed = query(where("_id").is(request.getId()).and("claimToken").is(token));
+                try {
+                    mongoTemplate.updateFirst(claimed, released(), MemberChangeRequest.class);
+                } catch (DuplicateKeyException superseded) {
+                    final var now = clock.instant();
+                    mongoTemplate.updateFirst(claimed,
+                            new Update().set("status", Status.SUPERSEDED).set("reviewedAt", now),
+                            MemberChangeRequest.class);
+                    statsService.reviewed(List.of(request), Status.SUPERSEDED, null, now);
+                }
+            }
+        }
+    }
+
+    private RuntimeException notPending(final String id) {
+        if (!mongoTemplate.exists(query(where("_id").is(id)), MemberChangeRequest.class)) {
+            return new NotFoundException("Change request not found");
+        }
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Not pending");
+    }
+
+    /**
+     * Those of {@code ids} that carry {@code token}, as they are now, read over the {@code _id} index.
+     */
+    private Map<String, MemberChangeRequest> withToken(final List<String> ids, final String token) {
+        return mongoTemplate.find(query(where("_id").in(ids).and("claimToken").is(token)), MemberChangeRequest.class)
+                .stream()
+                .collect(toMap(MemberChangeRequest::getId, identity()));
+    }
+
+    /**
+     * The listed requests in the given order, or the pending ones matching the filter oldest first; both
+     * capped at {@code maxBulkItems}.
+     */
+    private Selection select(final BulkReviewRequest request) {
+        final var max = props.getMaxBulkItems();
+        if (!request.hasIds()) {
+            final var criteria = where("status").is(PENDING);
+            if (request.type() != null) criteria.and("type").is(request.type());
+            if (request.submittedBefore() != null) criteria.and("submittedAt").lt(request.submittedBefore());
+            final var found = mongoTemplate.find(query(criteria)
+                    .with(Sort.by(ASC, "submittedAt", "_id"))
+                    .limit(max + 1), MemberChangeRequest.class);
+            final var truncated = found.size() > max;
+            return new Selection(truncated ? found.subList(0, max) : found, List.of(), truncated);
+        }
+
+        final var ids = request.ids().stream().filter(Objects::nonNull).distinct().toList();
+        final var truncated = ids.size() > max;
+        final var selected = truncated ? ids.subList(0, max) : ids;
+        final var found = mongoTemplate.find(query(where("_id").in(selected)), MemberChangeRequest.class).stream()
+                .collect(toMap(MemberChangeRequest::getId, identity()));
+        final var pending = new ArrayList<MemberChangeRequest>();
+        final var skipped = new ArrayList<BulkReviewItem>();
+        for (final var id : selected) {
+            final var changeRequest = found.get(id);
+            if (changeRequest == null) {
+                skipped.add(BulkReviewItem.of(id, SKIPPED, "Not found"));
+            } else if (changeRequest.getStatus() != PENDING) {
+                skipped.add(BulkReviewItem.of(id, SKIPPED, "Not pending"));
+            } else {
+                pending.add(changeRequest);
+            }
+        }
+        return new Selection(pending, skipped, truncated);
+    }
+
+    private List<BulkReviewItem> approveChunk(final List<MemberChangeRequest> chunk, final String token,
+                                             final String reviewer) {
+        final var now = clock.instant();
+        final var memberIds = chunk.stream().map(MemberChangeRequest::getMemberId).collect(toSet());
+        final var members = mongoTemplate.find(
+                        query(where("_id").in(memberIds).and("deletedAt").exists(false)), Member.class).stream()
+                .collect(toMap(Member::getId, identity()));
+        final var users = mongoTemplate.find(
+                        query(where("memberId").in(memberIds).and("deletedAt").exists(false)), UserInfo.class).stream()
+                .collect(toMap(UserInfo::getMemberId, identity(), (a, b) -> a));
+
+        final var outcomes = new LinkedHashMap<String, BulkReviewItem>();
+        final var claimedMembers = new HashSet<String>();
+        final var updates = new ArrayList<PlannedUpdate>();
+        final var deletes = new ArrayList<MemberChangeRequest>();
+        for (final var changeRequest : chunk) {
+            final var id = changeRequest.getId();
+            // a second request for the same member would be planned against the version the first one bumps
+            if (!claimedMembers.add(changeRequest.getMemberId())) {
+                outcomes.put(id, BulkReviewItem.of(id, CONFLICT, "Another request for this member is in the same batch"));
+                continue;
+            }
+            final var member = members.get(changeRequest.getMemberId());
+            if (changeRequest.getType() == DELETE) {
+                deletes.add(changeRequest);
+                outcomes.put(id, BulkReviewItem.of(id, APPROVED));
+            } else if (member == null) {
+                outcomes.put(id, BulkReviewItem.of(id, FAILED, "Member not found"));
+            } else {
+                planPatch(member, MemberPatch.from(changeRequest.fieldChanges()), now)
+                        .ifPresent(plan -> updates.add(new PlannedUpdate(changeRequest, plan)));
+                outcomes.put(id, BulkReviewItem.of(id, APPROVED));
+            }
+        }
+
+        applyUpdates(updates, users, outcomes);
+        tombstone(deletes, users, now);
+
+        var approved = chunk.stream()
+                .filter(changeRequest -> outcomes.get(changeRequest.getId()).outcome() == APPROVED)
+                .toList();
+        if (approved.size() < chunk.size()) {
+            // failed and conflicting requests go back to the queue
+            release(chunk.stream()
+                    .filter(changeRequest -> outcomes.get(changeRequest.getId()).outcome() != APPROVED).toList(), token);
+        }
+        if (!approved.isEmpty()) {
+            final var ids = approved.stream().map(MemberChangeRequest::getId).toList();
+            final var marked = mongoTemplate.updateMulti(
+                    query(where("_id").in(ids).and("status").is(IN_REVIEW).and("claimToken").is(token)),
+                    reviewed(Status.APPROVED, reviewer, now), MemberChangeRequest.class);
+            if (marked.getModifiedCount() < approved.size()) {
+                // the sweeper took over claims that ran past their timeout; it approves and mails those itself
+                final var stillClaimed = withToken(ids, token).keySet();
+                approved = approved.stream().filter(changeRequest -> stillClaimed.contains(changeRequest.getId()))
+                        .toList();
+                ids.stream().filter(id -> !stillClaimed.contains(id)).forEach(id ->
+                        outcomes.put(id, BulkReviewItem.of(id, SKIPPED, "Claim timed out; finished by the sweeper")));
+            }
+            statsService.reviewed(approved, Status.APPROVED, reviewer, now);
+        }
+        for (final var changeRequest : approved) {
+            final var email = changeRequest.getMemberEmail();
+            if (changeRequest.getType() == DELETE) {
+                final var member = members.get(changeRequest.getMemberId());
+                final var name = member != null ? member.getName() : null;
+                notificationQueue.enqueue(() -> emailService.notifyMemberDeleteApproved(email, name));
+            } else {
+                notificationQueue.enqueue(() -> emailService.notifyMemberUpdateApproved(email, changeRequest));
+            }
+        }
+        return new ArrayList<>(outcomes.values());
+    }
+
+    /**
+     * One unordered bulk write of the versioned member updates, then one of the login renames for members
+     * whose email changed. An update that matched nothing lost a race with another write and stays pending.
+     */
+    private void applyUpdates(final List<PlannedUpdate> updates, final Map<String, UserInfo> users,
+                              final Map<String, BulkReviewItem> outcomes) {
+        if (updates.isEmpty()) return;
+        final var result = bulkUpdate(Member.class,
+                updates.stream().map(update -> Pair.of(update.plan().query(), update.plan().update())).toList());
+        result.errors().forEach((index, message) -> {
+            final var id = updates.get(index).request().getId();
+            outcomes.put(id, BulkReviewItem.of(id, FAILED, message));
+        });
+
+        List<PlannedUpdate> applied = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            if (!result.errors().containsKey(i)) applied.add(updates.get(i));
+        }
+        if (result.matched() < applied.size()) {
+            applied = withoutLostRaces(applied, outcomes);
+        }
+
+        final var renamed = applied.stream()
+                .filter(update -> update.plan().changes().containsKey("email"))
+                .filter(update -> users.containsKey(update.request().getMemberId()))
+                .toList();
+        if (renamed.isEmpty()) return;
+        final var renames = bulkUpdate(UserInfo.class, renamed.stream()
+                .map(update -> Pair.of(
+                        query(where("_id").is(users.get(update.request().getMemberId()).getId())),
+                        new Update().set("userName", update.plan().changes().get("email"))))
+                .toList());
+        renames.errors().forEach((index, message) -> {
+            final var id = renamed.get(index).request().getId();
+            outcomes.put(id, BulkReviewItem.of(id, APPROVED, "Member updated; login not renamed: " + message));
+        });
+    }
+
+    /**
+     * Bulk results only count matches, so re-read the members and keep the updates whose values they hold.
+     */
+    private List<PlannedUpdate> withoutLostRaces(final List<PlannedUpdate> applied,
+                                                 final Map<String, BulkReviewItem> outcomes) {
+        final var ids = applied.stream().map(update -> update.request().getMemberId()).toList();
+        final var current = mongoTemplate.find(query(where("_id").in(ids)), Member.class).stream()
+                .collect(toMap(Member::getId, identity()));
+        final var kept = new ArrayList<PlannedUpdate>();
+        for (final var update : applied) {
+            final var member = current.get(update.request().getMemberId());
+            if (member != null && update.plan().changes().entrySet().stream()
+                    .allMatch(change -> Objects.equals(change.getValue(), fieldValue(member, change.getKey())))) {
+                kept.add(update);
+            } else {
+                final var id = update.request().getId();
+                outcomes.put(id, BulkReviewItem.of(id, CONFLICT, "Member was modified concurrently; approve it again"));
+            }
+        }
+        return kept;
+    }
+
+    private static Object fieldValue(final Member member, final String field) {
+        return switch (field) {
+            case "name" -> member.getName();
+            case "email" -> member.getEmail();
+            case "phoneNumber" -> member.getPhoneNumber();
+            case "age" -> member.getAge();
+            case "place" -> member.getPlace();
+            default -> throw new IllegalArgumentException(field);
+        };
+    }
+
+    /**
+     * Tombstones the members and logins of approved deletions, as {@link MemberService#tombstone} does for one.
+     */
+    private void tombstone(final List<MemberChangeRequest> deletes, final Map<String, UserInfo> users,
+                           final Instant now) {
+        if (deletes.isEmpty()) return;
+        final var memberIds = deletes.stream().map(MemberChangeRequest::getMemberId).toList();
+        mongoTemplate.updateMulti(query(where("_id").in(memberIds).and("deletedAt").exists(false)),
+                new Update().set("deletedAt", now).inc("version", 1), Member.class);
+        mongoTemplate.updateMulti(query(where("memberId").in(memberIds).and("deletedAt").exists(false)),
+                new Update().set("deletedAt", now).set("tokenVersionUpdatedAt", now).inc("tokenVersion", 1),
+                UserInfo.class);
+        memberIds.stream().map(users::get).filter(Objects::nonNull)
+                .forEach(user -> tokenVersionService.remember(user.getUserName(), user.getTokenVersion() + 1));
+    }
+
+    private BulkResult bulkUpdate(final Class<?> type, final List<Pair<Query, Update>> updates) {
+        final var bulk = mongoTemplate.bulkOps(UNORDERED, type);
+        updates.forEach(update -> bulk.updateOne(update.getFirst(), update.getSecond()));
+        try {
+            return new BulkResult(bulk.execute().getMatchedCount(), Map.of());
+        } catch (BulkOperationException e) {
+            return new BulkResult(e.getResult().getMatchedCount(), e.getErrors().stream().collect(toMap(
+                    BulkWriteError::getIndex,
+                    error -> error.getCode() == DUPLICATE_KEY ? duplicateMessage(error.getMessage()) : "Update failed",
+                    (a, b) -> a)));
+        }
+    }
+
+    private static String duplicateMessage(final String mongoMessage) {
+        return switch (DuplicateKeys.fromIndexName(mongoMessage).orElse("")) {
+            case "phoneNumber" -> "Phone already in use";
+            case "email", "userName" -> "Email already in use";
+            default -> "A unique constraint was violated";
+        };
+    }
+
+    private static Update claim(final String token, final String reviewer, final Instant now) {
+        return new Update().set("status", IN_REVIEW).set("claimToken", token).set("claimedAt", now)
+                .set("reviewedBy", reviewer);
+    }
+
+    private static Update released() {
+        return new Update().set("status", PENDING).unset("claimToken").unset("claimedAt").unset("reviewedBy");
+    }
+
+    private static String newToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static Update reviewed(final Status status, final String reviewer, final Instant now) {
+        return new Update().set("status", status).set("reviewedAt", now).set("reviewedBy", reviewer);
+    }
+
+    private List<List<MemberChangeRequest>> chunks(final List<MemberChangeRequest> requests) {
+        final var chunks = new ArrayList<List<MemberChangeRequest>>();
+        for (int from = 0; from < requests.size(); from += props.getChunkSize()) {
+            chunks.add(requests.subList(from, Math.min(from + props.getChunkSize(), requests.size())));
+        }
+        return chunks;
+    }
+
+    private static String reviewer() {
+        return Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication())
+                .map(Authentication::getName)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,215 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.QueueStats;
+import com.quickstarts.kitchensink.dto.QueueStats.ReviewerStats;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.model.ChangeRequestStat;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.quickstarts.kitchensink.dto.enums.Status.*;
+import static com.quickstarts.kitchensink.model.ChangeRequestStat.DAY;
+import static com.quickstarts.kitchensink.model.ChangeRequestStat.OPEN;
+import static java.lang.Math.clamp;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Queue analytics for the admin dashboard. Counts come from the {@code change_request_stats} rollup, which
+ * the submit and review paths update on every status change; the stats call aggregates a few dozen rollup
+ * documents instead of the request collection. Rollup writes never fail a transition: a lost increment is
+ * logged, and the open counts are recounted from the requests every {@code reconcile-interval}.
+ * <p>
+ * Age percentiles cannot be rolled up; each one is read as the k-th newest open request over the
+ * {@code status_submittedAt} index, which walks index keys only.
+ */
+@Slf4j
+@Service
+public class ChangeRequestStatsService {
+
+    public static final int DEFAULT_DAYS = 7;
+    static final int MAX_DAYS = 90;
+    private static final List<Status> OPEN_STATUSES = List.of(PENDING, IN_REVIEW);
+    private static final Map<String, Double> PERCENTILES = Map.of("p50", 0.5, "p90", 0.9, "p99", 0.99);
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+
+    private final MongoTemplate mongoTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public ChangeRequestStatsService(final MongoTemplate mongoTemplate) {
+        this(mongoTemplate, Clock.systemUTC());
+    }
+
+    ChangeRequestStatsService(final MongoTemplate mongoTemplate, final Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.clock = clock;
+    }
+
+    /**
+     * A request entered the queue.
+     */
+    public void submitted(final ChangeType type) {
+        try {
+            incrementOpen(type, 1);
+        } catch (RuntimeException e) {
+            log.warn("change request stats: submission of a {} not counted: {}", type, e.getMessage());
+        }
+    }
+
+    /**
+     * Requests left the queue as {@code status}: one upsert per type and one for the reviewer's day.
+     *
+     * @param reviewer {@code null} for requests the member superseded
+     */
+    public void reviewed(final Collection<MemberChangeRequest> requests, final Status status, final String reviewer,
+                         final Instant at) {
+        if (requests.isEmpty()) return;
+        try {
+            requests.stream().collect(groupingBy(MemberChangeRequest::getType, counting()))
+                    .forEach((type, count) -> incrementOpen(type, -count));
+            final var day = DAY_FORMAT.format(at);
+            final var update = new Update()
+                    .setOnInsert("kind", DAY).setOnInsert("day", day).setOnInsert("reviewer", reviewer)
+                    .inc(status.name().toLowerCase(Locale.ROOT), requests.size());
+            if (status != SUPERSEDED) {
+                update.inc("reviewMillis", requests.stream()
+                        .filter(request -> request.getSubmittedAt() != null)
+                        .mapToLong(request -> Duration.between(request.getSubmittedAt(), at).toMillis())
+                        .sum());
+            }
+            mongoTemplate.upsert(query(where("_id").is(DAY + ":" + day + ":" + (reviewer != null ? reviewer : ""))),
+                    update, ChangeRequestStat.class);
+        } catch (RuntimeException e) {
+            log.warn("change request stats: {} {} requests not counted: {}", requests.size(), status, e.getMessage());
+        }
+    }
+
+    private void incrementOpen(final ChangeType type, final long delta) {
+        mongoTemplate.upsert(query(where("_id").is(OPEN + ":" + type)),
+                new Update().setOnInsert("kind", OPEN).setOnInsert("type", type).inc("count", delta),
+                ChangeRequestStat.class);
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.stats.reconcile-interval:PT1H}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("change request stats reconcile failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recounts the open requests per type and overwrites the rollup with the result. Transitions racing the
+     * recount may be off by a few until the next one.
+     */
+    public void reconcile() {
+        final var counts = new EnumMap<ChangeType, Long>(ChangeType.class);
+        mongoTemplate.aggregate(newAggregation(
+                        match(where("status").in(OPEN_STATUSES)),
+                        group("type").count().as("count")),
+                MemberChangeRequest.class, Document.class)
+                .forEach(row -> counts.put(ChangeType.valueOf(row.getString("_id")), count(row, "count")));
+        for (final var type : ChangeType.values()) {
+            mongoTemplate.upsert(query(where("_id").is(OPEN + ":" + type)),
+                    new Update().set("kind", OPEN).set("type", type).set("count", counts.getOrDefault(type, 0L)),
+                    ChangeRequestStat.class);
+        }
+    }
+
+    public QueueStats stats(final int days) {
+        final var window = clamp(days, 1, MAX_DAYS);
+        final var now = clock.instant();
+
+        final var open = new EnumMap<ChangeType, Long>(ChangeType.class);
+        for (final var type : ChangeType.values()) {
+            open.put(type, 0L);
+        }
+        mongoTemplate.find(query(where("kind").is(OPEN)), ChangeRequestStat.class)
+                .forEach(stat -> open.put(stat.getType(), Math.max(stat.getCount(), 0)));
+        final var total = open.values().stream().mapToLong(Long::longValue).sum();
+
+        final var from = DAY_FORMAT.format(now.minus(Duration.ofDays(window - 1L)));
+        final var reviewers = new ArrayList<ReviewerStats>();
+        long approved = 0;
+        long rejected = 0;
+        long superseded = 0;
+        for (final var row : mongoTemplate.aggregate(newAggregation(
+                        match(where("kind").is(DAY).and("day").gte(from)),
+                        group("reviewer")
+                                .sum("approved").as("approved")
+                                .sum("rejected").as("rejected")
+                                .sum("superseded").as("superseded")
+                                .sum("reviewMillis").as("reviewMillis"),
+                        sort(Sort.by(DESC, "approved"))),
+                ChangeRequestStat.class, Document.class)) {
+            approved += count(row, "approved");
+            rejected += count(row, "rejected");
+            superseded += count(row, "superseded");
+            final var reviewer = row.getString("_id");
+            final var reviewed = count(row, "approved") + count(row, "rejected");
+            if (reviewer != null && reviewed > 0) {
+                reviewers.add(new ReviewerStats(reviewer, count(row, "approved"), count(row, "rejected"),
+                        Duration.ofMillis(count(row, "reviewMillis") / reviewed)));
+            }
+        }
+        final Double approvalRate = approved + rejected > 0 ? (double) approved / (approved + rejected) : null;
+        return new QueueStats(open, openAge(total, now), window, approved, rejected, superseded, approvalRate,
+                reviewers);
+    }
+
+    private Map<String, Duration> openAge(final long total, final Instant now) {
+        final var ages = new LinkedHashMap<String, Duration>();
+        if (total == 0) return ages;
+        PERCENTILES.entrySet().stream().sorted(Map.Entry.comparingByValue()).forEach(percentile ->
+                ageOfNewest((long) Math.ceil(percentile.getValue() * total), now)
+                        .ifPresent(age -> ages.put(percentile.getKey(), age)));
+        ageOfNewest(total, now).ifPresent(age -> ages.put("oldest", age));
+        return ages;
+    }
+
+    /**
+     * The age of the {@code rank}-th newest open request; empty if the rollup counted more than there are.
+     */
+    private Optional<Duration> ageOfNewest(final long rank, final Instant now) {
+        final var kth = query(where("status").in(OPEN_STATUSES))
+                .with(Sort.by(DESC, "submittedAt"))
+                .skip(Math.max(rank - 1, 0))
+                .limit(1);
+        kth.fields().include("submittedAt");
+        return Optional.ofNullable(mongoTemplate.findOne(kth, MemberChangeRequest.class))
+                .map(MemberChangeRequest::getSubmittedAt)
+                .map(submittedAt -> Duration.between(submittedAt, now));
+    }
+
+    private static long count(final Document row, final String field) {
+        return row.get(field) instanceof Number number ? number.longValue() : 0;
+    }
+}
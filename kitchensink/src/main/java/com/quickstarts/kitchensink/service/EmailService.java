@@ -2,7 +2,8 @@ package com.quickstarts.kitchensink.service;
 
 
 import com.quickstarts.kitchensink.config.EmailProperties;
-import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import com.quickstarts.kitchensink.dto.FieldChange;
+import com.quickstarts.kitchensink.dto.PendingRequestRow;
 import com.quickstarts.kitchensink.model.Member;
 import com.quickstarts.kitchensink.model.MemberChangeRequest;
 import lombok.RequiredArgsConstructor;
@@ -14,8 +15,12 @@ import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.HtmlUtils;
 
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -28,6 +33,9 @@ import static org.springframework.web.util.HtmlUtils.htmlEscape;
 @Slf4j
 public class EmailService {
 
+    private static final DateTimeFormatter SUBMITTED_AT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneOffset.UTC);
+
     private final JavaMailSender mailSender;
     private final EmailProperties props;
 
@@ -65,16 +73,10 @@ public class EmailService {
     }
 
     public void notifyMemberUpdateApproved(final String memberEmail, final MemberChangeRequest changeRequest) {
-        final var memberSnapshotBefore = changeRequest.getBefore();     // snapshot before change
-        final var memberUpdateDTO = changeRequest.getRequested();  // values requested
         final var rows = new StringBuilder();
-        diffRow(rows, "Name", memberSnapshotBefore.name(), memberUpdateDTO.name());
-        diffRow(rows, "Email", memberSnapshotBefore.email(), memberUpdateDTO.email());
-        diffRow(rows, "Phone", memberSnapshotBefore.phoneNumber(), memberUpdateDTO.phoneNumber());
-        diffRow(rows, "Age", memberSnapshotBefore.age(), memberUpdateDTO.age());
-        diffRow(rows, "Place", memberSnapshotBefore.place(), memberUpdateDTO.place());
+        changeRequest.fieldChanges().forEach((field, change) -> diffRow(rows, label(field), change));
 
-        final var memberName = memberSnapshotBefore.name();
+        final var memberName = changeRequest.getBefore() != null ? changeRequest.getBefore().name() : null;
 
         final var html = """
                 <div style="font-family:system-ui,-apple-system,Segoe UI,Roboto,Arial,sans-serif;color:#111">
@@ -121,17 +123,13 @@ public class EmailService {
     }
 
     // --- HTML email: UPDATE ---
-    public void notifyAdminUpdate(final Member member, final MemberUpdateDTO memberUpdateDTO) {
+    public void notifyAdminUpdate(final Member member, final Map<String, FieldChange<?>> changes) {
         if (adminEmail == null || adminEmail.isBlank()) return;
 
         String reviewUrl = baseUrl + "/auth/admin-gate?go=/admin/requests";
 
         StringBuilder rows = new StringBuilder();
-        rows.append(htmlRow("Name", member.getName(), memberUpdateDTO.name()));
-        rows.append(htmlRow("Email", member.getEmail(), memberUpdateDTO.email()));
-        rows.append(htmlRow("Phone", member.getPhoneNumber(), memberUpdateDTO.phoneNumber()));
-        rows.append(htmlRow("Age", member.getAge(), memberUpdateDTO.age()));
-        rows.append(htmlRow("Place", member.getPlace(), memberUpdateDTO.place()));
+        changes.forEach((field, change) -> rows.append(htmlRow(label(field), change)));
 
         String html = """
                 <!DOCTYPE html>
@@ -220,6 +218,81 @@ public class EmailService {
         sendHtml(List.of(adminEmail), "Member delete request", html);
     }
 
+    // --- HTML email: stale requests ---
+
+    /**
+     * One mail for every request that went stale since the last escalation.
+     *
+     * @param oldest the requests listed, oldest first
+     * @param total  how many went stale; those beyond {@code oldest} are only counted
+     */
+    public void notifyAdminEscalation(final List<PendingRequestRow> oldest, final int total,
+                                      final Duration staleAfter) {
+        if (adminEmail == null || adminEmail.isBlank() || oldest.isEmpty()) return;
+
+        final var reviewUrl = baseUrl + "/auth/admin-gate?go=/admin/requests";
+
+        final var rows = new StringBuilder();
+        oldest.forEach(request -> rows.append("""
+                <tr>
+                  <td style="padding:8px 6px;border-bottom:1px solid #f3f4f6;">%s<br><span style="color:#6b7280;font-size:12px;">%s</span></td>
+                  <td style="padding:8px 6px;border-bottom:1px solid #f3f4f6;">%s</td>
+                  <td style="padding:8px 6px;border-bottom:1px solid #f3f4f6;">%s</td>
+                </tr>
+                """.formatted(escape(request.memberName()), escape(request.memberEmail()), escape(request.type()),
+                escape(request.submittedAt() != null ? SUBMITTED_AT.format(request.submittedAt()) : null))));
+        final var more = total > oldest.size()
+                ? "<p style=\"margin:12px 0 0;color:#6b7280;font-size:13px;\">and %d more</p>".formatted(total - oldest.size())
+                : "";
+
+        final var html = """
+                <!DOCTYPE html>
+                <html><head><meta charset="utf-8"><meta name="viewport" content="width=device-width,initial-scale=1">
+                <title>Change requests waiting for review</title></head>
+                <body style="margin:0;padding:0;background:#f6f8fb;">
+                  <table role="presentation" width="100%%" cellspacing="0" cellpadding="0" border="0" style="background:#f6f8fb;padding:24px 0;">
+                    <tr><td align="center">
+                      <table width="600" cellspacing="0" cellpadding="0" border="0"
+                             style="background:#ffffff;border-radius:12px;border:1px solid #e5e7eb;
+                                    font-family:system-ui,-apple-system,Segoe UI,Roboto,Arial,sans-serif;color:#111827;">
+                        <tr><td style="padding:20px 24px;border-bottom:1px solid #e5e7eb;">
+                          <h2 style="margin:0;font-size:18px;">Change requests waiting for review</h2>
+                          <p style="margin:6px 0 0;color:#6b7280;font-size:14px;">%d pending for more than %s</p>
+                        </td></tr>
+                        <tr><td style="padding:16px 24px;">
+                          <table width="100%%" cellspacing="0" cellpadding="0" border="0" style="border-collapse:collapse;">
+                            <thead><tr>
+                              <th align="left" style="padding:8px 6px;border-bottom:1px solid #e5e7eb;font-size:12px;color:#6b7280;text-transform:uppercase;letter-spacing:.03em;">Member</th>
+                              <th align="left" style="padding:8px 6px;border-bottom:1px solid #e5e7eb;font-size:12px;color:#6b7280;text-transform:uppercase;letter-spacing:.03em;">Type</th>
+                              <th align="left" style="padding:8px 6px;border-bottom:1px solid #e5e7eb;font-size:12px;color:#6b7280;text-transform:uppercase;letter-spacing:.03em;">Submitted (UTC)</th>
+                            </tr></thead>
+                            <tbody>
+                              %s
+                            </tbody>
+                          </table>
+                          %s
+                        </td></tr>
+                        <tr><td style="padding:18px 24px;border-top:1px solid #e5e7eb;" align="right">
+                          <a href="%s" style="display:inline-block;padding:10px 14px;background:#f59e0b;color:#ffffff;text-decoration:none;border-radius:8px;font-weight:600;">Open Admin Console</a>
+                        </td></tr>
+                      </table>
+                    </td></tr>
+                  </table>
+                </body></html>
+                """.formatted(total, escape(describe(staleAfter)), rows, more, escape(reviewUrl));
+        sendHtml(List.of(adminEmail), "Change requests waiting for review", html);
+    }
+
+    private static String describe(final Duration duration) {
+        if (duration.toHoursPart() == 0 && duration.toMinutesPart() == 0 && duration.toDays() > 0) {
+            return duration.toDays() == 1 ? "1 day" : duration.toDays() + " days";
+        }
+        if (duration.toMinutesPart() == 0 && duration.toHours() > 0) {
+            return duration.toHours() == 1 ? "1 hour" : duration.toHours() + " hours";
+        }
+        return duration.toMinutes() + " minutes";
+    }
+
     /**
      * Send HTML mail recipients multiple recipients.
      */
@@ -259,23 +332,14 @@ public class EmailService {
     }
 
     /**
-     * Append a table row only when a value actually changes.
+     * Append a table row for one changed field.
      */
-    private void diffRow(
-            final StringBuilder stringBuilder,
-            final String label,
-            final Object before,
-            final Object after
-    ) {
-        final String b = before == null ? "" : String.valueOf(before);
-        final String a = after == null ? b : String.valueOf(after); // treat null "requested" as unchanged
-        if (!java.util.Objects.equals(b, a)) {
-            stringBuilder.append("<tr>")
-                    .append("<td>").append(escape(label)).append("</td>")
-                    .append("<td>").append(escape(b)).append("</td>")
-                    .append("<td>").append(escape(a)).append("</td>")
-                    .append("</tr>");
-        }
+    private void diffRow(final StringBuilder stringBuilder, final String label, final FieldChange<?> change) {
+        stringBuilder.append("<tr>")
+                .append("<td>").append(escape(label)).append("</td>")
+                .append("<td>").append(escape(change.from())).append("</td>")
+                .append("<td>").append(escape(change.to())).append("</td>")
+                .append("</tr>");
     }
 
     /**
@@ -311,29 +375,25 @@ public class EmailService {
         return HtmlUtils.htmlEscape(value == null ? "" : String.valueOf(value));
     }
 
-    private static String htmlRow(final String field, final Object current, final Object requested) {
-        String cur = escape(current);
-        boolean hasReq = requested != null && !String.valueOf(requested).isBlank();
-        String req = hasReq ? escape(requested) : "—";
-        boolean changed = hasReq && !String.valueOf(requested).equals(String.valueOf(current));
-
-        String reqStyle = changed
-                ? "font-weight:600;color:#16a34a;"
-                : "color:#6b7280;";
-
+    private static String htmlRow(final String field, final FieldChange<?> change) {
         return """
                 <tr>
                   <td style="padding:8px 6px;border-bottom:1px solid #f3f4f6;">%s</td>
                   <td style="padding:8px 6px;border-bottom:1px solid #f3f4f6;">%s</td>
-                  <td style="padding:8px 6px;border-bottom:1px solid #f3f4f6;%s">%s%s</td>
+                  <td style="padding:8px 6px;border-bottom:1px solid #f3f4f6;font-weight:600;color:#16a34a;">%s</td>
                 </tr>
-                """.formatted(
-                escape(field),
-                cur,
-                reqStyle,
-                req,
-                changed ? " <span style='color:#9ca3af'>(changed)</span>" : ""
-        );
+                """.formatted(escape(field), escape(change.from()), escape(change.to()));
+    }
+
+    private static String label(final String field) {
+        return switch (field) {
+            case "name" -> "Name";
+            case "email" -> "Email";
+            case "phoneNumber" -> "Phone";
+            case "age" -> "Age";
+            case "place" -> "Place";
+            default -> field;
+        };
     }
 
     public void notifyMemberUpdated(final String memberEmail, final String memberName) {
@@ -0,0 +1,230 @@
+package com.quickstarts.kitchensink.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickstarts.kitchensink.config.IdempotencyProperties;
+import com.quickstarts.kitchensink.exception.ConflictException;
+import com.quickstarts.kitchensink.model.IdempotencyRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.quickstarts.kitchensink.model.IdempotencyRecord.Status.COMPLETED;
+import static com.quickstarts.kitchensink.model.IdempotencyRecord.Status.IN_PROGRESS;
+import static com.quickstarts.kitchensink.utils.MemberUtils.hasText;
+import static java.lang.Boolean.TRUE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}. The first request claims the key with an
+ * IN_PROGRESS record; its response is then stored and replayed to retries, which never reach the service
+ * method. Keys are scoped per endpoint and caller, and expire through a TTL index. Completed responses are
+ * also kept in a small in-memory cache, since gateway retries usually land on the same node.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties props;
+    private final Clock clock;
+    private final Map<String, CachedResponse> cache = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyService(final MongoTemplate mongoTemplate,
+                              final ObjectMapper objectMapper,
+                              final IdempotencyProperties props) {
+        this(mongoTemplate, objectMapper, props, Clock.systemUTC());
+    }
+
+    IdempotencyService(final MongoTemplate mongoTemplate,
+                       final ObjectMapper objectMapper,
+                       final IdempotencyProperties props,
+                       final Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.props = props;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the stored response if {@code key} was already completed for this scope and caller, otherwise runs
+     * {@code action} and stores its result. Without a key the action simply runs.
+     *
+     * @throws ConflictException if the first request with this key is still running
+     * @throws ResponseStatusException 422 if the key was used before with a different request
+     */
+    public <T> T execute(final String scope,
+                         @Nullable final String key,
+                         final Object request,
+                         final Class<T> responseType,
+                         final Supplier<T> action) {
+        if (!props.isEnabled() || !hasText(key)) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(BAD_REQUEST, "Idempotency-Key is too long");
+        }
+        final var id = scope + ':' + owner() + ':' + key;
+        final var requestHash = requestHash(request);
+        final var now = clock.instant();
+
+        final var cached = cache.get(id);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return replay(id, cached.requestHash(), cached.response(), requestHash, responseType);
+        }
+        final var completed = claim(id, requestHash, now);
+        if (completed.isPresent()) {
+            remember(id, requestHash, completed.get().getResponse(), now);
+            return replay(id, completed.get().getRequestHash(), completed.get().getResponse(), requestHash, responseType);
+        }
+
+        final T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            // let a retry run the request again
+            mongoTemplate.remove(query(where("_id").is(id).and("status").is(IN_PROGRESS)), IdempotencyRecord.class);
+            throw e;
+        }
+        final var response = toJson(result);
+        try {
+            mongoTemplate.updateFirst(query(where("_id").is(id).and("status").is(IN_PROGRESS)),
+                    new Update().set("status", COMPLETED).set("response", response), IdempotencyRecord.class);
+        } catch (RuntimeException e) {
+            // the request itself succeeded; a retry after the lock timeout would run it again
+            log.warn("idempotency: could not store response for {}: {}", id, e.getMessage());
+        }
+        remember(id, requestHash, response, now);
+        return result;
+    }
+
+    public void execute(final String scope, @Nullable final String key, final Object request, final Runnable action) {
+        execute(scope, key, request, Boolean.class, () -> {
+            action.run();
+            return TRUE;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT1M}")
+    public void evictExpired() {
+        final var now = clock.instant();
+        cache.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+    }
+
+    /**
+     * Inserts the IN_PROGRESS record, or returns the completed record already stored under {@code id}.
+     */
+    private Optional<IdempotencyRecord> claim(final String id, final String requestHash, final Instant now) {
+        try {
+            mongoTemplate.insert(IdempotencyRecord.builder()
+                    .id(id)
+                    .requestHash(requestHash)
+                    .status(IN_PROGRESS)
+                    .createdAt(now)
+                    .expiresAt(now.plus(props.getTtl()))
+                    .build());
+            return Optional.empty();
+        } catch (DuplicateKeyException e) {
+            final var existing = mongoTemplate.findById(id, IdempotencyRecord.class);
+            if (existing != null && existing.getStatus() == COMPLETED) {
+                return Optional.of(existing);
+            }
+            if (existing != null && !existing.getRequestHash().equals(requestHash)) {
+                throw keyReused();
+            }
+            if (existing != null && existing.getCreatedAt().plus(props.getLockTimeout()).isBefore(now)) {
+                final var takenOver = mongoTemplate.updateFirst(
+                        query(where("_id").is(id).and("status").is(IN_PROGRESS).and("createdAt").is(existing.getCreatedAt())),
+                        new Update().set("createdAt", now).set("expiresAt", now.plus(props.getTtl())),
+                        IdempotencyRecord.class);
+                if (takenOver.getModifiedCount() == 1) {
+                    log.warn("idempotency: took over stale key {}", id);
+                    return Optional.empty();
+                }
+            }
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    private <T> T replay(final String id,
+                         final String storedHash,
+                         final String response,
+                         final String requestHash,
+                         final Class<T> responseType) {
+        if (!storedHash.equals(requestHash)) {
+            throw keyReused();
+        }
+        log.debug("idempotency: replaying {}", id);
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for " + id + " is unreadable", e);
+        }
+    }
+
+    private void remember(final String id, final String requestHash, final String response, final Instant now) {
+        if (cache.size() < props.getCacheMaxEntries()) {
+            cache.put(id, new CachedResponse(requestHash, response, now.plus(props.getCacheTtl())));
+        }
+    }
+
+    String requestHash(final Object request) {
+        return sha256(toJson(request));
+    }
+
+    private String toJson(final Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialise " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static String owner() {
+        return Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication())
+                .map(Authentication::getName)
+                .orElse("anonymous");
+    }
+
+    private static String sha256(final String value) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static ResponseStatusException keyReused() {
+        return new ResponseStatusException(UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+    }
+
+    private record CachedResponse(String requestHash, String response, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.JwtProperties;
+import com.quickstarts.kitchensink.model.JwtSigningKey;
+import com.quickstarts.kitchensink.repo.JwtSigningKeyRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.stream.Collectors.toUnmodifiableMap;
+
+/**
+ * RS256 key ring. Each node signs with its own private key, identified by the {@code kid} header, and
+ * publishes the public half to Mongo so any node can verify any token. Decoded public keys are cached by
+ * {@code kid}; a {@code kid} not seen yet (another node just rotated) is looked up once and then cached. Those
+ * lookups are limited to one per {@code unknown-kid-lookup-interval}, so tokens carrying made-up {@code kid}s
+ * cannot turn every parse into a Mongo read; a real key missed that way arrives with the next refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JwtKeyRing {
+
+    public static final String ALGORITHM = "RS256";
+
+    // slack for clock skew between nodes and the scheduler firing late
+    private static final Duration RETIRE_MARGIN = Duration.ofMinutes(5);
+
+    private final JwtSigningKeyRepository repository;
+    private final JwtProperties properties;
+
+    private final Map<String, VerificationKey> verificationKeys = new ConcurrentHashMap<>();
+
+    private final AtomicReference<Instant> nextLookup = new AtomicReference<>(Instant.EPOCH);
+
+    private volatile SigningKey current;
+    private volatile boolean currentPublished;
+
+    public record SigningKey(String kid, PrivateKey privateKey, RSAPublicKey publicKey) {
+    }
+
+    private record VerificationKey(RSAPublicKey publicKey, Instant retireAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        rotate();
+        refresh();
+    }
+
+    public SigningKey signingKey() {
+        return current;
+    }
+
+    public Optional<RSAPublicKey> publicKey(final String kid) {
+        final var cached = verificationKeys.get(kid);
+        if (cached != null) {
+            return cached.retireAt().isAfter(Instant.now()) ? Optional.of(cached.publicKey()) : Optional.empty();
+        }
+        if (!lookupAllowed()) {
+            return Optional.empty();
+        }
+        return repository.findById(kid)
+                .filter(key -> key.getRetireAt().isAfter(Instant.now()))
+                .map(this::cache);
+    }
+
+    private boolean lookupAllowed() {
+        final var now = Instant.now();
+        final var next = nextLookup.get();
+        return !now.isBefore(next)
+                && nextLookup.compareAndSet(next, now.plus(properties.getUnknownKidLookupInterval()));
+    }
+
+    /**
+     * Every public key that may still verify an unexpired token, keyed by {@code kid}.
+     */
+    public Map<String, RSAPublicKey> activeKeys() {
+        final var now = Instant.now();
+        return verificationKeys.entrySet().stream()
+                .filter(e -> e.getValue().retireAt().isAfter(now))
+                .collect(toUnmodifiableMap(Map.Entry::getKey, e -> e.getValue().publicKey()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.key-rotation-interval:P1D}",
+            initialDelayString = "${app.jwt.key-rotation-interval:P1D}")
+    public synchronized void rotate() {
+        final var previous = current;
+        final var next = generate();
+        final var now = Instant.now();
+        // until the next rotation plus the lifetime of the last token it signs
+        final var retireAt = now.plus(properties.getKeyRotationInterval())
+                .plus(properties.getAccessTokenTtl()).plus(RETIRE_MARGIN);
+
+        verificationKeys.put(next.kid(), new VerificationKey(next.publicKey(), retireAt));
+        current = next;
+        currentPublished = publish(JwtSigningKey.builder()
+                .kid(next.kid())
+                .algorithm(ALGORITHM)
+                .publicKey(Base64.getEncoder().encodeToString(next.publicKey().getEncoded()))
+                .createdAt(now)
+                .retireAt(retireAt)
+                .build());
+
+        if (previous != null) {
+            // no new tokens are signed with it: keep it only as long as its last token lives
+            final var previousRetireAt = now.plus(properties.getAccessTokenTtl()).plus(RETIRE_MARGIN);
+            verificationKeys.computeIfPresent(previous.kid(), (kid, key) -> new VerificationKey(key.publicKey(), previousRetireAt));
+            try {
+                repository.findById(previous.kid()).ifPresent(key -> {
+                    key.setRetireAt(previousRetireAt);
+                    repository.save(key);
+                });
+            } catch (Exception e) {
+                log.warn("could not shorten retirement of signing key {}: {}", previous.kid(), e.getMessage());
+            }
+        }
+        log.info("jwt signing key rotated to {}", next.kid());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.key-refresh-interval:PT1M}",
+            initialDelayString = "${app.jwt.key-refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        final var now = Instant.now();
+        verificationKeys.values().removeIf(key -> !key.retireAt().isAfter(now));
+        try {
+            if (!currentPublished) {
+                final var key = current;
+                currentPublished = publish(repository.findById(key.kid()).orElseGet(() -> JwtSigningKey.builder()
+                        .kid(key.kid())
+                        .algorithm(ALGORITHM)
+                        .publicKey(Base64.getEncoder().encodeToString(key.publicKey().getEncoded()))
+                        .createdAt(now)
+                        .retireAt(verificationKeys.get(key.kid()).retireAt())
+                        .build()));
+            }
+            repository.findByRetireAtAfter(now).forEach(this::cache);
+        } catch (Exception e) {
+            log.warn("jwt signing key refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean publish(final JwtSigningKey key) {
+        try {
+            repository.save(key);
+            return true;
+        } catch (Exception e) {
+            // other nodes cannot verify our tokens until this succeeds; refresh() retries
+            log.warn("could not publish jwt signing key {}: {}", key.getKid(), e.getMessage());
+            return false;
+        }
+    }
+
+    private RSAPublicKey cache(final JwtSigningKey key) {
+        final var cached = verificationKeys.get(key.getKid());
+        if (cached != null && cached.retireAt().equals(key.getRetireAt())) {
+            return cached.publicKey();
+        }
+        final var publicKey = cached != null ? cached.publicKey() : decode(key.getPublicKey());
+        verificationKeys.put(key.getKid(), new VerificationKey(publicKey, key.getRetireAt()));
+        return publicKey;
+    }
+
+    private SigningKey generate() {
+        try {
+            final var generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(properties.getRsaKeySize());
+            final var pair = generator.generateKeyPair();
+            return new SigningKey(UUID.randomUUID().toString(), pair.getPrivate(), (RSAPublicKey) pair.getPublic());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("RSA key generation not available", e);
+        }
+    }
+
+    private static RSAPublicKey decode(final String encoded) {
+        try {
+            final var spec = new X509EncodedKeySpec(Base64.getDecoder().decode(encoded));
+            return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(spec);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid published signing key", e);
+        }
+    }
+}
@@ -1,24 +1,58 @@
 package com.quickstarts.kitchensink.service;
 
+import com.quickstarts.kitchensink.config.JwtProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Component
 public class JwtService {
 
-    public static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+    public static final String ROLES_CLAIM = "roles";
+
+    private final JwtProperties properties;
+    private final JwtKeyRing keyRing;
+    private final SigningKeyResolver signingKeyResolver = new SigningKeyResolverAdapter() {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            return resolveKey(header);
+        }
+    };
+
+    public JwtService(final JwtProperties properties, final JwtKeyRing keyRing) {
+        this.properties = properties;
+        this.keyRing = keyRing;
+    }
+
+    /**
+     * Verifies the signature and expiry once; the accessors below read the result without parsing again.
+     */
+    public Claims parse(String token) {
+        return Jwts
+                .parserBuilder()
+                .setSigningKeyResolver(signingKeyResolver)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -28,49 +62,90 @@ public class JwtService {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public long extractTokenVersion(String token) {
+        return tokenVersion(parse(token));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public long tokenVersion(Claims claims) {
+        final Number version = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        return version == null ? 0L : version.longValue();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Roles embedded at issue time, or an empty list for tokens issued before roles were embedded.
+     */
+    public List<String> extractRoles(String token) {
+        return roles(parse(token));
+    }
+
+    public List<String> roles(Claims claims) {
+        final List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return roles == null ? List.of() : roles.stream().map(String::valueOf).toList();
+    }
+
+    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+        return claimsResolver.apply(parse(token));
     }
 
     public boolean validateToken(String token, UserDetails user) {
         try {
-            return extractUsername(token).equalsIgnoreCase(user.getUsername())
-                    && !isTokenExpired(token);
+            return isValid(parse(token), user);
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
 
+    public boolean isValid(Claims claims, UserDetails user) {
+        return claims.getSubject() != null && claims.getSubject().equalsIgnoreCase(user.getUsername())
+                && claims.getExpiration() != null && claims.getExpiration().after(new Date());
+    }
+
     public String generateToken(String userName){
+        return generateToken(userName, 0L);
+    }
+
+    public String generateToken(String userName, long tokenVersion) {
+        return generateToken(userName, tokenVersion, List.of());
+    }
+
+    public String generateToken(String userName, long tokenVersion, Collection<String> roles) {
         Map<String,Object> claims=new HashMap<>();
+        claims.put(TOKEN_VERSION_CLAIM, tokenVersion);
+        if (!roles.isEmpty()) {
+            claims.put(ROLES_CLAIM, List.copyOf(roles));
+        }
         return createToken(claims,userName);
     }
 
+    public long getAccessTokenTtlSeconds() {
+        return properties.getAccessTokenTtl().toSeconds();
+    }
+
     private String createToken(Map<String, Object> claims, String userName) {
+        final var signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setClaims(claims)
                 .setSubject(userName)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis()+1000*60*30))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256).compact();
+                .setExpiration(new Date(System.currentTimeMillis() + properties.getAccessTokenTtl().toMillis()))
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.RS256).compact();
+    }
+
+    private Key resolveKey(JwsHeader<?> header) {
+        final var kid = header.getKeyId();
+        if (kid != null) {
+            return keyRing.publicKey(kid).orElseThrow(() -> new JwtException("Unknown or retired signing key: " + kid));
+        }
+        if (acceptsLegacy()) {
+            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(properties.getLegacyHs256Secret()));
+        }
+        throw new JwtException("Token has no key id");
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes= Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private boolean acceptsLegacy() {
+        final var until = properties.getAcceptLegacyUntil();
+        final var secret = properties.getLegacyHs256Secret();
+        return until != null && Instant.now().isBefore(until) && secret != null && !secret.isBlank();
     }
 }
@@ -0,0 +1,77 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.BatchJobProperties;
+
+import java.time.Clock;
+
+/**
+ * Runs a job that every node schedules but only one should run: the run takes the job's lease from
+ * {@link SchedulerLeaseService} and keeps other nodes off it for {@code lease} from its start, so nodes whose
+ * schedule fires a little later skip that run. The work goes in batches of {@code batchSize}, at most
+ * {@code maxBatchesPerRun} of them, with {@code pauseBetweenBatches} in between so replication keeps up; a
+ * short batch ends the run, and whatever is left waits for the next one.
+ */
+final class LeasedBatchRunner {
+
+    @FunctionalInterface
+    interface Batch {
+        /**
+         * Works through the next batch of at most {@code batchSize} documents.
+         */
+        BatchResult next(int batchSize);
+    }
+
+    /**
+     * @param read    documents the batch found; fewer than the batch size ends the run
+     * @param handled of those, the ones it removed or moved
+     */
+    record BatchResult(int read, long handled) {
+
+        static final BatchResult NONE = new BatchResult(0, 0);
+    }
+
+    private final String job;
+    private final SchedulerLeaseService leases;
+    private final BatchJobProperties props;
+    private final Clock clock;
+
+    LeasedBatchRunner(final String job, final SchedulerLeaseService leases, final BatchJobProperties props,
+                      final Clock clock) {
+        this.job = job;
+        this.leases = leases;
+        this.props = props;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the documents handled; 0 as well when another node holds the lease
+     */
+    long run(final Batch batch) {
+        final var started = clock.instant();
+        final var lease = leases.acquire(job, props.getLease()).orElse(null);
+        if (lease == null) return 0;
+        try {
+            long handled = 0;
+            for (int i = 0; i < props.getMaxBatchesPerRun(); i++) {
+                final var result = batch.next(props.getBatchSize());
+                handled += result.handled();
+                if (result.read() < props.getBatchSize()) break;
+                if (!pause()) break;
+            }
+            return handled;
+        } finally {
+            leases.release(lease, started.plus(props.getLease()));
+        }
+    }
+
+    private boolean pause() {
+        if (props.getPauseBetweenBatches().isZero()) return true;
+        try {
+            Thread.sleep(props.getPauseBetweenBatches());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.quickstarts.kitchensink.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds login outcomes from both the form login and {@code /authenticate} into the throttle.
+ */
+@Component
+@RequiredArgsConstructor
+public class LoginAttemptListener {
+
+    private final LoginThrottleService loginThrottleService;
+
+    @EventListener
+    public void onFailure(final AbstractAuthenticationFailureEvent event) {
+        final var authentication = event.getAuthentication();
+        loginThrottleService.recordFailure(authentication.getName(), remoteAddress(authentication));
+    }
+
+    @EventListener
+    public void onSuccess(final AuthenticationSuccessEvent event) {
+        loginThrottleService.recordSuccess(event.getAuthentication().getName());
+    }
+
+    private static String remoteAddress(final Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details ? details.getRemoteAddress() : null;
+    }
+}
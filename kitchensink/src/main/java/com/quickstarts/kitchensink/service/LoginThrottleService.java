@@ -0,0 +1,186 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.LoginThrottleProperties;
+import com.quickstarts.kitchensink.exception.TooManyLoginAttemptsException;
+import com.quickstarts.kitchensink.utils.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Guards the login paths against credential stuffing. Failed attempts are counted per username and per
+ * client IP in sliding windows; once a limit is hit the key is blocked for a period that doubles with every
+ * repeat offence. Blocked attempts are rejected before the AuthenticationManager runs, so they never cost
+ * a Mongo lookup or a BCrypt hash. Each scope tracks at most {@code maxTrackedKeys} keys; a new key that
+ * finds the scope full makes room by evicting the keys whose last failure is oldest, unblocked ones first, so
+ * a spray of random usernames ages out its own keys rather than leaving new ones untracked.
+ */
+@Slf4j
+@Service
+public class LoginThrottleService {
+
+    private static final String USER = "user";
+    private static final String IP = "ip";
+
+    private final LoginThrottleProperties props;
+    private final Clock clock;
+    private final Map<String, KeyState> users = new ConcurrentHashMap<>();
+    private final Map<String, KeyState> ips = new ConcurrentHashMap<>();
+
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejectedByUser;
+    private final Counter rejectedByIp;
+    private final Counter blocksByUser;
+    private final Counter blocksByIp;
+    private final Counter evictedUsers;
+    private final Counter evictedIps;
+
+    @Autowired
+    public LoginThrottleService(final LoginThrottleProperties props, final MeterRegistry registry) {
+        this(props, registry, Clock.systemUTC());
+    }
+
+    LoginThrottleService(final LoginThrottleProperties props, final MeterRegistry registry, final Clock clock) {
+        this.props = props;
+        this.clock = clock;
+        this.successes = registry.counter("auth.login.attempts", "outcome", "success");
+        this.failures = registry.counter("auth.login.attempts", "outcome", "failure");
+        this.rejectedByUser = registry.counter("auth.throttle.rejected", "scope", USER);
+        this.rejectedByIp = registry.counter("auth.throttle.rejected", "scope", IP);
+        this.blocksByUser = registry.counter("auth.throttle.blocks", "scope", USER);
+        this.blocksByIp = registry.counter("auth.throttle.blocks", "scope", IP);
+        this.evictedUsers = registry.counter("auth.throttle.evicted", "scope", USER);
+        this.evictedIps = registry.counter("auth.throttle.evicted", "scope", IP);
+        registry.gauge("auth.throttle.tracked.keys", Tags.of("scope", USER), users, Map::size);
+        registry.gauge("auth.throttle.tracked.keys", Tags.of("scope", IP), ips, Map::size);
+    }
+
+    /**
+     * Throws {@link TooManyLoginAttemptsException} when either the username or the client IP is blocked.
+     */
+    public void check(@Nullable final String username, @Nullable final String ip) {
+        if (!props.isEnabled()) return;
+        final long now = clock.millis();
+        final var ipState = ip == null ? null : ips.get(ip);
+        if (ipState != null && ipState.blockedUntil > now) {
+            rejectedByIp.increment();
+            throw new TooManyLoginAttemptsException(Duration.ofMillis(ipState.blockedUntil - now));
+        }
+        final var userState = username == null ? null : users.get(key(username));
+        if (userState != null && userState.blockedUntil > now) {
+            rejectedByUser.increment();
+            throw new TooManyLoginAttemptsException(Duration.ofMillis(userState.blockedUntil - now));
+        }
+    }
+
+    public void recordFailure(@Nullable final String username, @Nullable final String ip) {
+        failures.increment();
+        if (!props.isEnabled()) return;
+        final long now = clock.millis();
+        if (username != null) {
+            registerFailure(users, key(username), props.getMaxFailuresPerUser(), now, blocksByUser, evictedUsers);
+        }
+        if (ip != null) {
+            registerFailure(ips, ip, props.getMaxFailuresPerIp(), now, blocksByIp, evictedIps);
+        }
+    }
+
+    public void recordSuccess(@Nullable final String username) {
+        successes.increment();
+        if (username != null) users.remove(key(username));
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.login-throttle.cleanup-interval:PT1M}")
+    public void evictIdle() {
+        final long now = clock.millis();
+        users.values().removeIf(state -> state.isExpired(now));
+        ips.values().removeIf(state -> state.isExpired(now));
+    }
+
+    private void registerFailure(final Map<String, KeyState> states,
+                                 final String key,
+                                 final int limit,
+                                 final long now,
+                                 final Counter blocks,
+                                 final Counter evicted) {
+        var state = states.get(key);
+        if (state == null) {
+            if (states.size() >= props.getMaxTrackedKeys()) makeRoom(states, now, evicted);
+            state = states.computeIfAbsent(key, k -> new KeyState(new SlidingWindowCounter(props.getWindow(), props.getBuckets())));
+        }
+        if (state.failures.incrementAndSum(now) >= limit && state.blockedUntil <= now) {
+            final int strike = state.strikes.incrementAndGet();
+            final long block = Math.min(props.getBaseBlock().toMillis() << Math.min(strike - 1, 20),
+                    props.getMaxBlock().toMillis());
+            state.blockedUntil = now + block;
+            blocks.increment();
+            log.warn("login throttle: blocked {} for {}s (strike {})", key, block / 1000, strike);
+        }
+    }
+
+    /**
+     * Trims a full scope to three quarters of {@code maxTrackedKeys}: idle keys go first, then the keys whose
+     * last failure is oldest, blocked ones only once no unblocked key is left. Freeing a quarter at a time
+     * keeps the sort to one per that many new keys.
+     */
+    private void makeRoom(final Map<String, KeyState> states, final long now, final Counter evicted) {
+        synchronized (states) {
+            final int target = props.getMaxTrackedKeys() * 3 / 4;
+            if (states.size() < props.getMaxTrackedKeys()) return;
+            final int before = states.size();
+            states.values().removeIf(state -> state.isExpired(now));
+            if (states.size() > target) {
+                final var oldestFirst = states.entrySet().stream()
+                        .map(entry -> Map.entry(entry.getKey(), new Age(entry.getValue().blockedUntil > now,
+                                entry.getValue().failures.lastEventMillis())))
+                        .sorted(Map.Entry.comparingByValue())
+                        .limit(states.size() - target)
+                        .map(Map.Entry::getKey)
+                        .toList();
+                oldestFirst.forEach(states::remove);
+            }
+            final int removed = before - states.size();
+            evicted.increment(removed);
+            log.warn("login throttle: tracking {} keys at the limit; evicted {}", before, removed);
+        }
+    }
+
+    private record Age(boolean blocked, long lastEventMillis) implements Comparable<Age> {
+        @Override
+        public int compareTo(final Age other) {
+            final int byBlocked = Boolean.compare(blocked, other.blocked);
+            return byBlocked != 0 ? byBlocked : Long.compare(lastEventMillis, other.lastEventMillis);
+        }
+    }
+
+    private static String key(final String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class KeyState {
+        private final SlidingWindowCounter failures;
+        private final AtomicInteger strikes = new AtomicInteger();
+        private volatile long blockedUntil;
+
+        private KeyState(final SlidingWindowCounter failures) {
+            this.failures = failures;
+        }
+
+        private boolean isExpired(final long now) {
+            return blockedUntil <= now && failures.isIdle(now);
+        }
+    }
+}
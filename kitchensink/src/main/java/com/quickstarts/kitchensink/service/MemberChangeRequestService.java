@@ -1,5 +1,7 @@
 package com.quickstarts.kitchensink.service;
 
+import com.quickstarts.kitchensink.config.MemberChangeRequestProperties;
+import com.quickstarts.kitchensink.dto.FieldChange;
 import com.quickstarts.kitchensink.dto.MemberSnapshot;
 import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
 import com.quickstarts.kitchensink.model.Member;
@@ -8,16 +10,26 @@ import com.quickstarts.kitchensink.repo.MemberChangeRequestRepository;
 import com.quickstarts.kitchensink.repo.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Map;
+
+import static com.quickstarts.kitchensink.config.MemberChangeRequestProperties.PendingUpdateMode.SUPERSEDE;
 import static com.quickstarts.kitchensink.dto.enums.ChangeType.DELETE;
 import static com.quickstarts.kitchensink.dto.enums.ChangeType.UPDATE;
 import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
+import static com.quickstarts.kitchensink.service.MemberService.afterCommit;
 import static java.time.Instant.now;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @Slf4j
@@ -25,60 +37,91 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 @RequiredArgsConstructor
 public class MemberChangeRequestService {
 
+    private static final String PENDING_EXISTS = "A pending request already exists.";
+
     private final MemberRepository memberRepo;
     private final MemberChangeRequestRepository changeRequestRepository;
+    private final MongoTemplate mongoTemplate;
     private final EmailService emailService;
+    private final MemberChangeRequestProperties props;
+    private final AutoApprovalRules autoApprovalRules;
+    private final ChangeRequestStatsService statsService;
 
     private static void updateMemberBefore(final MemberChangeRequest memberChangeRequest, final Member member) {
-        memberChangeRequest.setBefore(new MemberSnapshot(
+        memberChangeRequest.setBefore(snapshot(member));
+    }
+
+    private static MemberSnapshot snapshot(final Member member) {
+        return new MemberSnapshot(
                 member.getName(),
                 member.getEmail(),
                 member.getPhoneNumber(),
                 member.getAge(),
                 member.getPlace()
-        ));
+        );
     }
 
     private static MemberChangeRequest buildMemberChangeRequest(final String memberEmail,
                                                                 final MemberUpdateDTO memberUpdateDTO,
+                                                                final Map<String, FieldChange<?>> changes,
                                                                 final Member member) {
         return MemberChangeRequest.builder()
                 .memberId(member.getId())
                 .memberEmail(member.getEmail())
                 .type(UPDATE)
                 .requested(memberUpdateDTO)
+                .changes(changes)
                 .submittedBy(memberEmail)
                 .submittedAt(now())
                 .build();
     }
 
+    /**
+     * A stored profile update: the member as it was, the diff, and the auto-approval rule it matched, if any.
+     */
+    public record SubmittedUpdate(Member member, Map<String, FieldChange<?>> changes, @Nullable String rule) {
+    }
+
+    /**
+     * Stores the update and mails the admin about it, unless it matches the auto-approval rules; applying
+     * those is left to the caller once this has committed (see {@link MemberProfileUpdateService}), because
+     * member writes retry on their own and must not run inside a transaction.
+     */
     @Transactional
-    public void submitProfileUpdate(final String memberEmail, final MemberUpdateDTO memberUpdateDTO) {
+    public SubmittedUpdate submitProfileUpdate(final String memberEmail, final MemberUpdateDTO memberUpdateDTO) {
         final var member = getMember(memberEmail);
 
-        if (!hasAnyChange(member, memberUpdateDTO)) {
+        // computed once; the rules, the admin mail and page, and the approval all work from it
+        final var changes = FieldChange.diff(snapshot(member), memberUpdateDTO);
+        if (changes.isEmpty()) {
             throw new ResponseStatusException(BAD_REQUEST, "No changes detected.");
         }
 
-        final var memberChangeRequest = buildMemberChangeRequest(memberEmail, memberUpdateDTO, member);
-        updateMemberBefore(memberChangeRequest, member);
-        saveMemberChangeRequest(memberChangeRequest);
+        if (props.getPendingUpdate() == SUPERSEDE) {
+            supersedePendingUpdate(memberEmail, memberUpdateDTO, changes, member);
+        } else {
+            final var memberChangeRequest = buildMemberChangeRequest(memberEmail, memberUpdateDTO, changes, member);
+            updateMemberBefore(memberChangeRequest, member);
+            saveMemberChangeRequest(memberChangeRequest);
+        }
+
+        final var rule = autoApprovalRules.match(changes);
+        if (rule.isPresent()) {
+            return new SubmittedUpdate(member, changes, rule.get());
+        }
         try {
-            emailService.notifyAdminUpdate(member, memberUpdateDTO);
+            emailService.notifyAdminUpdate(member, changes);
         } catch (Exception e) {
             log.error("error occurred while notify submit profile update:{}", e.getMessage(), e);
             throw new RuntimeException(e);
         }
+        return new SubmittedUpdate(member, changes, null);
     }
 
     @Transactional
     public void submitDeleteRequest(final String userEmail) {
         final var member = getMember(userEmail);
 
-        if (changeRequestRepository.existsByMemberIdAndStatus(member.getId(), PENDING)) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "A pending request already exists.");
-        }
-
         final var memberChangeRequest = MemberChangeRequest.builder()
                 .memberId(member.getId())
                 .memberEmail(member.getEmail())
@@ -92,16 +135,43 @@ public class MemberChangeRequestService {
         emailService.notifyAdminDelete(member);
     }
 
-    private boolean hasAnyChange(final Member member, final MemberUpdateDTO memberUpdateDTO) {
-        return (memberUpdateDTO.name() != null && !memberUpdateDTO.name().equals(member.getName())) ||
-                (memberUpdateDTO.phoneNumber() != null && !memberUpdateDTO.phoneNumber().equals(member.getPhoneNumber())) ||
-                (memberUpdateDTO.age() != 0 && memberUpdateDTO.age() != member.getAge()) ||
-                (memberUpdateDTO.place() != null && !memberUpdateDTO.place().equals(member.getPlace())) ||
-                (memberUpdateDTO.email() != null && !memberUpdateDTO.email().equalsIgnoreCase(member.getEmail()));
+    /**
+     * Replaces the requested values of the member's pending update, or inserts one, in a single upsert. A
+     * pending delete makes the insert hit the one-pending-per-member index and the update is refused.
+     */
+    private void supersedePendingUpdate(final String memberEmail, final MemberUpdateDTO memberUpdateDTO,
+                                        final Map<String, FieldChange<?>> changes, final Member member) {
+        try {
+            final var result = mongoTemplate.upsert(
+                    query(where("memberId").is(member.getId()).and("status").is(PENDING).and("type").is(UPDATE)),
+                    new Update()
+                            .set("memberEmail", member.getEmail())
+                            .set("requested", memberUpdateDTO)
+                            .set("changes", changes)
+                            .set("before", snapshot(member))
+                            .set("submittedBy", memberEmail)
+                            .setOnInsert("submittedAt", now()),
+                    MemberChangeRequest.class);
+            if (result.getUpsertedId() == null) {
+                log.info("profile update of member {} superseded its pending one", member.getId());
+            } else {
+                afterCommit(() -> statsService.submitted(UPDATE));
+            }
+        } catch (DuplicateKeyException e) {
+            throw new ResponseStatusException(CONFLICT, PENDING_EXISTS);
+        }
     }
 
+    /**
+     * A plain insert; the one-pending-per-member index refuses it if the member already has a pending request.
+     */
     private void saveMemberChangeRequest(final MemberChangeRequest memberChangeRequest) {
-        changeRequestRepository.save(memberChangeRequest);
+        try {
+            changeRequestRepository.insert(memberChangeRequest);
+            afterCommit(() -> statsService.submitted(memberChangeRequest.getType()));
+        } catch (DuplicateKeyException e) {
+            throw new ResponseStatusException(CONFLICT, PENDING_EXISTS);
+        }
     }
 
     private Member getMember(final String memberEmail) {
@@ -1,5 +1,6 @@
 package com.quickstarts.kitchensink.service;
 
+import com.quickstarts.kitchensink.config.MongoReadRouter;
 import com.quickstarts.kitchensink.dto.MemberFilterRequest;
 import com.quickstarts.kitchensink.model.Member;
 import jakarta.servlet.http.HttpServletResponse;
@@ -7,7 +8,6 @@ import lombok.RequiredArgsConstructor;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+import static com.quickstarts.kitchensink.config.MongoReadRouter.ReadOperation.EXPORT;
 import static com.quickstarts.kitchensink.constants.Constants.EXPORT_EXCEL_SHEET_CONTENT_TYPE;
 import static com.quickstarts.kitchensink.utils.MemberUtils.*;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -30,7 +31,7 @@ import static org.springframework.data.domain.Sort.Direction.DESC;
 @RequiredArgsConstructor
 public class MemberExportService {
 
-    private final MongoTemplate mongoTemplate;
+    private final MongoReadRouter reads;
 
     /* ---------------- CSV ---------------- */
     public void exportCsv(final MemberFilterRequest filterRequest, final HttpServletResponse response) throws IOException {
@@ -42,7 +43,7 @@ public class MemberExportService {
 
         try (var out = response.getOutputStream();
              var w = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
-             Stream<Member> stream = mongoTemplate.stream(query, Member.class)) {
+             Stream<Member> stream = reads.forRead(EXPORT, filterRequest.isFresh()).stream(query, Member.class)) {
 
             // header
             w.write("Registration Date,Name,Email,Phone,Age,Place\n");
@@ -98,7 +99,7 @@ public class MemberExportService {
             var header = workbookSheet.createRow(r++);
             for (int c = 0; c < heads.length; c++) header.createCell(c).setCellValue(heads[c]);
 
-            try (Stream<Member> stream = mongoTemplate.stream(query, Member.class)) {
+            try (Stream<Member> stream = reads.forRead(EXPORT, filterRequest.isFresh()).stream(query, Member.class)) {
                 final int[] rowIdx = {r};
                 stream.forEachOrdered(m -> {
                     var row = workbookSheet.createRow(rowIdx[0]++);
@@ -132,6 +133,7 @@ public class MemberExportService {
 
         var q = new Query().with(sort);
         var ands = new ArrayList<Criteria>();
+        ands.add(Criteria.where("deletedAt").exists(false));
 
         // q over text fields (name/email/phone/place); registrationDate is LocalDate so skip here
         if (hasText(filterRequest.getQ())) {
@@ -165,7 +167,7 @@ public class MemberExportService {
                 ands.add(Criteria.where("registrationDate").lte(filterRequest.getRegistrationDateTo()));
         }
 
-        if (!ands.isEmpty()) q.addCriteria(new Criteria().andOperator(ands.toArray(Criteria[]::new)));
+        q.addCriteria(new Criteria().andOperator(ands.toArray(Criteria[]::new)));
         return q;
     }
 }
@@ -0,0 +1,349 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.BulkImportProperties;
+import com.quickstarts.kitchensink.dto.BulkRowResult;
+import com.quickstarts.kitchensink.dto.CreateMemberRequestDTO;
+import com.quickstarts.kitchensink.model.MemberImportError;
+import com.quickstarts.kitchensink.model.MemberImportJob;
+import com.quickstarts.kitchensink.utils.CsvReader;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.xml.sax.InputSource;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.quickstarts.kitchensink.constants.Constants.FORMAT_CSV;
+import static com.quickstarts.kitchensink.constants.Constants.FORMAT_XLSX;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Imports members from an uploaded CSV or XLSX file in the background. The upload is spooled to a temp file
+ * and read one row at a time (XLSX through POI's SAX event API), rows are fed to
+ * {@link BulkRegistrationService#registerChunk} in chunks, and only the current chunk is ever held in memory:
+ * progress lives in the job document and rejected rows go to {@code member_import_errors}.
+ */
+@Slf4j
+@Service
+public class MemberImportService implements DisposableBean {
+
+    private static final Map<String, String> HEADER_ALIASES = Map.of(
+            "name", "name",
+            "email", "email",
+            "phone", "phoneNumber",
+            "phonenumber", "phoneNumber",
+            "age", "age",
+            "place", "place");
+
+    private final MongoTemplate mongoTemplate;
+    private final BulkRegistrationService bulkRegistrationService;
+    private final BulkImportProperties props;
+    private final ThreadPoolExecutor executor;
+
+    public MemberImportService(final MongoTemplate mongoTemplate,
+                               final BulkRegistrationService bulkRegistrationService,
+                               final BulkImportProperties props) {
+        this.mongoTemplate = mongoTemplate;
+        this.bulkRegistrationService = bulkRegistrationService;
+        this.props = props;
+        final var threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(props.getImportThreads(), props.getImportThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(props.getImportQueueCapacity()),
+                r -> {
+                    final var thread = new Thread(r, "member-import-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public MemberImportJob start(final MultipartFile file, final String requestedBy) throws IOException {
+        final var format = detectFormat(file);
+        final var spooled = Files.createTempFile("member-import-", "." + format);
+        file.transferTo(spooled);
+
+        final var now = Instant.now();
+        final var job = mongoTemplate.insert(MemberImportJob.builder()
+                .fileName(file.getOriginalFilename())
+                .format(format)
+                .status(MemberImportJob.Status.QUEUED)
+                .requestedBy(requestedBy)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        try {
+            executor.execute(() -> run(job.getId(), spooled, format));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(spooled);
+            mongoTemplate.remove(job);
+            throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Too many imports in progress, please retry later");
+        }
+        return job;
+    }
+
+    public MemberImportJob getJob(final String jobId) {
+        final var job = mongoTemplate.findById(jobId, MemberImportJob.class);
+        if (job == null) throw new ResponseStatusException(NOT_FOUND, "Import job not found");
+        return job;
+    }
+
+    /**
+     * Streams the rejected rows of a job as CSV, in row order.
+     */
+    public void writeErrorsCsv(final String jobId, final HttpServletResponse response) throws IOException {
+        getJob(jobId);
+        response.setCharacterEncoding(UTF_8.name());
+        response.setContentType("text/csv; charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"import-" + jobId + "-errors.csv\"");
+
+        final var errorQuery = query(where("jobId").is(jobId)).with(Sort.by(ASC, "row"));
+        try (var w = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), UTF_8));
+             Stream<MemberImportError> errors = mongoTemplate.stream(errorQuery, MemberImportError.class)) {
+            w.write("Row,Email,Errors\n");
+            errors.forEachOrdered(error -> {
+                try {
+                    writeCsvRow(w, String.valueOf(error.getRow()), error.getEmail(), error.getMessage());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    void run(final String jobId, final Path file, final String format) {
+        updateJob(jobId, new Update().set("status", MemberImportJob.Status.RUNNING));
+        try {
+            final var sink = new ChunkSink(jobId);
+            if (FORMAT_XLSX.equals(format)) {
+                readXlsx(file, sink);
+            } else {
+                readCsv(file, sink);
+            }
+            sink.flush();
+            updateJob(jobId, new Update()
+                    .set("status", MemberImportJob.Status.COMPLETED)
+                    .set("finishedAt", Instant.now()));
+        } catch (Exception e) {
+            log.error("member import {} failed: {}", jobId, e.getMessage(), e);
+            updateJob(jobId, new Update()
+                    .set("status", MemberImportJob.Status.FAILED)
+                    .set("failureReason", e.getMessage())
+                    .set("finishedAt", Instant.now()));
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("could not delete import spool file {}", file);
+            }
+        }
+    }
+
+    private static void readCsv(final Path file, final ChunkSink sink) throws IOException {
+        try (var csv = new CsvReader(Files.newBufferedReader(file, UTF_8))) {
+            List<String> record;
+            var rowNumber = 0;
+            while ((record = csv.next()) != null) {
+                sink.accept(++rowNumber, record);
+            }
+        }
+    }
+
+    private static void readXlsx(final Path file, final ChunkSink sink) throws Exception {
+        try (var pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            final var reader = new XSSFReader(pkg);
+            final var sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) return;
+            try (InputStream sheet = sheets.next()) {
+                final var xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null,
+                        new ReadOnlySharedStringsTable(pkg), new SheetRows(sink), new DataFormatter(), false));
+                xmlReader.parse(new InputSource(sheet));
+            }
+        }
+    }
+
+    /**
+     * Collects the cells of each SAX row event (empty cells are skipped by POI, so they are placed by column).
+     */
+    private static final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final ChunkSink sink;
+        private final List<String> cells = new ArrayList<>();
+
+        private SheetRows(final ChunkSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(final int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(final int rowNum) {
+            sink.accept(rowNum + 1, new ArrayList<>(cells));
+        }
+
+        @Override
+        public void cell(final String cellReference, final String formattedValue, final XSSFComment comment) {
+            final int column = new CellReference(cellReference).getCol();
+            while (cells.size() < column) cells.add("");
+            cells.add(formattedValue);
+        }
+    }
+
+    /**
+     * Maps rows to requests by the header row and pushes full chunks through the bulk pipeline.
+     */
+    private final class ChunkSink {
+        private final String jobId;
+        private final List<BulkRegistrationService.Row> chunk = new ArrayList<>(props.getChunkSize());
+        private final List<BulkRowResult> unparseable = new ArrayList<>();
+        private Map<String, Integer> columns;
+
+        private ChunkSink(final String jobId) {
+            this.jobId = jobId;
+        }
+
+        void accept(final int rowNumber, final List<String> cells) {
+            if (columns == null) {
+                columns = mapHeader(cells);
+                return;
+            }
+            if (cells.stream().allMatch(String::isBlank)) return;
+
+            final var ageText = cell(cells, "age");
+            int age = 0;
+            if (!ageText.isBlank()) {
+                try {
+                    age = (int) Double.parseDouble(ageText);  // XLSX numeric cells may be formatted "35.0"
+                } catch (NumberFormatException e) {
+                    unparseable.add(BulkRowResult.rejected(rowNumber, cell(cells, "email"), Map.of("age", "Age must be a number")));
+                    flushIfFull();
+                    return;
+                }
+            }
+            chunk.add(new BulkRegistrationService.Row(rowNumber, new CreateMemberRequestDTO(
+                    cell(cells, "name"), cell(cells, "email"), cell(cells, "phoneNumber"), age, cell(cells, "place"))));
+            flushIfFull();
+        }
+
+        private void flushIfFull() {
+            if (chunk.size() + unparseable.size() >= props.getChunkSize()) flush();
+        }
+
+        void flush() {
+            if (chunk.isEmpty() && unparseable.isEmpty()) return;
+            // duplicates across chunks are caught by the $in lookup once earlier chunks are written,
+            // so nothing about earlier rows has to be remembered here
+            final var results = new ArrayList<BulkRowResult>(unparseable);
+            if (!chunk.isEmpty()) {
+                results.addAll(bulkRegistrationService.registerChunk(chunk, new BulkRegistrationService.Seen()));
+            }
+            record(jobId, results);
+            chunk.clear();
+            unparseable.clear();
+        }
+
+        private String cell(final List<String> cells, final String field) {
+            final var index = columns.get(field);
+            return index == null || index >= cells.size() || cells.get(index) == null ? "" : cells.get(index).trim();
+        }
+    }
+
+    private static Map<String, Integer> mapHeader(final List<String> header) {
+        final var columns = new HashMap<String, Integer>();
+        for (int i = 0; i < header.size(); i++) {
+            final var key = header.get(i).trim().toLowerCase(Locale.ROOT).replace(" ", "");
+            final var field = HEADER_ALIASES.get(key);
+            if (field != null) columns.putIfAbsent(field, i);
+        }
+        final var missing = new TreeSet<>(List.of("name", "email", "phoneNumber", "place"));
+        missing.removeAll(columns.keySet());
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private void record(final String jobId, final List<BulkRowResult> results) {
+        final var now = Instant.now();
+        final var errors = results.stream()
+                .filter(result -> !result.isCreated())
+                .map(result -> MemberImportError.builder()
+                        .jobId(jobId)
+                        .row(result.row())
+                        .email(result.email())
+                        .message(String.join("; ", result.errors().values()))
+                        .createdAt(now)
+                        .build())
+                .toList();
+        if (!errors.isEmpty()) {
+            mongoTemplate.insert(errors, MemberImportError.class);
+        }
+        final long created = results.size() - errors.size();
+        updateJob(jobId, new Update()
+                .inc("processedRows", results.size())
+                .inc("createdRows", created)
+                .inc("rejectedRows", errors.size()));
+    }
+
+    private void updateJob(final String jobId, final Update update) {
+        mongoTemplate.updateFirst(query(where("_id").is(jobId)), update.set("updatedAt", Instant.now()), MemberImportJob.class);
+    }
+
+    private static String detectFormat(final MultipartFile file) {
+        final var name = Optional.ofNullable(file.getOriginalFilename()).orElse("").toLowerCase(Locale.ROOT);
+        if (name.endsWith("." + FORMAT_XLSX)) return FORMAT_XLSX;
+        if (name.endsWith("." + FORMAT_CSV) || "text/csv".equals(file.getContentType())) return FORMAT_CSV;
+        throw new ResponseStatusException(BAD_REQUEST, "Only .csv and .xlsx files can be imported");
+    }
+
+    private static void writeCsvRow(final Writer writer, final String... cols) throws IOException {
+        for (int i = 0; i < cols.length; i++) {
+            writer.write('"');
+            writer.write(cols[i] == null ? "" : cols[i].replace("\"", "\"\""));
+            writer.write('"');
+            if (i < cols.length - 1) writer.write(',');
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
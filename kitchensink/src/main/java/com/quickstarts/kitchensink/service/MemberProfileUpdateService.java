@@ -0,0 +1,44 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * A member's own profile update: stored as a change request in one transaction, then, if it matched the
+ * auto-approval rules, applied once that transaction has committed. Deliberately not transactional itself, so
+ * the answer reflects whether the apply actually happened; one that fails leaves the request pending and the
+ * admin is mailed about it as for any other update.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberProfileUpdateService {
+
+    private final MemberChangeRequestService changeRequestService;
+    private final ChangeRequestReviewService reviewService;
+    private final EmailService emailService;
+
+    /**
+     * @return whether the update was applied; false means it waits for an admin
+     */
+    public boolean submit(final String memberEmail, final MemberUpdateDTO memberUpdateDTO) {
+        final var submitted = changeRequestService.submitProfileUpdate(memberEmail, memberUpdateDTO);
+        if (submitted.rule() == null) return false;
+
+        final var member = submitted.member();
+        try {
+            if (reviewService.autoApprove(member.getId(), memberUpdateDTO, submitted.rule())) return true;
+        } catch (RuntimeException e) {
+            log.warn("auto-approval of member {} failed, left for review: {}", member.getId(), e.getMessage());
+        }
+        // the request is stored, so a lost mail only means the admin finds it in the queue rather than the inbox
+        try {
+            emailService.notifyAdminUpdate(member, submitted.changes());
+        } catch (Exception e) {
+            log.warn("could not notify admin of update of member {}: {}", member.getId(), e.getMessage());
+        }
+        return false;
+    }
+}
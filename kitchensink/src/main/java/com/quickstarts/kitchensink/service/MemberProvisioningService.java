@@ -0,0 +1,196 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.ProvisioningProperties;
+import com.quickstarts.kitchensink.dto.ProvisioningStatusResponse;
+import com.quickstarts.kitchensink.exception.NotFoundException;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.UserInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.quickstarts.kitchensink.dto.enums.Role.MEMBER;
+import static com.quickstarts.kitchensink.model.Provisioning.Status.*;
+import static com.quickstarts.kitchensink.utils.MemberUtils.generateTempPassword;
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Creates the login and sends the welcome mail for members registered in async mode. A task is claimed with
+ * a findAndModify on the member, so each runs on one worker at a time across nodes; a claim that is not
+ * finished within the claim timeout (node died) becomes due again and the sweeper picks it up. Every attempt
+ * generates a fresh temporary password and upserts the login by member id, so a retry never leaves a second
+ * login or a password nobody was told.
+ */
+@Slf4j
+@Service
+public class MemberProvisioningService implements DisposableBean {
+
+    private final MongoTemplate mongoTemplate;
+    private final PasswordEncoder encoder;
+    private final EmailService emailService;
+    private final ProvisioningProperties props;
+    private final Clock clock;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("provision-", 0).factory());
+    private final Semaphore permits;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.login.url:http://localhost:8080/login}")
+    private String loginUrl;
+
+    @Autowired
+    public MemberProvisioningService(final MongoTemplate mongoTemplate,
+                                     final PasswordEncoder encoder,
+                                     final EmailService emailService,
+                                     final ProvisioningProperties props) {
+        this(mongoTemplate, encoder, emailService, props, Clock.systemUTC());
+    }
+
+    MemberProvisioningService(final MongoTemplate mongoTemplate,
+                              final PasswordEncoder encoder,
+                              final EmailService emailService,
+                              final ProvisioningProperties props,
+                              final Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.encoder = encoder;
+        this.emailService = emailService;
+        this.props = props;
+        this.clock = clock;
+        this.permits = new Semaphore(props.getConcurrency());
+    }
+
+    /**
+     * Hands the member to a worker; returns immediately. Ignored if this node is already provisioning it.
+     */
+    public void submit(final String memberId) {
+        if (!inFlight.add(memberId)) return;
+        workers.execute(() -> {
+            try {
+                permits.acquire();
+                try {
+                    provision(memberId);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.remove(memberId);
+            }
+        });
+    }
+
+    public ProvisioningStatusResponse status(final String memberId) {
+        final var query = query(where("_id").is(memberId));
+        query.fields().include("provisioning");
+        final var member = mongoTemplate.findOne(query, Member.class);
+        if (member == null) {
+            throw new NotFoundException("Member not found");
+        }
+        return ProvisioningStatusResponse.from(memberId, member.getProvisioning());
+    }
+
+    @Scheduled(fixedDelayString = "${app.member.provisioning.sweep-interval:PT10S}")
+    public void sweep() {
+        try {
+            final var due = due(clock.instant()).limit(props.getSweepBatchSize());
+            due.fields().include("_id");
+            for (final var member : mongoTemplate.find(due, Member.class)) {
+                submit(member.getId());
+            }
+        } catch (Exception e) {
+            log.warn("provisioning sweep failed: {}", e.getMessage());
+        }
+    }
+
+    void provision(final String memberId) {
+        final var now = clock.instant();
+        final var member = mongoTemplate.findAndModify(
+                due(now).addCriteria(where("_id").is(memberId)),
+                new Update()
+                        .set("provisioning.status", IN_PROGRESS)
+                        .set("provisioning.claimedAt", now)
+                        .set("provisioning.nextAttemptAt", now.plus(props.getClaimTimeout()))
+                        .inc("provisioning.attempts", 1),
+                options().returnNew(true), Member.class);
+        if (member == null) {
+            return; // already done, not due yet, or claimed by another worker
+        }
+        try {
+            final var tempPwd = generateTempPassword();
+            mongoTemplate.upsert(query(where("memberId").is(memberId)),
+                    new Update()
+                            .set("userName", member.getEmail())
+                            .set("password", encoder.encode(tempPwd))
+                            .set("roles", Set.of(MEMBER.name()))
+                            .set("mustChangePassword", true)
+                            .setOnInsert("tokenVersion", 0L),
+                    UserInfo.class);
+            emailService.sendWelcomeWithTempPassword(member.getEmail(), member.getName(), tempPwd, loginUrl);
+
+            final var done = mongoTemplate.updateFirst(query(where("_id").is(memberId)),
+                    new Update()
+                            .set("provisioning.status", DONE)
+                            .set("provisioning.completedAt", clock.instant())
+                            .unset("provisioning.nextAttemptAt")
+                            .unset("provisioning.claimedAt")
+                            .unset("provisioning.lastError"),
+                    Member.class);
+            if (done.getMatchedCount() == 0) {
+                // the member was deleted meanwhile; don't leave its login behind
+                mongoTemplate.remove(query(where("memberId").is(memberId)), UserInfo.class);
+            }
+        } catch (DuplicateKeyException e) {
+            // another login already uses this email; retrying cannot fix that
+            fail(member, now, "A login for " + member.getEmail() + " already exists", true);
+        } catch (RuntimeException e) {
+            fail(member, now, e.getMessage(), false);
+        }
+    }
+
+    private void fail(final Member member, final Instant now, final String error, final boolean permanent) {
+        final var attempts = member.getProvisioning().getAttempts();
+        final var update = new Update().set("provisioning.lastError", error).unset("provisioning.claimedAt");
+        if (permanent || attempts >= props.getMaxAttempts()) {
+            update.set("provisioning.status", FAILED).unset("provisioning.nextAttemptAt");
+            log.error("provisioning of member {} failed after {} attempt(s): {}", member.getId(), attempts, error);
+        } else {
+            update.set("provisioning.status", PENDING)
+                    .set("provisioning.nextAttemptAt", now.plus(props.getRetryBackoff().multipliedBy(attempts)));
+            log.warn("provisioning of member {} failed (attempt {}), will retry: {}", member.getId(), attempts, error);
+        }
+        mongoTemplate.updateFirst(query(where("_id").is(member.getId())), update, Member.class);
+    }
+
+    private static Query due(final Instant now) {
+        return query(where("provisioning.nextAttemptAt").lte(now));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            // unfinished claims expire and are picked up by another node's sweeper
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.MemberPurgeProperties;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.UserInfo;
+import com.quickstarts.kitchensink.service.LeasedBatchRunner.BatchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Removes members tombstoned longer ago than the retention, together with their logins. Runs off-peak in
+ * small batches so the index removals a delete implies are spread out instead of landing on request threads;
+ * of the nodes scheduling it, only the one that takes the {@code member-purge} lease runs it.
+ */
+@Slf4j
+@Service
+public class MemberPurgeService {
+
+    static final String JOB = "member-purge";
+
+    private final MongoTemplate mongoTemplate;
+    private final MemberPurgeProperties props;
+    private final Clock clock;
+    private final LeasedBatchRunner runner;
+    private final Counter purged;
+
+    @Autowired
+    public MemberPurgeService(final MongoTemplate mongoTemplate, final SchedulerLeaseService leases,
+                              final MemberPurgeProperties props, final MeterRegistry registry) {
+        this(mongoTemplate, leases, props, registry, Clock.systemUTC());
+    }
+
+    MemberPurgeService(final MongoTemplate mongoTemplate, final SchedulerLeaseService leases,
+                       final MemberPurgeProperties props, final MeterRegistry registry, final Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.props = props;
+        this.clock = clock;
+        this.runner = new LeasedBatchRunner(JOB, leases, props, clock);
+        this.purged = registry.counter("member.purge.removed");
+    }
+
+    @Scheduled(cron = "${app.member.purge.cron:0 30 3 * * *}")
+    public void scheduledPurge() {
+        if (!props.isEnabled()) return;
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.warn("member purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of members removed; 0 as well when another node holds the lease
+     */
+    public long purge() {
+        final var cutoff = clock.instant().minus(props.getRetention());
+        final var removed = runner.run(batchSize -> {
+            final var due = query(where("deletedAt").lte(cutoff))
+                    .with(Sort.by(ASC, "deletedAt"))
+                    .limit(batchSize);
+            due.fields().include("_id");
+            final var ids = mongoTemplate.find(due, Member.class).stream().map(Member::getId).toList();
+            if (ids.isEmpty()) return BatchResult.NONE;
+            return new BatchResult(ids.size(), removeBatch(ids, cutoff));
+        });
+        if (removed > 0) {
+            log.info("member purge: removed {} tombstoned members deleted before {}", removed, cutoff);
+        }
+        return removed;
+    }
+
+    /**
+     * Members go first, still guarded by the tombstone, so a member restored since the batch was read is kept;
+     * its login has lost the tombstone too and so survives the second removal.
+     */
+    private long removeBatch(final List<String> ids, final Instant cutoff) {
+        final var members = mongoTemplate.remove(query(where("_id").in(ids).and("deletedAt").lte(cutoff)), Member.class)
+                .getDeletedCount();
+        mongoTemplate.remove(query(where("memberId").in(ids).and("deletedAt").exists(true)), UserInfo.class);
+        purged.increment(members);
+        return members;
+    }
+}
@@ -1,5 +1,6 @@
 package com.quickstarts.kitchensink.service;
 
+import com.quickstarts.kitchensink.config.MongoReadRouter;
 import com.quickstarts.kitchensink.dto.MemberFilterRequest;
 import com.quickstarts.kitchensink.model.Member;
 import lombok.RequiredArgsConstructor;
@@ -7,7 +8,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+import static com.quickstarts.kitchensink.config.MongoReadRouter.ReadOperation.SEARCH;
 import static com.quickstarts.kitchensink.utils.MemberUtils.hasText;
 import static com.quickstarts.kitchensink.utils.MemberUtils.tryParseLocalDate;
 import static java.lang.Integer.MAX_VALUE;
@@ -31,7 +32,7 @@ import static org.springframework.data.domain.Sort.Direction.DESC;
 public class MemberQueryService {
 
     private final Set<String> allowedColumns = Set.of("name", "email", "phoneNumber", "age", "place", "registrationDate");
-    private final MongoTemplate mongoTemplate;
+    private final MongoReadRouter reads;
 
     public Page<Member> searchMembers(final MemberFilterRequest filterRequest) {
         final var page = clamp(requireNonNullElse(filterRequest.getPage(), 0), 0, MAX_VALUE);
@@ -46,6 +47,7 @@ public class MemberQueryService {
 
         final var query = new Query().with(pageable);
         final List<Criteria> criteriaList = new ArrayList<>();
+        criteriaList.add(Criteria.where("deletedAt").exists(false));
 
         // --- Free-text query over text fields only; optionally match exact LocalDate if query parses
         if (hasText(filterRequest.getQ())) {
@@ -90,10 +92,10 @@ public class MemberQueryService {
             }
         }
 
-        if (!criteriaList.isEmpty()) {
-            query.addCriteria(new Criteria().andOperator(criteriaList.toArray(Criteria[]::new)));
-        }
+        query.addCriteria(new Criteria().andOperator(criteriaList.toArray(Criteria[]::new)));
 
+        // searches may lag by up to the max staleness unless the caller asks for fresh results
+        final var mongoTemplate = reads.forRead(SEARCH, filterRequest.isFresh());
         final var total = mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Member.class);
         final var content = mongoTemplate.find(query, Member.class);
         return new PageImpl<>(content, pageable, total);
@@ -1,22 +1,36 @@
 package com.quickstarts.kitchensink.service;
 
-import com.mongodb.DuplicateKeyException;
+import com.quickstarts.kitchensink.config.ProvisioningProperties;
 import com.quickstarts.kitchensink.dto.CreateMemberRequestDTO;
+import com.quickstarts.kitchensink.dto.MemberPatch;
+import com.quickstarts.kitchensink.dto.MemberPatchRequest;
 import com.quickstarts.kitchensink.dto.MemberResponseDTO;
 import com.quickstarts.kitchensink.dto.UpdateMemberRequest;
 import com.quickstarts.kitchensink.exception.ConflictException;
 import com.quickstarts.kitchensink.exception.NotFoundException;
+import com.quickstarts.kitchensink.exception.StaleObjectException;
 import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.Provisioning;
 import com.quickstarts.kitchensink.model.UserInfo;
 import com.quickstarts.kitchensink.repo.MemberRepository;
 import com.quickstarts.kitchensink.repo.UserInfoRepository;
+import com.quickstarts.kitchensink.utils.DuplicateKeys;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.quickstarts.kitchensink.dto.CreateMemberRequestDTO.to;
@@ -24,7 +38,11 @@ import static com.quickstarts.kitchensink.dto.enums.Role.MEMBER;
 import static com.quickstarts.kitchensink.utils.MemberUtils.generateTempPassword;
 import static com.quickstarts.kitchensink.utils.MemberUtils.toProperCase;
 import static java.util.Optional.ofNullable;
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.transaction.support.TransactionSynchronizationManager.*;
 
 @Service
 @RequiredArgsConstructor
@@ -34,75 +52,270 @@ public class MemberService {
     private final EmailService emailService;
     private final UserInfoRepository userInfoRepository;
     private final PasswordEncoder encoder;
+    private final TokenVersionService tokenVersionService;
+    private final MongoTemplate mongoTemplate;
+    private final MemberProvisioningService provisioningService;
+    private final ProvisioningProperties provisioningProperties;
+    private final NotificationQueue notificationQueue;
 
     @Value("${app.login.url:http://localhost:8080/login}")
     private String loginUrl;
 
+    /**
+     * Inserts the member and its login in one transaction. The password is hashed before the transaction's
+     * first write so the BCrypt time is not spent holding it open, and the welcome mail only goes out once
+     * both documents are committed.
+     */
     @Transactional
     public Member registerMember(final CreateMemberRequestDTO createMemberRequestDTO) {
+        if (provisioningProperties.isAsync()) {
+            return registerMemberAsync(createMemberRequestDTO);
+        }
+        final var tempPwd = generateTempPassword();
+        final var encodedPwd = encoder.encode(tempPwd);
         final var member = to(createMemberRequestDTO);
         final var savedMember = memberRepository.save(member);
-        final var tempPwd = generateTempPassword();
-        final var user = buildUserForNewMember(createMemberRequestDTO, tempPwd, savedMember);
-        userInfoRepository.save(user);
+        final var user = buildUserForNewMember(createMemberRequestDTO, encodedPwd, savedMember);
+        try {
+            userInfoRepository.save(user);
+        } catch (RuntimeException e) {
+            // inside a transaction the rollback removes the member; without one (standalone Mongo) undo it here
+            if (!isActualTransactionActive()) {
+                memberRepository.deleteById(savedMember.getId());
+            }
+            throw e;
+        }
 
-        notifyMemberWithWelcomeEmail(createMemberRequestDTO, tempPwd);
+        afterCommit(() -> notifyMemberWithWelcomeEmail(createMemberRequestDTO, tempPwd));
         return savedMember;
     }
 
-    @Transactional
+    /**
+     * Async mode: one insert of the member with its provisioning task embedded, so either both exist or neither.
+     * The login and welcome mail are left to {@link MemberProvisioningService}.
+     */
+    private Member registerMemberAsync(final CreateMemberRequestDTO createMemberRequestDTO) {
+        final var member = to(createMemberRequestDTO);
+        member.setProvisioning(Provisioning.pending(Instant.now()));
+        final var savedMember = memberRepository.save(member);
+        afterCommit(() -> provisioningService.submit(savedMember.getId()));
+        return savedMember;
+    }
+
+    /**
+     * Applies the update in one round trip: a findAndModify guarded by the client's {@code version}, with
+     * email / phone uniqueness left to the unique indexes. Only a miss costs a second read, to tell a
+     * missing member from a concurrent modification.
+     */
     public MemberResponseDTO update(final String memberId, final UpdateMemberRequest updateMemberRequest) {
-        final var member = getMemberInfo(memberId);
         final var name = toProperCase(updateMemberRequest.name().trim().replaceAll("\\s+", " "));
         final var email = updateMemberRequest.email().trim().toLowerCase();
         final var phoneNumber = updateMemberRequest.phoneNumber();
-        validateUpdateRequest(memberId, email, phoneNumber);
-        final var memberToUpdate = getUpdatedMember(updateMemberRequest, member, name, email, phoneNumber);
+        final var update = new Update()
+                .set("name", name)
+                .set("email", email)
+                .set("phoneNumber", phoneNumber)
+                .set("age", updateMemberRequest.age())
+                .set("place", updateMemberRequest.place().trim().replaceAll("\\s+", " "))
+                .set("updatedAt", Instant.now())
+                .inc("version", 1);
 
+        final Member updated;
         try {
-            final var responseDTO = MemberResponseDTO.from(memberRepository.save(memberToUpdate));
-            //notify members that their details are updated
-            emailService.notifyMemberUpdated(email, name);
-            return responseDTO;
+            updated = mongoTemplate.findAndModify(versionedQuery(memberId, updateMemberRequest.version()), update,
+                    options().returnNew(true), Member.class);
         } catch (final DuplicateKeyException dk) {
-            final var msg = ofNullable(dk.getMessage()).orElse("");
-            if (msg.contains("email")) {
-                throw new ConflictException("Email already in use");
-            }
-            if (msg.contains("phoneNumber")) {
-                throw new ConflictException("Phone already in use");
+            throw conflict(dk);
+        }
+        if (updated == null) {
+            if (!memberRepository.existsByIdAndDeletedAtIsNull(memberId)) {
+                throw new NotFoundException("Member not found");
             }
-            if (msg.contains("index: _id_")) {
-                throw new ConflictException("Duplicate memberId; update attempted as insert");
+            throw new StaleObjectException("Member was modified concurrently; reload and retry");
+        }
+        //notify members that their details are updated
+        emailService.notifyMemberUpdated(email, name);
+        return MemberResponseDTO.from(updated);
+    }
+
+    /**
+     * Changes only the fields present in the request. The member is read to compute the diff, and the write
+     * is an {@code updateFirst} that {@code $set}s just the changed fields, so unchanged indexed fields are
+     * not rewritten; nothing is written at all when nothing changed.
+     */
+    public MemberResponseDTO patch(final String memberId, final MemberPatchRequest patchRequest) {
+        final var member = getMemberInfo(memberId);
+        if (ofNullable(member.getVersion()).orElse(0L) != patchRequest.version()) {
+            throw new StaleObjectException("Member was modified concurrently; reload and retry");
+        }
+        final var result = applyPatch(member, patchRequest.toPatch());
+        if (!result.changedFields().isEmpty()) {
+            emailService.notifyMemberUpdated(member.getEmail(), member.getName());
+        }
+        return MemberResponseDTO.from(result.member());
+    }
+
+    public record PatchResult(Member member, Set<String> changedFields) {
+    }
+
+    /**
+     * A versioned write of the fields a patch changes; {@code changes} maps each changed field to its new value.
+     */
+    public record PatchPlan(Query query, Update update, Map<String, Object> changes) {
+    }
+
+    /**
+     * Writes the fields of {@code patch} that differ from {@code current}, guarded by {@code current}'s
+     * version, and applies them to {@code current} in memory.
+     *
+     * @throws StaleObjectException if the member changed since {@code current} was read
+     */
+    public PatchResult applyPatch(final Member current, final MemberPatch patch) {
+        final var now = Instant.now();
+        final var plan = planPatch(current, patch, now).orElse(null);
+        if (plan == null) {
+            return new PatchResult(current, Set.of());
+        }
+        try {
+            final var result = mongoTemplate.updateFirst(plan.query(), plan.update(), Member.class);
+            if (result.getMatchedCount() == 0) {
+                throw new StaleObjectException("Member was modified concurrently; reload and retry");
             }
-            throw new ConflictException("A unique constraint was violated");
+        } catch (final DuplicateKeyException dk) {
+            throw conflict(dk);
+        }
+
+        if (patch.name() != null) current.setName(patch.name());
+        if (patch.email() != null) current.setEmail(patch.email());
+        if (patch.phoneNumber() != null) current.setPhoneNumber(patch.phoneNumber());
+        if (patch.age() != null) current.setAge(patch.age());
+        if (patch.place() != null) current.setPlace(patch.place());
+        current.setUpdatedAt(now);
+        current.setVersion(ofNullable(current.getVersion()).orElse(0L) + 1);
+        return new PatchResult(current, plan.changes().keySet());
+    }
+
+    /**
+     * The {@code $set} of the fields of {@code patch} that differ from {@code current}, guarded by
+     * {@code current}'s version; empty when nothing would change.
+     */
+    public static Optional<PatchPlan> planPatch(final Member current, final MemberPatch patch, final Instant now) {
+        final var changes = new LinkedHashMap<String, Object>();
+        putIfChanged(changes, "name", current.getName(), patch.name());
+        putIfChanged(changes, "email", current.getEmail(), patch.email());
+        putIfChanged(changes, "phoneNumber", current.getPhoneNumber(), patch.phoneNumber());
+        putIfChanged(changes, "age", current.getAge(), patch.age());
+        putIfChanged(changes, "place", current.getPlace(), patch.place());
+        if (changes.isEmpty()) {
+            return Optional.empty();
         }
+
+        final var update = new Update();
+        changes.forEach(update::set);
+        update.set("updatedAt", now).inc("version", 1);
+        final var version = ofNullable(current.getVersion()).orElse(0L);
+        return Optional.of(new PatchPlan(versionedQuery(current.getId(), version), update, changes));
     }
 
+    /**
+     * Soft delete: tombstones the member and its login and returns. The documents themselves are removed
+     * off-peak by {@link MemberPurgeService}; until then {@link #restore} can undo the delete.
+     */
     @Transactional
     public void delete(final String id) {
-        deleteUserByMemberId(id);
-        final var member = getMemberInfo(id);
+        final var member = tombstone(id).orElseThrow(() -> new NotFoundException("Member not found"));
         //notify members that their account is deleted
-        emailService.notifyMemberDeleted(member.getEmail(), member.getName());
-        memberRepository.deleteById(id);
+        afterCommit(() -> notificationQueue.enqueue(
+                () -> emailService.notifyMemberDeleted(member.getEmail(), member.getName())));
     }
 
-    public Member getMemberInfo(final String memberId) {
-        return memberRepository.findById(memberId).orElseThrow(() -> new NotFoundException("Member not found"));
+    /**
+     * Sets {@code deletedAt} on the member and its login with one {@code $set} each, and moves the login to a
+     * new token version so its outstanding tokens stop working on every node.
+     *
+     * @return the member as it was tombstoned, or empty if there is no live member with this id
+     */
+    @Transactional
+    public Optional<Member> tombstone(final String id) {
+        final var now = Instant.now();
+        final var member = mongoTemplate.findAndModify(liveQuery(id),
+                new Update().set("deletedAt", now).inc("version", 1),
+                options().returnNew(true), Member.class);
+        if (member == null) {
+            return Optional.empty();
+        }
+        final var user = mongoTemplate.findAndModify(
+                query(where("memberId").is(id).and("deletedAt").exists(false)),
+                new Update().set("deletedAt", now).set("tokenVersionUpdatedAt", now).inc("tokenVersion", 1),
+                options().returnNew(true), UserInfo.class);
+        if (user != null) {
+            afterCommit(() -> tokenVersionService.remember(user.getUserName(), user.getTokenVersion()));
+        }
+        return Optional.of(member);
     }
 
-    private void validateUpdateRequest(final String memberId, final String email, final String phoneNumber) {
-        if (memberRepository.existsByEmailAndIdNot(email, memberId)) {
-            throw new ConflictException("Email already in use");
+    /**
+     * Clears the tombstone of a member that has not been purged yet. Tokens issued before the delete stay
+     * invalid; the member signs in again.
+     */
+    @Transactional
+    public MemberResponseDTO restore(final String id) {
+        final var member = mongoTemplate.findAndModify(query(where("_id").is(id).and("deletedAt").exists(true)),
+                new Update().unset("deletedAt").set("updatedAt", Instant.now()).inc("version", 1),
+                options().returnNew(true), Member.class);
+        if (member == null) {
+            throw new NotFoundException("Member not found");
         }
-        if (memberRepository.existsByPhoneNumberAndIdNot(phoneNumber, memberId)) {
-            throw new ConflictException("Phone already in use");
+        mongoTemplate.updateFirst(query(where("memberId").is(id)), new Update().unset("deletedAt"), UserInfo.class);
+        return MemberResponseDTO.from(member);
+    }
+
+    public Member getMemberInfo(final String memberId) {
+        return memberRepository.findById(memberId)
+                .filter(member -> member.getDeletedAt() == null)
+                .orElseThrow(() -> new NotFoundException("Member not found"));
+    }
+
+    private static Query liveQuery(final String memberId) {
+        return query(where("_id").is(memberId).and("deletedAt").exists(false));
+    }
+
+    private static Query versionedQuery(final String memberId, final long version) {
+        // members saved before versioning was introduced have no version field yet
+        final var versionCriteria = version == 0 ? where("version").in(0L, null) : where("version").is(version);
+        return liveQuery(memberId).addCriteria(versionCriteria);
+    }
+
+    private static void putIfChanged(final Map<String, Object> changes, final String field,
+                                     final Object current, final Object requested) {
+        if (requested != null && !requested.equals(current)) {
+            changes.put(field, requested);
         }
     }
 
-    private void deleteUserByMemberId(final String memberId) {
-        userInfoRepository.findByMemberId(memberId).ifPresent(user -> userInfoRepository.deleteById(user.getId()));
+    private static ConflictException conflict(final DuplicateKeyException dk) {
+        return switch (DuplicateKeys.field(dk).orElse("")) {
+            case "email" -> new ConflictException("Email already in use");
+            case "phoneNumber" -> new ConflictException("Phone already in use");
+            default -> new ConflictException("A unique constraint was violated");
+        };
+    }
+
+    /**
+     * Defers side effects that cannot be rolled back (mail, in-memory revocation) until the surrounding
+     * transaction commits; runs them straight away when there is none.
+     */
+    static void afterCommit(final Runnable action) {
+        if (!isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private void notifyMemberWithWelcomeEmail(final CreateMemberRequestDTO createMemberRequestDTO,
@@ -114,29 +327,15 @@ public class MemberService {
     }
 
     private UserInfo buildUserForNewMember(final CreateMemberRequestDTO createMemberRequestDTO,
-                                           final String tempPwd,
+                                           final String encodedPwd,
                                            final Member savedMember) {
         return UserInfo.builder()
                 .userName(createMemberRequestDTO.email())
-                .password(encoder.encode(tempPwd))
+                .password(encodedPwd)
                 .roles(Set.of(MEMBER.name()))
                 .mustChangePassword(true)
                 .memberId(savedMember.getId())
                 .build();
     }
 
-    private static Member getUpdatedMember(
-            final UpdateMemberRequest updateMemberRequest,
-            final Member member,
-            final String name,
-            final String email,
-            final String phoneNumber
-    ) {
-        member.setName(name);
-        member.setEmail(email);
-        member.setPhoneNumber(phoneNumber);
-        member.setAge(updateMemberRequest.age());
-        member.setPlace(updateMemberRequest.place().trim().replaceAll("\\s+", " "));
-        return member;
-    }
 }
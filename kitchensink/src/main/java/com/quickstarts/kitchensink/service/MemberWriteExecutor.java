@@ -0,0 +1,63 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.MemberWriteRetryProperties;
+import com.quickstarts.kitchensink.exception.StaleObjectException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static java.lang.Math.min;
+
+/**
+ * Runs a versioned member write and retries it when it loses a race. Each attempt must re-read the member
+ * and derive its update from that read, so a retry re-applies the intended field changes on top of the
+ * concurrent write instead of overwriting it.
+ * <p>
+ * Only for writes whose version the server read itself: a version supplied by a client is a precondition,
+ * and retrying it would overwrite changes the client never saw. Do not call it inside a transaction either;
+ * a conflicting transaction has to be retried as a whole.
+ * <p>
+ * Meters, tagged by {@code operation}: {@code member.write.conflicts} (every version conflict),
+ * {@code member.write.retries} and {@code member.write.exhausted} (conflicts passed on to the caller).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberWriteExecutor {
+
+    private final MemberWriteRetryProperties props;
+    private final MeterRegistry registry;
+
+    public <T> T execute(final String operation, final Supplier<T> attempt) {
+        for (int n = 1; ; n++) {
+            try {
+                return attempt.get();
+            } catch (StaleObjectException e) {
+                registry.counter("member.write.conflicts", "operation", operation).increment();
+                if (n >= props.getMaxAttempts() || !backoff(n)) {
+                    registry.counter("member.write.exhausted", "operation", operation).increment();
+                    log.info("{}: version conflict persisted after {} attempts", operation, n);
+                    throw e;
+                }
+                registry.counter("member.write.retries", "operation", operation).increment();
+            }
+        }
+    }
+
+    private boolean backoff(final int attempt) {
+        final long cap = min(props.getMaxBackoff().toMillis(),
+                props.getInitialBackoff().toMillis() << min(attempt - 1, 20));
+        if (cap <= 0) return true;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.EmailProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends mails off the request thread. Bulk operations enqueue thousands of mails at once; when the queue is
+ * full the enqueuing thread sends the mail itself, which slows the producer down instead of dropping mail.
+ */
+@Slf4j
+@Service
+public class NotificationQueue implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    public NotificationQueue(final EmailProperties props) {
+        final var threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(props.getSenderThreads(), props.getSenderThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(props.getQueueCapacity()),
+                r -> {
+                    final var thread = new Thread(r, "mail-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void enqueue(final Runnable mail) {
+        executor.execute(() -> {
+            try {
+                mail.run();
+            } catch (Exception e) {
+                log.error("queued mail failed: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    public int pending() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("{} queued mails dropped on shutdown", executor.shutdownNow().size());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.List;
+
+import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
+import static com.quickstarts.kitchensink.dto.enums.Status.SUPERSEDED;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Builds {@code pending_per_member}, the partial unique index that allows one PENDING change request per
+ * member. Data written before the index existed may hold several pending requests for a member, on which the
+ * build fails, so it is not left to auto-index-creation: at startup, before the server takes requests, every
+ * such member's newest pending request is kept and the older ones become SUPERSEDED, then the index is
+ * built. Both steps are idempotent, so any number of nodes may run them; a duplicate written meanwhile by a
+ * node without the index fails the build, and the migration goes round again.
+ */
+@Slf4j
+@Component
+public class PendingRequestIndexMigration {
+
+    static final String INDEX = "pending_per_member";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final ChangeRequestStatsService statsService;
+    private final Clock clock;
+
+    @Autowired
+    public PendingRequestIndexMigration(final MongoTemplate mongoTemplate,
+                                        final ChangeRequestStatsService statsService) {
+        this(mongoTemplate, statsService, Clock.systemUTC());
+    }
+
+    PendingRequestIndexMigration(final MongoTemplate mongoTemplate, final ChangeRequestStatsService statsService,
+                                 final Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.statsService = statsService;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (int attempt = 1; ; attempt++) {
+            final var superseded = supersedeDuplicates();
+            if (superseded > 0) {
+                log.warn("{}: marked {} older pending requests SUPERSEDED", INDEX, superseded);
+            }
+            try {
+                mongoTemplate.indexOps(MemberChangeRequest.class).createIndex(new Index()
+                        .on("memberId", ASC).named(INDEX).unique()
+                        .partial(PartialIndexFilter.of(where("status").is(PENDING.name()))));
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_ATTEMPTS) throw e;
+                log.warn("{}: a duplicate pending request was written during the build; retrying", INDEX);
+            }
+        }
+    }
+
+    /**
+     * @return the number of pending requests superseded by a newer one of the same member
+     */
+    int supersedeDuplicates() {
+        final var duplicates = mongoTemplate.aggregate(newAggregation(
+                        match(where("status").is(PENDING)),
+                        sort(Sort.by(DESC, "submittedAt", "_id")),
+                        group("memberId").push("_id").as("ids").count().as("count"),
+                        match(where("count").gt(1))),
+                MemberChangeRequest.class, Document.class);
+        int superseded = 0;
+        for (final var member : duplicates) {
+            final var ids = member.getList("ids", Object.class);
+            superseded += supersede(ids.subList(1, ids.size()).stream().map(Object::toString).toList());
+        }
+        return superseded;
+    }
+
+    private int supersede(final List<String> ids) {
+        final var older = query(where("_id").in(ids).and("status").is(PENDING));
+        final var requests = mongoTemplate.find(older, MemberChangeRequest.class);
+        if (requests.isEmpty()) return 0;
+
+        final var now = clock.instant();
+        mongoTemplate.updateMulti(older, new Update().set("status", SUPERSEDED).set("reviewedAt", now),
+                MemberChangeRequest.class);
+        statsService.reviewed(requests, SUPERSEDED, null, now);
+        return requests.size();
+    }
+}
@@ -0,0 +1,113 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.PendingRequestPage;
+import com.quickstarts.kitchensink.dto.PendingRequestRow;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Base64;
+
+import static com.quickstarts.kitchensink.dto.enums.ChangeType.UPDATE;
+import static com.quickstarts.kitchensink.dto.enums.Status.IN_REVIEW;
+import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
+import static java.lang.Math.clamp;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Pages through pending change requests oldest first. Pages are keyset-based on (submittedAt, _id), which
+ * the {@code status_submittedAt} index serves in order, so every page costs one index range scan of
+ * {@code size} entries however deep the queue is; only the columns the admin page shows are fetched, with the
+ * stored field diff in place of the before/requested snapshots.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PendingRequestQueueService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @param after the {@code nextCursor} of the previous page, or null for the first page
+     */
+    public PendingRequestPage pending(@Nullable final String after, final int size) {
+        final var limit = clamp(size, 1, MAX_PAGE_SIZE);
+        final var criteria = where("status").is(PENDING);
+        if (after != null && !after.isBlank()) {
+            final var cursor = Cursor.decode(after);
+            criteria.orOperator(
+                    where("submittedAt").gt(cursor.submittedAt()),
+                    where("submittedAt").is(cursor.submittedAt()).and("_id").gt(cursor.id()));
+        }
+        final var query = Query.query(criteria)
+                .with(Sort.by(ASC, "submittedAt", "_id"))
+                .limit(limit + 1);
+        query.fields().include("memberEmail", "before.name", "type", "submittedAt", "changes");
+
+        final var found = mongoTemplate.find(query, MemberChangeRequest.class);
+        final var hasMore = found.size() > limit;
+        final var page = hasMore ? found.subList(0, limit) : found;
+        final var nextCursor = hasMore ? Cursor.of(page.getLast()).encode() : null;
+        return new PendingRequestPage(page.stream().map(PendingRequestRow::from).toList(), nextCursor);
+    }
+
+    /**
+     * Open updates submitted before the diff was stored get it once, so the page never needs the snapshots.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillChanges() {
+        try {
+            final var missing = mongoTemplate.find(query(where("status").in(PENDING, IN_REVIEW)
+                    .and("type").is(UPDATE).and("changes").exists(false)), MemberChangeRequest.class);
+            for (final var request : missing) {
+                // a superseding update stores its own diff; leave that one alone
+                mongoTemplate.updateFirst(query(where("_id").is(request.getId()).and("changes").exists(false)),
+                        new Update().set("changes", request.fieldChanges()), MemberChangeRequest.class);
+            }
+            if (!missing.isEmpty()) {
+                log.info("stored the field diff of {} open change requests", missing.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("could not backfill change request diffs: {}", e.getMessage());
+        }
+    }
+
+    record Cursor(Instant submittedAt, String id) {
+
+        static Cursor of(final MemberChangeRequest last) {
+            return new Cursor(last.getSubmittedAt(), last.getId());
+        }
+
+        String encode() {
+            final var raw = submittedAt.toEpochMilli() + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+        }
+
+        static Cursor decode(final String cursor) {
+            try {
+                final var raw = new String(Base64.getUrlDecoder().decode(cursor), UTF_8);
+                final var sep = raw.indexOf(':');
+                return new Cursor(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))), raw.substring(sep + 1));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new ResponseStatusException(BAD_REQUEST, "Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.JwtProperties;
+import com.quickstarts.kitchensink.config.UserInfoUserDetails;
+import com.quickstarts.kitchensink.dto.TokenResponse;
+import com.quickstarts.kitchensink.model.RefreshToken;
+import com.quickstarts.kitchensink.repo.RefreshTokenRepository;
+import com.quickstarts.kitchensink.repo.UserInfoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+/**
+ * Issues access/refresh token pairs and rotates refresh tokens. Each refresh token is single use: redeeming
+ * it atomically marks it used and issues a successor in the same family. Presenting a token that was already
+ * used means it leaked, so the whole family is revoked and the legitimate client has to log in again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final MongoTemplate mongoTemplate;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserInfoRepository userInfoRepository;
+    private final JwtService jwtService;
+    private final JwtProperties jwtProperties;
+
+    /**
+     * Starts a new token family for a freshly authenticated user.
+     */
+    public TokenResponse issue(final UserInfoUserDetails user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    public TokenResponse refresh(final String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) throw invalid();
+        final var hash = hash(rawToken);
+        final var now = Instant.now();
+        final var claimed = mongoTemplate.findAndModify(
+                query(where("tokenHash").is(hash)
+                        .and("usedAt").is(null)
+                        .and("revoked").is(false)
+                        .and("expiresAt").gt(now)),
+                new Update().set("usedAt", now),
+                RefreshToken.class);
+
+        if (claimed == null) {
+            refreshTokenRepository.findByTokenHash(hash)
+                    .filter(token -> token.getUsedAt() != null && !token.isRevoked())
+                    .ifPresent(token -> {
+                        log.warn("refresh token reuse for {}, revoking family {}", token.getUserName(), token.getFamilyId());
+                        revokeFamily(token.getFamilyId());
+                    });
+            throw invalid();
+        }
+
+        final var user = userInfoRepository.findByUserName(claimed.getUserName()).orElse(null);
+        if (user == null || user.getTokenVersion() > claimed.getTokenVersion()) {
+            revokeFamily(claimed.getFamilyId());
+            throw invalid();
+        }
+        return issue(new UserInfoUserDetails(user), claimed.getFamilyId());
+    }
+
+    public void logout(final String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) return;
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId()));
+    }
+
+    private TokenResponse issue(final UserInfoUserDetails user, final String familyId) {
+        final var roles = user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+        final var accessToken = jwtService.generateToken(user.getUsername(), user.getTokenVersion(), roles);
+
+        final var rawRefresh = newOpaqueToken();
+        final var now = Instant.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawRefresh))
+                .familyId(familyId)
+                .userName(user.getUsername())
+                .tokenVersion(user.getTokenVersion())
+                .issuedAt(now)
+                .expiresAt(now.plus(jwtProperties.getRefreshTokenTtl()))
+                .build());
+        return TokenResponse.bearer(accessToken, rawRefresh, jwtService.getAccessTokenTtlSeconds());
+    }
+
+    private void revokeFamily(final String familyId) {
+        mongoTemplate.updateMulti(query(where("familyId").is(familyId)),
+                new Update().set("revoked", true), RefreshToken.class);
+    }
+
+    private static String newOpaqueToken() {
+        final var bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String hash(final String rawToken) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(UNAUTHORIZED, "Invalid refresh token");
+    }
+}
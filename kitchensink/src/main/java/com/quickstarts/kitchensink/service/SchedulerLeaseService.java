@@ -0,0 +1,103 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.model.SchedulerLease;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Lets one node at a time run a job that every node schedules. The lease is taken with one conditional
+ * upsert that only matches a lease past its {@code lockedUntil}; while another node holds it the upsert's
+ * insert collides with the held document and the caller skips the run. A node that dies holding the lease
+ * blocks the job for at most the duration it was taken for. Progress is written on the lease, and only by
+ * the node still holding it.
+ */
+@Slf4j
+@Service
+public class SchedulerLeaseService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Clock clock;
+    private final String owner;
+
+    @Autowired
+    public SchedulerLeaseService(final MongoTemplate mongoTemplate) {
+        this(mongoTemplate, Clock.systemUTC(), nodeName());
+    }
+
+    SchedulerLeaseService(final MongoTemplate mongoTemplate, final Clock clock, final String owner) {
+        this.mongoTemplate = mongoTemplate;
+        this.clock = clock;
+        this.owner = owner;
+    }
+
+    /**
+     * @return the lease, held for {@code duration}, or empty if another node holds it
+     */
+    public Optional<SchedulerLease> acquire(final String job, final Duration duration) {
+        final var now = clock.instant();
+        try {
+            return Optional.ofNullable(mongoTemplate.findAndModify(
+                    query(where("_id").is(job).and("lockedUntil").lte(now)),
+                    new Update().set("owner", owner).set("lockedUntil", now.plus(duration)),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    SchedulerLease.class));
+        } catch (DuplicateKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records that the job got as far as ({@code cursorAt}, {@code cursorId}).
+     *
+     * @return false if the lease was lost to another node meanwhile; nothing is written then
+     */
+    public boolean checkpoint(final SchedulerLease lease, final Instant cursorAt, final String cursorId) {
+        final var written = mongoTemplate.updateFirst(held(lease),
+                new Update().set("cursorAt", cursorAt).set("cursorId", cursorId), SchedulerLease.class);
+        if (written.getMatchedCount() == 0) {
+            log.warn("lease {} was taken over by another node; progress not recorded", lease.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hands the lease back, keeping the other nodes off it until {@code holdUntil} so that a job every node
+     * schedules still runs about once per interval; a past {@code holdUntil} frees it at once.
+     */
+    public void release(final SchedulerLease lease, final Instant holdUntil) {
+        final var now = clock.instant();
+        mongoTemplate.updateFirst(held(lease),
+                new Update().set("lockedUntil", holdUntil.isAfter(now) ? holdUntil : now), SchedulerLease.class);
+    }
+
+    private Query held(final SchedulerLease lease) {
+        return query(where("_id").is(lease.getId()).and("owner").is(owner));
+    }
+
+    private static String nodeName() {
+        final var instance = UUID.randomUUID().toString().substring(0, 8);
+        try {
+            return InetAddress.getLocalHost().getHostName() + ":" + instance;
+        } catch (UnknownHostException e) {
+            return instance;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.model.UserInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.time.Instant.now;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Keeps an in-memory view of the minimum JWT "ver" claim accepted per user, so the auth filter can
+ * reject tokens issued before a password reset or account removal without reading Mongo per request.
+ * Other nodes pick up bumps by polling users whose {@code tokenVersionUpdatedAt} moved.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenVersionService {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, Long> minimumVersions = new ConcurrentHashMap<>();
+
+    private volatile Instant watermark = Instant.EPOCH;
+
+    // tolerate writers whose clocks run slightly behind ours
+    @Value("${app.security.token-version.clock-skew:PT5S}")
+    private Duration clockSkew = Duration.ofSeconds(5);
+
+    public boolean isCurrent(final String username, final long tokenVersion) {
+        return tokenVersion >= minimumVersions.getOrDefault(key(username), 0L);
+    }
+
+    /**
+     * Moves the user to the next token version; the caller persists the user and then calls {@link #remember}.
+     */
+    public void bump(final UserInfo user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        user.setTokenVersionUpdatedAt(now());
+    }
+
+    public void remember(final String username, final long minimumVersion) {
+        minimumVersions.merge(key(username), minimumVersion, Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.token-version.poll-interval:PT15S}")
+    public void refresh() {
+        final var since = watermark.minus(clockSkew);
+        final var query = new Query(where("tokenVersionUpdatedAt").gt(since));
+        query.fields().include("userName", "tokenVersion", "tokenVersionUpdatedAt");
+        try {
+            var newest = watermark;
+            for (final var user : mongoTemplate.find(query, UserInfo.class)) {
+                remember(user.getUserName(), user.getTokenVersion());
+                if (user.getTokenVersionUpdatedAt().isAfter(newest)) {
+                    newest = user.getTokenVersionUpdatedAt();
+                }
+            }
+            watermark = newest;
+        } catch (Exception e) {
+            log.warn("token version refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private static String key(final String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+}
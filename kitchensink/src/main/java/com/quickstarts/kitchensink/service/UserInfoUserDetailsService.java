@@ -4,20 +4,32 @@ import com.quickstarts.kitchensink.config.UserInfoUserDetails;
 import com.quickstarts.kitchensink.repo.UserInfoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
 @Component
-public class UserInfoUserDetailsService implements UserDetailsService {
+public class UserInfoUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserInfoRepository repository;
 
     @Override
     public UserDetails loadUserByUsername(final String username) throws UsernameNotFoundException {
-        final var userInfo = repository.findByUserName(username);
+        final var userInfo = repository.findByUserName(username).filter(user -> user.getDeletedAt() == null);
         return userInfo.map(UserInfoUserDetails::new)
                 .orElseThrow(() -> new UsernameNotFoundException("user not found " + username));
     }
+
+    /**
+     * Called by the authentication provider when the stored hash uses an outdated encoding or cost factor.
+     */
+    @Override
+    public UserDetails updatePassword(final UserDetails user, final String newPassword) {
+        final var userInfo = repository.findByUserName(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("user not found " + user.getUsername()));
+        userInfo.setPassword(newPassword);
+        return new UserInfoUserDetails(repository.save(userInfo));
+    }
 }
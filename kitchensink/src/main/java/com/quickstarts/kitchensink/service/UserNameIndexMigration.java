@@ -0,0 +1,72 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.model.UserInfo;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Builds the unique {@code userName} index on {@code users}, so a login cannot be created twice for one
+ * email. Logins written before the index existed may share a userName, on which the build fails, so it is
+ * not left to auto-index-creation. Which of two logins to keep is not something to guess (each may belong to
+ * a live member, and a tombstoned one can still be restored), so this is a pre-check, not a dedupe: at
+ * startup, unless the index is already there, the shared userNames are looked up first, and while there are
+ * any they are logged with their logins and the index is not built; the application starts without it.
+ * Remove or rename the surplus logins, and the next startup builds the index.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserNameIndexMigration {
+
+    // named as Spring Data names an @Indexed field, so an index built while userName carried the annotation counts
+    static final String INDEX = "userName";
+    private static final int MAX_LOGGED = 20;
+
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        final var indexOps = mongoTemplate.indexOps(UserInfo.class);
+        if (indexOps.getIndexInfo().stream().anyMatch(index -> INDEX.equals(index.getName()))) return;
+
+        final var shared = sharedUserNames();
+        if (!shared.isEmpty()) {
+            skip(shared);
+            return;
+        }
+        try {
+            indexOps.createIndex(new Index().on("userName", ASC).named(INDEX).unique());
+        } catch (DuplicateKeyException e) {
+            // a login was written meanwhile by a node without the index; the next startup checks again
+            skip(sharedUserNames());
+        }
+    }
+
+    private List<Document> sharedUserNames() {
+        return mongoTemplate.aggregate(newAggregation(
+                        group("userName").count().as("count").push(new Document("id", "$_id")
+                                .append("memberId", "$memberId").append("deletedAt", "$deletedAt")).as("logins"),
+                        match(where("count").gt(1)),
+                        limit(MAX_LOGGED)),
+                UserInfo.class, Document.class).getMappedResults();
+    }
+
+    private void skip(final List<Document> shared) {
+        log.error("{} not built: {}{} userNames have more than one login; remove or rename the surplus logins "
+                + "and restart", INDEX, shared.size() < MAX_LOGGED ? "" : "at least ", shared.size());
+        shared.forEach(userName -> log.error("{}: userName {} is shared by {}", INDEX, userName.get("_id"),
+                userName.get("logins")));
+    }
+}
@@ -21,6 +21,7 @@ public class UserService {
 
     private final UserInfoRepository userInfoRepository;
     private final PasswordEncoder encoder;
+    private final TokenVersionService tokenVersionService;
 
     public UserResponse createUser(final CreateUserRequest createUserRequest) throws UserCreationException {
 
@@ -50,6 +51,9 @@ public class UserService {
         user.setPassword(encoder.encode(newPassword));
         user.setMustChangePassword(false);
         // user.setPasswordUpdatedAt(Instant.now());
+        // invalidate every JWT issued with the old password
+        tokenVersionService.bump(user);
         userInfoRepository.save(user);
+        tokenVersionService.remember(user.getUserName(), user.getTokenVersion());
     }
 }
@@ -0,0 +1,41 @@
+package com.quickstarts.kitchensink.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+import static java.lang.Math.clamp;
+
+@Slf4j
+public class BCryptCostCalibrator {
+
+    private static final int SAMPLES = 3;
+
+    private BCryptCostCalibrator() {
+        //private constructor
+    }
+
+    /**
+     * Picks the highest BCrypt cost whose hash time stays within {@code target}.
+     * Only the lowest cost is measured; every +1 doubles the work, so higher costs are extrapolated.
+     */
+    public static int calibrate(final Duration target, final int minStrength, final int maxStrength) {
+        final var salt = BCrypt.gensalt(minStrength);
+        BCrypt.hashpw("warm-up", salt);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            final long start = System.nanoTime();
+            BCrypt.hashpw("calibration-" + i, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        final double headroom = (double) target.toNanos() / Math.max(best, 1L);
+        final int extra = headroom < 1 ? 0 : (int) Math.floor(Math.log(headroom) / Math.log(2));
+        final int strength = clamp(minStrength + extra, minStrength, maxStrength);
+        log.info("BCrypt cost {} selected ({} ms at cost {}, target {} ms)",
+                strength, best / 1_000_000, minStrength, target.toMillis());
+        return strength;
+    }
+}
@@ -0,0 +1,78 @@
+package com.quickstarts.kitchensink.utils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: one record in memory at a time, quoted fields may contain commas,
+ * doubled quotes and line breaks. Reads what {@code MemberExportService} writes.
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int BOM = '\uFEFF';
+
+    private final BufferedReader reader;
+    private boolean first = true;
+
+    public CsvReader(final Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    /**
+     * Next record, or {@code null} at end of input.
+     */
+    public List<String> next() throws IOException {
+        int c = reader.read();
+        if (first) {
+            first = false;
+            if (c == BOM) c = reader.read();
+        }
+        if (c == -1) return null;
+
+        final var fields = new ArrayList<String>();
+        final var field = new StringBuilder();
+        var quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IOException("Unterminated quoted field");
+                if (c == '"') {
+                    reader.mark(1);
+                    final int nextChar = reader.read();
+                    if (nextChar == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') reader.reset();
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,57 @@
+package com.quickstarts.kitchensink.utils;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.WriteConcernException;
+import org.bson.BsonDocument;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Works out which unique field a duplicate-key error (E11000) is about. The server reports the violated
+ * index's {@code keyPattern} on command errors (findAndModify, update); plain write errors only carry the
+ * index name, which by Mongo's naming convention starts with the field name.
+ */
+public final class DuplicateKeys {
+
+    private static final Pattern INDEX_NAME = Pattern.compile("index: (\\S+?)(?:_-?1)* dup key");
+
+    private DuplicateKeys() {
+        //utility class
+    }
+
+    public static Optional<String> field(final Throwable error) {
+        for (var cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException command) {
+                return firstKey(command.getResponse());
+            }
+            if (cause instanceof WriteConcernException writeConcern) {
+                return firstKey(writeConcern.getResponse());
+            }
+            if (cause instanceof MongoWriteException write) {
+                return fromIndexName(write.getError().getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> firstKey(final BsonDocument response) {
+        if (response != null && response.isDocument("keyPattern")) {
+            final var keyPattern = response.getDocument("keyPattern");
+            if (!keyPattern.isEmpty()) return Optional.of(keyPattern.getFirstKey());
+        }
+        return response != null && response.isString("errmsg")
+                ? fromIndexName(response.getString("errmsg").getValue())
+                : Optional.empty();
+    }
+
+    /**
+     * For bulk write errors, which only carry the server message.
+     */
+    public static Optional<String> fromIndexName(final String message) {
+        if (message == null) return Optional.empty();
+        final var matcher = INDEX_NAME.matcher(message);
+        return matcher.find() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+}
@@ -0,0 +1,69 @@
+package com.quickstarts.kitchensink.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free sliding-window event counter. The window is split into a ring of buckets; each bucket
+ * remembers which time slot it holds and is recycled with a CAS once that slot falls out of the window.
+ * Counts are approximate under heavy contention (a few increments may land in a bucket being recycled),
+ * which is fine for throttling.
+ */
+public final class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray slots;
+
+    private volatile long lastEventMillis;
+
+    public SlidingWindowCounter(final Duration window, final int buckets) {
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1L, window.toMillis() / buckets);
+        this.counts = new AtomicLongArray(buckets);
+        this.slots = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) slots.set(i, -1L);
+    }
+
+    /**
+     * Records one event and returns the number of events in the window including it.
+     */
+    public long incrementAndSum(final long nowMillis) {
+        final long slot = nowMillis / bucketMillis;
+        final int idx = (int) (slot % buckets);
+        while (true) {
+            final long held = slots.get(idx);
+            if (held == slot) {
+                counts.incrementAndGet(idx);
+                break;
+            }
+            if (held > slot) {
+                break; // clock went backwards; drop the event rather than corrupt a newer bucket
+            }
+            if (slots.compareAndSet(idx, held, slot)) {
+                counts.set(idx, 1L);
+                break;
+            }
+        }
+        lastEventMillis = nowMillis;
+        return sum(nowMillis);
+    }
+
+    public long sum(final long nowMillis) {
+        final long oldest = nowMillis / bucketMillis - buckets + 1;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (slots.get(i) >= oldest) total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long lastEventMillis() {
+        return lastEventMillis;
+    }
+
+    public boolean isIdle(final long nowMillis) {
+        return nowMillis - lastEventMillis > bucketMillis * buckets;
+    }
+}
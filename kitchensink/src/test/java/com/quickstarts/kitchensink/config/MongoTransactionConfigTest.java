@@ -0,0 +1,103 @@
+package com.quickstarts.kitchensink.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.UserInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Runs against a single-node replica set, the smallest topology that supports transactions.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MongoTransactionConfigTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private MongoClient client;
+    private MongoTemplate template;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl("members_tx"));
+        final var factory = new SimpleMongoClientDatabaseFactory(client, "members_tx");
+        template = new MongoTemplate(factory);
+        template.dropCollection(Member.class);
+        template.dropCollection(UserInfo.class);
+        template.createCollection(Member.class);
+        template.createCollection(UserInfo.class);
+        transactionManager = new MongoTransactionConfig().transactionManager(factory, new MongoTransactionProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void replicaSet_getsMongoTransactionManager() {
+        assertThat(((MongoTransactionConfig.TopologyAwareTransactionManager) transactionManager).resolved())
+                .isInstanceOf(MongoTransactionManager.class);
+    }
+
+    @Test
+    void memberAndUser_commitTogether() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            template.insert(member("m-1"));
+            template.insert(user("m-1"));
+        });
+
+        assertThat(template.count(query(where("_id").is("m-1")), Member.class)).isEqualTo(1);
+        assertThat(template.count(query(where("memberId").is("m-1")), UserInfo.class)).isEqualTo(1);
+    }
+
+    @Test
+    void memberAndUser_rollBackTogether() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            template.insert(member("m-2"));
+            template.insert(user("m-2"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(template.count(query(where("_id").is("m-2")), Member.class)).isZero();
+        assertThat(template.count(query(where("memberId").is("m-2")), UserInfo.class)).isZero();
+    }
+
+    private static Member member(final String id) {
+        final var member = new Member();
+        member.setId(id);
+        member.setName("Tx Member");
+        member.setEmail(id + "@example.com");
+        member.setPhoneNumber("+91900000000" + id.charAt(2));
+        member.setAge(30);
+        member.setPlace("Delhi");
+        return member;
+    }
+
+    private static UserInfo user(final String memberId) {
+        return UserInfo.builder()
+                .userName(memberId + "@example.com")
+                .password("x")
+                .roles(Set.of("MEMBER"))
+                .memberId(memberId)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.quickstarts.kitchensink.config;
+
+import com.quickstarts.kitchensink.utils.BCryptCostCalibrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+class PooledPasswordEncoderTest {
+
+    private PooledPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("encode/matches run on the pool and keep BCrypt semantics")
+    void encodeAndMatch() {
+        encoder = new PooledPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, Duration.ofSeconds(5));
+
+        var hash = encoder.encode("s3cret!");
+
+        assertThat(encoder.matches("s3cret!", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(encoder.encodeAsync("s3cret!").join()).startsWith("$2a$04$");
+    }
+
+    @Test
+    @DisplayName("encodeAll hashes a batch larger than the queue without being rejected")
+    void encodeAll_batchLargerThanQueue() {
+        encoder = new PooledPasswordEncoder(new BCryptPasswordEncoder(4), 2, 1, Duration.ofSeconds(5));
+
+        var hashes = encoder.encodeAll(List.of("a1", "b2", "c3", "d4", "e5", "f6"));
+
+        assertThat(hashes).hasSize(6);
+        assertThat(encoder.matches("d4", hashes.get(3))).isTrue();
+    }
+
+    @Test
+    @DisplayName("a saturated pool rejects with 503 instead of queueing more CPU work")
+    void saturatedPool_rejects() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        encoder = new PooledPasswordEncoder(blocking, 1, 1, Duration.ofSeconds(5));
+
+        var running = encoder.encodeAsync("a");
+        started.await();
+        var queued = encoder.encodeAsync("b");
+
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(SERVICE_UNAVAILABLE);
+
+        release.countDown();
+        assertThat(running.join()).isNotBlank();
+        assertThat(queued.join()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("calibrated cost stays within the configured bounds")
+    void calibrate_respectsBounds() {
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ZERO, 4, 6)).isEqualTo(4);
+        assertThat(BCryptCostCalibrator.calibrate(Duration.ofHours(1), 4, 6)).isEqualTo(6);
+    }
+}
@@ -0,0 +1,69 @@
+package com.quickstarts.kitchensink.config;
+
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopologyAwareTransactionManagerTest {
+
+    @Mock
+    private MongoDatabaseFactory factory;
+
+    @Mock
+    private MongoDatabase admin;
+
+    private MongoTransactionConfig.TopologyAwareTransactionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(factory.getMongoDatabase("admin")).thenReturn(admin);
+        manager = (MongoTransactionConfig.TopologyAwareTransactionManager)
+                new MongoTransactionConfig().transactionManager(factory, new MongoTransactionProperties());
+    }
+
+    @Test
+    void standaloneServer_runsWithoutTransactions_andIsCheckedOnce() {
+        when(admin.runCommand(any(Document.class))).thenReturn(new Document("isWritablePrimary", true));
+
+        var status = manager.getTransaction(new DefaultTransactionDefinition());
+        manager.commit(status);
+        manager.commit(manager.getTransaction(new DefaultTransactionDefinition()));
+
+        assertThat(manager.resolved()).isInstanceOf(MongoTransactionConfig.NonTransactionalManager.class);
+        assertThat(status.isNewTransaction()).isFalse();
+        verify(admin, times(1)).runCommand(any(Document.class));
+    }
+
+    @Test
+    void unreachableServer_failsTheTransaction_andChecksAgainNextTime() {
+        when(admin.runCommand(any(Document.class)))
+                .thenThrow(new MongoTimeoutException("no server"))
+                .thenReturn(new Document("isWritablePrimary", true));
+
+        assertThatThrownBy(() -> manager.getTransaction(new DefaultTransactionDefinition()))
+                .isInstanceOf(CannotCreateTransactionException.class);
+        manager.commit(manager.getTransaction(new DefaultTransactionDefinition()));
+
+        assertThat(manager.resolved()).isInstanceOf(MongoTransactionConfig.NonTransactionalManager.class);
+        verify(admin, times(2)).runCommand(any(Document.class));
+    }
+
+    @Test
+    void startup_doesNotTouchTheServer() {
+        verifyNoInteractions(admin);
+    }
+}
@@ -2,11 +2,20 @@ package com.quickstarts.kitchensink.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quickstarts.kitchensink.dto.CreateMemberRequestDTO;
+import com.quickstarts.kitchensink.dto.CreateMemberResponseDTO;
 import com.quickstarts.kitchensink.dto.MemberFilterRequest;
+import com.quickstarts.kitchensink.dto.MemberPatchRequest;
 import com.quickstarts.kitchensink.dto.MemberResponseDTO;
+import com.quickstarts.kitchensink.dto.ProvisioningStatusResponse;
 import com.quickstarts.kitchensink.dto.UpdateMemberRequest;
 import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.Provisioning;
+import com.quickstarts.kitchensink.dto.BulkRegistrationReport;
+import com.quickstarts.kitchensink.dto.BulkRowResult;
+import com.quickstarts.kitchensink.service.BulkRegistrationService;
+import com.quickstarts.kitchensink.service.IdempotencyService;
 import com.quickstarts.kitchensink.service.MemberExportService;
+import com.quickstarts.kitchensink.service.MemberProvisioningService;
 import com.quickstarts.kitchensink.service.MemberQueryService;
 import com.quickstarts.kitchensink.service.MemberService;
 import jakarta.servlet.http.HttpServletResponse;
@@ -23,11 +32,17 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static java.time.LocalDate.now;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.BDDMockito.*;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -55,6 +70,15 @@ class MemberControllerTest {
     @MockitoBean
     private MemberExportService exportService;
 
+    @MockitoBean
+    private BulkRegistrationService bulkRegistrationService;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @MockitoBean
+    private MemberProvisioningService provisioningService;
+
     @Test
     @WithMockUser(authorities = "ADMIN")
     void registerMember_created() throws Exception {
@@ -70,9 +94,12 @@ class MemberControllerTest {
         member.setRegistrationDate(now());
 
         when(memberService.registerMember(any(CreateMemberRequestDTO.class))).thenReturn(member);
+        given(idempotencyService.execute(eq("member.register"), eq("key-1"), eq(req), eq(CreateMemberResponseDTO.class), any()))
+                .willAnswer(inv -> inv.<Supplier<?>>getArgument(4).get());
 
         // when / then
         mvc.perform(post("/member/register")
+                        .header("Idempotency-Key", "key-1")
                         .contentType(APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isCreated())
@@ -84,6 +111,34 @@ class MemberControllerTest {
         then(memberService).should().registerMember(any(CreateMemberRequestDTO.class));
     }
 
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    @SuppressWarnings("unchecked")
+    void registerBulk_ndjson_streamsRowsToService() throws Exception {
+        final var report = new BulkRegistrationReport(2, 1, 1, false, Set.of("virat@example.com"), Set.of(),
+                List.of(BulkRowResult.created(1, "m1", "rohit@example.com"),
+                        BulkRowResult.rejected(2, "virat@example.com", Map.of("email", "Email taken"))));
+        final var received = new ArrayList<CreateMemberRequestDTO>();
+        given(bulkRegistrationService.register(any())).willAnswer(inv -> {
+            ((Iterator<CreateMemberRequestDTO>) inv.getArgument(0)).forEachRemaining(received::add);
+            return report;
+        });
+
+        final var body = objectMapper.writeValueAsString(new CreateMemberRequestDTO("Rohit Sharma", "rohit@example.com", "9876543210", 36, "Mumbai"))
+                + "\n" + objectMapper.writeValueAsString(new CreateMemberRequestDTO("Virat Kohli", "virat@example.com", "9999999999", 35, "Delhi"));
+
+        mvc.perform(post("/member/register/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.duplicateEmails[0]").value("virat@example.com"))
+                .andExpect(jsonPath("$.rows[1].status").value("REJECTED"));
+
+        assertEquals(2, received.size());
+        assertEquals("virat@example.com", received.get(1).email());
+    }
+
     @Test
     @WithMockUser(authorities = "ADMIN")
     void update_ok() throws Exception {
@@ -106,6 +161,57 @@ class MemberControllerTest {
         then(memberService).should().update(eq(id), any(UpdateMemberRequest.class));
     }
 
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void update_withoutVersion_isRejected() throws Exception {
+        //given a member that has been saved before, so it is at version 1 or later
+        final var id = "abc123";
+
+        //when //then
+        mvc.perform(put("/member/{id}", id)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"name\":\"V Kohli\",\"email\":\"vk@example.com\",\"phoneNumber\":\"+918888888888\","
+                                + "\"age\":36,\"place\":\"Mumbai\"}"))
+                .andExpect(status().isBadRequest());
+
+        then(memberService).should(never()).update(any(), any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void patch_ok_and_requiresVersion() throws Exception {
+        //given
+        final var id = "abc123";
+        final var resp = new MemberResponseDTO(id, "V Kohli", "vk@example.com", "+918888888888", 36, "Pune", now(), 2L);
+        given(memberService.patch(eq(id), any(MemberPatchRequest.class))).willReturn(resp);
+
+        //when //then
+        mvc.perform(patch("/member/{id}", id)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"place\":\"Pune\",\"version\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.place").value("Pune"))
+                .andExpect(jsonPath("$.version").value(2));
+        then(memberService).should().patch(id, new MemberPatchRequest(null, null, null, null, "Pune", 1L));
+
+        mvc.perform(patch("/member/{id}", id)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"place\":\"Pune\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void provisioningStatus_ok() throws Exception {
+        given(provisioningService.status("abc123")).willReturn(
+                new ProvisioningStatusResponse("abc123", Provisioning.Status.FAILED, 5, null, null, "smtp down"));
+
+        mvc.perform(get("/member/{id}/provisioning", "abc123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FAILED"))
+                .andExpect(jsonPath("$.lastError").value("smtp down"));
+    }
+
     @Test
     @WithMockUser(authorities = "ADMIN")
     void delete_noContent() throws Exception {
@@ -119,6 +225,18 @@ class MemberControllerTest {
         then(memberService).should().delete(id);
     }
 
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void restore_ok() throws Exception {
+        var id = "abc123";
+        given(memberService.restore(id)).willReturn(
+                new MemberResponseDTO(id, "V Kohli", "vk@example.com", "+918888888888", 36, "Pune", now(), 3L));
+
+        mvc.perform(post("/member/{id}/restore", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+    }
+
     @Test
     @WithMockUser(authorities = "ADMIN")
     void search_ok() throws Exception {
@@ -1,16 +1,22 @@
 package com.quickstarts.kitchensink.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quickstarts.kitchensink.config.IdempotencyProperties;
 import com.quickstarts.kitchensink.config.UserInfoUserDetails;
 import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
 import com.quickstarts.kitchensink.model.Member;
 import com.quickstarts.kitchensink.repo.MemberRepository;
+import com.quickstarts.kitchensink.service.IdempotencyService;
 import com.quickstarts.kitchensink.service.MemberChangeRequestService;
+import com.quickstarts.kitchensink.service.MemberProfileUpdateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
 import org.springframework.web.server.ResponseStatusException;
@@ -32,6 +38,9 @@ class MemberSelfControllerTest {
     @Mock
     private MemberChangeRequestService changeService;
 
+    @Mock
+    private MemberProfileUpdateService profileUpdateService;
+
     @Mock
     private UserInfoUserDetails userDetails;
 
@@ -41,6 +50,11 @@ class MemberSelfControllerTest {
     @Mock
     private RedirectAttributes redirectAttributes;
 
+    // without an Idempotency-Key the real service just runs the action
+    @Spy
+    private IdempotencyService idempotencyService =
+            new IdempotencyService(mock(MongoTemplate.class), new ObjectMapper(), new IdempotencyProperties());
+
     @InjectMocks
     private MemberSelfController controller;
 
@@ -94,21 +108,31 @@ class MemberSelfControllerTest {
         when(userDetails.getUsername()).thenReturn(USERNAME);
 
         // Act
-        String viewName = controller.updateMe(userDetails, memberUpdateDTO, redirectAttributes);
+        String viewName = controller.updateMe(userDetails, null, memberUpdateDTO, redirectAttributes);
 
         // Assert
         assertEquals("redirect:/member/me", viewName);
-        verify(changeService).submitProfileUpdate(USERNAME, memberUpdateDTO);
+        verify(profileUpdateService).submit(USERNAME, memberUpdateDTO);
         verify(redirectAttributes).addFlashAttribute("msg", "Your changes were submitted and are pending admin approval.");
     }
 
+    @Test
+    void updateMe_AutoApproved_SaysChangesWereApplied() {
+        when(userDetails.getUsername()).thenReturn(USERNAME);
+        when(profileUpdateService.submit(USERNAME, memberUpdateDTO)).thenReturn(true);
+
+        controller.updateMe(userDetails, null, memberUpdateDTO, redirectAttributes);
+
+        verify(redirectAttributes).addFlashAttribute("msg", "Your changes were applied.");
+    }
+
     @Test
     void deleteMe_SubmitsDeleteRequestAndRedirects() {
         // Arrange
         when(userDetails.getUsername()).thenReturn(USERNAME);
 
         // Act
-        String viewName = controller.deleteMe(userDetails, redirectAttributes);
+        String viewName = controller.deleteMe(userDetails, null, redirectAttributes);
 
         // Assert
         assertEquals("redirect:/member/me", viewName);
@@ -1,7 +1,10 @@
 package com.quickstarts.kitchensink.filter;
 
 import com.quickstarts.kitchensink.service.JwtService;
+import com.quickstarts.kitchensink.service.TokenVersionService;
 import com.quickstarts.kitchensink.service.UserInfoUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,18 +12,21 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,16 +47,31 @@ class JwtAuthFilterTest {
     @Mock
     private FilterChain filterChain;
 
-    @InjectMocks
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private HandlerExceptionResolver exceptionResolver;
+
     private JwtAuthFilter jwtAuthFilter;
 
     private UserDetails userDetails;
 
+    private final Claims claims = Jwts.claims().setSubject("test@example.com");
+
     @BeforeEach
     void setUp() {
         // Clear SecurityContextHolder before each test
         SecurityContextHolder.clearContext();
 
+        // the filter takes the resolver by constructor and the rest by field injection
+        jwtAuthFilter = new JwtAuthFilter(exceptionResolver);
+        ReflectionTestUtils.setField(jwtAuthFilter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(jwtAuthFilter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(jwtAuthFilter, "tokenVersionService", tokenVersionService);
+        lenient().when(tokenVersionService.isCurrent(any(), anyLong())).thenReturn(true);
+        lenient().when(jwtService.roles(any())).thenReturn(List.of());
+
         // Create UserDetails for testing
         userDetails = User.withUsername("test@example.com")
                 .password("password")
@@ -62,17 +83,17 @@ class JwtAuthFilterTest {
     void doFilterInternal_ValidToken_SetsAuthenticationAndProceeds() throws ServletException, IOException {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer validToken");
-        when(jwtService.extractUsername("validToken")).thenReturn("test@example.com");
+        when(jwtService.parse("validToken")).thenReturn(claims);
         when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
-        when(jwtService.validateToken("validToken", userDetails)).thenReturn(true);
+        when(jwtService.isValid(claims, userDetails)).thenReturn(true);
 
         // Act
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         // Assert
-        verify(jwtService).extractUsername("validToken");
+        verify(jwtService, times(1)).parse("validToken");
         verify(userDetailsService).loadUserByUsername("test@example.com");
-        verify(jwtService).validateToken("validToken", userDetails);
+        verify(jwtService).isValid(claims, userDetails);
         verify(filterChain).doFilter(request, response);
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         assertEquals("test@example.com", SecurityContextHolder.getContext().getAuthentication().getName());
@@ -82,17 +103,17 @@ class JwtAuthFilterTest {
     void doFilterInternal_InvalidToken_DoesNotSetAuthenticationAndProceeds() throws ServletException, IOException {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer invalidToken");
-        when(jwtService.extractUsername("invalidToken")).thenReturn("test@example.com");
+        when(jwtService.parse("invalidToken")).thenReturn(claims);
         when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(userDetails);
-        when(jwtService.validateToken("invalidToken", userDetails)).thenReturn(false);
+        when(jwtService.isValid(claims, userDetails)).thenReturn(false);
 
         // Act
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         // Assert
-        verify(jwtService).extractUsername("invalidToken");
+        verify(jwtService, times(1)).parse("invalidToken");
         verify(userDetailsService).loadUserByUsername("test@example.com");
-        verify(jwtService).validateToken("invalidToken", userDetails);
+        verify(jwtService).isValid(claims, userDetails);
         verify(filterChain).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -106,9 +127,9 @@ class JwtAuthFilterTest {
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         // Assert
-        verify(jwtService, never()).extractUsername(any());
+        verify(jwtService, never()).parse(any());
         verify(userDetailsService, never()).loadUserByUsername(any());
-        verify(jwtService, never()).validateToken(any(), any());
+        verify(jwtService, never()).isValid(any(), any());
         verify(filterChain).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -122,9 +143,9 @@ class JwtAuthFilterTest {
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         // Assert
-        verify(jwtService, never()).extractUsername(any());
+        verify(jwtService, never()).parse(any());
         verify(userDetailsService, never()).loadUserByUsername(any());
-        verify(jwtService, never()).validateToken(any(), any());
+        verify(jwtService, never()).isValid(any(), any());
         verify(filterChain).doFilter(request, response);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -133,7 +154,7 @@ class JwtAuthFilterTest {
     void doFilterInternal_ExistingAuthentication_SkipsProcessingAndProceeds() throws ServletException, IOException {
         // Arrange
         when(request.getHeader("Authorization")).thenReturn("Bearer validToken");
-        when(jwtService.extractUsername("validToken")).thenReturn("test@example.com");
+        when(jwtService.parse("validToken")).thenReturn(claims);
         // Simulate existing authentication
         SecurityContextHolder.getContext().setAuthentication(
                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())
@@ -143,7 +164,7 @@ class JwtAuthFilterTest {
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         // Assert
-        verify(jwtService).extractUsername("validToken");
+        verify(jwtService, times(1)).parse("validToken");
         verify(userDetailsService, never()).loadUserByUsername(any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.quickstarts.kitchensink.config.AdminQueueStreamProperties;
+import com.quickstarts.kitchensink.dto.QueueEvent;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import com.quickstarts.kitchensink.service.AdminQueueStreamService.Delivery;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static com.quickstarts.kitchensink.dto.QueueEvent.Kind.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdminQueueStreamServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoConverter converter;
+
+    private final Queue<Runnable> senderTasks = new ArrayDeque<>();
+    private AdminQueueStreamProperties props;
+    private AdminQueueStreamService service;
+
+    @BeforeEach
+    void setUp() {
+        props = new AdminQueueStreamProperties();
+        props.setSubscriberBuffer(3);
+        props.setReplayBuffer(3);
+        service = new AdminQueueStreamService(mongoTemplate, props, senderTasks::add);
+    }
+
+    /**
+     * Keeps the payloads sent, the event names, and the text framing each event.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final List<String> names = new ArrayList<>();
+        final List<QueueEvent> events = new ArrayList<>();
+        final List<String> wire = new ArrayList<>();
+
+        @Override
+        public void send(final SseEventBuilder builder) {
+            final var text = new StringBuilder();
+            for (final var part : builder.build()) {
+                if (part.getData() instanceof QueueEvent event) {
+                    events.add(event);
+                } else {
+                    text.append(part.getData());
+                }
+            }
+            wire.add(text.toString());
+            text.toString().lines().filter(line -> line.startsWith("event:"))
+                    .forEach(line -> names.add(line.substring("event:".length())));
+        }
+    }
+
+    private void runSenders() {
+        for (var task = senderTasks.poll(); task != null; task = senderTasks.poll()) {
+            task.run();
+        }
+    }
+
+    private static Delivery status(final String token, final String requestId) {
+        return new Delivery(token, new QueueEvent(STATUS, requestId, Status.APPROVED, null));
+    }
+
+    @Test
+    void publish_fansOutToEverySession_withTheResumeTokenAsId() {
+        var first = new RecordingEmitter();
+        var second = new RecordingEmitter();
+        service.subscribe(null, first);
+        service.subscribe(null, second);
+
+        service.publish(status("t1", "r1"));
+        runSenders();
+
+        assertThat(first.events).extracting(QueueEvent::requestId).containsExactly("r1");
+        assertThat(second.events).extracting(QueueEvent::requestId).containsExactly("r1");
+        assertThat(first.names).containsExactly("status");
+        assertThat(first.wire.getFirst()).contains("id:t1");
+    }
+
+    @Test
+    void reconnect_withLastEventId_replaysOnlyWhatWasMissed() {
+        service.publish(status("t1", "r1"));
+        service.publish(status("t2", "r2"));
+        service.publish(status("t3", "r3"));
+
+        var emitter = new RecordingEmitter();
+        service.subscribe("t1", emitter);
+        runSenders();
+
+        assertThat(emitter.events).extracting(QueueEvent::requestId).containsExactly("r2", "r3");
+    }
+
+    @Test
+    void reconnect_fromOutsideTheReplayWindow_isToldToReload() {
+        for (int i = 1; i <= 4; i++) {
+            service.publish(status("t" + i, "r" + i));
+        }
+
+        var emitter = new RecordingEmitter();
+        service.subscribe("t1", emitter);
+        runSenders();
+
+        assertThat(emitter.events).extracting(QueueEvent::kind).containsExactly(RESYNC);
+    }
+
+    @Test
+    void slowSession_dropsItsBacklogForAResync_withoutHoldingUpTheOthers() {
+        var slow = new RecordingEmitter();
+        service.subscribe(null, slow);
+
+        // the sender never got to run while four events arrived for a buffer of three
+        for (int i = 1; i <= 4; i++) {
+            service.publish(status("t" + i, "r" + i));
+        }
+        var late = new RecordingEmitter();
+        service.subscribe(null, late);
+        service.publish(status("t5", "r5"));
+        runSenders();
+
+        assertThat(slow.events).extracting(QueueEvent::kind).containsExactly(RESYNC, STATUS);
+        assertThat(late.events).extracting(QueueEvent::requestId).containsExactly("r5");
+    }
+
+    @Test
+    void heartbeat_sendsACommentOnly() {
+        var emitter = new RecordingEmitter();
+        service.subscribe(null, emitter);
+
+        service.heartbeat();
+        runSenders();
+
+        assertThat(emitter.events).isEmpty();
+        assertThat(emitter.wire).containsExactly(":keep-alive\n\n");
+    }
+
+    @Test
+    void toEvent_insertOfPendingRequest_isASubmissionWithItsRow() {
+        var document = new Document("_id", "r1");
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(MemberChangeRequest.class, document)).thenReturn(MemberChangeRequest.builder()
+                .id("r1").memberEmail("m1@example.com").type(ChangeType.DELETE).build());
+
+        var event = service.toEvent(change("insert", document, null)).orElseThrow();
+
+        assertThat(event.kind()).isEqualTo(SUBMITTED);
+        assertThat(event.row().memberEmail()).isEqualTo("m1@example.com");
+    }
+
+    @Test
+    void toEvent_statusUpdate_carriesTheNewStatus() {
+        var update = new UpdateDescription(List.of(), new BsonDocument("status", new BsonString("IN_REVIEW")));
+
+        var event = service.toEvent(change("update", null, update)).orElseThrow();
+
+        assertThat(event).isEqualTo(new QueueEvent(STATUS, "r1", Status.IN_REVIEW, null));
+    }
+
+    private static ChangeStreamDocument<Document> change(final String operation, final Document fullDocument,
+                                                         final UpdateDescription update) {
+        return new ChangeStreamDocument<>(operation, new BsonDocument("_data", new BsonString("t1")), null, null,
+                fullDocument, null, new BsonDocument("_id", new BsonString("r1")), null, update,
+                null, null, null, null, null);
+    }
+}
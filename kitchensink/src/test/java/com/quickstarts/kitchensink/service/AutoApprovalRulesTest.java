@@ -0,0 +1,86 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.MemberChangeRequestProperties;
+import com.quickstarts.kitchensink.config.MemberChangeRequestProperties.Condition;
+import com.quickstarts.kitchensink.config.MemberChangeRequestProperties.Rule;
+import com.quickstarts.kitchensink.dto.FieldChange;
+import com.quickstarts.kitchensink.dto.MemberSnapshot;
+import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AutoApprovalRulesTest {
+
+    private static final MemberSnapshot BEFORE =
+            new MemberSnapshot("Alice", "alice@example.com", "9990001111", 28, "new delhi");
+
+    private static Rule rule(final String name, final String field, final Condition condition, final Integer maxDelta) {
+        var rule = new Rule();
+        rule.setName(name);
+        rule.setField(field);
+        rule.setCondition(condition);
+        rule.setMaxDelta(maxDelta);
+        return rule;
+    }
+
+    private static AutoApprovalRules rules(final Rule... rules) {
+        var props = new MemberChangeRequestProperties();
+        props.getAutoApproval().setRules(List.of(rules));
+        return new AutoApprovalRules(props);
+    }
+
+    private static Map<String, FieldChange<?>> changes(final MemberUpdateDTO requested) {
+        return FieldChange.diff(BEFORE, requested);
+    }
+
+    private static final AutoApprovalRules DEFAULTS = rules(
+            rule("place-case", "place", Condition.CASE_ONLY, null),
+            rule("age-bump", "age", Condition.MAX_DELTA, 1));
+
+    @Test
+    void match_everyChangeAllowed_namesTheRules() {
+        var requested = new MemberUpdateDTO("Alice", null, null, 29, "New  Delhi");
+
+        assertThat(DEFAULTS.match(changes(requested))).contains("age-bump,place-case");
+    }
+
+    @Test
+    void match_oneChangeNotCovered_needsReview() {
+        assertThat(DEFAULTS.match(changes(new MemberUpdateDTO(null, null, null, 29, "Mumbai")))).isEmpty();
+        assertThat(DEFAULTS.match(changes(new MemberUpdateDTO(null, null, null, 30, null)))).isEmpty();
+        assertThat(DEFAULTS.match(changes(new MemberUpdateDTO("Alicia", null, null, 0, null)))).isEmpty();
+    }
+
+    @Test
+    void match_disabled_matchesNothing() {
+        var props = new MemberChangeRequestProperties();
+        props.getAutoApproval().setEnabled(false);
+        props.getAutoApproval().setRules(List.of(rule("anything", "name", Condition.ANY, null)));
+
+        assertThat(new AutoApprovalRules(props).match(changes(new MemberUpdateDTO("Bob", null, null, 0, null))))
+                .isEmpty();
+    }
+
+    @Test
+    void badRule_failsAtStartup() {
+        assertThatThrownBy(() -> rules(rule("typo", "plase", Condition.CASE_ONLY, null)))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("plase");
+        assertThatThrownBy(() -> rules(rule("no-delta", "age", Condition.MAX_DELTA, null)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> rules(rule("age-case", "age", Condition.CASE_ONLY, null)))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("text field");
+    }
+
+    @Test
+    void match_storedValueOfTheWrongType_isRefused() {
+        var rules = rules(rule("age-bump", "age", Condition.MAX_DELTA, 1));
+
+        assertThatThrownBy(() -> rules.match(Map.of("age", new FieldChange<>("28", "29"))))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("age");
+    }
+}
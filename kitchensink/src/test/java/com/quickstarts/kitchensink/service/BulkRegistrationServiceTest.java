@@ -0,0 +1,133 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.quickstarts.kitchensink.config.BulkImportProperties;
+import com.quickstarts.kitchensink.config.PooledPasswordEncoder;
+import com.quickstarts.kitchensink.dto.BulkRowResult;
+import com.quickstarts.kitchensink.dto.CreateMemberRequestDTO;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.UserInfo;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.BulkOperations.BulkMode.UNORDERED;
+
+@ExtendWith(MockitoExtension.class)
+class BulkRegistrationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PooledPasswordEncoder passwordEncoder;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private NotificationQueue notificationQueue;
+
+    @Mock
+    private BulkOperations memberOps;
+
+    @Mock
+    private BulkOperations userOps;
+
+    private BulkRegistrationService service;
+
+    @BeforeEach
+    void setUp() {
+        final var props = new BulkImportProperties();
+        props.setChunkSize(2);
+        service = new BulkRegistrationService(mongoTemplate, Validation.buildDefaultValidatorFactory().getValidator(),
+                passwordEncoder, emailService, notificationQueue, props);
+    }
+
+    private static CreateMemberRequestDTO req(final String name, final String email, final String phone) {
+        return new CreateMemberRequestDTO(name, email, phone, 30, "Pune");
+    }
+
+    private void stubBulkOps() {
+        lenient().when(mongoTemplate.bulkOps(UNORDERED, Member.class)).thenReturn(memberOps);
+        lenient().when(mongoTemplate.bulkOps(UNORDERED, UserInfo.class)).thenReturn(userOps);
+        lenient().when(memberOps.insert(anyList())).thenReturn(memberOps);
+        lenient().when(userOps.insert(anyList())).thenReturn(userOps);
+        lenient().when(passwordEncoder.encodeAll(anyList()))
+                .thenAnswer(inv -> ((List<?>) inv.getArgument(0)).stream().map(p -> "hash").toList());
+    }
+
+    @Test
+    void register_ValidRowsInsertedInChunks_InvalidAndDuplicateRowsReported() {
+        stubBulkOps();
+        final Iterator<CreateMemberRequestDTO> rows = List.of(
+                req("Asha Rao", "Asha@Example.com", "9876543210"),
+                req("Bad 1", "b@example.com", "9876543211"),               // digits in name
+                req("Chitra Iyer", "asha@example.com", "9876543212"),      // duplicate of row 1 after normalising
+                req("Dev Nair", "dev@example.com", "9876543213")).iterator();
+
+        final var report = service.register(rows);
+
+        assertEquals(4, report.total());
+        assertEquals(2, report.created());
+        assertEquals(List.of(1, 2, 3, 4), report.rows().stream().map(BulkRowResult::row).toList());
+        assertEquals(BulkRowResult.Status.REJECTED, report.rows().get(1).status());
+        assertTrue(report.rows().get(1).errors().containsKey("name"));
+        assertEquals("Duplicate email in this upload", report.rows().get(2).errors().get("email"));
+        assertTrue(report.duplicateEmails().contains("asha@example.com"));
+        // two chunks of two rows -> two member bulk inserts, two user bulk inserts
+        verify(memberOps, times(2)).execute();
+        verify(userOps, times(2)).execute();
+        verify(notificationQueue, times(2)).enqueue(any());
+    }
+
+    @Test
+    void registerChunk_ExistingEmailAndPhone_Rejected() {
+        stubBulkOps();
+        final var existing = Member.builder().email("taken@example.com").phoneNumber("9000000000").build();
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(existing));
+
+        final var results = service.registerChunk(List.of(
+                new BulkRegistrationService.Row(1, req("Esha Das", "taken@example.com", "9876543210")),
+                new BulkRegistrationService.Row(2, req("Farah Khan", "farah@example.com", "9000000000")),
+                new BulkRegistrationService.Row(3, req("Gita Sen", "gita@example.com", "9876543219"))),
+                new BulkRegistrationService.Seen());
+
+        assertEquals(1, results.stream().filter(BulkRowResult::isCreated).count());
+        assertTrue(results.stream().anyMatch(r -> r.row() == 1 && "Email taken".equals(r.errors().get("email"))));
+        assertTrue(results.stream().anyMatch(r -> r.row() == 2 && r.errors().containsKey("phoneNumber")));
+    }
+
+    @Test
+    void registerChunk_UserInsertFails_RemovesOrphanMember() {
+        stubBulkOps();
+        final var error = new BulkWriteError(11000, "E11000 duplicate key error collection: members_db.users index: userName_1 dup key: { userName: \"hari@example.com\" }", new BsonDocument(), 0);
+        final var bulkException = mock(BulkOperationException.class);
+        when(bulkException.getErrors()).thenReturn(List.of(error));
+        when(userOps.execute()).thenThrow(bulkException);
+
+        final var results = service.registerChunk(List.of(
+                new BulkRegistrationService.Row(1, req("Hari Om", "hari@example.com", "9876543210")),
+                new BulkRegistrationService.Row(2, req("Isha Roy", "isha@example.com", "9876543211"))),
+                new BulkRegistrationService.Seen());
+
+        verify(mongoTemplate).remove(any(Query.class), eq(Member.class));
+        assertTrue(results.stream().anyMatch(r -> r.row() == 1 && "Email taken".equals(r.errors().get("row"))));
+        assertTrue(results.stream().anyMatch(r -> r.row() == 2 && r.isCreated()));
+        verify(notificationQueue, times(1)).enqueue(any());
+    }
+}
@@ -0,0 +1,241 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import com.quickstarts.kitchensink.config.ChangeRequestArchiveProperties;
+import com.quickstarts.kitchensink.dto.FieldChange;
+import com.quickstarts.kitchensink.dto.MemberSnapshot;
+import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.model.ArchivedChangeRequest;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import com.quickstarts.kitchensink.model.SchedulerLease;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.BulkOperations.BulkMode.UNORDERED;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeRequestArchiveServiceTest {
+
+    private static final SchedulerLease LEASE = SchedulerLease.builder().id("job").owner("node-a").build();
+    private static final Instant NOW = Instant.parse("2025-03-01T04:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchedulerLeaseService leases;
+
+    @Mock
+    private BulkOperations bulk;
+
+    @Mock
+    private IndexOperations indexOps;
+
+    private final ChangeRequestArchiveProperties props = new ChangeRequestArchiveProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ChangeRequestArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        props.setBatchSize(2);
+        props.setPauseBetweenBatches(Duration.ZERO);
+        service = new ChangeRequestArchiveService(mongoTemplate, leases, props, registry, Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().when(leases.acquire(ChangeRequestArchiveService.JOB, props.getLease())).thenReturn(Optional.of(LEASE));
+    }
+
+    private static MemberChangeRequest reviewed(final String id) {
+        return MemberChangeRequest.builder()
+                .id(id).memberId("m-" + id).type(ChangeType.UPDATE).status(Status.APPROVED)
+                .before(new MemberSnapshot("Ann", "ann@example.com", "9876543210", 30, "Pune"))
+                .requested(new MemberUpdateDTO("Ann", null, "9876500000", 0, null))
+                .submittedAt(NOW.minus(Duration.ofDays(60))).reviewedAt(NOW.minus(Duration.ofDays(59)))
+                .build();
+    }
+
+    private void bulkInsertSucceeds() {
+        when(mongoTemplate.bulkOps(UNORDERED, ArchivedChangeRequest.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archive_copiesThenRemoves_inBatchesUntilDrained() {
+        bulkInsertSucceeds();
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(List.of(reviewed("r1"), reviewed("r2")))
+                .thenReturn(List.of(reviewed("r3")));
+        when(mongoTemplate.remove(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(DeleteResult.acknowledged(2), DeleteResult.acknowledged(1));
+
+        var moved = service.archive();
+
+        assertThat(moved).isEqualTo(3);
+        assertThat(registry.counter("member.request.archived").count()).isEqualTo(3);
+        var due = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(due.capture(), eq(MemberChangeRequest.class));
+        var cutoff = NOW.minus(props.getArchiveAfter());
+        assertThat(due.getValue().getQueryObject().get("submittedAt")).isEqualTo(new Document("$lt", cutoff));
+        assertThat(due.getValue().getQueryObject().get("reviewedAt")).isEqualTo(new Document("$lt", cutoff));
+        assertThat(due.getValue().getLimit()).isEqualTo(2);
+
+        var inOrder = inOrder(bulk, mongoTemplate);
+        var copies = ArgumentCaptor.forClass(List.class);
+        inOrder.verify(bulk).insert(copies.capture());
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(MemberChangeRequest.class));
+        var first = (ArchivedChangeRequest) copies.getValue().getFirst();
+        assertThat(first.getArchivedAt()).isEqualTo(NOW);
+        assertThat(first.getMemberName()).isEqualTo("Ann");
+        assertThat(first.getChanges()).containsExactly(
+                Map.entry("phoneNumber", new FieldChange<>("9876543210", "9876500000")));
+    }
+
+    @Test
+    void archive_removalStaysRestrictedToReviewedRequests() {
+        bulkInsertSucceeds();
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of(reviewed("r1")));
+        when(mongoTemplate.remove(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        service.archive();
+
+        var removal = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removal.capture(), eq(MemberChangeRequest.class));
+        assertThat(removal.getValue().getQueryObject()).containsKeys("_id", "status");
+    }
+
+    @Test
+    void archive_copiesLeftByAnInterruptedRun_stillRemovesTheOriginals() {
+        when(mongoTemplate.bulkOps(UNORDERED, ArchivedChangeRequest.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(bulkFailure(11000));
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of(reviewed("r1")));
+        when(mongoTemplate.remove(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        assertThat(service.archive()).isEqualTo(1);
+    }
+
+    @Test
+    void archive_otherInsertFailure_keepsTheOriginals() {
+        when(mongoTemplate.bulkOps(UNORDERED, ArchivedChangeRequest.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(bulkFailure(2));
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of(reviewed("r1")));
+
+        assertThatThrownBy(() -> service.archive()).isInstanceOf(BulkOperationException.class);
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(MemberChangeRequest.class));
+    }
+
+    private static BulkOperationException bulkFailure(final int code) {
+        return new BulkOperationException("bulk failed", new MongoBulkWriteException(
+                BulkWriteResult.unacknowledged(), List.of(new BulkWriteError(code, "failed", new BsonDocument(), 0)),
+                null, new ServerAddress(), Set.of()));
+    }
+
+    @Test
+    void applyRetention_createsTheTtlIndex_whenFirstSet() {
+        props.setRetention(Duration.ofDays(730));
+        when(mongoTemplate.indexOps(ArchivedChangeRequest.class)).thenReturn(indexOps);
+        when(indexOps.getIndexInfo()).thenReturn(List.of());
+
+        service.applyRetention();
+
+        var index = ArgumentCaptor.forClass(Index.class);
+        verify(indexOps).createIndex(index.capture());
+        assertThat(index.getValue().getIndexOptions().get("expireAfterSeconds"))
+                .isEqualTo(Duration.ofDays(730).toSeconds());
+    }
+
+    @Test
+    void applyRetention_changedRetention_isAppliedInPlace() {
+        props.setRetention(Duration.ofDays(365));
+        when(mongoTemplate.indexOps(ArchivedChangeRequest.class)).thenReturn(indexOps);
+        when(mongoTemplate.getCollectionName(ArchivedChangeRequest.class)).thenReturn("member_change_requests_archive");
+        var ttl = mock(IndexInfo.class);
+        when(ttl.getName()).thenReturn(ChangeRequestArchiveService.TTL_INDEX);
+        when(ttl.getExpireAfter()).thenReturn(Optional.of(Duration.ofDays(730)));
+        when(indexOps.getIndexInfo()).thenReturn(List.of(ttl));
+
+        service.applyRetention();
+
+        var command = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).executeCommand(command.capture());
+        assertThat(command.getValue().get("index", Document.class).get("expireAfterSeconds"))
+                .isEqualTo(Duration.ofDays(365).toSeconds());
+        verify(indexOps, never()).createIndex(any());
+    }
+
+    @Test
+    void applyRetention_unset_dropsTheTtlIndex() {
+        when(mongoTemplate.indexOps(ArchivedChangeRequest.class)).thenReturn(indexOps);
+        var ttl = mock(IndexInfo.class);
+        when(ttl.getName()).thenReturn(ChangeRequestArchiveService.TTL_INDEX);
+        when(indexOps.getIndexInfo()).thenReturn(List.of(ttl));
+
+        service.applyRetention();
+
+        verify(indexOps).dropIndex(ChangeRequestArchiveService.TTL_INDEX);
+    }
+
+    @Test
+    void archive_runsUnderTheLease_andKeepsOtherNodesOffForItsDuration() {
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of());
+
+        assertThat(service.archive()).isZero();
+
+        verify(leases).release(LEASE, NOW.plus(props.getLease()));
+    }
+
+    @Test
+    void archive_leaseHeldElsewhere_skipsTheRun() {
+        when(leases.acquire(ChangeRequestArchiveService.JOB, props.getLease())).thenReturn(Optional.empty());
+
+        assertThat(service.archive()).isZero();
+
+        verifyNoInteractions(mongoTemplate);
+        verify(leases, never()).release(any(), any());
+    }
+
+    @Test
+    void scheduledArchive_disabled_doesNothing() {
+        props.setEnabled(false);
+
+        service.scheduledArchive();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+}
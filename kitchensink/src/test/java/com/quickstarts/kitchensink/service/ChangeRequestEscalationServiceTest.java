@@ -0,0 +1,162 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.ChangeRequestEscalationProperties;
+import com.quickstarts.kitchensink.dto.MemberSnapshot;
+import com.quickstarts.kitchensink.dto.PendingRequestRow;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import com.quickstarts.kitchensink.model.SchedulerLease;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeRequestEscalationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-10T09:00:00Z");
+    private static final Instant CUTOFF = NOW.minus(Duration.ofDays(2));
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchedulerLeaseService leases;
+
+    @Mock
+    private EmailService emailService;
+
+    private final ChangeRequestEscalationProperties props = new ChangeRequestEscalationProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ChangeRequestEscalationService service;
+
+    @BeforeEach
+    void setUp() {
+        props.setBatchSize(2);
+        service = new ChangeRequestEscalationService(mongoTemplate, leases, emailService, props, registry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static MemberChangeRequest pending(final int i) {
+        return MemberChangeRequest.builder()
+                .id("r" + i).memberEmail("m" + i + "@example.com").type(ChangeType.UPDATE)
+                .before(new MemberSnapshot("Member " + i, null, null, 0, null))
+                .submittedAt(CUTOFF.minus(Duration.ofHours(10 - i)))
+                .build();
+    }
+
+    private SchedulerLease lease(final Instant cursorAt, final String cursorId) {
+        var lease = SchedulerLease.builder().id(ChangeRequestEscalationService.JOB)
+                .cursorAt(cursorAt).cursorId(cursorId).build();
+        when(leases.acquire(ChangeRequestEscalationService.JOB, props.getLease())).thenReturn(Optional.of(lease));
+        return lease;
+    }
+
+    @Test
+    void escalate_sendsOneMailForAllBatches_andRecordsWhereItStopped() {
+        var lease = lease(null, null);
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(List.of(pending(1), pending(2)), List.of(pending(3)));
+
+        assertThat(service.escalate()).isEqualTo(3);
+
+        var listed = listCaptor();
+        verify(emailService).notifyAdminEscalation(listed.capture(), eq(3), eq(props.getStaleAfter()));
+        assertThat(listed.getValue()).extracting(PendingRequestRow::id).containsExactly("r1", "r2", "r3");
+        verify(leases).checkpoint(lease, pending(3).getSubmittedAt(), "r3");
+        verify(leases).release(lease, NOW.plus(props.getInterval()));
+        assertThat(registry.counter("member.request.escalated").count()).isEqualTo(3);
+
+        var queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(MemberChangeRequest.class));
+        var first = queries.getAllValues().getFirst();
+        assertThat(first.getQueryObject()).containsEntry("status", PENDING)
+                .containsEntry("submittedAt", new Document("$lt", CUTOFF));
+        assertThat(first.getSortObject()).isEqualTo(new Document("submittedAt", 1).append("_id", 1));
+        assertThat(first.getLimit()).isEqualTo(2);
+        // the second scan continues after the first batch
+        assertThat(queries.getAllValues().get(1).getQueryObject().getList("$or", Document.class)).containsExactly(
+                new Document("submittedAt", new Document("$gt", pending(2).getSubmittedAt())),
+                new Document("submittedAt", pending(2).getSubmittedAt()).append("_id", new Document("$gt", "r2")));
+    }
+
+    @Test
+    void escalate_resumesFromTheLeaseCursor() {
+        var at = pending(1).getSubmittedAt();
+        lease(at, "r1");
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of());
+
+        assertThat(service.escalate()).isZero();
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(MemberChangeRequest.class));
+        assertThat(query.getValue().getQueryObject().getList("$or", Document.class)).containsExactly(
+                new Document("submittedAt", new Document("$gt", at)),
+                new Document("submittedAt", at).append("_id", new Document("$gt", "r1")));
+        verifyNoInteractions(emailService);
+        verify(leases, never()).checkpoint(any(), any(), any());
+    }
+
+    @Test
+    void escalate_listsTheOldest_andCountsTheRest() {
+        props.setMaxListed(1);
+        lease(null, null);
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(List.of(pending(1), pending(2)), List.of());
+
+        assertThat(service.escalate()).isEqualTo(2);
+
+        var listed = listCaptor();
+        verify(emailService).notifyAdminEscalation(listed.capture(), eq(2), any());
+        assertThat(listed.getValue()).extracting(PendingRequestRow::id).containsExactly("r1");
+    }
+
+    @Test
+    void escalate_leaseHeldElsewhere_skipsTheRun() {
+        when(leases.acquire(ChangeRequestEscalationService.JOB, props.getLease())).thenReturn(Optional.empty());
+
+        assertThat(service.escalate()).isZero();
+
+        verifyNoInteractions(mongoTemplate, emailService);
+        verify(leases, never()).release(any(), any());
+    }
+
+    @Test
+    void escalate_failedScan_stillReleasesTheLease() {
+        var lease = lease(null, null);
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenThrow(new IllegalStateException("mongo down"));
+
+        service.scheduledEscalate();
+
+        verify(leases).release(lease, NOW.plus(props.getInterval()));
+        verify(leases, never()).checkpoint(any(), any(), any());
+        verify(emailService, never()).notifyAdminEscalation(anyList(), anyInt(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<PendingRequestRow>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.ChangeRequestHistoryItem;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.model.ArchivedChangeRequest;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeRequestHistoryServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ChangeRequestHistoryService service;
+
+    private static MemberChangeRequest hot(final String id, final String submittedAt) {
+        return MemberChangeRequest.builder().id(id).memberId("m1").type(ChangeType.DELETE)
+                .status(Status.PENDING).submittedAt(Instant.parse(submittedAt)).build();
+    }
+
+    private static ArchivedChangeRequest archived(final String id, final String submittedAt) {
+        return ArchivedChangeRequest.builder().id(id).memberId("m1").type(ChangeType.DELETE)
+                .status(Status.APPROVED).submittedAt(Instant.parse(submittedAt)).build();
+    }
+
+    @Test
+    void history_mergesBothTiersNewestFirst_upToTheLimit() {
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(List.of(hot("r4", "2025-04-01T00:00:00Z"), hot("r2", "2025-02-01T00:00:00Z")));
+        when(mongoTemplate.find(any(Query.class), eq(ArchivedChangeRequest.class)))
+                .thenReturn(List.of(archived("r3", "2025-03-01T00:00:00Z"), archived("r1", "2025-01-01T00:00:00Z")));
+
+        var history = service.history("m1", 3);
+
+        assertThat(history).extracting(ChangeRequestHistoryItem::id).containsExactly("r4", "r3", "r2");
+        assertThat(history).extracting(ChangeRequestHistoryItem::archived).containsExactly(false, true, false);
+        var query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(ArchivedChangeRequest.class));
+        assertThat(query.getValue().getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void history_requestInBothTiersMidMove_isListedOnce() {
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(List.of(hot("r1", "2025-01-01T00:00:00Z")));
+        when(mongoTemplate.find(any(Query.class), eq(ArchivedChangeRequest.class)))
+                .thenReturn(List.of(archived("r1", "2025-01-01T00:00:00Z")));
+
+        assertThat(service.history("m1", 10)).extracting(ChangeRequestHistoryItem::archived).containsExactly(false);
+    }
+}
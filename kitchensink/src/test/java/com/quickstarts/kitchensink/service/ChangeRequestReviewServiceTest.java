@@ -0,0 +1,515 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.quickstarts.kitchensink.config.ChangeReviewProperties;
+import com.quickstarts.kitchensink.config.MemberWriteRetryProperties;
+import com.quickstarts.kitchensink.dto.BulkReviewItem;
+import com.quickstarts.kitchensink.dto.BulkReviewRequest;
+import com.quickstarts.kitchensink.dto.MemberPatch;
+import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.exception.ConflictException;
+import com.quickstarts.kitchensink.exception.NotFoundException;
+import com.quickstarts.kitchensink.exception.StaleObjectException;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import com.quickstarts.kitchensink.model.UserInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.quickstarts.kitchensink.dto.BulkReviewItem.Outcome.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.BulkOperations.BulkMode.UNORDERED;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeRequestReviewServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private NotificationQueue notificationQueue;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private BulkOperations memberOps;
+
+    @Mock
+    private BulkOperations userOps;
+
+    @Mock
+    private MemberService memberService;
+
+    @Mock
+    private ChangeRequestStatsService statsService;
+
+    private ChangeRequestReviewService service;
+
+    private static final Instant NOW = Instant.parse("2026-10-19T10:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        var retry = new MemberWriteRetryProperties();
+        retry.setInitialBackoff(Duration.ZERO);
+        service = new ChangeRequestReviewService(mongoTemplate, emailService, notificationQueue, tokenVersionService,
+                memberService, new MemberWriteExecutor(retry, new SimpleMeterRegistry()), statsService,
+                new ChangeReviewProperties(),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(MemberChangeRequest.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        lenient().doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(notificationQueue).enqueue(any());
+    }
+
+    private static MemberChangeRequest request(final String id, final String memberId, final ChangeType type) {
+        return MemberChangeRequest.builder()
+                .id(id)
+                .memberId(memberId)
+                .memberEmail(memberId + "@example.com")
+                .type(type)
+                .requested(type == ChangeType.UPDATE
+                        ? new MemberUpdateDTO("New Name", memberId + "-new@example.com", "9876543210", 30, "Pune")
+                        : null)
+                .build();
+    }
+
+    private static Member member(final String id) {
+        return Member.builder().id(id).name("Old Name").email(id + "@example.com").phoneNumber("9876543210")
+                .age(30).place("Pune").version(1L).build();
+    }
+
+    private static BulkWriteResult matched(final int count) {
+        return BulkWriteResult.acknowledged(0, count, 0, count, List.of(), List.of());
+    }
+
+    private static MemberChangeRequest claimed(final String id, final String memberId, final ChangeType type) {
+        var changeRequest = request(id, memberId, type);
+        changeRequest.setStatus(Status.IN_REVIEW);
+        changeRequest.setClaimToken("token-" + id);
+        changeRequest.setClaimedAt(NOW);
+        return changeRequest;
+    }
+
+    /**
+     * The selection, then the requests the chunk's claim actually tagged.
+     */
+    private void stubLoad(final List<MemberChangeRequest> requests, final List<MemberChangeRequest> claimed,
+                          final List<Member> members, final List<UserInfo> users) {
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(requests, claimed);
+        lenient().when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(MemberChangeRequest.class)))
+                .thenReturn(UpdateResult.acknowledged(claimed.size(), (long) claimed.size(), null));
+        lenient().when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(members);
+        lenient().when(mongoTemplate.find(any(Query.class), eq(UserInfo.class))).thenReturn(users);
+        lenient().when(mongoTemplate.bulkOps(UNORDERED, Member.class)).thenReturn(memberOps);
+        lenient().when(mongoTemplate.bulkOps(UNORDERED, UserInfo.class)).thenReturn(userOps);
+    }
+
+    @Test
+    void approve_byIds_updatesRenamesTombstonesAndReportsEachItem() {
+        var approvedAlready = request("r3", "m3", ChangeType.UPDATE);
+        approvedAlready.setStatus(Status.APPROVED);
+        var user = UserInfo.builder().id("u1").memberId("m1").userName("m1@example.com").build();
+        var deletedUser = UserInfo.builder().id("u2").memberId("m2").userName("m2@example.com").tokenVersion(4).build();
+        var r1 = request("r1", "m1", ChangeType.UPDATE);
+        var r2 = request("r2", "m2", ChangeType.DELETE);
+        stubLoad(List.of(r1, r2, approvedAlready), List.of(r1, r2),
+                List.of(member("m1"), member("m2")), List.of(user, deletedUser));
+        when(memberOps.execute()).thenReturn(matched(1));
+        when(userOps.execute()).thenReturn(matched(1));
+
+        var report = service.approve(new BulkReviewRequest(List.of("r1", "r2", "r3", "missing"), null, null, null));
+
+        assertThat(report.items()).extracting(BulkReviewItem::requestId, BulkReviewItem::outcome).containsExactly(
+                tuple("r3", SKIPPED), tuple("missing", SKIPPED), tuple("r1", APPROVED), tuple("r2", APPROVED));
+        assertThat(report.reviewed()).isEqualTo(2);
+        assertThat(report.skipped()).isEqualTo(2);
+
+        // only the changed fields of m1, guarded by its version
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(memberOps).updateOne(any(Query.class), update.capture());
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsOnlyKeys("name", "email", "updatedAt");
+        verify(userOps).updateOne(any(Query.class), eq(new Update().set("userName", "m1-new@example.com")));
+        // m2 tombstoned together with its login
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(Member.class));
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(UserInfo.class));
+        verify(tokenVersionService).remember("m2@example.com", 5);
+        // claimed, then both marked approved in one write
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.APPROVED);
+        verify(emailService).notifyMemberUpdateApproved(eq("m1@example.com"), any(MemberChangeRequest.class));
+        verify(emailService).notifyMemberDeleteApproved("m2@example.com", "Old Name");
+    }
+
+    @Test
+    void approve_duplicateEmail_failsOnlyThatItem() {
+        var requests = List.of(request("r1", "m1", ChangeType.UPDATE), request("r2", "m2", ChangeType.UPDATE));
+        stubLoad(requests, requests, List.of(member("m1"), member("m2")), List.of());
+        var error = new BulkWriteError(11000,
+                "E11000 duplicate key error collection: members_db.member index: email dup key: { email: \"x\" }",
+                new BsonDocument(), 0);
+        var bulkException = mock(BulkOperationException.class);
+        when(bulkException.getErrors()).thenReturn(List.of(error));
+        when(bulkException.getResult()).thenReturn(matched(1));
+        when(memberOps.execute()).thenThrow(bulkException);
+
+        var report = service.approve(new BulkReviewRequest(List.of("r1", "r2"), null, null, null));
+
+        assertThat(report.items()).extracting(BulkReviewItem::requestId, BulkReviewItem::outcome, BulkReviewItem::message)
+                .containsExactly(tuple("r1", FAILED, "Email already in use"), tuple("r2", APPROVED, null));
+        verify(emailService, never()).notifyMemberUpdateApproved(eq("m1@example.com"), any());
+        verify(emailService).notifyMemberUpdateApproved(eq("m2@example.com"), any());
+        // r1 goes back to the queue before r2 is marked approved
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.PENDING, Status.APPROVED);
+    }
+
+    @Test
+    void approve_updateThatLostARace_isReportedAsConflict() {
+        var concurrent = member("m1");
+        concurrent.setName("Someone Else");
+        var r1 = request("r1", "m1", ChangeType.UPDATE);
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of(r1), List.of(r1));
+        when(mongoTemplate.find(any(Query.class), eq(Member.class)))
+                .thenReturn(List.of(member("m1")), List.of(concurrent));
+        when(mongoTemplate.bulkOps(UNORDERED, Member.class)).thenReturn(memberOps);
+        when(memberOps.execute()).thenReturn(matched(0));
+
+        var report = service.approve(new BulkReviewRequest(List.of("r1"), null, null, null));
+
+        assertThat(report.items()).extracting(BulkReviewItem::outcome).containsExactly(CONFLICT);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.PENDING);
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void approve_secondRequestForSameMember_isLeftPending() {
+        var requests = List.of(request("r1", "m1", ChangeType.DELETE), request("r2", "m1", ChangeType.DELETE));
+        stubLoad(requests, requests, List.of(member("m1")), List.of());
+
+        var report = service.approve(new BulkReviewRequest(List.of("r1", "r2"), null, null, null));
+
+        assertThat(report.items()).extracting(BulkReviewItem::outcome).containsExactly(APPROVED, CONFLICT);
+    }
+
+    @Test
+    void approve_requestClaimedByAnotherReviewer_isSkipped() {
+        var r1 = request("r1", "m1", ChangeType.DELETE);
+        stubLoad(List.of(r1, request("r2", "m2", ChangeType.DELETE)), List.of(r1), List.of(member("m1")), List.of());
+
+        var report = service.approve(new BulkReviewRequest(List.of("r1", "r2"), null, null, null));
+
+        assertThat(report.items()).extracting(BulkReviewItem::requestId, BulkReviewItem::outcome, BulkReviewItem::message)
+                .containsExactly(tuple("r2", SKIPPED, "Not pending"), tuple("r1", APPROVED, null));
+        verify(emailService, never()).notifyMemberDeleteApproved(eq("m2@example.com"), any());
+    }
+
+    @Test
+    void approve_claimTakenOverBySweeper_isSkippedWithoutStatsOrMail() {
+        var r1 = request("r1", "m1", ChangeType.DELETE);
+        var r2 = request("r2", "m2", ChangeType.DELETE);
+        var requests = List.of(r1, r2);
+        // the selection, the claim, then the re-read after the approval marked only r1
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(requests, requests, List.of(r1));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(MemberChangeRequest.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null), UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(member("m1"), member("m2")));
+        when(mongoTemplate.find(any(Query.class), eq(UserInfo.class))).thenReturn(List.of());
+
+        var report = service.approve(new BulkReviewRequest(List.of("r1", "r2"), null, null, null));
+
+        assertThat(report.items()).extracting(BulkReviewItem::requestId, BulkReviewItem::outcome, BulkReviewItem::message)
+                .containsExactly(tuple("r1", APPROVED, null),
+                        tuple("r2", SKIPPED, "Claim timed out; finished by the sweeper"));
+        assertThat(report.reviewed()).isEqualTo(1);
+        verify(statsService).reviewed(List.of(r1), Status.APPROVED, null, NOW);
+        verify(emailService).notifyMemberDeleteApproved("m1@example.com", "Old Name");
+        verify(emailService, never()).notifyMemberDeleteApproved(eq("m2@example.com"), any());
+    }
+
+    @Test
+    void reject_byFilter_rejectsPendingInOneWrite_andQueuesMails() {
+        var requests = new ArrayList<>(List.of(request("r1", "m1", ChangeType.UPDATE), request("r2", "m2", ChangeType.UPDATE)));
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(requests, requests);
+
+        var report = service.reject(new BulkReviewRequest(null, ChangeType.UPDATE, null, "Duplicate submission"));
+
+        assertThat(report.reviewed()).isEqualTo(2);
+        assertThat(report.truncated()).isFalse();
+        var filter = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(filter.capture(), eq(MemberChangeRequest.class));
+        assertThat(filter.getAllValues().get(0).getQueryObject())
+                .containsEntry("status", Status.PENDING).containsEntry("type", ChangeType.UPDATE);
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq(MemberChangeRequest.class));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", Status.REJECTED).containsEntry("rejectionReason", "Duplicate submission");
+        verify(emailService).notifyMemberRejected("m1@example.com", "Duplicate submission");
+        verify(emailService).notifyMemberRejected("m2@example.com", "Duplicate submission");
+    }
+
+    @Test
+    void reject_requestReviewedMeanwhile_isSkippedWithoutMail() {
+        var r1 = request("r1", "m1", ChangeType.UPDATE);
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(List.of(r1, request("r2", "m2", ChangeType.UPDATE)), List.of(r1));
+
+        var report = service.reject(new BulkReviewRequest(List.of("r1", "r2"), null, null, "No"));
+
+        assertThat(report.items()).extracting(BulkReviewItem::requestId, BulkReviewItem::outcome)
+                .containsExactly(tuple("r1", REJECTED), tuple("r2", SKIPPED));
+        verify(emailService, never()).notifyMemberRejected(eq("m2@example.com"), any());
+    }
+
+    private void stubClaim(final MemberChangeRequest claimed) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(MemberChangeRequest.class))).thenReturn(claimed);
+    }
+
+    /**
+     * The status each write to the request collection set, in order.
+     */
+    private List<Object> statusWrites() {
+        var updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeast(0)).findAndModify(any(Query.class), updates.capture(),
+                any(FindAndModifyOptions.class), eq(MemberChangeRequest.class));
+        verify(mongoTemplate, atLeast(0)).updateMulti(any(Query.class), updates.capture(), eq(MemberChangeRequest.class));
+        verify(mongoTemplate, atLeast(0)).updateFirst(any(Query.class), updates.capture(), eq(MemberChangeRequest.class));
+        return updates.getAllValues().stream()
+                .map(update -> update.getUpdateObject().get("$set", Document.class).get("status"))
+                .toList();
+    }
+
+    @Test
+    void approveOne_update_claimsAppliesRenamesAndApproves() {
+        var claimed = claimed("r1", "m1", ChangeType.UPDATE);
+        var member = member("m1");
+        stubClaim(claimed);
+        when(mongoTemplate.findOne(any(Query.class), eq(Member.class))).thenReturn(member);
+        when(memberService.applyPatch(eq(member), any(MemberPatch.class)))
+                .thenReturn(new MemberService.PatchResult(member, Set.of("name", "email")));
+
+        service.approveOne("r1");
+
+        var claim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(claim.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(MemberChangeRequest.class));
+        assertThat(claim.getValue().getQueryObject()).containsEntry("_id", "r1").containsEntry("status", Status.PENDING);
+        verify(memberService).applyPatch(member, new MemberPatch("New Name", "m1-new@example.com", "9876543210", 30, "Pune"));
+        // the rename only matches a login that does not carry the new name yet
+        var rename = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(rename.capture(), eq(new Update().set("userName", "m1-new@example.com")),
+                eq(UserInfo.class));
+        assertThat(rename.getValue().getQueryObject()).containsKey("userName");
+        // approved only if the claim is still ours
+        var complete = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(complete.capture(), any(Update.class), eq(MemberChangeRequest.class));
+        assertThat(complete.getValue().getQueryObject())
+                .containsEntry("status", Status.IN_REVIEW).containsEntry("claimToken", "token-r1");
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.APPROVED);
+        verify(emailService).notifyMemberUpdateApproved("m1@example.com", claimed);
+        verify(statsService).reviewed(List.of(claimed), Status.APPROVED, claimed.getReviewedBy(), NOW);
+    }
+
+    @Test
+    void approveOne_concurrentEdit_retriesOnFreshRead() {
+        var member = member("m1");
+        var edited = member("m1");
+        edited.setPlace("Edited Place");
+        edited.setVersion(2L);
+        stubClaim(claimed("r1", "m1", ChangeType.UPDATE));
+        when(mongoTemplate.findOne(any(Query.class), eq(Member.class))).thenReturn(member, edited);
+        when(memberService.applyPatch(eq(member), any(MemberPatch.class)))
+                .thenThrow(new StaleObjectException("Member was modified concurrently; reload and retry"));
+        when(memberService.applyPatch(eq(edited), any(MemberPatch.class)))
+                .thenReturn(new MemberService.PatchResult(edited, Set.of("place")));
+
+        service.approveOne("r1");
+
+        verify(memberService).applyPatch(eq(edited), any(MemberPatch.class));
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.APPROVED);
+    }
+
+    @Test
+    void autoApprove_claimsOnlyTheUpdateTheRuleWasCheckedAgainst() {
+        var claimed = claimed("r1", "m1", ChangeType.UPDATE);
+        var member = member("m1");
+        stubClaim(claimed);
+        when(mongoTemplate.findOne(any(Query.class), eq(Member.class))).thenReturn(member);
+        when(memberService.applyPatch(eq(member), any(MemberPatch.class)))
+                .thenReturn(new MemberService.PatchResult(member, Set.of("name")));
+
+        assertThat(service.autoApprove("m1", claimed.getRequested(), "name-case")).isTrue();
+
+        var claim = ArgumentCaptor.forClass(Query.class);
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(claim.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(MemberChangeRequest.class));
+        assertThat(claim.getValue().getQueryObject()).containsEntry("memberId", "m1")
+                .containsEntry("status", Status.PENDING).containsEntry("requested", claimed.getRequested());
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("reviewedBy", "auto:name-case");
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.APPROVED);
+    }
+
+    @Test
+    void autoApprove_supersededMeanwhile_leavesItForReview() {
+        stubClaim(null);
+
+        assertThat(service.autoApprove("m1", new MemberUpdateDTO(null, null, null, 31, null), "age-bump")).isFalse();
+        verifyNoInteractions(memberService, emailService);
+    }
+
+    @Test
+    void approveOne_delete_tombstonesAndMailsTheName() {
+        stubClaim(claimed("r1", "m1", ChangeType.DELETE));
+        when(memberService.tombstone("m1")).thenReturn(Optional.of(member("m1")));
+
+        service.approveOne("r1");
+
+        verify(emailService).notifyMemberDeleteApproved("m1@example.com", "Old Name");
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.APPROVED);
+    }
+
+    @Test
+    void approveOne_notPending_isConflict_andMissing_isNotFound() {
+        when(mongoTemplate.exists(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(true, false);
+
+        var conflict = assertThrows(ResponseStatusException.class, () -> service.approveOne("r1"));
+        assertThat(conflict.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(conflict.getReason()).isEqualTo("Not pending");
+        assertThrows(NotFoundException.class, () -> service.approveOne("r1"));
+        verifyNoInteractions(memberService, emailService);
+    }
+
+    @Test
+    void approveOne_failedApply_releasesTheClaim() {
+        var member = member("m1");
+        stubClaim(claimed("r1", "m1", ChangeType.UPDATE));
+        when(mongoTemplate.findOne(any(Query.class), eq(Member.class))).thenReturn(member);
+        when(memberService.applyPatch(eq(member), any(MemberPatch.class)))
+                .thenThrow(new ConflictException("Email already in use"));
+
+        assertThrows(ConflictException.class, () -> service.approveOne("r1"));
+
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.PENDING);
+        verifyNoInteractions(emailService);
+    }
+
+    private static Update pendingAgain() {
+        return ArgumentMatchers.argThat(update ->
+                update.getUpdateObject().get("$set", Document.class).get("status") == Status.PENDING);
+    }
+
+    @Test
+    void approveOne_failedApply_afterTheMemberResubmitted_supersedesTheRequest() {
+        var member = member("m1");
+        stubClaim(claimed("r1", "m1", ChangeType.UPDATE));
+        when(mongoTemplate.findOne(any(Query.class), eq(Member.class))).thenReturn(member);
+        when(memberService.applyPatch(eq(member), any(MemberPatch.class)))
+                .thenThrow(new ConflictException("Email already in use"));
+        // a new pending request of the member holds the one-pending-per-member slot
+        when(mongoTemplate.updateMulti(any(Query.class), pendingAgain(), eq(MemberChangeRequest.class)))
+                .thenThrow(new DuplicateKeyException("E11000 pending_per_member"));
+        when(mongoTemplate.updateFirst(any(Query.class), pendingAgain(), eq(MemberChangeRequest.class)))
+                .thenThrow(new DuplicateKeyException("E11000 pending_per_member"));
+
+        assertThrows(ConflictException.class, () -> service.approveOne("r1"));
+
+        assertThat(statusWrites()).containsExactly(Status.IN_REVIEW, Status.PENDING, Status.PENDING, Status.SUPERSEDED);
+        verify(statsService).reviewed(any(), eq(Status.SUPERSEDED), isNull(), eq(NOW));
+    }
+
+    @Test
+    void approveOne_claimTakenOverMeanwhile_sendsNoMail() {
+        stubClaim(claimed("r1", "m1", ChangeType.DELETE));
+        when(memberService.tombstone("m1")).thenReturn(Optional.empty());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(MemberChangeRequest.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        service.approveOne("r1");
+
+        // the sweeper that took over counts it
+        verifyNoInteractions(emailService, statsService);
+    }
+
+    @Test
+    void rejectOne_pending_rejectsWithOneCompareAndSet() {
+        var rejected = request("r1", "m1", ChangeType.UPDATE);
+        stubClaim(rejected);
+
+        service.rejectOne("r1", "Invalid data");
+
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(MemberChangeRequest.class));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", Status.REJECTED).containsEntry("rejectionReason", "Invalid data");
+        verify(emailService).notifyMemberRejected("m1@example.com", "Invalid data");
+    }
+
+    @Test
+    void sweep_reclaimsAbandonedApprovalsAndFinishesThem() {
+        var stuck = claimed("r1", "m1", ChangeType.DELETE);
+        stuck.setClaimedAt(NOW.minus(Duration.ofMinutes(10)));
+        var reclaimed = claimed("r1", "m1", ChangeType.DELETE);
+        reclaimed.setClaimToken("fresh");
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of(stuck));
+        stubClaim(reclaimed);
+        when(memberService.tombstone("m1")).thenReturn(Optional.empty());
+
+        assertThat(service.sweep()).isEqualTo(1);
+
+        var found = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(found.capture(), eq(MemberChangeRequest.class));
+        assertThat(found.getValue().getQueryObject()).containsEntry("status", Status.IN_REVIEW)
+                .containsEntry("claimedAt", new Document("$lt", NOW.minus(Duration.ofMinutes(5))));
+        var reclaim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(reclaim.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(MemberChangeRequest.class));
+        assertThat(reclaim.getValue().getQueryObject()).containsEntry("claimToken", "token-r1");
+        // tombstoned before the first approver died, and no snapshot to take the name from
+        verify(emailService).notifyMemberDeleteApproved("m1@example.com", null);
+    }
+}
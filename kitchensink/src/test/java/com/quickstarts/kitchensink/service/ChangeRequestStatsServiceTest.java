@@ -0,0 +1,136 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.QueueStats.ReviewerStats;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.dto.enums.Status;
+import com.quickstarts.kitchensink.model.ChangeRequestStat;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeRequestStatsServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-19T10:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ChangeRequestStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ChangeRequestStatsService(mongoTemplate, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static MemberChangeRequest request(final ChangeType type, final Duration waited) {
+        return MemberChangeRequest.builder().type(type).submittedAt(NOW.minus(waited)).build();
+    }
+
+    @Test
+    void reviewed_decrementsOpenPerType_andAddsToTheReviewersDay() {
+        service.reviewed(List.of(request(ChangeType.UPDATE, Duration.ofHours(1)),
+                        request(ChangeType.UPDATE, Duration.ofHours(3)),
+                        request(ChangeType.DELETE, Duration.ofHours(2))),
+                Status.APPROVED, "admin@example.com", NOW);
+
+        var queries = ArgumentCaptor.forClass(Query.class);
+        var updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).upsert(queries.capture(), updates.capture(), eq(ChangeRequestStat.class));
+        assertThat(queries.getAllValues()).extracting(query -> query.getQueryObject().get("_id"))
+                .containsExactlyInAnyOrder("open:UPDATE", "open:DELETE", "day:2026-10-19:admin@example.com");
+        var day = updates.getAllValues().get(queries.getAllValues().stream()
+                .map(query -> query.getQueryObject().get("_id")).toList().indexOf("day:2026-10-19:admin@example.com"));
+        assertThat(day.getUpdateObject().get("$inc", Document.class))
+                .containsEntry("approved", 3)
+                .containsEntry("reviewMillis", Duration.ofHours(6).toMillis());
+    }
+
+    @Test
+    void reviewed_rollupFailure_doesNotFailTheTransition() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ChangeRequestStat.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThatNoException().isThrownBy(() -> service.reviewed(
+                List.of(request(ChangeType.DELETE, Duration.ZERO)), Status.REJECTED, "admin@example.com", NOW));
+    }
+
+    @Test
+    void stats_readsTheRollup_andComputesRatesAndMeanReviewTime() {
+        when(mongoTemplate.find(any(Query.class), eq(ChangeRequestStat.class))).thenReturn(List.of(
+                ChangeRequestStat.builder().type(ChangeType.UPDATE).count(3).build(),
+                ChangeRequestStat.builder().type(ChangeType.DELETE).count(1).build()));
+        when(mongoTemplate.findOne(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(request(ChangeType.UPDATE, Duration.ofHours(1)));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(ChangeRequestStat.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "admin@example.com").append("approved", 3).append("rejected", 1)
+                                .append("superseded", 0).append("reviewMillis", Duration.ofHours(8).toMillis()),
+                        new Document("_id", null).append("approved", 0).append("rejected", 0)
+                                .append("superseded", 2).append("reviewMillis", 0)),
+                        new Document()));
+
+        var stats = service.stats(7);
+
+        assertThat(stats.open()).containsEntry(ChangeType.UPDATE, 3L).containsEntry(ChangeType.DELETE, 1L);
+        assertThat(stats.openAge()).containsKeys("p50", "p90", "p99", "oldest");
+        assertThat(stats.approved()).isEqualTo(3);
+        assertThat(stats.superseded()).isEqualTo(2);
+        assertThat(stats.approvalRate()).isEqualTo(0.75);
+        assertThat(stats.reviewers()).containsExactly(
+                new ReviewerStats("admin@example.com", 3, 1, Duration.ofHours(2)));
+        // the p90 of four open requests is the fourth newest
+        var kth = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(4)).findOne(kth.capture(), eq(MemberChangeRequest.class));
+        assertThat(kth.getAllValues()).extracting(Query::getSkip).containsExactly(1L, 3L, 3L, 3L);
+    }
+
+    @Test
+    void stats_emptyQueue_skipsTheAgeLookups() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(ChangeRequestStat.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        var stats = service.stats(7);
+
+        assertThat(stats.openAge()).isEmpty();
+        assertThat(stats.approvalRate()).isNull();
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(MemberChangeRequest.class));
+    }
+
+    @Test
+    void reconcile_overwritesOpenCounts_includingTypesWithNone() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(MemberChangeRequest.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", "UPDATE").append("count", 5)),
+                        new Document()));
+
+        service.reconcile();
+
+        var updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), updates.capture(), eq(ChangeRequestStat.class));
+        assertThat(updates.getAllValues()).extracting(update -> update.getUpdateObject().get("$set", Document.class)
+                .get("count")).containsExactly(5L, 0L);
+    }
+}
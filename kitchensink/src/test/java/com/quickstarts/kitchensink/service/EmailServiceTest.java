@@ -1,8 +1,11 @@
 package com.quickstarts.kitchensink.service;
 
 import com.quickstarts.kitchensink.config.EmailProperties;
+import com.quickstarts.kitchensink.dto.FieldChange;
 import com.quickstarts.kitchensink.dto.MemberSnapshot;
 import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import com.quickstarts.kitchensink.dto.PendingRequestRow;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
 import com.quickstarts.kitchensink.model.Member;
 import com.quickstarts.kitchensink.model.MemberChangeRequest;
 import jakarta.mail.Address;
@@ -23,7 +26,10 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -140,7 +146,7 @@ class EmailServiceTest {
     class NotifyAdminUpdate {
 
         @Test
-        @DisplayName("sends update request to admin with changed markers and admin console link")
+        @DisplayName("sends update request to admin with the changed fields and admin console link")
         void sendsAdminUpdate() throws Exception {
             var member = new Member();
             member.setName("Alice");
@@ -149,13 +155,15 @@ class EmailServiceTest {
             member.setAge(28);
             member.setPlace("Pune");
 
-            // Requested changes: name & age changed, others blank/unchanged
-            var dto = new MemberUpdateDTO("Alice B", null, null, 29, "");
+            // Requested changes: name & age changed, others left alone
+            var changes = FieldChange.diff(
+                    new MemberSnapshot("Alice", "alice@example.com", "9990001111", 28, "Pune"),
+                    new MemberUpdateDTO("Alice B", null, null, 29, null));
 
             ArgumentCaptor<MimeMessage> msgCap = ArgumentCaptor.forClass(MimeMessage.class);
             doNothing().when(mailSender).send(msgCap.capture());
 
-            service.notifyAdminUpdate(member, dto);
+            service.notifyAdminUpdate(member, changes);
 
             var msg = msgCap.getValue();
             assertThat(toList(msg)).containsExactly("admin@kitchensink.com");
@@ -167,13 +175,11 @@ class EmailServiceTest {
             assertThat(html).contains("Alice");
             assertThat(html).contains("alice@example.com");
 
-            // Rows exist; changed fields show “(changed)”
-            assertThat(html).contains("Name");
-            assertThat(html).contains("Age");
-            assertThat(html).contains("(changed)");
-
-            // Blank/unchanged requested values should render as em dash
-            assertThat(html).contains("—");
+            // Only the changed fields get a row, with the current and requested value
+            assertThat(html).contains(">Name<").contains("Alice B");
+            assertThat(html).contains(">Age<").contains(">28<").contains(">29<");
+            assertThat(html).doesNotContain(">Phone<");
+            assertThat(html).doesNotContain(">Place<");
 
             // Admin console link uses baseUrl
             assertThat(html).contains("http://localhost:8080/auth/admin-gate?go=/admin/requests");
@@ -211,6 +217,45 @@ class EmailServiceTest {
         }
     }
 
+    @Nested
+    class NotifyAdminEscalation {
+
+        @Test
+        @DisplayName("sends one digest listing the stale requests and counting the rest")
+        void sendsDigest() throws Exception {
+            var rows = List.of(
+                    new PendingRequestRow("r1", "ann@example.com", "Ann", ChangeType.DELETE,
+                            Instant.parse("2025-03-01T08:15:30Z"), null),
+                    new PendingRequestRow("r2", "bob@example.com", "Bob", ChangeType.UPDATE,
+                            Instant.parse("2025-03-01T09:00:00Z"), Map.of()));
+
+            ArgumentCaptor<MimeMessage> msgCap = ArgumentCaptor.forClass(MimeMessage.class);
+            doNothing().when(mailSender).send(msgCap.capture());
+
+            service.notifyAdminEscalation(rows, 5, Duration.ofDays(2));
+
+            verify(mailSender, times(1)).send(any(MimeMessage.class));
+            var msg = msgCap.getValue();
+            assertThat(toList(msg)).containsExactly("admin@kitchensink.com");
+            assertThat(subjectOf(msg)).isEqualTo("Change requests waiting for review");
+            var html = bodyOf(msg);
+            assertThat(html).contains("5 pending for more than 2 days");
+            assertThat(html).contains("Ann").contains("ann@example.com").contains("DELETE")
+                    .contains("2025-03-01 08:15");
+            assertThat(html).contains("Bob").contains("UPDATE");
+            assertThat(html).contains("and 3 more");
+            assertThat(html).contains("http://localhost:8080/auth/admin-gate?go=/admin/requests");
+        }
+
+        @Test
+        @DisplayName("sends nothing when no request is listed")
+        void nothingToSend() {
+            service.notifyAdminEscalation(List.of(), 0, Duration.ofDays(2));
+
+            verifyNoInteractions(mailSender);
+        }
+    }
+
     @Nested
     class NotifyMemberUpdateApproved {
 
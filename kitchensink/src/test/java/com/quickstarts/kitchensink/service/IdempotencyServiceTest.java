@@ -0,0 +1,162 @@
+package com.quickstarts.kitchensink.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.quickstarts.kitchensink.config.IdempotencyProperties;
+import com.quickstarts.kitchensink.dto.CreateMemberRequestDTO;
+import com.quickstarts.kitchensink.dto.CreateMemberResponseDTO;
+import com.quickstarts.kitchensink.exception.ConflictException;
+import com.quickstarts.kitchensink.model.IdempotencyRecord;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.quickstarts.kitchensink.model.IdempotencyRecord.Status.COMPLETED;
+import static com.quickstarts.kitchensink.model.IdempotencyRecord.Status.IN_PROGRESS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+    private static final CreateMemberRequestDTO REQUEST =
+            new CreateMemberRequestDTO("Virat Kohli", "virat@example.com", "9999999999", 35, "Delhi");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final IdempotencyProperties props = new IdempotencyProperties();
+    private final AtomicInteger runs = new AtomicInteger();
+
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(NOW);
+    }
+
+    private IdempotencyService newService(final Instant now) {
+        return new IdempotencyService(mongoTemplate, objectMapper, props, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private CreateMemberResponseDTO register(final IdempotencyService target, final String key, final CreateMemberRequestDTO request) {
+        return target.execute("member.register", key, request, CreateMemberResponseDTO.class,
+                () -> new CreateMemberResponseDTO("m-" + runs.incrementAndGet(), "ok"));
+    }
+
+    @Test
+    void withoutKey_justRuns() {
+        assertThat(register(service, null, REQUEST).memberId()).isEqualTo("m-1");
+        assertThat(register(service, null, REQUEST).memberId()).isEqualTo("m-2");
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void firstRequest_claimsKey_storesResponse_andRetryIsServedFromCache() {
+        final var first = register(service, "k1", REQUEST);
+        final var retry = register(service, "k1", REQUEST);
+
+        assertThat(retry).isEqualTo(first);
+        assertThat(runs).hasValue(1);
+        final var inserted = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(mongoTemplate).insert(inserted.capture());
+        assertThat(inserted.getValue().getStatus()).isEqualTo(IN_PROGRESS);
+        assertThat(inserted.getValue().getId()).isEqualTo("member.register:anonymous:k1");
+        assertThat(inserted.getValue().getExpiresAt()).isEqualTo(NOW.plus(Duration.ofHours(24)));
+        final var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(IdempotencyRecord.class));
+        assertThat(update.getValue().getUpdateObject().toString()).contains("COMPLETED");
+        verify(mongoTemplate, never()).findById(any(), any());
+    }
+
+    @Test
+    void retryOnAnotherNode_replaysStoredResponse() {
+        final var first = register(service, "k1", REQUEST);
+        final var inserted = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        final var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).insert(inserted.capture());
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(IdempotencyRecord.class));
+
+        final var stored = inserted.getValue();
+        stored.setStatus(COMPLETED);
+        stored.setResponse(update.getValue().getUpdateObject().get("$set", Document.class).getString("response"));
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(mongoTemplate.findById(stored.getId(), IdempotencyRecord.class)).thenReturn(stored);
+
+        final var replayed = register(newService(NOW), "k1", REQUEST);
+
+        assertThat(replayed).isEqualTo(first);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void sameKey_differentRequest_isRejected() {
+        register(service, "k1", REQUEST);
+        final var other = new CreateMemberRequestDTO("Rohit Sharma", "rohit@example.com", "9876543210", 36, "Mumbai");
+
+        assertThatThrownBy(() -> register(service, "k1", other))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(UNPROCESSABLE_ENTITY));
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void keyStillInProgress_isConflict() {
+        final var running = IdempotencyRecord.builder().id("member.register:anonymous:k1").status(IN_PROGRESS)
+                .requestHash(service.requestHash(REQUEST)).createdAt(NOW.minusSeconds(5)).build();
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(mongoTemplate.findById(running.getId(), IdempotencyRecord.class)).thenReturn(running);
+
+        assertThatThrownBy(() -> register(service, "k1", REQUEST)).isInstanceOf(ConflictException.class);
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void abandonedKey_isTakenOverAfterLockTimeout() {
+        final var abandoned = IdempotencyRecord.builder().id("member.register:anonymous:k1").status(IN_PROGRESS)
+                .requestHash(service.requestHash(REQUEST)).createdAt(NOW.minus(Duration.ofMinutes(5))).build();
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(mongoTemplate.findById(abandoned.getId(), IdempotencyRecord.class)).thenReturn(abandoned);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertThat(register(service, "k1", REQUEST).memberId()).isEqualTo("m-1");
+        // take-over, then completion
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void failedRequest_releasesKey_soRetryRunsAgain() {
+        when(mongoTemplate.remove(any(Query.class), eq(IdempotencyRecord.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        assertThatThrownBy(() -> service.execute("member.register", "k1", REQUEST, CreateMemberResponseDTO.class,
+                () -> {
+                    throw new ConflictException("Email already in use");
+                }))
+                .isInstanceOf(ConflictException.class);
+
+        verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyRecord.class));
+        assertThat(register(service, "k1", REQUEST).memberId()).isEqualTo("m-1");
+    }
+}
@@ -0,0 +1,101 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.JwtProperties;
+import com.quickstarts.kitchensink.model.JwtSigningKey;
+import com.quickstarts.kitchensink.repo.JwtSigningKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtKeyRingTest {
+
+    @Mock
+    private JwtSigningKeyRepository repository;
+
+    private JwtKeyRing keyRing;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new JwtKeyRing(repository, new JwtProperties());
+    }
+
+    @Test
+    void init_PublishesPublicKeyOnly() {
+        keyRing.init();
+
+        var saved = ArgumentCaptor.forClass(JwtSigningKey.class);
+        verify(repository).save(saved.capture());
+        assertEquals(keyRing.signingKey().kid(), saved.getValue().getKid());
+        assertArrayEquals(keyRing.signingKey().publicKey().getEncoded(),
+                Base64.getDecoder().decode(saved.getValue().getPublicKey()));
+        assertTrue(saved.getValue().getRetireAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void publicKey_UnknownKid_LoadedOnceFromMongoThenCached() throws Exception {
+        keyRing.init();
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        var otherNode = generator.generateKeyPair().getPublic();
+        when(repository.findById("other")).thenReturn(Optional.of(JwtSigningKey.builder()
+                .kid("other")
+                .publicKey(Base64.getEncoder().encodeToString(otherNode.getEncoded()))
+                .retireAt(Instant.now().plusSeconds(600))
+                .build()));
+
+        assertEquals(otherNode, keyRing.publicKey("other").orElseThrow());
+        assertEquals(otherNode, keyRing.publicKey("other").orElseThrow());
+
+        verify(repository, times(1)).findById("other");
+        assertTrue(keyRing.activeKeys().containsKey("other"));
+    }
+
+    @Test
+    void publicKey_UnknownKids_LookedUpAtMostOncePerInterval() {
+        keyRing.init();
+        when(repository.findById(any())).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(keyRing.publicKey("forged-" + i).isEmpty());
+        }
+
+        verify(repository, times(1)).findById(any());
+    }
+
+    @Test
+    void publicKey_RetiredKey_NotReturned() {
+        keyRing.init();
+        when(repository.findById("old")).thenReturn(Optional.of(JwtSigningKey.builder()
+                .kid("old")
+                .publicKey("unused")
+                .retireAt(Instant.now().minusSeconds(1))
+                .build()));
+
+        assertTrue(keyRing.publicKey("old").isEmpty());
+    }
+
+    @Test
+    void refresh_RetriesPublishAfterFailure() {
+        when(repository.save(any())).thenThrow(new RuntimeException("mongo down")).thenReturn(null);
+        when(repository.findByRetireAtAfter(any())).thenReturn(List.of());
+
+        keyRing.init();   // publish fails, the first refresh retries it
+        keyRing.refresh();
+
+        verify(repository, times(2)).save(any());
+    }
+}
@@ -1,11 +1,14 @@
 package com.quickstarts.kitchensink.service;
 
+import com.quickstarts.kitchensink.config.JwtProperties;
+import com.quickstarts.kitchensink.repo.JwtSigningKeyRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.User;
@@ -14,16 +17,32 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 
 class JwtServiceTest {
 
-    private final JwtService jwtService = new JwtService();
+    private final JwtProperties properties = new JwtProperties();
+    private final JwtKeyRing keyRing = new JwtKeyRing(mock(JwtSigningKeyRepository.class), properties);
+    private final JwtService jwtService = new JwtService(properties, keyRing);
+
+    @BeforeEach
+    void initKeyRing() {
+        keyRing.init();
+    }
+
+    private static final String LEGACY_SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    private void acceptLegacyFor(final long minutes) {
+        properties.setLegacyHs256Secret(LEGACY_SECRET);
+        properties.setAcceptLegacyUntil(Instant.now().plus(minutes, MINUTES));
+    }
 
     private static Key keyFromServiceSecret() {
-        byte[] keyBytes = Decoders.BASE64.decode(JwtService.SECRET);
+        byte[] keyBytes = Decoders.BASE64.decode(LEGACY_SECRET);
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
@@ -104,4 +123,70 @@ class JwtServiceTest {
         String sub = jwtService.extractClaim(token, Claims::getSubject);
         assertEquals("frank@example.com", sub);
     }
+
+    @Test
+    @DisplayName("generateToken embeds the token version; tokens without it read as version 0")
+    void tokenVersion_roundTrip() {
+        String token = jwtService.generateToken("grace@example.com", 3L);
+        assertEquals(3L, jwtService.extractTokenVersion(token));
+
+        acceptLegacyFor(30);
+        String legacy = Jwts.builder()
+                .setSubject("grace@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(Date.from(Instant.now().plus(10, MINUTES)))
+                .signWith(keyFromServiceSecret(), SignatureAlgorithm.HS256)
+                .compact();
+        assertEquals(0L, jwtService.extractTokenVersion(legacy));
+    }
+
+    @Test
+    @DisplayName("roles round-trip through the token; tokens without them yield an empty list")
+    void roles_roundTrip() {
+        String token = jwtService.generateToken("heidi@example.com", 1L, List.of("ADMIN"));
+        assertEquals(List.of("ADMIN"), jwtService.extractRoles(token));
+
+        assertTrue(jwtService.extractRoles(jwtService.generateToken("heidi@example.com")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("tokens are RS256 with the current kid and still verify after the key rotates")
+    void rs256WithKid_survivesRotation() {
+        String token = jwtService.generateToken("ivan@example.com");
+        var kid = keyRing.signingKey().kid();
+
+        var header = Jwts.parserBuilder().setSigningKey(keyRing.publicKey(kid).orElseThrow()).build()
+                .parseClaimsJws(token).getHeader();
+        assertEquals(kid, header.getKeyId());
+        assertEquals("RS256", header.getAlgorithm());
+
+        keyRing.rotate();
+        assertNotEquals(kid, keyRing.signingKey().kid());
+        assertEquals("ivan@example.com", jwtService.extractUsername(token));
+    }
+
+    @Test
+    @DisplayName("legacy HS256 tokens verify only until acceptLegacyUntil; unknown kids never verify")
+    void legacyAndUnknownKid_rejected() {
+        String legacy = Jwts.builder()
+                .setSubject("judy@example.com")
+                .setExpiration(Date.from(Instant.now().plus(10, MINUTES)))
+                .signWith(keyFromServiceSecret(), SignatureAlgorithm.HS256)
+                .compact();
+        // off by default
+        assertThrows(JwtException.class, () -> jwtService.extractUsername(legacy));
+
+        acceptLegacyFor(30);
+        assertEquals("judy@example.com", jwtService.extractUsername(legacy));
+
+        acceptLegacyFor(-1);
+        assertThrows(JwtException.class, () -> jwtService.extractUsername(legacy));
+
+        String unknownKid = Jwts.builder()
+                .setHeaderParam("kid", "nope")
+                .setSubject("judy@example.com")
+                .signWith(keyFromServiceSecret(), SignatureAlgorithm.HS256)
+                .compact();
+        assertThrows(JwtException.class, () -> jwtService.extractUsername(unknownKid));
+    }
 }
@@ -0,0 +1,144 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.LoginThrottleProperties;
+import com.quickstarts.kitchensink.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleServiceTest {
+
+    private final MutableClock clock = new MutableClock();
+    private LoginThrottleProperties props;
+    private SimpleMeterRegistry registry;
+    private LoginThrottleService service;
+
+    @BeforeEach
+    void setUp() {
+        props = new LoginThrottleProperties();
+        props.setMaxFailuresPerUser(3);
+        props.setMaxFailuresPerIp(5);
+        props.setBaseBlock(Duration.ofMinutes(1));
+        registry = new SimpleMeterRegistry();
+        service = new LoginThrottleService(props, registry, clock);
+    }
+
+    @Test
+    @DisplayName("user is blocked after the failure limit and the rejection carries a retry-after")
+    void blocksUserAfterLimit() {
+        for (int i = 0; i < 3; i++) service.recordFailure("Alice@example.com", null);
+
+        assertThatThrownBy(() -> service.check("alice@example.com", "10.0.0.1"))
+                .isInstanceOf(TooManyLoginAttemptsException.class)
+                .satisfies(e -> assertThat(((TooManyLoginAttemptsException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofMinutes(1)));
+        assertThat(registry.counter("auth.throttle.blocks", "scope", "user").count()).isEqualTo(1);
+        assertThat(registry.counter("auth.throttle.rejected", "scope", "user").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("a repeat offence doubles the block")
+    void progressiveBlock() {
+        for (int i = 0; i < 3; i++) service.recordFailure("bob@example.com", null);
+        clock.advance(Duration.ofMinutes(1).plusSeconds(1));
+        assertThatNoException().isThrownBy(() -> service.check("bob@example.com", null));
+
+        service.recordFailure("bob@example.com", null);
+
+        assertThatThrownBy(() -> service.check("bob@example.com", null))
+                .satisfies(e -> assertThat(((TooManyLoginAttemptsException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofMinutes(2)));
+    }
+
+    @Test
+    @DisplayName("spraying many usernames from one IP blocks the IP")
+    void blocksIpAcrossUsernames() {
+        for (int i = 0; i < 5; i++) service.recordFailure("user" + i + "@example.com", "10.0.0.9");
+
+        assertThatThrownBy(() -> service.check("fresh@example.com", "10.0.0.9"))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+        assertThatNoException().isThrownBy(() -> service.check("fresh@example.com", "10.0.0.10"));
+    }
+
+    @Test
+    @DisplayName("success clears the username's failures; old failures slide out of the window")
+    void successAndWindowExpiry() {
+        service.recordFailure("carol@example.com", null);
+        service.recordFailure("carol@example.com", null);
+        service.recordSuccess("carol@example.com");
+        service.recordFailure("carol@example.com", null);
+        assertThatNoException().isThrownBy(() -> service.check("carol@example.com", null));
+
+        service.recordFailure("dave@example.com", null);
+        service.recordFailure("dave@example.com", null);
+        clock.advance(Duration.ofMinutes(16));
+        service.recordFailure("dave@example.com", null);
+        assertThatNoException().isThrownBy(() -> service.check("dave@example.com", null));
+        assertThat(registry.counter("auth.login.attempts", "outcome", "failure").count()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("idle, unblocked keys are evicted")
+    void evictIdle() {
+        service.recordFailure("erin@example.com", "10.0.0.2");
+        clock.advance(Duration.ofMinutes(20));
+
+        service.evictIdle();
+
+        assertThat(registry.get("auth.throttle.tracked.keys").tag("scope", "user").gauge().value()).isZero();
+        assertThat(registry.get("auth.throttle.tracked.keys").tag("scope", "ip").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("a full scope evicts the oldest unblocked keys, so new keys are still tracked")
+    void fullScopeEvictsOldest() {
+        props.setMaxTrackedKeys(4);
+        for (int i = 0; i < 3; i++) service.recordFailure("target@example.com", null);
+        for (int i = 0; i < 10; i++) {
+            clock.advance(Duration.ofSeconds(1));
+            service.recordFailure("spray" + i + "@example.com", null);
+        }
+
+        assertThatThrownBy(() -> service.check("target@example.com", null))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+        for (int i = 0; i < 3; i++) service.recordFailure("late@example.com", null);
+        assertThatThrownBy(() -> service.check("late@example.com", null))
+                .isInstanceOf(TooManyLoginAttemptsException.class);
+        assertThat(registry.get("auth.throttle.tracked.keys").tag("scope", "user").gauge().value())
+                .isLessThanOrEqualTo(4);
+        assertThat(registry.get("auth.throttle.evicted").tag("scope", "user").counter().count()).isPositive();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.quickstarts.kitchensink.service;
 
+import com.mongodb.client.result.UpdateResult;
+import com.quickstarts.kitchensink.config.MemberChangeRequestProperties;
+import com.quickstarts.kitchensink.dto.FieldChange;
 import com.quickstarts.kitchensink.dto.MemberSnapshot;
 import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
 import com.quickstarts.kitchensink.model.Member;
 import com.quickstarts.kitchensink.model.MemberChangeRequest;
 import com.quickstarts.kitchensink.repo.MemberChangeRequestRepository;
 import com.quickstarts.kitchensink.repo.MemberRepository;
+import org.bson.BsonString;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -14,17 +19,25 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Map;
 import java.util.Optional;
 
+import static com.quickstarts.kitchensink.config.MemberChangeRequestProperties.PendingUpdateMode.REJECT;
 import static com.quickstarts.kitchensink.dto.enums.ChangeType.DELETE;
 import static com.quickstarts.kitchensink.dto.enums.ChangeType.UPDATE;
 import static com.quickstarts.kitchensink.dto.enums.Status.PENDING;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -36,7 +49,15 @@ class MemberChangeRequestServiceTest {
     @Mock
     private MemberChangeRequestRepository changeRequestRepository;
     @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
     private EmailService emailService;
+    @Spy
+    private MemberChangeRequestProperties props = new MemberChangeRequestProperties();
+    @Mock
+    private AutoApprovalRules autoApprovalRules;
+    @Mock
+    private ChangeRequestStatsService statsService;
 
     @InjectMocks
     private MemberChangeRequestService service;
@@ -49,6 +70,11 @@ class MemberChangeRequestServiceTest {
         return new MemberUpdateDTO(name, email, phone, age, place);
     }
 
+    private Map<String, FieldChange<?>> changesOf(final MemberUpdateDTO dto) {
+        return FieldChange.diff(new MemberSnapshot(existing.getName(), existing.getEmail(),
+                existing.getPhoneNumber(), existing.getAge(), existing.getPlace()), dto);
+    }
+
     @BeforeEach
     void setUp() {
         existing = new Member();
@@ -67,9 +93,10 @@ class MemberChangeRequestServiceTest {
         @DisplayName("saves change request, builds 'before' snapshot, calls email")
         void happyPath() {
             // Arrange
+            props.setPendingUpdate(REJECT);
             when(memberRepo.findByEmail("alice@example.com"))
                     .thenReturn(Optional.of(existing));
-            when(changeRequestRepository.save(any(MemberChangeRequest.class)))
+            when(changeRequestRepository.insert(any(MemberChangeRequest.class)))
                     .thenAnswer(inv -> inv.getArgument(0));
 
             var dto = updateDto("Alice B", "a.b@example.com", "8887776666", 29, "Mumbai");
@@ -79,7 +106,7 @@ class MemberChangeRequestServiceTest {
 
             // Assert repository interactions
             ArgumentCaptor<MemberChangeRequest> cap = ArgumentCaptor.forClass(MemberChangeRequest.class);
-            verify(changeRequestRepository).save(cap.capture());
+            verify(changeRequestRepository).insert(cap.capture());
             var saved = cap.getValue();
 
             assertThat(saved.getMemberId()).isEqualTo("m-123");
@@ -88,6 +115,8 @@ class MemberChangeRequestServiceTest {
             assertThat(saved.getSubmittedBy()).isEqualTo("alice@example.com");
             assertThat(saved.getSubmittedAt()).isNotNull();
             assertThat(saved.getRequested()).isEqualTo(dto);
+            assertThat(saved.getChanges()).containsOnlyKeys("name", "email", "phoneNumber", "age", "place")
+                    .containsEntry("age", new FieldChange<>(28, 29));
 
             // 'before' snapshot should mirror existing member state
             MemberSnapshot before = saved.getBefore();
@@ -99,7 +128,8 @@ class MemberChangeRequestServiceTest {
             assertThat(before.place()).isEqualTo("Pune");
 
             // Email notification
-            verify(emailService, times(1)).notifyAdminUpdate(existing, dto);
+            verify(emailService, times(1)).notifyAdminUpdate(existing, changesOf(dto));
+            verify(statsService).submitted(UPDATE);
         }
 
         @Test
@@ -116,7 +146,8 @@ class MemberChangeRequestServiceTest {
             assertEquals(400, ex.getStatusCode().value());
             assertTrue(ex.getReason().contains("No changes"));
 
-            verify(changeRequestRepository, never()).save(any());
+            verify(changeRequestRepository, never()).insert(any(MemberChangeRequest.class));
+            verifyNoInteractions(mongoTemplate);
             verify(emailService, never()).notifyAdminUpdate(any(), any());
         }
 
@@ -131,7 +162,8 @@ class MemberChangeRequestServiceTest {
             assertEquals(404, ex.getStatusCode().value());
             assertTrue(ex.getReason().contains("Member not found"));
 
-            verify(changeRequestRepository, never()).save(any());
+            verify(changeRequestRepository, never()).insert(any(MemberChangeRequest.class));
+            verifyNoInteractions(mongoTemplate);
             verify(emailService, never()).notifyAdminUpdate(any(), any());
         }
 
@@ -141,10 +173,10 @@ class MemberChangeRequestServiceTest {
             // Arrange
             when(memberRepo.findByEmail("alice@example.com"))
                     .thenReturn(Optional.of(existing));
-            when(changeRequestRepository.save(any(MemberChangeRequest.class)))
-                    .thenAnswer(inv -> inv.getArgument(0));
+            when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(MemberChangeRequest.class)))
+                    .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonString("cr-1")));
             doThrow(new RuntimeException("smtp down"))
-                    .when(emailService).notifyAdminUpdate(eq(existing), any(MemberUpdateDTO.class));
+                    .when(emailService).notifyAdminUpdate(eq(existing), anyMap());
 
             var dto = updateDto("Alice B", null, null, 0, null); // at least one change (name)
 
@@ -154,7 +186,63 @@ class MemberChangeRequestServiceTest {
             assertTrue(ex.getMessage().contains("smtp down"));
 
             // Save was attempted before email send
-            verify(changeRequestRepository, times(1)).save(any(MemberChangeRequest.class));
+            verify(mongoTemplate, times(1)).upsert(any(Query.class), any(Update.class), eq(MemberChangeRequest.class));
+        }
+
+        @Test
+        @DisplayName("supersede mode: replaces the pending update with one upsert on (memberId, PENDING, UPDATE)")
+        void supersedesPendingUpdate() {
+            when(memberRepo.findByEmail("alice@example.com")).thenReturn(Optional.of(existing));
+            when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(MemberChangeRequest.class)))
+                    .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+            var dto = updateDto("Alice B", null, null, 0, "Mumbai");
+
+            service.submitProfileUpdate("alice@example.com", dto);
+
+            var query = ArgumentCaptor.forClass(Query.class);
+            var update = ArgumentCaptor.forClass(Update.class);
+            verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(MemberChangeRequest.class));
+            assertThat(query.getValue().getQueryObject()).containsEntry("memberId", "m-123")
+                    .containsEntry("status", PENDING).containsEntry("type", UPDATE);
+            var set = update.getValue().getUpdateObject().get("$set", Document.class);
+            assertThat(set).containsEntry("requested", dto).containsEntry("submittedBy", "alice@example.com")
+                    .containsEntry("changes", changesOf(dto));
+            // the queue position of a superseded request is kept
+            assertThat(update.getValue().getUpdateObject().get("$setOnInsert", Document.class))
+                    .containsKey("submittedAt");
+            verify(changeRequestRepository, never()).insert(any(MemberChangeRequest.class));
+            verify(emailService).notifyAdminUpdate(existing, changesOf(dto));
+            // replaced in place, so the backlog did not grow
+            verify(statsService, never()).submitted(any());
+        }
+
+        @Test
+        @DisplayName("update matching the auto-approval rules is stored and handed back with the rule, not mailed")
+        void autoApprovalMatch_returnsTheRule() {
+            when(memberRepo.findByEmail("alice@example.com")).thenReturn(Optional.of(existing));
+            when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(MemberChangeRequest.class)))
+                    .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonString("cr-1")));
+            var dto = updateDto(null, null, null, 29, null);
+            when(autoApprovalRules.match(changesOf(dto))).thenReturn(Optional.of("age-bump"));
+
+            var submitted = service.submitProfileUpdate("alice@example.com", dto);
+
+            assertEquals("age-bump", submitted.rule());
+            assertEquals(changesOf(dto), submitted.changes());
+            verify(emailService, never()).notifyAdminUpdate(any(), any());
+        }
+
+        @Test
+        @DisplayName("supersede mode: a pending delete makes the upsert's insert collide, CONFLICT")
+        void pendingDeleteBlocksUpdate() {
+            when(memberRepo.findByEmail("alice@example.com")).thenReturn(Optional.of(existing));
+            when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(MemberChangeRequest.class)))
+                    .thenThrow(new DuplicateKeyException("E11000 pending_per_member"));
+
+            var ex = assertThrows(ResponseStatusException.class,
+                    () -> service.submitProfileUpdate("alice@example.com", updateDto("Alice B", null, null, 0, null)));
+            assertEquals(409, ex.getStatusCode().value());
+            verify(emailService, never()).notifyAdminUpdate(any(), any());
         }
     }
 
@@ -165,15 +253,14 @@ class MemberChangeRequestServiceTest {
         @DisplayName("throws CONFLICT if a pending request already exists")
         void conflictWhenPendingExists() {
             when(memberRepo.findByEmail("alice@example.com")).thenReturn(Optional.of(existing));
-            when(changeRequestRepository.existsByMemberIdAndStatus("m-123", PENDING))
-                    .thenReturn(true);
+            when(changeRequestRepository.insert(any(MemberChangeRequest.class)))
+                    .thenThrow(new DuplicateKeyException("E11000 pending_per_member"));
 
             var ex = assertThrows(ResponseStatusException.class,
                     () -> service.submitDeleteRequest("alice@example.com"));
             assertEquals(409, ex.getStatusCode().value());
             assertTrue(ex.getReason().contains("pending request"));
 
-            verify(changeRequestRepository, never()).save(any());
             verify(emailService, never()).notifyAdminDelete(any());
         }
 
@@ -181,15 +268,13 @@ class MemberChangeRequestServiceTest {
         @DisplayName("saves delete request with 'before' snapshot and notifies admin")
         void happyPath() {
             when(memberRepo.findByEmail("alice@example.com")).thenReturn(Optional.of(existing));
-            when(changeRequestRepository.existsByMemberIdAndStatus("m-123", PENDING))
-                    .thenReturn(false);
-            when(changeRequestRepository.save(any(MemberChangeRequest.class)))
+            when(changeRequestRepository.insert(any(MemberChangeRequest.class)))
                     .thenAnswer(inv -> inv.getArgument(0));
 
             service.submitDeleteRequest("alice@example.com");
 
             ArgumentCaptor<MemberChangeRequest> cap = ArgumentCaptor.forClass(MemberChangeRequest.class);
-            verify(changeRequestRepository).save(cap.capture());
+            verify(changeRequestRepository).insert(cap.capture());
             var saved = cap.getValue();
 
             assertThat(saved.getMemberId()).isEqualTo("m-123");
@@ -220,7 +305,7 @@ class MemberChangeRequestServiceTest {
             assertEquals(404, ex.getStatusCode().value());
             assertTrue(ex.getReason().contains("Member not found"));
 
-            verify(changeRequestRepository, never()).save(any());
+            verify(changeRequestRepository, never()).insert(any(MemberChangeRequest.class));
             verify(emailService, never()).notifyAdminDelete(any());
         }
     }
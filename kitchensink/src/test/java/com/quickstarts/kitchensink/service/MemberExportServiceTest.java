@@ -1,5 +1,6 @@
 package com.quickstarts.kitchensink.service;
 
+import com.quickstarts.kitchensink.config.MongoReadRouter;
 import com.quickstarts.kitchensink.dto.MemberFilterRequest;
 import com.quickstarts.kitchensink.model.Member;
 import jakarta.servlet.ServletOutputStream;
@@ -7,12 +8,12 @@ import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -39,12 +40,16 @@ class MemberExportServiceTest {
     @Mock
     MongoTemplate mongoTemplate;
 
-    @InjectMocks
     MemberExportService service;
 
     @Mock
     HttpServletResponse response;
 
+    @BeforeEach
+    void setUp() {
+        service = new MemberExportService(MongoReadRouter.primaryOnly(mongoTemplate));
+    }
+
     private static Member member(
             String name, String email, String phone, int age, String place, LocalDate registered) {
         var m = new Member();
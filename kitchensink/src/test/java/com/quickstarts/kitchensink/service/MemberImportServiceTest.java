@@ -0,0 +1,140 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.BulkImportProperties;
+import com.quickstarts.kitchensink.dto.BulkRowResult;
+import com.quickstarts.kitchensink.model.MemberImportError;
+import com.quickstarts.kitchensink.model.MemberImportJob;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberImportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkRegistrationService bulkRegistrationService;
+
+    @Captor
+    private ArgumentCaptor<List<MemberImportError>> errorsCaptor;
+
+    @TempDir
+    Path tempDir;
+
+    private MemberImportService service;
+
+    private final List<BulkRegistrationService.Row> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        final var props = new BulkImportProperties();
+        props.setChunkSize(2);
+        service = new MemberImportService(mongoTemplate, bulkRegistrationService, props);
+        lenient().when(bulkRegistrationService.registerChunk(anyList(), any())).thenAnswer(inv -> {
+            List<BulkRegistrationService.Row> chunk = inv.getArgument(0);
+            received.addAll(chunk);
+            return chunk.stream()
+                    .map(row -> row.request().email().startsWith("dup")
+                            ? BulkRowResult.rejected(row.number(), row.request().email(), Map.of("email", "Email taken"))
+                            : BulkRowResult.created(row.number(), "id-" + row.number(), row.request().email()))
+                    .toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void run_Csv_ChunksRowsAndRecordsErrors() throws Exception {
+        final var csv = tempDir.resolve("members.csv");
+        Files.writeString(csv, """
+                \uFEFFRegistration Date,Name,Email,Phone,Age,Place
+                "2025-01-01","Asha Rao","asha@example.com","9876543210","30","Pune, MH"
+                "2025-01-01","Dup Person","dup@example.com","9876543211","31","Goa"
+                "2025-01-01","Bad Age","bad@example.com","9876543212","old","Goa"
+                "2025-01-01","Ravi ""RK"" Kumar","ravi@example.com","9876543213","","Delhi"
+                """, UTF_8);
+
+        service.run("job-1", csv, "csv");
+
+        assertEquals(3, received.size());
+        assertEquals("Pune, MH", received.get(0).request().place());
+        assertEquals("Ravi \"RK\" Kumar", received.get(2).request().name());
+        assertEquals(5, received.get(2).number());
+
+        verify(mongoTemplate, times(2)).insert(errorsCaptor.capture(), eq(MemberImportError.class));
+        final var allErrors = errorsCaptor.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(List.of(3, 4), allErrors.stream().map(MemberImportError::getRow).sorted().toList());
+        assertFalse(Files.exists(csv), "spooled upload is removed");
+        verifyFinalStatus(MemberImportJob.Status.COMPLETED);
+    }
+
+    @Test
+    void run_Xlsx_ReadsFirstSheetThroughSaxEvents() throws Exception {
+        final var xlsx = tempDir.resolve("members.xlsx");
+        try (var workbook = new XSSFWorkbook(); var out = Files.newOutputStream(xlsx)) {
+            final var sheet = workbook.createSheet("Members");
+            final var header = sheet.createRow(0);
+            final String[] heads = {"Name", "Email", "Phone", "Age", "Place"};
+            for (int i = 0; i < heads.length; i++) header.createCell(i).setCellValue(heads[i]);
+            final var row = sheet.createRow(1);
+            row.createCell(0).setCellValue("Asha Rao");
+            row.createCell(1).setCellValue("asha@example.com");
+            row.createCell(2).setCellValue("9876543210");
+            row.createCell(3).setCellValue(30);
+            row.createCell(4).setCellValue("Pune");
+            workbook.write(out);
+        }
+
+        service.run("job-2", xlsx, "xlsx");
+
+        assertEquals(1, received.size());
+        assertEquals("asha@example.com", received.get(0).request().email());
+        assertEquals(30, received.get(0).request().age());
+        verifyFinalStatus(MemberImportJob.Status.COMPLETED);
+    }
+
+    @Test
+    void run_MissingColumns_FailsJob() throws Exception {
+        final var csv = tempDir.resolve("bad.csv");
+        Files.writeString(csv, "Name,Email\nAsha,asha@example.com\n", UTF_8);
+
+        service.run("job-3", csv, "csv");
+
+        verifyNoInteractions(bulkRegistrationService);
+        verifyFinalStatus(MemberImportJob.Status.FAILED);
+    }
+
+    private void verifyFinalStatus(final MemberImportJob.Status status) {
+        final var updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateFirst(any(Query.class), updates.capture(), eq(MemberImportJob.class));
+        final var last = updates.getAllValues().get(updates.getAllValues().size() - 1);
+        assertEquals(status, last.getUpdateObject().get("$set", Document.class).get("status"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.FieldChange;
+import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.service.MemberChangeRequestService.SubmittedUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberProfileUpdateServiceTest {
+
+    private static final MemberUpdateDTO DTO = new MemberUpdateDTO(null, null, null, 29, null);
+    private static final Map<String, FieldChange<?>> CHANGES = Map.of("age", new FieldChange<>(28, 29));
+
+    @Mock
+    private MemberChangeRequestService changeRequestService;
+    @Mock
+    private ChangeRequestReviewService reviewService;
+    @Mock
+    private EmailService emailService;
+
+    @InjectMocks
+    private MemberProfileUpdateService service;
+
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        member = new Member();
+        member.setId("m-123");
+    }
+
+    private void submitted(final String rule) {
+        when(changeRequestService.submitProfileUpdate("alice@example.com", DTO))
+                .thenReturn(new SubmittedUpdate(member, CHANGES, rule));
+    }
+
+    @Test
+    void submit_noRuleMatched_waitsForTheAdmin() {
+        submitted(null);
+
+        assertFalse(service.submit("alice@example.com", DTO));
+
+        verifyNoInteractions(reviewService, emailService);
+    }
+
+    @Test
+    void submit_autoApproved_isApplied() {
+        submitted("age-bump");
+        when(reviewService.autoApprove("m-123", DTO, "age-bump")).thenReturn(true);
+
+        assertTrue(service.submit("alice@example.com", DTO));
+
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void submit_autoApprovalFails_reportsPending_andMailsTheAdmin() {
+        submitted("age-bump");
+        when(reviewService.autoApprove("m-123", DTO, "age-bump")).thenReturn(false);
+
+        assertFalse(service.submit("alice@example.com", DTO));
+
+        verify(emailService).notifyAdminUpdate(member, CHANGES);
+    }
+
+    @Test
+    void submit_autoApprovalThrows_reportsPending_evenIfTheMailFails() {
+        submitted("age-bump");
+        when(reviewService.autoApprove("m-123", DTO, "age-bump")).thenThrow(new IllegalStateException("mongo down"));
+        doThrow(new RuntimeException("smtp down")).when(emailService).notifyAdminUpdate(any(), any());
+
+        assertFalse(service.submit("alice@example.com", DTO));
+    }
+}
@@ -0,0 +1,175 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.quickstarts.kitchensink.config.ProvisioningProperties;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.Provisioning;
+import com.quickstarts.kitchensink.model.UserInfo;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static com.quickstarts.kitchensink.model.Provisioning.Status.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberProvisioningServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PasswordEncoder encoder;
+
+    @Mock
+    private EmailService emailService;
+
+    private final ProvisioningProperties props = new ProvisioningProperties();
+
+    private MemberProvisioningService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MemberProvisioningService(mongoTemplate, encoder, emailService, props,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(service, "loginUrl", "http://test/login");
+    }
+
+    private static Member claimed(final int attempts) {
+        var member = new Member();
+        member.setId("mid-1");
+        member.setName("Virat Kohli");
+        member.setEmail("virat@example.com");
+        member.setProvisioning(Provisioning.builder().status(IN_PROGRESS).attempts(attempts).build());
+        return member;
+    }
+
+    private void claimReturns(final Member member) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Member.class)))
+                .thenReturn(member);
+    }
+
+    private Document lastMemberUpdate() {
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Member.class));
+        return update.getValue().getUpdateObject();
+    }
+
+    @Test
+    void provision_createsLogin_sendsWelcome_marksDone() {
+        claimReturns(claimed(1));
+        when(encoder.encode(anyString())).thenReturn("ENC");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Member.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        service.provision("mid-1");
+
+        var claimQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(claimQuery.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Member.class));
+        assertThat(claimQuery.getValue().getQueryObject().get("_id")).isEqualTo("mid-1");
+        assertThat(claimQuery.getValue().getQueryObject().get("provisioning.nextAttemptAt", Document.class).get("$lte"))
+                .isEqualTo(NOW);
+
+        var login = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), login.capture(), eq(UserInfo.class));
+        var set = login.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set.get("userName")).isEqualTo("virat@example.com");
+        assertThat(set.get("password")).isEqualTo("ENC");
+        assertThat(set.get("mustChangePassword")).isEqualTo(true);
+        verify(emailService).sendWelcomeWithTempPassword(eq("virat@example.com"), eq("Virat Kohli"), anyString(), eq("http://test/login"));
+
+        var done = lastMemberUpdate();
+        assertThat(done.get("$set", Document.class).get("provisioning.status")).isEqualTo(DONE);
+        assertThat(done.get("$unset", Document.class)).containsKey("provisioning.nextAttemptAt");
+    }
+
+    @Test
+    void provision_notDueOrClaimedElsewhere_doesNothing() {
+        claimReturns(null);
+
+        service.provision("mid-1");
+
+        verifyNoInteractions(encoder, emailService);
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(UserInfo.class));
+    }
+
+    @Test
+    void provision_memberDeletedMeanwhile_removesLogin() {
+        claimReturns(claimed(1));
+        when(encoder.encode(anyString())).thenReturn("ENC");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Member.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.remove(any(Query.class), eq(UserInfo.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        service.provision("mid-1");
+
+        verify(mongoTemplate).remove(any(Query.class), eq(UserInfo.class));
+    }
+
+    @Test
+    void provision_transientFailure_isRetriedWithBackoff() {
+        claimReturns(claimed(2));
+        when(encoder.encode(anyString())).thenReturn("ENC");
+        doThrow(new IllegalStateException("smtp down")).when(emailService)
+                .sendWelcomeWithTempPassword(anyString(), anyString(), anyString(), anyString());
+
+        service.provision("mid-1");
+
+        var set = lastMemberUpdate().get("$set", Document.class);
+        assertThat(set.get("provisioning.status")).isEqualTo(PENDING);
+        assertThat(set.get("provisioning.nextAttemptAt")).isEqualTo(NOW.plus(props.getRetryBackoff().multipliedBy(2)));
+        assertThat(set.get("provisioning.lastError")).isEqualTo("smtp down");
+    }
+
+    @Test
+    void provision_lastAttemptFails_marksFailed() {
+        claimReturns(claimed(props.getMaxAttempts()));
+        when(encoder.encode(anyString())).thenThrow(new IllegalStateException("hash pool saturated"));
+
+        service.provision("mid-1");
+
+        var update = lastMemberUpdate();
+        assertThat(update.get("$set", Document.class).get("provisioning.status")).isEqualTo(FAILED);
+        assertThat(update.get("$unset", Document.class)).containsKey("provisioning.nextAttemptAt");
+    }
+
+    @Test
+    void provision_loginAlreadyExists_failsWithoutRetry() {
+        claimReturns(claimed(1));
+        when(encoder.encode(anyString())).thenReturn("ENC");
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(UserInfo.class)))
+                .thenThrow(new DuplicateKeyException("dup userName"));
+
+        service.provision("mid-1");
+
+        assertThat(lastMemberUpdate().get("$set", Document.class).get("provisioning.status")).isEqualTo(FAILED);
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void status_ofSynchronouslyRegisteredMember_isDone() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Member.class))).thenReturn(new Member());
+
+        assertThat(service.status("mid-1").status()).isEqualTo(DONE);
+    }
+}
@@ -0,0 +1,139 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.client.result.DeleteResult;
+import com.quickstarts.kitchensink.config.MemberPurgeProperties;
+import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.SchedulerLease;
+import com.quickstarts.kitchensink.model.UserInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MemberPurgeServiceTest {
+
+    private static final SchedulerLease LEASE = SchedulerLease.builder().id("job").owner("node-a").build();
+    private static final Instant NOW = Instant.parse("2025-01-08T03:30:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SchedulerLeaseService leases;
+
+    private final MemberPurgeProperties props = new MemberPurgeProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private MemberPurgeService service;
+
+    @BeforeEach
+    void setUp() {
+        props.setBatchSize(2);
+        props.setPauseBetweenBatches(Duration.ZERO);
+        service = new MemberPurgeService(mongoTemplate, leases, props, registry, Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().when(leases.acquire(MemberPurgeService.JOB, props.getLease())).thenReturn(Optional.of(LEASE));
+    }
+
+    private static Member member(final String id) {
+        var member = new Member();
+        member.setId(id);
+        return member;
+    }
+
+    @Test
+    void purge_removesMembersThenLogins_inBatchesUntilDrained() {
+        when(mongoTemplate.find(any(Query.class), eq(Member.class)))
+                .thenReturn(List.of(member("m1"), member("m2")))
+                .thenReturn(List.of(member("m3")));
+        when(mongoTemplate.remove(any(Query.class), eq(Member.class)))
+                .thenReturn(DeleteResult.acknowledged(2), DeleteResult.acknowledged(1));
+
+        var removed = service.purge();
+
+        assertThat(removed).isEqualTo(3);
+        assertThat(registry.counter("member.purge.removed").count()).isEqualTo(3);
+        var due = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(due.capture(), eq(Member.class));
+        assertThat(due.getValue().getQueryObject().get("deletedAt"))
+                .isEqualTo(new Document("$lte", NOW.minus(props.getRetention())));
+        assertThat(due.getValue().getLimit()).isEqualTo(2);
+
+        var inOrder = inOrder(mongoTemplate);
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(Member.class));
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(UserInfo.class));
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(UserInfo.class));
+    }
+
+    @Test
+    void purge_memberRemovalStaysGuardedByTombstone() {
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(member("m1")));
+        when(mongoTemplate.remove(any(Query.class), eq(Member.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        service.purge();
+
+        var removal = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removal.capture(), eq(Member.class));
+        // a member restored after the batch was read has lost its tombstone and is left alone
+        assertThat(removal.getValue().getQueryObject()).containsKey("deletedAt");
+        var logins = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(logins.capture(), eq(UserInfo.class));
+        assertThat(logins.getValue().getQueryObject().get("deletedAt")).isEqualTo(new Document("$exists", true));
+    }
+
+    @Test
+    void purge_stopsAtMaxBatchesPerRun() {
+        props.setMaxBatchesPerRun(1);
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(member("m1"), member("m2")));
+        when(mongoTemplate.remove(any(Query.class), eq(Member.class))).thenReturn(DeleteResult.acknowledged(2));
+
+        assertThat(service.purge()).isEqualTo(2);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Member.class));
+    }
+
+    @Test
+    void purge_runsUnderTheLease_andKeepsOtherNodesOffForItsDuration() {
+        when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of());
+
+        assertThat(service.purge()).isZero();
+
+        verify(leases).release(LEASE, NOW.plus(props.getLease()));
+    }
+
+    @Test
+    void purge_leaseHeldElsewhere_skipsTheRun() {
+        when(leases.acquire(MemberPurgeService.JOB, props.getLease())).thenReturn(Optional.empty());
+
+        assertThat(service.purge()).isZero();
+
+        verifyNoInteractions(mongoTemplate);
+        verify(leases, never()).release(any(), any());
+    }
+
+    @Test
+    void scheduledPurge_disabled_doesNothing() {
+        props.setEnabled(false);
+
+        service.scheduledPurge();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+}
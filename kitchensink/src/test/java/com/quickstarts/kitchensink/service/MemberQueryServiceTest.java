@@ -1,5 +1,6 @@
 package com.quickstarts.kitchensink.service;
 
+import com.quickstarts.kitchensink.config.MongoReadRouter;
 import com.quickstarts.kitchensink.dto.MemberFilterRequest;
 import com.quickstarts.kitchensink.model.Member;
 import org.bson.Document;
@@ -15,13 +16,16 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 
 import java.util.List;
+import java.util.Set;
 
+import static com.quickstarts.kitchensink.config.MongoReadRouter.ReadOperation.SEARCH;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,9 +37,24 @@ class MemberQueryServiceTest {
     @Captor
     ArgumentCaptor<Query> queryCaptor;
 
+    @Test
+    void search_readsFromSecondary_unlessFreshRequested() {
+        var secondary = mock(MongoTemplate.class);
+        var svc = new MemberQueryService(new MongoReadRouter(mongoTemplate, secondary, Set.of(SEARCH)));
+        var filter = new MemberFilterRequest();
+
+        svc.searchMembers(filter);
+        verify(secondary).find(any(Query.class), eq(Member.class));
+        verifyNoInteractions(mongoTemplate);
+
+        filter.setFresh(true);
+        svc.searchMembers(filter);
+        verify(mongoTemplate).find(any(Query.class), eq(Member.class));
+    }
+
     @Test
     void defaultPagingAndSort_whenNoFilters() {
-        var svc = new MemberQueryService(mongoTemplate);
+        var svc = new MemberQueryService(MongoReadRouter.primaryOnly(mongoTemplate));
 
         when(mongoTemplate.count(any(Query.class), eq(Member.class))).thenReturn(0L);
         when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of());
@@ -60,15 +79,15 @@ class MemberQueryServiceTest {
         assertThat(sortDoc).isNotNull();
         Assertions.assertNull(sortDoc.getInteger("registrationDate"));
 
-        // No filters -> empty criteria
+        // No filters -> only the tombstone filter
         Document crit = q.getQueryObject();
         assertThat(crit).isNotNull();
-        assertTrue(crit.isEmpty());
+        assertThat(crit.toJson()).isEqualTo("{\"$and\": [{\"deletedAt\": {\"$exists\": false}}]}");
     }
 
     @Test
     void freeTextBuildsOrRegex_overNameEmailPhonePlace() {
-        var svc = new MemberQueryService(mongoTemplate);
+        var svc = new MemberQueryService(MongoReadRouter.primaryOnly(mongoTemplate));
 
         when(mongoTemplate.count(any(Query.class), eq(Member.class))).thenReturn(1L);
         when(mongoTemplate.find(any(Query.class), eq(Member.class))).thenReturn(List.of(new Member()));
@@ -1,27 +1,43 @@
 package com.quickstarts.kitchensink.service;
 
 import com.mongodb.DuplicateKeyException;
+import com.mongodb.MongoCommandException;
 import com.mongodb.ServerAddress;
+import com.mongodb.client.result.UpdateResult;
+import com.quickstarts.kitchensink.config.ProvisioningProperties;
 import com.quickstarts.kitchensink.dto.CreateMemberRequestDTO;
+import com.quickstarts.kitchensink.dto.MemberPatch;
+import com.quickstarts.kitchensink.dto.MemberPatchRequest;
 import com.quickstarts.kitchensink.dto.MemberResponseDTO;
 import com.quickstarts.kitchensink.dto.UpdateMemberRequest;
 import com.quickstarts.kitchensink.exception.ConflictException;
 import com.quickstarts.kitchensink.exception.NotFoundException;
+import com.quickstarts.kitchensink.exception.StaleObjectException;
 import com.quickstarts.kitchensink.model.Member;
+import com.quickstarts.kitchensink.model.Provisioning;
 import com.quickstarts.kitchensink.model.UserInfo;
 import com.quickstarts.kitchensink.repo.MemberRepository;
 import com.quickstarts.kitchensink.repo.UserInfoRepository;
 import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Optional;
 import java.util.Set;
@@ -46,6 +62,21 @@ class MemberServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MemberProvisioningService provisioningService;
+
+    @Mock
+    private ProvisioningProperties provisioningProperties;
+
+    @Mock
+    private NotificationQueue notificationQueue;
+
     @InjectMocks
     private MemberService memberService;
 
@@ -53,6 +84,15 @@ class MemberServiceTest {
         return new DuplicateKeyException(new BsonDocument(), new ServerAddress("localhost", 27017), null);
     }
 
+    private static org.springframework.dao.DuplicateKeyException mkDupCommandEx(final String field) {
+        var response = new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(11000))
+                .append("errmsg", new BsonString("E11000 duplicate key error"))
+                .append("keyPattern", new BsonDocument(field, new BsonInt32(1)));
+        return new org.springframework.dao.DuplicateKeyException("dup",
+                new MongoCommandException(response, new ServerAddress("localhost", 27017)));
+    }
+
     // -------- register --------
 
     private static @NotNull Member getMember(String id) {
@@ -107,15 +147,9 @@ class MemberServiceTest {
     }
 
     @Test
-    void update_success_normalizesAndSaves_andNotifies() {
+    void update_success_singleFindAndModify_normalizesAndNotifies() {
         var id = "mid-1";
-        var existing = getMember(id);
-
-        var req = new UpdateMemberRequest("  virat  KOHLI ", " VIRAT@example.com ", "+919999999999", 35, " new delhi ", 1);
-
-        when(memberRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(memberRepository.existsByEmailAndIdNot("virat@example.com", id)).thenReturn(false);
-        when(memberRepository.existsByPhoneNumberAndIdNot("+919999999999", id)).thenReturn(false);
+        var req = new UpdateMemberRequest("  virat  KOHLI ", " VIRAT@example.com ", "+919999999999", 35, " new delhi ", 1L);
 
         var saved = new Member();
         saved.setId(id);
@@ -124,9 +158,13 @@ class MemberServiceTest {
         saved.setPhoneNumber("+919999999999");
         saved.setAge(35);
         saved.setPlace("new delhi");
+        saved.setVersion(2L);
         saved.setRegistrationDate(LocalDate.now());
 
-        when(memberRepository.save(any(Member.class))).thenReturn(saved);
+        var update = ArgumentCaptor.forClass(Update.class);
+        var query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Member.class)))
+                .thenReturn(saved);
 
         MemberResponseDTO dto = memberService.update(id, req);
 
@@ -134,93 +172,253 @@ class MemberServiceTest {
         assertThat(dto.name()).isEqualTo("Virat Kohli");
         assertThat(dto.email()).isEqualTo("virat@example.com");
         assertThat(dto.place()).isEqualTo("new delhi");
+        assertThat(dto.version()).isEqualTo(2L);
 
-        verify(emailService).notifyMemberUpdated(saved.getEmail(), saved.getName());
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", id).containsEntry("version", 1L);
+        var set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set).containsEntry("name", "Virat Kohli").containsEntry("email", "virat@example.com")
+                .containsEntry("place", "new delhi");
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class)).containsEntry("version", 1);
+
+        verify(memberRepository, never()).findById(any());
+        verify(memberRepository, never()).save(any());
+        verify(emailService).notifyMemberUpdated("virat@example.com", "Virat Kohli");
     }
 
     @Test
-    void update_conflict_email_precheck() {
+    void update_versionMismatch_throwsStale() {
         var id = "mid-1";
-        var existing = new Member();
-        existing.setId(id);
-        when(memberRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(memberRepository.existsByEmailAndIdNot("new@example.com", id)).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Member.class)))
+                .thenReturn(null);
+        when(memberRepository.existsByIdAndDeletedAtIsNull(id)).thenReturn(true);
 
-        var req = new UpdateMemberRequest("name", "new@example.com", "+919000000000", 20, "place", 1);
+        var req = new UpdateMemberRequest("name", "new@example.com", "+919000000000", 20, "place", 1L);
 
         assertThatThrownBy(() -> memberService.update(id, req))
-                .isInstanceOf(ConflictException.class)
-                .hasMessageContaining("Email already in use");
+                .isInstanceOf(StaleObjectException.class);
+        verify(emailService, never()).notifyMemberUpdated(anyString(), anyString());
+    }
 
-        verify(memberRepository, never()).save(any());
-        verify(emailService, never()).notifyMemberUpdated(req.email(), req.name());
+    @Test
+    void update_missingMember_throwsNotFound() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Member.class)))
+                .thenReturn(null);
+        when(memberRepository.existsByIdAndDeletedAtIsNull("nope")).thenReturn(false);
+
+        var req = new UpdateMemberRequest("name", "new@example.com", "+919000000000", 20, "place", 1L);
+
+        assertThatThrownBy(() -> memberService.update("nope", req))
+                .isInstanceOf(NotFoundException.class);
     }
 
     @Test
-    void update_conflict_phone_precheck() {
-        var id = "mid-1";
-        var existing = new Member();
-        existing.setId(id);
-        when(memberRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(memberRepository.existsByEmailAndIdNot("new@example.com", id)).thenReturn(false);
-        when(memberRepository.existsByPhoneNumberAndIdNot("+919000000000", id)).thenReturn(true);
+    void update_duplicateKey_mapsConflictFromKeyPattern() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Member.class)))
+                .thenThrow(mkDupCommandEx("phoneNumber"))
+                .thenThrow(mkDupCommandEx("email"));
 
-        var req = new UpdateMemberRequest("name", "new@example.com", "+919000000000", 20, "place", 1);
+        var req = new UpdateMemberRequest("name", "taken@example.com", "+919000000000", 20, "place", 1L);
 
-        assertThatThrownBy(() -> memberService.update(id, req))
+        assertThatThrownBy(() -> memberService.update("mid-1", req))
                 .isInstanceOf(ConflictException.class)
                 .hasMessageContaining("Phone already in use");
+        assertThatThrownBy(() -> memberService.update("mid-1", req))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("Email already in use");
+        verify(emailService, never()).notifyMemberUpdated(anyString(), anyString());
+    }
+
+    @Test
+    void update_duplicateKey_withoutKeyPattern_isGenericConflict() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Member.class)))
+                .thenThrow(new org.springframework.dao.DuplicateKeyException("dup", mkDupEx()));
+
+        var req = new UpdateMemberRequest("name", "taken@example.com", "+919000000000", 20, "place", 1L);
+
+        assertThatThrownBy(() -> memberService.update("mid-1", req))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("A unique constraint was violated");
+    }
+
+    @Test
+    void registerMember_async_insertsMemberWithPendingTask_andLeavesLoginToWorker() {
+        var req = new CreateMemberRequestDTO("Virat Kohli", "virat@example.com", "+919999999999", 35, "Delhi");
+        when(provisioningProperties.isAsync()).thenReturn(true);
+        when(memberRepository.save(any(Member.class))).thenAnswer(inv -> {
+            Member m = inv.getArgument(0);
+            m.setId("mid-1");
+            return m;
+        });
+
+        var result = memberService.registerMember(req);
+
+        assertThat(result.getProvisioning().getStatus()).isEqualTo(Provisioning.Status.PENDING);
+        assertThat(result.getProvisioning().getNextAttemptAt()).isNotNull();
+        verify(provisioningService).submit("mid-1");
+        verifyNoInteractions(encoder, userInfoRepository, emailService);
+    }
 
+    @Test
+    void registerMember_userInsertFails_withoutTransaction_removesMember() {
+        var req = new CreateMemberRequestDTO("Virat Kohli", "virat@example.com", "+919999999999", 35, "Delhi");
+        var saved = new Member();
+        saved.setId("mid-1");
+        when(memberRepository.save(any(Member.class))).thenReturn(saved);
+        when(encoder.encode(anyString())).thenReturn("ENC");
+        when(userInfoRepository.save(any(UserInfo.class)))
+                .thenThrow(new org.springframework.dao.DuplicateKeyException("dup userName"));
+
+        assertThatThrownBy(() -> memberService.registerMember(req))
+                .isInstanceOf(org.springframework.dao.DuplicateKeyException.class);
+
+        verify(memberRepository).deleteById("mid-1");
+        verifyNoInteractions(emailService);
+    }
+
+    // -------- patch --------
+
+    @Test
+    void patch_setsOnlyChangedFields_andBumpsVersion() {
+        var existing = getMember("mid-1");
+        existing.setVersion(3L);
+        when(memberRepository.findById("mid-1")).thenReturn(Optional.of(existing));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Member.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        var req = new MemberPatchRequest("  new   name ", null, "+919111111111", null, null, 3L);
+        var result = memberService.patch("mid-1", req);
+
+        var update = ArgumentCaptor.forClass(Update.class);
+        var query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Member.class));
+        var set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set.keySet()).containsExactlyInAnyOrder("name", "updatedAt");
+        assertThat(set.get("name")).isEqualTo("New Name");
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class).get("version")).isEqualTo(1);
+        assertThat(query.getValue().getQueryObject().get("version")).isEqualTo(3L);
+
+        assertThat(result.name()).isEqualTo("New Name");
+        assertThat(result.version()).isEqualTo(4L);
+        verify(emailService).notifyMemberUpdated("old@example.com", "New Name");
         verify(memberRepository, never()).save(any());
-        verify(emailService, never()).notifyMemberUpdated("new@example.com", "name");
     }
 
     @Test
-    void update_duplicateKey_email_fromMongo() {
-        var id = "mid-1";
-        var existing = new Member();
-        existing.setId(id);
-        when(memberRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(memberRepository.existsByEmailAndIdNot(anyString(), eq(id))).thenReturn(false);
-        when(memberRepository.existsByPhoneNumberAndIdNot(anyString(), eq(id))).thenReturn(false);
-        when(memberRepository.save(any(Member.class))).thenThrow(mkDupEx());
+    void patch_noChanges_writesNothing() {
+        var existing = getMember("mid-1");
+        when(memberRepository.findById("mid-1")).thenReturn(Optional.of(existing));
 
-        var req = new UpdateMemberRequest("name", "taken@example.com", "+919000000000", 20, "place", 1);
+        var req = new MemberPatchRequest(null, "OLD@example.com ", null, 30, null, 0L);
+        memberService.patch("mid-1", req);
 
-        assertThatThrownBy(() -> memberService.update(id, req))
+        verifyNoInteractions(mongoTemplate, emailService);
+    }
+
+    @Test
+    void patch_staleVersion_throwsBeforeWriting() {
+        var existing = getMember("mid-1");
+        existing.setVersion(5L);
+        when(memberRepository.findById("mid-1")).thenReturn(Optional.of(existing));
+
+        var req = new MemberPatchRequest("Other", null, null, null, null, 4L);
+
+        assertThatThrownBy(() -> memberService.patch("mid-1", req))
+                .isInstanceOf(StaleObjectException.class);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void applyPatch_concurrentWrite_throwsStale() {
+        var existing = getMember("mid-1");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Member.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThatThrownBy(() -> memberService.applyPatch(existing, new MemberPatch(null, null, null, 31, null)))
+                .isInstanceOf(StaleObjectException.class);
+        assertThat(existing.getAge()).isEqualTo(30);
+    }
+
+    @Test
+    void applyPatch_duplicateEmail_mapsConflict() {
+        var existing = getMember("mid-1");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Member.class)))
+                .thenThrow(mkDupCommandEx("email"));
+
+        assertThatThrownBy(() -> memberService.applyPatch(existing, new MemberPatch(null, "taken@example.com", null, null, null)))
                 .isInstanceOf(ConflictException.class)
-                .hasMessageContaining("A unique constraint was violated");
+                .hasMessageContaining("Email already in use");
     }
 
     // -------- delete --------
 
     @Test
-    void delete_success_unlinksUser_notifies_andDeletes() {
+    void delete_tombstonesMemberAndLogin_queuesMail() {
         var id = "mid-1";
-        var user = UserInfo.builder().id("u-1").memberId(id).userName("x").password("p")
-                .roles(Set.of("MEMBER")).mustChangePassword(true).build();
-
-        when(userInfoRepository.findByMemberId(id)).thenReturn(Optional.of(user));
         var member = getMember(id);
-        when(memberRepository.findById(id)).thenReturn(Optional.of(member));
+        var user = UserInfo.builder().id("u-1").memberId(id).userName("x").password("p").tokenVersion(3).build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Member.class)))
+                .thenReturn(member);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UserInfo.class)))
+                .thenReturn(user);
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(notificationQueue).enqueue(any());
 
         memberService.delete(id);
 
-        verify(userInfoRepository).deleteById("u-1");
+        var queryCaptor = ArgumentCaptor.forClass(Query.class);
+        var updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(queryCaptor.capture(), updateCaptor.capture(),
+                any(FindAndModifyOptions.class), eq(Member.class));
+        assertThat(queryCaptor.getValue().getQueryObject().get("deletedAt")).isEqualTo(new Document("$exists", false));
+        assertThat(updateCaptor.getValue().getUpdateObject().get("$set", Document.class)).containsOnlyKeys("deletedAt");
+        verify(tokenVersionService).remember("x", 3);
         verify(emailService).notifyMemberDeleted(member.getEmail(), member.getName());
-        verify(memberRepository).deleteById(id);
+        verify(memberRepository, never()).deleteById(anyString());
+        verify(userInfoRepository, never()).deleteById(anyString());
     }
 
     @Test
-    void delete_notFound_afterUnlink() {
+    void delete_notFound_leavesLoginAlone() {
         var id = "mid-404";
-        when(userInfoRepository.findByMemberId(id)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> memberService.delete(id))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Member not found");
 
-        verify(memberRepository, never()).deleteById(anyString());
-        verify(emailService, never()).notifyMemberDeleted(anyString(), anyString());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(UserInfo.class));
+        verify(notificationQueue, never()).enqueue(any());
+    }
+
+    @Test
+    void restore_clearsTombstones() {
+        var id = "mid-1";
+        var member = getMember(id);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Member.class)))
+                .thenReturn(member);
+
+        var restored = memberService.restore(id);
+
+        assertThat(restored.id()).isEqualTo(id);
+        verify(mongoTemplate).updateFirst(any(Query.class), eq(new Update().unset("deletedAt")), eq(UserInfo.class));
+    }
+
+    @Test
+    void restore_purgedOrLive_throwsNotFound() {
+        assertThatThrownBy(() -> memberService.restore("mid-1"))
+                .isInstanceOf(NotFoundException.class);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(UserInfo.class));
+    }
+
+    @Test
+    void getMemberInfo_tombstoned_throwsNotFound() {
+        var member = getMember("mid-1");
+        member.setDeletedAt(Instant.now());
+        when(memberRepository.findById("mid-1")).thenReturn(Optional.of(member));
+
+        assertThatThrownBy(() -> memberService.getMemberInfo("mid-1"))
+                .isInstanceOf(NotFoundException.class);
     }
 }
@@ -0,0 +1,77 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.MemberWriteRetryProperties;
+import com.quickstarts.kitchensink.exception.NotFoundException;
+import com.quickstarts.kitchensink.exception.StaleObjectException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberWriteExecutorTest {
+
+    private final MemberWriteRetryProperties props = new MemberWriteRetryProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MemberWriteExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        props.setMaxAttempts(3);
+        props.setInitialBackoff(Duration.ofMillis(1));
+        props.setMaxBackoff(Duration.ofMillis(2));
+        executor = new MemberWriteExecutor(props, registry);
+    }
+
+    private double count(final String name) {
+        return registry.counter(name, "operation", "op").count();
+    }
+
+    @Test
+    void execute_retriesConflictsUntilAnAttemptSucceeds() {
+        var attempts = new AtomicInteger();
+
+        var result = executor.execute("op", () -> {
+            if (attempts.incrementAndGet() < 3) throw new StaleObjectException("stale");
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+        assertThat(count("member.write.conflicts")).isEqualTo(2);
+        assertThat(count("member.write.retries")).isEqualTo(2);
+        assertThat(count("member.write.exhausted")).isZero();
+    }
+
+    @Test
+    void execute_givesUpAfterMaxAttempts() {
+        var attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.execute("op", () -> {
+            attempts.incrementAndGet();
+            throw new StaleObjectException("stale");
+        })).isInstanceOf(StaleObjectException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(count("member.write.conflicts")).isEqualTo(3);
+        assertThat(count("member.write.retries")).isEqualTo(2);
+        assertThat(count("member.write.exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void execute_doesNotRetryOtherFailures() {
+        var attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.execute("op", () -> {
+            attempts.incrementAndGet();
+            throw new NotFoundException("Member not found");
+        })).isInstanceOf(NotFoundException.class);
+
+        assertThat(attempts).hasValue(1);
+        assertThat(count("member.write.conflicts")).isZero();
+    }
+}
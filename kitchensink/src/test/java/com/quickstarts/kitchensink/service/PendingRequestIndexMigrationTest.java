@@ -0,0 +1,120 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+import static com.quickstarts.kitchensink.dto.enums.Status.SUPERSEDED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingRequestIndexMigrationTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-10T09:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ChangeRequestStatsService statsService;
+
+    @Mock
+    private IndexOperations indexOps;
+
+    private PendingRequestIndexMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration = new PendingRequestIndexMigration(mongoTemplate, statsService, Clock.fixed(NOW, ZoneOffset.UTC));
+        lenient().when(mongoTemplate.indexOps(MemberChangeRequest.class)).thenReturn(indexOps);
+    }
+
+    private void duplicates(final Document... members) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(MemberChangeRequest.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(members), new Document()));
+    }
+
+    private static MemberChangeRequest pending(final String id) {
+        return MemberChangeRequest.builder().id(id).memberId("m1").type(ChangeType.UPDATE).build();
+    }
+
+    @Test
+    void migrate_keepsTheNewestPendingRequest_supersedesTheRest_thenBuildsTheIndex() {
+        // ids come newest first
+        duplicates(new Document("_id", "m1").append("ids", List.of("r3", "r2", "r1")).append("count", 3));
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(List.of(pending("r2"), pending("r1")));
+
+        migration.migrate();
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        var update = ArgumentCaptor.forClass(Update.class);
+        var order = inOrder(mongoTemplate, indexOps);
+        order.verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(MemberChangeRequest.class));
+        order.verify(indexOps).createIndex(any(Index.class));
+        assertThat(query.getValue().getQueryObject().get("_id", Document.class).getList("$in", String.class))
+                .containsExactly("r2", "r1");
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("status", SUPERSEDED).containsEntry("reviewedAt", NOW);
+        var counted = listCaptor();
+        verify(statsService).reviewed(counted.capture(), eq(SUPERSEDED), isNull(), eq(NOW));
+        assertThat(counted.getValue()).extracting(MemberChangeRequest::getId).containsExactly("r2", "r1");
+    }
+
+    @Test
+    void migrate_noDuplicates_onlyBuildsTheIndex() {
+        duplicates();
+
+        migration.migrate();
+
+        var index = ArgumentCaptor.forClass(Index.class);
+        verify(indexOps).createIndex(index.capture());
+        var options = index.getValue().getIndexOptions();
+        assertThat(options).containsEntry("name", PendingRequestIndexMigration.INDEX).containsEntry("unique", true)
+                .containsEntry("partialFilterExpression", new Document("status", "PENDING"));
+        assertThat(index.getValue().getIndexKeys()).isEqualTo(new Document("memberId", 1));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(MemberChangeRequest.class));
+        verifyNoInteractions(statsService);
+    }
+
+    @Test
+    void migrate_duplicateWrittenDuringTheBuild_goesRoundAgain_thenGivesUp() {
+        duplicates();
+        doThrow(new DuplicateKeyException("E11000 pending_per_member")).when(indexOps).createIndex(any(Index.class));
+
+        assertThatThrownBy(migration::migrate).isInstanceOf(DuplicateKeyException.class);
+
+        verify(indexOps, times(3)).createIndex(any(Index.class));
+        verify(mongoTemplate, times(3)).aggregate(any(Aggregation.class), eq(MemberChangeRequest.class),
+                eq(Document.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Collection<MemberChangeRequest>> listCaptor() {
+        return ArgumentCaptor.forClass(Collection.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.dto.FieldChange;
+import com.quickstarts.kitchensink.dto.MemberSnapshot;
+import com.quickstarts.kitchensink.dto.MemberUpdateDTO;
+import com.quickstarts.kitchensink.dto.enums.ChangeType;
+import com.quickstarts.kitchensink.model.MemberChangeRequest;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingRequestQueueServiceTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private PendingRequestQueueService service;
+
+    private static MemberChangeRequest request(final int i) {
+        return MemberChangeRequest.builder()
+                .id("r" + i)
+                .memberEmail("m" + i + "@example.com")
+                .type(ChangeType.UPDATE)
+                .before(new MemberSnapshot("Member " + i, null, null, 0, null))
+                .submittedAt(T0.plusSeconds(i))
+                .build();
+    }
+
+    @Test
+    void firstPage_fetchesOneExtraRow_toDetectMore_andProjectsShownColumns() {
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class)))
+                .thenReturn(IntStream.range(0, 3).mapToObj(PendingRequestQueueServiceTest::request).toList());
+
+        var page = service.pending(null, 2);
+
+        assertThat(page.items()).extracting("id").containsExactly("r0", "r1");
+        assertThat(page.items().getFirst().memberName()).isEqualTo("Member 0");
+        assertThat(page.nextCursor()).isEqualTo(new PendingRequestQueueService.Cursor(T0.plusSeconds(1), "r1").encode());
+
+        var captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(MemberChangeRequest.class));
+        var query = captor.getValue();
+        assertThat(query.getLimit()).isEqualTo(3);
+        assertThat(query.getQueryObject()).containsOnlyKeys("status");
+        assertThat(query.getSortObject()).isEqualTo(new Document("submittedAt", 1).append("_id", 1));
+        assertThat(query.getFieldsObject())
+                .containsOnlyKeys("memberEmail", "before.name", "type", "submittedAt", "changes");
+    }
+
+    @Test
+    void nextPage_continuesAfterCursor_andLastPageHasNoCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of(request(2)));
+        var cursor = new PendingRequestQueueService.Cursor(T0.plusSeconds(1), "r1").encode();
+
+        var page = service.pending(cursor, 2);
+
+        assertThat(page.nextCursor()).isNull();
+        var captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(MemberChangeRequest.class));
+        var or = captor.getValue().getQueryObject().getList("$or", Document.class);
+        assertThat(or).containsExactly(
+                new Document("submittedAt", new Document("$gt", T0.plusSeconds(1))),
+                new Document("submittedAt", T0.plusSeconds(1)).append("_id", new Document("$gt", "r1")));
+    }
+
+    @Test
+    void backfillChanges_storesTheDiffOfOpenUpdatesThatLackIt() {
+        var old = request(1);
+        old.setRequested(new MemberUpdateDTO(null, null, null, 0, "Mumbai"));
+        when(mongoTemplate.find(any(Query.class), eq(MemberChangeRequest.class))).thenReturn(List.of(old));
+
+        service.backfillChanges();
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(MemberChangeRequest.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", "r1")
+                .containsEntry("changes", new Document("$exists", false));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("changes", Map.of("place", new FieldChange<>(null, "Mumbai")));
+    }
+
+    @Test
+    void invalidCursor_isBadRequest() {
+        assertThatThrownBy(() -> service.pending("not-a-cursor!", 10))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Invalid cursor");
+        verifyNoInteractions(mongoTemplate);
+    }
+}
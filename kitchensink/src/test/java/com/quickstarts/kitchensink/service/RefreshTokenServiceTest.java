@@ -0,0 +1,121 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.config.JwtProperties;
+import com.quickstarts.kitchensink.config.UserInfoUserDetails;
+import com.quickstarts.kitchensink.model.RefreshToken;
+import com.quickstarts.kitchensink.model.UserInfo;
+import com.quickstarts.kitchensink.repo.RefreshTokenRepository;
+import com.quickstarts.kitchensink.repo.UserInfoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserInfoRepository userInfoRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    private RefreshTokenService service;
+
+    private UserInfo user;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(mongoTemplate, refreshTokenRepository, userInfoRepository, jwtService, new JwtProperties());
+        user = UserInfo.builder().userName("alice@example.com").roles(Set.of("MEMBER")).tokenVersion(2).build();
+    }
+
+    @Test
+    void issue_StoresOnlyTheHashAndEmbedsRoles() {
+        when(jwtService.generateToken("alice@example.com", 2L, List.of("MEMBER"))).thenReturn("access");
+        when(jwtService.getAccessTokenTtlSeconds()).thenReturn(900L);
+
+        var response = service.issue(new UserInfoUserDetails(user));
+
+        var saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("access", response.accessToken());
+        assertEquals("Bearer", response.tokenType());
+        assertEquals(900L, response.expiresIn());
+        assertEquals(RefreshTokenService.hash(response.refreshToken()), saved.getValue().getTokenHash());
+        assertNotEquals(response.refreshToken(), saved.getValue().getTokenHash());
+        assertEquals(2L, saved.getValue().getTokenVersion());
+        assertNotNull(saved.getValue().getFamilyId());
+    }
+
+    @Test
+    void refresh_ValidToken_RotatesWithinTheSameFamily() {
+        var claimed = RefreshToken.builder().familyId("fam-1").userName("alice@example.com").tokenVersion(2).build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(RefreshToken.class))).thenReturn(claimed);
+        when(userInfoRepository.findByUserName("alice@example.com")).thenReturn(Optional.of(user));
+        when(jwtService.generateToken(eq("alice@example.com"), eq(2L), anyCollection())).thenReturn("access-2");
+
+        var response = service.refresh("old-token");
+
+        var saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("access-2", response.accessToken());
+        assertEquals("fam-1", saved.getValue().getFamilyId());
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(RefreshToken.class));
+    }
+
+    @Test
+    void refresh_ReusedToken_RevokesFamilyAndRejects() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(RefreshToken.class))).thenReturn(null);
+        var used = RefreshToken.builder().familyId("fam-1").userName("alice@example.com").usedAt(Instant.now()).build();
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("stolen"))).thenReturn(Optional.of(used));
+
+        var ex = assertThrows(ResponseStatusException.class, () -> service.refresh("stolen"));
+
+        assertEquals(401, ex.getStatusCode().value());
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(RefreshToken.class));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void refresh_AfterPasswordReset_Rejects() {
+        var claimed = RefreshToken.builder().familyId("fam-1").userName("alice@example.com").tokenVersion(1).build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(RefreshToken.class))).thenReturn(claimed);
+        when(userInfoRepository.findByUserName("alice@example.com")).thenReturn(Optional.of(user));
+
+        assertThrows(ResponseStatusException.class, () -> service.refresh("old-token"));
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(RefreshToken.class));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void logout_RevokesFamily() {
+        var token = RefreshToken.builder().familyId("fam-9").build();
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("rt"))).thenReturn(Optional.of(token));
+
+        service.logout("rt");
+
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(RefreshToken.class));
+    }
+}
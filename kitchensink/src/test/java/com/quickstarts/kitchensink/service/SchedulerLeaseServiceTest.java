@@ -0,0 +1,101 @@
+package com.quickstarts.kitchensink.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.quickstarts.kitchensink.model.SchedulerLease;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLeaseServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-10T09:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SchedulerLeaseService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SchedulerLeaseService(mongoTemplate, Clock.fixed(NOW, ZoneOffset.UTC), "node-a");
+    }
+
+    private static SchedulerLease held() {
+        return SchedulerLease.builder().id("job").owner("node-a").lockedUntil(NOW.plusSeconds(60)).build();
+    }
+
+    @Test
+    void acquire_freeLease_isTakenWithOneConditionalUpsert() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(SchedulerLease.class))).thenReturn(held());
+
+        assertThat(service.acquire("job", Duration.ofMinutes(5))).isPresent();
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        var update = ArgumentCaptor.forClass(Update.class);
+        var options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(),
+                eq(SchedulerLease.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", "job")
+                .containsEntry("lockedUntil", new Document("$lte", NOW));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("owner", "node-a").containsEntry("lockedUntil", NOW.plus(Duration.ofMinutes(5)));
+        assertThat(options.getValue().isUpsert()).isTrue();
+        assertThat(options.getValue().isReturnNew()).isTrue();
+    }
+
+    @Test
+    void acquire_heldByAnotherNode_isEmpty() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(SchedulerLease.class))).thenThrow(new DuplicateKeyException("E11000 _id"));
+
+        assertThat(service.acquire("job", Duration.ofMinutes(5))).isEmpty();
+    }
+
+    @Test
+    void checkpoint_writesOnlyWhileHeld() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(SchedulerLease.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null), UpdateResult.acknowledged(0, 0L, null));
+
+        assertThat(service.checkpoint(held(), NOW, "r9")).isTrue();
+        assertThat(service.checkpoint(held(), NOW, "r9")).isFalse();
+
+        var query = ArgumentCaptor.forClass(Query.class);
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(query.capture(), update.capture(), eq(SchedulerLease.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", "job").containsEntry("owner", "node-a");
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class))
+                .containsEntry("cursorAt", NOW).containsEntry("cursorId", "r9");
+    }
+
+    @Test
+    void release_keepsOtherNodesOffUntilHoldUntil_butNeverPastNow() {
+        service.release(held(), NOW.plusSeconds(900));
+        service.release(held(), NOW.minusSeconds(5));
+
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), update.capture(), eq(SchedulerLease.class));
+        assertThat(update.getAllValues()).extracting(u -> u.getUpdateObject().get("$set", Document.class)
+                .get("lockedUntil")).containsExactly(NOW.plusSeconds(900), NOW);
+    }
+}
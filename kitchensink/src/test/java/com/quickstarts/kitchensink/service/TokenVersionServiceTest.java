@@ -0,0 +1,70 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.model.UserInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private TokenVersionService service;
+
+    @Test
+    void unknownUser_acceptsAnyVersion() {
+        assertThat(service.isCurrent("nobody@example.com", 0L)).isTrue();
+    }
+
+    @Test
+    void bumpAndRemember_rejectsOlderTokens_caseInsensitive() {
+        var user = UserInfo.builder().userName("Alice@Example.com").tokenVersion(2).build();
+
+        service.bump(user);
+        service.remember(user.getUserName(), user.getTokenVersion());
+
+        assertThat(user.getTokenVersion()).isEqualTo(3L);
+        assertThat(user.getTokenVersionUpdatedAt()).isNotNull();
+        assertThat(service.isCurrent("alice@example.com", 2L)).isFalse();
+        assertThat(service.isCurrent("alice@example.com", 3L)).isTrue();
+    }
+
+    @Test
+    void refresh_appliesVersionsChangedOnOtherNodes() {
+        var changed = UserInfo.builder().userName("carol@example.com").tokenVersion(5)
+                .tokenVersionUpdatedAt(Instant.now()).build();
+        when(mongoTemplate.find(any(Query.class), eq(UserInfo.class))).thenReturn(List.of(changed));
+
+        service.refresh();
+
+        assertThat(service.isCurrent("carol@example.com", 4L)).isFalse();
+        assertThat(service.isCurrent("carol@example.com", 5L)).isTrue();
+    }
+
+    @Test
+    void refresh_neverLowersAKnownMinimum() {
+        service.remember("dave@example.com", 7L);
+        var stale = UserInfo.builder().userName("dave@example.com").tokenVersion(6)
+                .tokenVersionUpdatedAt(Instant.now()).build();
+        when(mongoTemplate.find(any(Query.class), eq(UserInfo.class))).thenReturn(List.of(stale));
+
+        service.refresh();
+
+        assertThat(service.isCurrent("dave@example.com", 6L)).isFalse();
+    }
+}
@@ -12,12 +12,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Set;
 
 import static java.util.stream.Collectors.toSet;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -75,4 +77,39 @@ class UserInfoUserDetailsServiceTest {
 
         verify(repository, times(1)).findByUserName(eq("missing@example.com"));
     }
+
+    @Test
+    @DisplayName("loadUserByUsername: a tombstoned login is treated as missing")
+    void loadUserByUsername_tombstoned() {
+        var user = UserInfo.builder()
+                .id("u-1")
+                .userName("gone@example.com")
+                .password("ENC-PASS")
+                .deletedAt(Instant.now())
+                .build();
+        when(repository.findByUserName("gone@example.com")).thenReturn(Optional.of(user));
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("gone@example.com"));
+    }
+
+    @Test
+    @DisplayName("updatePassword: stores the re-encoded hash and returns refreshed details")
+    void updatePassword_persistsUpgradedHash() {
+        // Arrange
+        var user = UserInfo.builder()
+                .id("u-1")
+                .userName("alice@example.com")
+                .password("$2a$10$legacy")
+                .roles(Set.of("MEMBER"))
+                .build();
+        when(repository.findByUserName("alice@example.com")).thenReturn(Optional.of(user));
+        when(repository.save(any(UserInfo.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        var details = service.updatePassword(new UserInfoUserDetails(user), "{bcrypt}$2a$12$upgraded");
+
+        // Assert
+        assertThat(details.getPassword()).isEqualTo("{bcrypt}$2a$12$upgraded");
+        verify(repository).save(user);
+    }
 }
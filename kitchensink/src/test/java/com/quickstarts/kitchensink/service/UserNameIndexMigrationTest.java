@@ -0,0 +1,102 @@
+package com.quickstarts.kitchensink.service;
+
+import com.quickstarts.kitchensink.model.UserInfo;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+
+@ExtendWith(MockitoExtension.class)
+class UserNameIndexMigrationTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOps;
+
+    private UserNameIndexMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        migration = new UserNameIndexMigration(mongoTemplate);
+        lenient().when(mongoTemplate.indexOps(UserInfo.class)).thenReturn(indexOps);
+        lenient().when(indexOps.getIndexInfo()).thenReturn(List.of());
+    }
+
+    private static AggregationResults<Document> shared(final Document... userNames) {
+        return new AggregationResults<>(List.of(userNames), new Document());
+    }
+
+    private static Document shared(final String userName) {
+        return new Document("_id", userName).append("count", 2).append("logins", List.of(
+                new Document("id", "u1").append("memberId", "m1"),
+                new Document("id", "u2").append("memberId", "m2")));
+    }
+
+    @Test
+    void migrate_indexAlreadyThere_skipsTheScan() {
+        when(indexOps.getIndexInfo()).thenReturn(List.of(new IndexInfo(
+                List.of(IndexField.create("userName", ASC)), UserNameIndexMigration.INDEX, true, false, "")));
+
+        migration.migrate();
+
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), eq(UserInfo.class), eq(Document.class));
+        verify(indexOps, never()).createIndex(any(Index.class));
+    }
+
+    @Test
+    void migrate_noSharedUserNames_buildsTheUniqueIndex() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(UserInfo.class), eq(Document.class)))
+                .thenReturn(shared());
+
+        migration.migrate();
+
+        var index = ArgumentCaptor.forClass(Index.class);
+        verify(indexOps).createIndex(index.capture());
+        assertThat(index.getValue().getIndexKeys()).isEqualTo(new Document("userName", 1));
+        assertThat(index.getValue().getIndexOptions()).containsEntry("name", "userName").containsEntry("unique", true);
+    }
+
+    @Test
+    void migrate_sharedUserNames_leavesTheIndexOut_andStarts() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(UserInfo.class), eq(Document.class)))
+                .thenReturn(shared(shared("a@example.com")));
+
+        migration.migrate();
+
+        verify(indexOps, never()).createIndex(any(Index.class));
+        verify(mongoTemplate, never()).remove(any(), eq(UserInfo.class));
+    }
+
+    @Test
+    void migrate_duplicateWrittenDuringTheBuild_doesNotFailStartup() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(UserInfo.class), eq(Document.class)))
+                .thenReturn(shared(), shared(shared("a@example.com")));
+        doThrow(new DuplicateKeyException("E11000 userName")).when(indexOps).createIndex(any(Index.class));
+
+        assertThatCode(migration::migrate).doesNotThrowAnyException();
+
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq(UserInfo.class), eq(Document.class));
+    }
+}
@@ -29,6 +29,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
     @InjectMocks
     private UserService userService;
 
@@ -94,6 +97,8 @@ class UserServiceTest {
         verify(userInfoRepository).findByUserName(username);
         verify(passwordEncoder).encode(newPassword);
         verify(userInfoRepository).save(userInfo);
+        verify(tokenVersionService).bump(userInfo);
+        verify(tokenVersionService).remember(userInfo.getUserName(), userInfo.getTokenVersion());
     }
 
     @Test